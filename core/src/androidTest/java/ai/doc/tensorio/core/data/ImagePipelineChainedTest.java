@@ -0,0 +1,123 @@
+/*
+ * ImagePipelineChainedTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the fused image pipeline against the chained Bitmap operations it replaces: rotating
+ * and cropping with `createBitmap`, resizing with `createScaledBitmap`, and then reading and
+ * normalizing the pixels as the converters used to.
+ */
+
+public class ImagePipelineChainedTest {
+
+    private static final int SOURCE_SIZE = 1024;
+    private static final int CROP_SIZE = 768;
+    private static final int LAYER_SIZE = 224;
+
+    /** Bilinear sampling may place samples slightly differently, so values may differ by a step or two */
+
+    private static final float EPSILON = 2.5f / 255.0f;
+
+    /** A smooth gradient, so that small differences in where samples fall change values very little */
+
+    private static Bitmap source() {
+        Bitmap bitmap = Bitmap.createBitmap(SOURCE_SIZE, SOURCE_SIZE, Bitmap.Config.ARGB_8888);
+        int[] row = new int[SOURCE_SIZE];
+
+        for (int y = 0; y < SOURCE_SIZE; y++) {
+            for (int x = 0; x < SOURCE_SIZE; x++) {
+                int r = x * 255 / (SOURCE_SIZE - 1);
+                int g = y * 255 / (SOURCE_SIZE - 1);
+                int b = (x + y) * 255 / (2 * (SOURCE_SIZE - 1));
+                row[x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+            bitmap.setPixels(row, 0, SOURCE_SIZE, 0, y, SOURCE_SIZE, 1);
+        }
+
+        return bitmap;
+    }
+
+    /** The chained path: an intermediate Bitmap for each step and a normalization pass at the end */
+
+    private static void chained(Bitmap bitmap, ByteBuffer buffer, float[] table, int[] pixels) {
+        Matrix matrix = new Matrix();
+        matrix.postRotate(90);
+
+        int offset = (SOURCE_SIZE - CROP_SIZE) / 2;
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0, SOURCE_SIZE, SOURCE_SIZE, matrix, true);
+        Bitmap cropped = Bitmap.createBitmap(rotated, offset, offset, CROP_SIZE, CROP_SIZE);
+        Bitmap scaled = Bitmap.createScaledBitmap(cropped, LAYER_SIZE, LAYER_SIZE, true);
+
+        scaled.getPixels(pixels, 0, LAYER_SIZE, 0, 0, LAYER_SIZE, LAYER_SIZE);
+        buffer.rewind();
+
+        for (int pixel : pixels) {
+            buffer.putFloat(table[(pixel >> 16) & 0xFF]);
+            buffer.putFloat(table[256 + ((pixel >> 8) & 0xFF)]);
+            buffer.putFloat(table[512 + (pixel & 0xFF)]);
+        }
+    }
+
+    @Test
+    public void testFusedPipelineMatchesChainedBitmaps() {
+        PixelBufferLayerDescription layer = new PixelBufferLayerDescription(
+                PixelFormat.RGB,
+                new ImageVolume(LAYER_SIZE, LAYER_SIZE, 3),
+                false,
+                PixelNormalizer.PixelNormalizerZeroToOne(),
+                null,
+                false);
+
+        int offset = (SOURCE_SIZE - CROP_SIZE) / 2;
+        ImagePipeline pipeline = new ImagePipeline.Builder(layer)
+                .rotate(90)
+                .crop(offset, offset, CROP_SIZE, CROP_SIZE)
+                .build();
+
+        Bitmap bitmap = source();
+        int length = LAYER_SIZE * LAYER_SIZE * 3;
+
+        ByteBuffer expected = ByteBuffer.allocateDirect(length * 4).order(ByteOrder.nativeOrder());
+        chained(bitmap, expected, layer.getNormalizationTable(), new int[LAYER_SIZE * LAYER_SIZE]);
+
+        ByteBuffer actual = ByteBuffer.allocateDirect(length * 4).order(ByteOrder.nativeOrder());
+        pipeline.process(new BitmapPixels(bitmap), actual, PixelResampler.Layout.Interleaved);
+
+        assertEquals(length * 4, actual.position());
+
+        for (int i = 0; i < length; i++) {
+            assertEquals("value " + i, expected.getFloat(i * 4), actual.getFloat(i * 4), EPSILON);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * PixelResamplerTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+import static org.junit.Assert.*;
+
+public class PixelResamplerTest {
+
+    private static PixelBufferLayerDescription layer(int width, int height, PixelFormat format, boolean quantized) {
+        return new PixelBufferLayerDescription(format, new ImageVolume(height, width, 3), false, null, null, quantized);
+    }
+
+    private static ByteBuffer buffer(int width, int height, boolean quantized) {
+        return ByteBuffer.allocateDirect(width * height * 3 * (quantized ? 1 : 4)).order(ByteOrder.nativeOrder());
+    }
+
+    private static Bitmap solid(int width, int height, int color) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                bitmap.setPixel(x, y, color);
+            }
+        }
+        return bitmap;
+    }
+
+    @Test
+    public void testSameSizeInterleaved() {
+        Bitmap bitmap = solid(2, 2, 0xFF102030);
+        ByteBuffer buffer = buffer(2, 2, false);
+
+        PixelResampler.resample(bitmap, buffer, layer(2, 2, PixelFormat.RGB, false), PixelResampler.Layout.Interleaved);
+
+        assertEquals(2 * 2 * 3 * 4, buffer.position());
+        assertEquals(0x10, buffer.getFloat(0), 0);
+        assertEquals(0x20, buffer.getFloat(4), 0);
+        assertEquals(0x30, buffer.getFloat(8), 0);
+    }
+
+    @Test
+    public void testPlanarBGR() {
+        Bitmap bitmap = solid(2, 2, 0xFF102030);
+        ByteBuffer buffer = buffer(2, 2, true);
+
+        PixelResampler.resample(bitmap, buffer, layer(2, 2, PixelFormat.BGR, true), PixelResampler.Layout.Planar);
+
+        assertEquals(0, buffer.position());
+        assertEquals(0x30, buffer.get(0));
+        assertEquals(0x20, buffer.get(4));
+        assertEquals(0x10, buffer.get(8));
+    }
+
+    @Test
+    public void testDownsamplesSolidColor() {
+        Bitmap bitmap = solid(64, 48, 0xFF804020);
+        ByteBuffer buffer = buffer(8, 8, true);
+
+        for (PixelResampler.Interpolation interpolation : PixelResampler.Interpolation.values()) {
+            PixelBufferLayerDescription description = layer(8, 8, PixelFormat.RGB, true);
+            description.setInterpolation(interpolation);
+
+            PixelResampler.resample(bitmap, buffer, description, PixelResampler.Layout.Interleaved);
+
+            for (int i = 0; i < 8 * 8; i++) {
+                assertEquals((byte) 0x80, buffer.get(i * 3));
+                assertEquals((byte) 0x40, buffer.get(i * 3 + 1));
+                assertEquals((byte) 0x20, buffer.get(i * 3 + 2));
+            }
+        }
+    }
+
+    @Test
+    public void testBilinearBlendsNeighbors() {
+        Bitmap bitmap = Bitmap.createBitmap(2, 1, Bitmap.Config.ARGB_8888);
+        bitmap.setPixel(0, 0, 0xFF000000);
+        bitmap.setPixel(1, 0, 0xFFFFFFFF);
+
+        ByteBuffer buffer = buffer(4, 1, false);
+        PixelResampler.resample(bitmap, buffer, layer(4, 1, PixelFormat.RGB, false), PixelResampler.Layout.Interleaved);
+
+        // Destination pixels sample the source at 0, 0.25, 0.75 and 1
+
+        assertEquals(0, buffer.getFloat(0), 0);
+        assertEquals(64, buffer.getFloat(12), 1);
+        assertEquals(191, buffer.getFloat(24), 1);
+        assertEquals(255, buffer.getFloat(36), 0);
+    }
+
+    @Test
+    public void testRegionCrop() {
+        Bitmap bitmap = solid(4, 4, 0xFF000000);
+        bitmap.setPixel(2, 1, 0xFF102030);
+        ByteBuffer buffer = buffer(1, 1, true);
+
+        BitmapRegion region = new BitmapRegion(bitmap, 2, 1, 1, 1);
+        PixelResampler.resample(region, buffer, layer(1, 1, PixelFormat.RGB, true), PixelResampler.Layout.Interleaved);
+
+        assertEquals(0x10, buffer.get(0));
+        assertEquals(0x20, buffer.get(1));
+        assertEquals(0x30, buffer.get(2));
+    }
+
+    @Test
+    public void testCenterCrop() {
+        // A 3x1 bitmap center cropped to a square layer keeps only the middle pixel
+
+        Bitmap bitmap = solid(3, 1, 0xFF000000);
+        bitmap.setPixel(1, 0, 0xFF102030);
+        ByteBuffer buffer = buffer(1, 1, true);
+
+        BitmapRegion region = new BitmapRegion(bitmap, BitmapRegion.Fit.CenterCrop);
+        PixelResampler.resample(region, buffer, layer(1, 1, PixelFormat.RGB, true), PixelResampler.Layout.Interleaved);
+
+        assertEquals(0x10, buffer.get(0));
+        assertEquals(0x20, buffer.get(1));
+        assertEquals(0x30, buffer.get(2));
+    }
+
+    @Test
+    public void testLetterbox() {
+        // A 1x1 bitmap letterboxed into a 3x1 layer fills the left and right columns
+
+        Bitmap bitmap = solid(1, 1, 0xFF102030);
+        ByteBuffer buffer = buffer(3, 1, true);
+
+        BitmapRegion region = new BitmapRegion(bitmap, 0, 0, 1, 1, BitmapRegion.Fit.Letterbox, 0xFF050505);
+        PixelResampler.resample(region, buffer, layer(3, 1, PixelFormat.RGB, true), PixelResampler.Layout.Interleaved);
+
+        assertEquals(0x05, buffer.get(0));
+        assertEquals(0x10, buffer.get(3));
+        assertEquals(0x20, buffer.get(4));
+        assertEquals(0x30, buffer.get(5));
+        assertEquals(0x05, buffer.get(8));
+    }
+
+    @Test
+    public void testLetterboxRows() {
+        // A 2x1 bitmap letterboxed into a 2x4 layer fills the top and bottom rows
+
+        Bitmap bitmap = solid(2, 1, 0xFF102030);
+        ByteBuffer buffer = buffer(2, 4, true);
+
+        BitmapRegion region = new BitmapRegion(bitmap, 0, 0, 2, 1, BitmapRegion.Fit.Letterbox, 0xFF000000);
+        PixelResampler.resample(region, buffer, layer(2, 4, PixelFormat.RGB, true), PixelResampler.Layout.Interleaved);
+
+        assertEquals(0x00, buffer.get(0));
+        assertEquals(0x10, buffer.get(2 * 3 * 1));
+        assertEquals(0x10, buffer.get(2 * 3 * 1 + 3));
+        assertEquals(0x00, buffer.get(2 * 3 * 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegionOutOfBounds() {
+        new BitmapRegion(solid(2, 2, 0xFF000000), 1, 1, 2, 2);
+    }
+}
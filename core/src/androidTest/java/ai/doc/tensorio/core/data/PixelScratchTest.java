@@ -0,0 +1,55 @@
+/*
+ * PixelScratchTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PixelScratchTest {
+
+    @Test
+    public void testCopyToBitmap() {
+        PixelScratch scratch = new PixelScratch();
+        Bitmap bitmap = Bitmap.createBitmap(2, 1, Bitmap.Config.ARGB_8888);
+
+        int[] pixels = scratch.pixels(2);
+        pixels[0] = 0xFF102030;
+        pixels[1] = 0xFF405060;
+
+        assertSame(bitmap, scratch.copyTo(bitmap, 2, 1));
+        assertEquals(0xFF102030, bitmap.getPixel(0, 0));
+        assertEquals(0xFF405060, bitmap.getPixel(1, 0));
+    }
+
+    @Test
+    public void testPixelsAreReused() {
+        PixelScratch scratch = new PixelScratch();
+
+        int[] small = scratch.pixels(4);
+        assertSame(small, scratch.pixels(2));
+
+        int[] large = scratch.pixels(8);
+        assertNotSame(small, large);
+        assertTrue(large.length >= 8);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * ARGBArrayPixels.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A pixel source and sink backed by an int[] of ARGB pixels, the format of `Bitmap.getPixels`.
+ * Pixels are read and written in place. The image may start at an offset into the array and its
+ * rows may be padded, in which case the row stride is the distance in ints between rows.
+ */
+
+public class ARGBArrayPixels implements PixelSource, PixelSink {
+
+    private final @NonNull int[] pixels;
+    private final int offset;
+    private final int rowStride;
+    private final int width;
+    private final int height;
+
+    /**
+     * An image of tightly packed rows starting at the beginning of the array
+     *
+     * @param pixels ARGB pixels
+     * @param width The width of the image
+     * @param height The height of the image
+     * @throws IllegalArgumentException If the array is too short for the image
+     */
+
+    public ARGBArrayPixels(@NonNull int[] pixels, int width, int height) throws IllegalArgumentException {
+        this(pixels, 0, width, width, height);
+    }
+
+    /**
+     * An image starting at an offset into the array with a row stride
+     *
+     * @param pixels ARGB pixels
+     * @param offset The index of the image's first pixel
+     * @param rowStride The distance in ints between the starts of rows, at least the width
+     * @param width The width of the image
+     * @param height The height of the image
+     * @throws IllegalArgumentException If the image is empty, the row stride is smaller than the
+     * width, or the array is too short for the image
+     */
+
+    public ARGBArrayPixels(@NonNull int[] pixels, int offset, int rowStride, int width, int height) throws IllegalArgumentException {
+        if (width <= 0 || height <= 0 || rowStride < width || offset < 0) {
+            throw BadLayoutException(offset, rowStride, width, height);
+        }
+        if (offset + (long) rowStride * (height - 1) + width > pixels.length) {
+            throw BadLengthException(pixels.length, width, height);
+        }
+
+        this.pixels = pixels;
+        this.offset = offset;
+        this.rowStride = rowStride;
+        this.width = width;
+        this.height = height;
+    }
+
+    //region Getters
+
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getRowStride() {
+        return rowStride;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    //endRegion
+
+    @Override
+    public void getPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(this.pixels, this.offset + (y + row) * rowStride + x, pixels, offset + row * width, width);
+        }
+    }
+
+    @Override
+    public void setPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(pixels, offset + row * width, this.pixels, this.offset + (y + row) * rowStride + x, width);
+        }
+    }
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadLayoutException(int offset, int rowStride, int width, int height) {
+        return new IllegalArgumentException("Bad pixel layout, received a " + width + "x" + height + " image at offset " + offset + " with row stride " + rowStride);
+    }
+
+    private static IllegalArgumentException BadLengthException(int length, int width, int height) {
+        return new IllegalArgumentException("The pixel array is too short for a " + width + "x" + height + " image, received " + length + " pixels");
+    }
+
+    //endRegion
+}
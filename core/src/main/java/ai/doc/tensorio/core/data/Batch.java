@@ -21,30 +21,493 @@
 package ai.doc.tensorio.core.data;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+/**
+ * A batch of items, each of which maps the batch's keys to values, for example the inputs to a
+ * model or a set of training examples.
+ *
+ * Think of a batch as a matrix whose rows are any single item and whose columns are named. Values
+ * are stored by column: a column of float[], int[], long[], or byte[] values of the same length is
+ * kept in a single contiguous primitive array, one item after another, while any other column
+ * holds its objects in a list. Values are copied into a batch when an item is added to it, so the
+ * arrays in an item may be reused once the item has been added.
+ *
+ * Backends read whole columns with `column(key)`, writing primitive columns into a tensor with a
+ * single bulk copy, see `Column.writeTo`. Use `row(i)` or `Column.view(i)` to read a single item
+ * without copying it. `get(i)` and `valuesForKey(key)` return copies of the values and are kept
+ * for compatibility.
+ *
+ * Batches may be reused: `clear()` removes every item but keeps the columns' storage. When the
+ * batch is created from a model's layers, vector columns are sized from each layer's length and
+ * data type up front, so filling a batch of the given capacity allocates nothing.
+ */
+
 public final class Batch extends AbstractList<Batch.Item> {
 
     /** A batch item is just a map of keys to values */
 
     public static class Item extends HashMap<String, Object> { }
 
+    /**
+     * The values for a single key, effectively a column of data.
+     *
+     * A column holding primitive arrays of the same length keeps them in one contiguous array of
+     * `size() * getLength()` values, one item after another. A column whose type is not known in
+     * advance takes its type and length from the first value added to it. If a value that doesn't
+     * match is added later, the column falls back to holding objects.
+     */
+
+    public final class Column {
+
+        private final @NonNull String key;
+
+        /** The type of a primitive column's values, null for columns of objects and empty columns of unknown type */
+
+        private @Nullable DataType dtype;
+
+        /** The number of values per item in a primitive column */
+
+        private int length;
+
+        /** The number of items a primitive column has room for */
+
+        private int capacity;
+
+        // The storage of a primitive column, only the array matching the type is used
+
+        private @Nullable float[] floats;
+        private @Nullable int[] ints;
+        private @Nullable long[] longs;
+        private @Nullable byte[] bytes;
+
+        /** The values of a column of objects, null for primitive columns */
+
+        private @Nullable List<Object> objects;
+
+        private Column(@NonNull String key) {
+            this.key = key;
+        }
+
+        private Column(@NonNull String key, @NonNull DataType dtype, int length, int capacity) {
+            this.key = key;
+            allocate(dtype, length, capacity);
+        }
+
+        // Public Getters
+
+        public String getKey() {
+            return key;
+        }
+
+        /** The type of a primitive column's values, or null if the column holds objects */
+
+        public @Nullable DataType getDtype() {
+            return dtype;
+        }
+
+        /** Returns true if the column stores its values in a contiguous primitive array */
+
+        public boolean isPrimitive() {
+            return dtype != null;
+        }
+
+        /** The number of values per item in a primitive column, zero for a column of objects */
+
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * The backing array of a column of float[] values, holding `size() * getLength()` values
+         * one item after another, or null if the column holds another type. The array may be
+         * longer than the values it holds and is replaced when the column grows.
+         */
+
+        public @Nullable float[] getFloats() {
+            return floats;
+        }
+
+        /** The backing array of a column of int[] values, see `getFloats()` */
+
+        public @Nullable int[] getInts() {
+            return ints;
+        }
+
+        /** The backing array of a column of long[] values, see `getFloats()` */
+
+        public @Nullable long[] getLongs() {
+            return longs;
+        }
+
+        /** The backing array of a column of byte[] values, see `getFloats()` */
+
+        public @Nullable byte[] getBytes() {
+            return bytes;
+        }
+
+        // Item Access
+
+        /**
+         * Returns the value for an item. Values in a primitive column are copied into a new array,
+         * prefer `view(int)` to read them without copying.
+         */
+
+        public Object get(int index) {
+            checkIndex(index);
+
+            if (objects != null) {
+                return objects.get(index);
+            }
+
+            int from = index * length;
+            int to = from + length;
+
+            switch (Objects.requireNonNull(dtype)) {
+                case Float32:
+                    return Arrays.copyOfRange(floats, from, to);
+                case Int32:
+                    return Arrays.copyOfRange(ints, from, to);
+                case Int64:
+                    return Arrays.copyOfRange(longs, from, to);
+                default:
+                    return Arrays.copyOfRange(bytes, from, to);
+            }
+        }
+
+        /**
+         * Returns a view of the value for an item without copying it. Values in a primitive column
+         * are returned as a FloatBuffer, IntBuffer, LongBuffer, or ByteBuffer over the item's region
+         * of the column, and changes to the view are visible to the batch. Values in a column of
+         * objects are returned as they are.
+         */
+
+        public Object view(int index) {
+            checkIndex(index);
+
+            if (objects != null) {
+                return objects.get(index);
+            }
+
+            int offset = index * length;
+
+            switch (Objects.requireNonNull(dtype)) {
+                case Float32:
+                    return FloatBuffer.wrap(floats, offset, length).slice();
+                case Int32:
+                    return IntBuffer.wrap(ints, offset, length).slice();
+                case Int64:
+                    return LongBuffer.wrap(longs, offset, length).slice();
+                default:
+                    return ByteBuffer.wrap(bytes, offset, length).slice();
+            }
+        }
+
+        /**
+         * Writes every item in a primitive column into a buffer for a vector layer with a single
+         * bulk copy, one item after another, in the buffer's byte order. float[] values are
+         * quantized if the layer is quantized. The values are written at the buffer's position,
+         * which is not changed.
+         *
+         * @param buffer The buffer to write the items to, with room for every item
+         * @param layer The layer the buffer will be used with
+         * @return true if the column was written, or false if the column holds objects, the layer
+         * is not a vector layer of the column's length, or the column's type does not match the
+         * layer's dtype and quantization, in which case the caller should encode each item in turn
+         */
+
+        public boolean writeTo(@NonNull ByteBuffer buffer, @NonNull LayerInterface layer) {
+            VectorLayerDescription description = layer.mapCase(
+                    (vectorLayer) -> vectorLayer,
+                    (pixelLayer) -> null,
+                    (stringLayer) -> null,
+                    (scalarLayer) -> null);
+
+            if (dtype == null || description == null || description.getLength() != length || !matches(description)) {
+                return false;
+            }
+
+            int total = count * length;
+            ByteBuffer target = buffer.duplicate().order(buffer.order());
+
+            switch (dtype) {
+                case Float32:
+                    if (description.isQuantized()) {
+                        description.getQuantizer().quantize(floats, 0, total, target);
+                    } else {
+                        target.asFloatBuffer().put(floats, 0, total);
+                    }
+                    return true;
+                case Int32:
+                    target.asIntBuffer().put(ints, 0, total);
+                    return true;
+                case Int64:
+                    target.asLongBuffer().put(longs, 0, total);
+                    return true;
+                default:
+                    target.put(bytes, 0, total);
+                    return true;
+            }
+        }
+
+        // Private Methods
+
+        /**
+         * True if the column's values can be written as they are to a vector layer: float[] values
+         * to a float32 layer or to a quantized layer with a quantizer, int[] and long[] values to
+         * an unquantized layer of the same dtype, and byte[] values to a quantized or uint8 layer.
+         */
+
+        private boolean matches(@NonNull VectorLayerDescription description) {
+            DataType layerType = description.getDtype();
+            boolean quantized = description.isQuantized();
+
+            switch (dtype) {
+                case Float32:
+                    if (quantized) {
+                        return description.getQuantizer() != null && layerType != DataType.Int32 && layerType != DataType.Int64;
+                    } else {
+                        return layerType == null || layerType == DataType.Float32;
+                    }
+                case Int32:
+                    return !quantized && layerType == DataType.Int32;
+                case Int64:
+                    return !quantized && layerType == DataType.Int64;
+                default:
+                    return quantized || layerType == DataType.UInt8;
+            }
+        }
+
+        /** Appends a value for the item at index `count` */
+
+        private void add(@Nullable Object value) {
+            if (objects != null) {
+                objects.add(value);
+                return;
+            }
+
+            DataType type = primitiveType(value);
+
+            if (dtype == null) {
+                if (type == null) {
+                    objects = new ArrayList<>(Math.max(capacity, 10));
+                    objects.add(value);
+                    return;
+                }
+                allocate(type, primitiveLength(value), Math.max(capacity, 1));
+            } else if (type != dtype || primitiveLength(value) != length) {
+                demote();
+                Objects.requireNonNull(objects).add(value);
+                return;
+            }
+
+            ensureCapacity(count + 1);
+            System.arraycopy(value, 0, storage(), count * length, length);
+        }
+
+        /** Appends a copy of another column's value for the item at index `count` */
+
+        private void addFrom(@NonNull Column source, int index) {
+            source.checkIndex(index);
+
+            if (objects == null && source.dtype != null && (dtype == null || (dtype == source.dtype && length == source.length))) {
+                if (dtype == null) {
+                    allocate(source.dtype, source.length, Math.max(capacity, 1));
+                }
+
+                ensureCapacity(count + 1);
+                System.arraycopy(source.storage(), index * length, storage(), count * length, length);
+                return;
+            }
+
+            add(source.get(index));
+        }
+
+        private void allocate(@NonNull DataType dtype, int length, int capacity) {
+            this.dtype = dtype;
+            this.length = length;
+            this.capacity = capacity;
+
+            switch (dtype) {
+                case Float32:
+                    floats = new float[capacity * length];
+                    break;
+                case Int32:
+                    ints = new int[capacity * length];
+                    break;
+                case Int64:
+                    longs = new long[capacity * length];
+                    break;
+                default:
+                    bytes = new byte[capacity * length];
+                    break;
+            }
+        }
+
+        /** Grows a primitive column's storage to hold at least the number of items, doubling its capacity */
+
+        private void ensureCapacity(int items) {
+            if (items <= capacity) {
+                return;
+            }
+
+            capacity = Math.max(items, capacity * 2);
+            int size = capacity * length;
+
+            switch (Objects.requireNonNull(dtype)) {
+                case Float32:
+                    floats = Arrays.copyOf(floats, size);
+                    break;
+                case Int32:
+                    ints = Arrays.copyOf(ints, size);
+                    break;
+                case Int64:
+                    longs = Arrays.copyOf(longs, size);
+                    break;
+                default:
+                    bytes = Arrays.copyOf(bytes, size);
+                    break;
+            }
+        }
+
+        /** Converts a primitive column to a column of objects, copying each item's values into its own array */
+
+        private void demote() {
+            List<Object> values = new ArrayList<>(Math.max(count * 2, 10));
+
+            for (int i = 0; i < count; i++) {
+                values.add(get(i));
+            }
+
+            dtype = null;
+            length = 0;
+            capacity = 0;
+            floats = null;
+            ints = null;
+            longs = null;
+            bytes = null;
+            objects = values;
+        }
+
+        /** Removes every value, keeping a primitive column's storage */
+
+        private void clear() {
+            if (objects != null) {
+                objects.clear();
+            }
+        }
+
+        private Object storage() {
+            switch (Objects.requireNonNull(dtype)) {
+                case Float32:
+                    return floats;
+                case Int32:
+                    return ints;
+                case Int64:
+                    return longs;
+                default:
+                    return bytes;
+            }
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for a batch of " + count + " items");
+            }
+        }
+    }
+
+    /** A view of a single item that reads its values from the batch's columns without copying them */
+
+    private final class Row extends AbstractMap<String, Object> {
+        private final int index;
+
+        private Row(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return columns.containsKey(key);
+        }
+
+        @Override
+        public Object get(@Nullable Object key) {
+            Column column = columns.get(key);
+            return column == null ? null : column.view(index);
+        }
+
+        @Override
+        public @NonNull Set<Map.Entry<String, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public @NonNull Iterator<Map.Entry<String, Object>> iterator() {
+                    return new Iterator<Map.Entry<String, Object>>() {
+                        private int i = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < keys.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Object> next() {
+                            if (i >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+
+                            Column column = orderedColumns[i++];
+                            return new AbstractMap.SimpleImmutableEntry<>(column.getKey(), column.view(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+
     /** The internal representation of items */
 
-    // Internally items are managed as a collection of named arrays of data. Think of the collection
-    // as a matrix whose rows are any single item and whose columns are named. Values are accessed
-    // by row index (get) or by column name (valuesForKey).
+    // Internally items are managed as a collection of named columns of data. Think of the
+    // collection as a matrix whose rows are any single item and whose columns are named. Values
+    // are accessed by row index (get, row) or by column name (column, valuesForKey).
+
+    private final Map<String, Column> columns = new HashMap<>();
+
+    /** The columns ordered like the keys */
 
-    private Map<String, List<Object>> items;
+    private Column[] orderedColumns;
 
     // Private Properties
 
@@ -67,6 +530,7 @@ public final class Batch extends AbstractList<Batch.Item> {
     public Batch(@NonNull String[] keys) {
         this.keys = keys;
         this.keyset = new HashSet<String>(Arrays.asList(this.keys));
+        createColumns(null, 0);
     }
 
     /** Instantiates a batch with items. The items must have the same keys */
@@ -75,6 +539,7 @@ public final class Batch extends AbstractList<Batch.Item> {
         Set<String> keys = items[0].keySet();
         this.keys = (String[]) keys.toArray(new String[0]);
         this.keyset = new HashSet<String>(Arrays.asList(this.keys));
+        createColumns(null, items.length);
         for (Item item : items) {
             add(item);
         }
@@ -86,9 +551,29 @@ public final class Batch extends AbstractList<Batch.Item> {
         Set<String> keys = item.keySet();
         this.keys = (String[]) keys.toArray(new String[0]);
         this.keyset = new HashSet<String>(Arrays.asList(this.keys));
+        createColumns(null, 1);
         add(item);
     }
 
+    /**
+     * Instantiates a batch keyed by the names of a model's layers, typically its inputs, with room
+     * for `capacity` items. The column for a vector layer is allocated up front from the layer's
+     * length and data type, so that it expects float[] values, or int[], long[], or byte[] values
+     * for int32, int64, and quantized layers without a quantizer.
+     *
+     * @param layers The layers whose names are the batch keys
+     * @param capacity The number of items to allocate room for
+     */
+
+    public Batch(@NonNull List<LayerInterface> layers, int capacity) {
+        this.keys = new String[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            this.keys[i] = layers.get(i).getName();
+        }
+        this.keyset = new HashSet<String>(Arrays.asList(this.keys));
+        createColumns(layers, Math.max(capacity, 0));
+    }
+
     // Public Getters and Setters
 
     /** Returns the item count, use size() */
@@ -118,39 +603,111 @@ public final class Batch extends AbstractList<Batch.Item> {
         return count;
     }
 
-    /** Retrieves the item at index i in the batch */
+    /**
+     * Retrieves the item at index i in the batch. The item's values are copies, use `row(i)` to
+     * read them without copying.
+     */
 
     @Override
     public Item get(int i) {
         Batch.Item item  = new Batch.Item();
 
-        for (String key : keys) {
-            item.put(key, Objects.requireNonNull(items.get(key)).get(i));
+        for (Column column : orderedColumns) {
+            item.put(column.getKey(), column.get(i));
         }
 
         return item;
     }
 
+    /** Removes every item from the batch, keeping the storage of its columns for reuse */
+
+    @Override
+    public void clear() {
+        for (Column column : orderedColumns) {
+            column.clear();
+        }
+
+        count = 0;
+        modCount++;
+    }
+
     // Additional Methods
 
     /** Adds an item to the batch. It must have the same keys that the batch was instantiated with */
 
     public boolean add(Item item) throws IllegalArgumentException {
-        validateKeys(item);
-        createItemsMap();
+        validateKeys(item.keySet());
+
+        for (Column column : orderedColumns) {
+            column.add(item.get(column.getKey()));
+        }
+
         count++;
+        modCount++;
 
-        for (Map.Entry<String, Object> entry : item.entrySet()) {
-            Objects.requireNonNull(items.get(entry.getKey())).add(entry.getValue());
+        return true;
+    }
+
+    /**
+     * Adds a copy of an item in another batch, copying its values directly from column to column.
+     * The other batch must have the same keys as this batch.
+     */
+
+    public boolean add(@NonNull Batch batch, int index) throws IllegalArgumentException {
+        validateKeys(batch.getKeyset());
+
+        // Check the index before any column is changed
+
+        if (index < 0 || index >= batch.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for a batch of " + batch.size() + " items");
+        }
+
+        for (Column column : orderedColumns) {
+            column.addFrom(batch.column(column.getKey()), index);
         }
 
+        count++;
+        modCount++;
+
         return true;
     }
 
-    /** Returns all the value for a particular key, effectively a column of data */
+    /** Returns a view of the item at index i that reads its values from the batch without copying them, see `Column.view` */
+
+    public Map<String, Object> row(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index " + i + " is out of bounds for a batch of " + count + " items");
+        }
+
+        return new Row(i);
+    }
+
+    /** Returns the column of data for a particular key */
+
+    public Column column(@NonNull String key) throws IllegalArgumentException {
+        Column column = columns.get(key);
+
+        if (column == null) {
+            throw new IllegalArgumentException("The batch has no key " + key);
+        }
+
+        return column;
+    }
+
+    /**
+     * Returns all the value for a particular key, effectively a column of data. The values are
+     * copies, use `column(key)` to read them without copying.
+     */
 
     public Object[] valuesForKey(String key) {
-        return Objects.requireNonNull(items.get(key)).toArray(new Object[0]);
+        Column column = Objects.requireNonNull(columns.get(key));
+        Object[] values = new Object[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = column.get(i);
+        }
+
+        return values;
     }
 
     /** Convenience method that calls valuesForKey */
@@ -159,25 +716,76 @@ public final class Batch extends AbstractList<Batch.Item> {
         return valuesForKey(name);
     }
 
-    /** Instantiates the item map */
+    /** Instantiates the columns, allocating vector layers' columns up front when layers are provided */
 
-    private void createItemsMap() {
-        if (items != null) {
-            return;
-        }
+    private void createColumns(@Nullable List<LayerInterface> layers, int capacity) {
+        orderedColumns = new Column[keys.length];
 
-        items = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            Column column = layers == null ? null : layers.get(i).mapCase(
+                    (vectorLayer) -> new Column(key, columnType(vectorLayer), vectorLayer.getLength(), capacity),
+                    (pixelLayer) -> null,
+                    (stringLayer) -> null,
+                    (scalarLayer) -> null);
 
-        for (String key : keys) {
-            items.put(key, new ArrayList<Object>());
+            if (column == null) {
+                column = new Column(key);
+                column.capacity = capacity;
+            }
+
+            orderedColumns[i] = column;
+            columns.put(key, column);
         }
     }
 
     /** Validates that the item's keys match the keys contained in the batch */
 
-    private void validateKeys(Item item) throws IllegalArgumentException {
-        if (!keyset.equals(item.keySet())) {
+    private void validateKeys(Set<String> keys) throws IllegalArgumentException {
+        if (!keyset.equals(keys)) {
             throw new IllegalArgumentException("Keys in item do not match batch keys");
         }
     }
+
+    /** The type of values a vector layer expects */
+
+    private static DataType columnType(@NonNull VectorLayerDescription description) {
+        if (description.isQuantized() && description.getQuantizer() == null) {
+            return DataType.UInt8;
+        } else if (description.getDtype() == DataType.Int32) {
+            return DataType.Int32;
+        } else if (description.getDtype() == DataType.Int64) {
+            return DataType.Int64;
+        } else {
+            return DataType.Float32;
+        }
+    }
+
+    /** The type of a primitive array value, or null if the value is not a primitive array */
+
+    private static @Nullable DataType primitiveType(@Nullable Object value) {
+        if (value instanceof float[]) {
+            return DataType.Float32;
+        } else if (value instanceof int[]) {
+            return DataType.Int32;
+        } else if (value instanceof long[]) {
+            return DataType.Int64;
+        } else if (value instanceof byte[]) {
+            return DataType.UInt8;
+        } else {
+            return null;
+        }
+    }
+
+    private static int primitiveLength(@NonNull Object value) {
+        if (value instanceof float[]) {
+            return ((float[]) value).length;
+        } else if (value instanceof int[]) {
+            return ((int[]) value).length;
+        } else if (value instanceof long[]) {
+            return ((long[]) value).length;
+        } else {
+            return ((byte[]) value).length;
+        }
+    }
 }
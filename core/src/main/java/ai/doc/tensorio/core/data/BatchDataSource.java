@@ -20,6 +20,8 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
 public interface BatchDataSource {
 
     /** The batch keys */
@@ -37,4 +39,13 @@ public interface BatchDataSource {
 
     Batch.Item get(int i);
 
+    /**
+     * Adds the item at index i to a batch. Data sources backed by a batch override this to copy
+     * the item's values straight into the batch's columns without creating an item.
+     */
+
+    default void addTo(@NonNull Batch batch, int i) {
+        batch.add(get(i));
+    }
+
 }
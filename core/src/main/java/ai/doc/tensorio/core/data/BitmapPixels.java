@@ -0,0 +1,61 @@
+/*
+ * BitmapPixels.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A pixel source and sink backed by a Bitmap. Writing to the sink requires a mutable Bitmap.
+ */
+
+public class BitmapPixels implements PixelSource, PixelSink {
+
+    private final @NonNull Bitmap bitmap;
+
+    public BitmapPixels(@NonNull Bitmap bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    @Override
+    public int getWidth() {
+        return bitmap.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return bitmap.getHeight();
+    }
+
+    @Override
+    public void getPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height) {
+        bitmap.getPixels(pixels, offset, width, x, y, width, height);
+    }
+
+    @Override
+    public void setPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height) {
+        bitmap.setPixels(pixels, offset, width, x, y, width, height);
+    }
+}
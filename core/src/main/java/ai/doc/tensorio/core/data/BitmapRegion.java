@@ -0,0 +1,190 @@
+/*
+ * BitmapRegion.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * An input for pixel buffer layers that reads a region of interest from a source Bitmap, for
+ * example a box found by a detector, without cropping it into a new Bitmap first. The backends'
+ * converters sample the region directly into the layer's input buffer.
+ *
+ * The region is fitted to the layer's shape in one of three ways. By default it is stretched to
+ * fill the layer. With `Fit.CenterCrop` the center of the region with the layer's aspect ratio is
+ * used. With `Fit.Letterbox` the whole region is scaled to fit inside the layer, preserving its
+ * aspect ratio, and the rest of the layer is filled with the fill color.
+ *
+ * A region may also be read from any `PixelSource`, such as an int[] of ARGB pixels or a
+ * ByteBuffer of RGBA pixels.
+ *
+ * Regions are lightweight and immutable, so you may create one for every crop of every frame.
+ */
+
+public class BitmapRegion {
+
+    /** How the region is fitted to the layer's shape */
+
+    public enum Fit {
+        /** Scales the region to the layer's shape, ignoring aspect ratio */
+        Stretch,
+        /** Crops the center of the region to the layer's aspect ratio and scales it to the layer's shape */
+        CenterCrop,
+        /** Scales the region to fit inside the layer's shape, preserving aspect ratio, and pads the rest */
+        Letterbox
+    }
+
+    private final @NonNull PixelSource source;
+    private final int left;
+    private final int top;
+    private final int width;
+    private final int height;
+    private final @NonNull Fit fit;
+    private final int fillColor;
+
+    /**
+     * A region covering the whole Bitmap
+     *
+     * @param bitmap The source Bitmap
+     * @param fit How the region is fitted to the layer's shape
+     */
+
+    public BitmapRegion(@NonNull Bitmap bitmap, @NonNull Fit fit) {
+        this(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), fit, 0xFF000000);
+    }
+
+    /**
+     * A region of the Bitmap stretched to the layer's shape
+     *
+     * @param bitmap The source Bitmap
+     * @param left The left edge of the region in the Bitmap
+     * @param top The top edge of the region in the Bitmap
+     * @param width The width of the region
+     * @param height The height of the region
+     * @throws IllegalArgumentException If the region is empty or extends outside the Bitmap
+     */
+
+    public BitmapRegion(@NonNull Bitmap bitmap, int left, int top, int width, int height) throws IllegalArgumentException {
+        this(bitmap, left, top, width, height, Fit.Stretch, 0xFF000000);
+    }
+
+    /**
+     * A region of the Bitmap fitted to the layer's shape
+     *
+     * @param bitmap The source Bitmap
+     * @param left The left edge of the region in the Bitmap
+     * @param top The top edge of the region in the Bitmap
+     * @param width The width of the region
+     * @param height The height of the region
+     * @param fit How the region is fitted to the layer's shape
+     * @param fillColor The opaque ARGB color letterboxed regions are padded with
+     * @throws IllegalArgumentException If the region is empty or extends outside the Bitmap
+     */
+
+    public BitmapRegion(@NonNull Bitmap bitmap, int left, int top, int width, int height, @NonNull Fit fit, int fillColor) throws IllegalArgumentException {
+        this(new BitmapPixels(bitmap), left, top, width, height, fit, fillColor);
+    }
+
+    /**
+     * A region covering the whole pixel source
+     *
+     * @param source The pixel source
+     * @param fit How the region is fitted to the layer's shape
+     */
+
+    public BitmapRegion(@NonNull PixelSource source, @NonNull Fit fit) {
+        this(source, 0, 0, source.getWidth(), source.getHeight(), fit, 0xFF000000);
+    }
+
+    /**
+     * A region of a pixel source fitted to the layer's shape
+     *
+     * @param source The pixel source
+     * @param left The left edge of the region in the source
+     * @param top The top edge of the region in the source
+     * @param width The width of the region
+     * @param height The height of the region
+     * @param fit How the region is fitted to the layer's shape
+     * @param fillColor The opaque ARGB color letterboxed regions are padded with
+     * @throws IllegalArgumentException If the region is empty or extends outside the source
+     */
+
+    public BitmapRegion(@NonNull PixelSource source, int left, int top, int width, int height, @NonNull Fit fit, int fillColor) throws IllegalArgumentException {
+        if (width <= 0 || height <= 0 || left < 0 || top < 0 || left + width > source.getWidth() || top + height > source.getHeight()) {
+            throw BadRegionException(left, top, width, height, source);
+        }
+
+        this.source = source;
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+        this.fit = fit;
+        this.fillColor = fillColor;
+    }
+
+    //region Getters
+
+    public PixelSource getSource() {
+        return source;
+    }
+
+    /** The source Bitmap, or null if the region reads from another kind of pixel source */
+
+    public @Nullable Bitmap getBitmap() {
+        return (source instanceof BitmapPixels) ? ((BitmapPixels) source).getBitmap() : null;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Fit getFit() {
+        return fit;
+    }
+
+    public int getFillColor() {
+        return fillColor;
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadRegionException(int left, int top, int width, int height, @NonNull PixelSource source) {
+        return new IllegalArgumentException("The region " + width + "x" + height + " at (" + left + "," + top + ") is empty or extends outside the " + source.getWidth() + "x" + source.getHeight() + " source");
+    }
+
+    //endRegion
+}
@@ -0,0 +1,233 @@
+/*
+ * CameraFrame.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An input for pixel buffer layers that holds a YUV 4:2:0 camera frame, such as an
+ * `ImageFormat.YUV_420_888` image from Camera2 or CameraX or an NV21 preview buffer from the
+ * legacy camera API. The backends' converters rotate, scale, and convert the frame to RGB or BGR
+ * directly into the layer's input buffer, so you don't need to convert it to a Bitmap first.
+ *
+ * A frame describes each of its three planes with a row stride and a pixel stride, so both planar
+ * (I420) and semi-planar (NV21, NV12) chroma layouts are read in place. The rotation is the number
+ * of degrees the frame must be rotated clockwise to be upright, for example the value reported by
+ * CameraX's `ImageInfo.getRotationDegrees()`.
+ *
+ * A frame only wraps the plane buffers, so the underlying image must not be closed or reused
+ * until the model has run on it.
+ */
+
+public class CameraFrame {
+
+    private final @NonNull ByteBuffer yPlane;
+    private final @NonNull ByteBuffer uPlane;
+    private final @NonNull ByteBuffer vPlane;
+    private final int yRowStride;
+    private final int yPixelStride;
+    private final int uvRowStride;
+    private final int uvPixelStride;
+    private final int width;
+    private final int height;
+    private final int rotation;
+
+    /**
+     * Wraps an NV21 frame, a full resolution Y plane followed by interleaved V and U samples.
+     *
+     * @param data The NV21 bytes
+     * @param width The width of the frame
+     * @param height The height of the frame
+     * @param rotation Clockwise rotation in degrees that makes the frame upright, 0, 90, 180, or 270
+     * @return A camera frame reading the NV21 bytes in place
+     * @throws IllegalArgumentException If the data is too short or the rotation is invalid
+     */
+
+    public static CameraFrame fromNV21(@NonNull byte[] data, int width, int height, int rotation) throws IllegalArgumentException {
+        int ySize = width * height;
+        int uvRowStride = ((width + 1) / 2) * 2;
+
+        if (data.length < ySize + uvRowStride * ((height + 1) / 2)) {
+            throw BadNV21LengthException(data.length, width, height);
+        }
+
+        ByteBuffer y = ByteBuffer.wrap(data, 0, ySize).slice();
+        ByteBuffer v = ByteBuffer.wrap(data, ySize, data.length - ySize).slice();
+        ByteBuffer u = ByteBuffer.wrap(data, ySize + 1, data.length - ySize - 1).slice();
+
+        return new CameraFrame(y, u, v, width, 1, uvRowStride, 2, width, height, rotation);
+    }
+
+    /**
+     * Wraps a YUV_420_888 image, reading its planes in place.
+     *
+     * @param image An image in the `ImageFormat.YUV_420_888` format
+     * @param rotation Clockwise rotation in degrees that makes the frame upright, 0, 90, 180, or 270
+     * @return A camera frame reading the image's planes in place
+     * @throws IllegalArgumentException If the image is not YUV_420_888 or the rotation is invalid
+     */
+
+    public static CameraFrame fromImage(@NonNull Image image, int rotation) throws IllegalArgumentException {
+        if (image.getFormat() != ImageFormat.YUV_420_888) {
+            throw BadImageFormatException(image.getFormat());
+        }
+
+        Image.Plane[] planes = image.getPlanes();
+
+        if (planes[1].getRowStride() != planes[2].getRowStride() || planes[1].getPixelStride() != planes[2].getPixelStride()) {
+            throw BadChromaStridesException();
+        }
+
+        return new CameraFrame(
+                planes[0].getBuffer(),
+                planes[1].getBuffer(),
+                planes[2].getBuffer(),
+                planes[0].getRowStride(),
+                planes[0].getPixelStride(),
+                planes[1].getRowStride(),
+                planes[1].getPixelStride(),
+                image.getWidth(),
+                image.getHeight(),
+                rotation);
+    }
+
+    /**
+     * A YUV 4:2:0 frame described by its planes. The U and V planes are subsampled by two in both
+     * directions and share a row and pixel stride. Samples are read with absolute gets from the
+     * start of each buffer, so the buffers' positions are ignored.
+     *
+     * @param yPlane The luma plane
+     * @param uPlane The Cb chroma plane
+     * @param vPlane The Cr chroma plane
+     * @param yRowStride The distance in bytes between rows of the luma plane
+     * @param yPixelStride The distance in bytes between adjacent luma samples
+     * @param uvRowStride The distance in bytes between rows of the chroma planes
+     * @param uvPixelStride The distance in bytes between adjacent chroma samples
+     * @param width The width of the frame
+     * @param height The height of the frame
+     * @param rotation Clockwise rotation in degrees that makes the frame upright, 0, 90, 180, or 270
+     * @throws IllegalArgumentException If the frame is empty or the rotation is invalid
+     */
+
+    public CameraFrame(@NonNull ByteBuffer yPlane, @NonNull ByteBuffer uPlane, @NonNull ByteBuffer vPlane, int yRowStride, int yPixelStride, int uvRowStride, int uvPixelStride, int width, int height, int rotation) throws IllegalArgumentException {
+        if (width <= 0 || height <= 0) {
+            throw BadSizeException(width, height);
+        }
+        if (rotation != 0 && rotation != 90 && rotation != 180 && rotation != 270) {
+            throw BadRotationException(rotation);
+        }
+
+        this.yPlane = yPlane;
+        this.uPlane = uPlane;
+        this.vPlane = vPlane;
+        this.yRowStride = yRowStride;
+        this.yPixelStride = yPixelStride;
+        this.uvRowStride = uvRowStride;
+        this.uvPixelStride = uvPixelStride;
+        this.width = width;
+        this.height = height;
+        this.rotation = rotation;
+    }
+
+    //region Getters
+
+    public ByteBuffer getYPlane() {
+        return yPlane;
+    }
+
+    public ByteBuffer getUPlane() {
+        return uPlane;
+    }
+
+    public ByteBuffer getVPlane() {
+        return vPlane;
+    }
+
+    public int getYRowStride() {
+        return yRowStride;
+    }
+
+    public int getYPixelStride() {
+        return yPixelStride;
+    }
+
+    public int getUVRowStride() {
+        return uvRowStride;
+    }
+
+    public int getUVPixelStride() {
+        return uvPixelStride;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    /** The width of the frame once it has been rotated upright */
+
+    public int getUprightWidth() {
+        return (rotation == 90 || rotation == 270) ? height : width;
+    }
+
+    /** The height of the frame once it has been rotated upright */
+
+    public int getUprightHeight() {
+        return (rotation == 90 || rotation == 270) ? width : height;
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadSizeException(int width, int height) {
+        return new IllegalArgumentException("The camera frame must not be empty, received " + width + "x" + height);
+    }
+
+    private static IllegalArgumentException BadRotationException(int rotation) {
+        return new IllegalArgumentException("The camera frame rotation must be 0, 90, 180, or 270 degrees, received " + rotation);
+    }
+
+    private static IllegalArgumentException BadNV21LengthException(int length, int width, int height) {
+        return new IllegalArgumentException("The NV21 data is too short for a " + width + "x" + height + " frame, received " + length + " bytes");
+    }
+
+    private static IllegalArgumentException BadImageFormatException(int format) {
+        return new IllegalArgumentException("Expected a YUV_420_888 image, received format " + format);
+    }
+
+    private static IllegalArgumentException BadChromaStridesException() {
+        return new IllegalArgumentException("The U and V planes of the image must share a row and pixel stride");
+    }
+
+    //endRegion
+}
@@ -22,13 +22,37 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 /**
  * A `DataDequantizer` dequantizes quantized values, converting them from
  * int representations to floating point representations.
+ *
+ * Quantized values are unsigned bytes, so every dequantizer is fully described by its 256 possible
+ * results. Converters dequantize whole vectors at once through that lookup table rather than
+ * calling `dequantize(int)` for every value.
+ *
+ * Dequantizers that preserve the order of quantized values, such as the affine dequantizers with a
+ * positive scale returned by the factory methods, also translate float thresholds into the
+ * quantized domain, so that classification outputs may be compared and ranked without
+ * dequantizing them, see `TopK.selectQuantized`.
  */
 
 public abstract class Dequantizer {
 
+    public static final int LOOKUP_TABLE_SIZE = 256;
+
+    /** The lookup table, computed the first time it is needed */
+
+    private volatile float[] lookupTable;
+
+    /** Whether the lookup table is non-decreasing, computed with the table */
+
+    private volatile boolean monotonic;
+
     /**
      * @param value The int value that will be dequantized
      * @return A floating point representation of the value
@@ -36,6 +60,120 @@ public abstract class Dequantizer {
 
     public abstract float dequantize(int value);
 
+    /**
+     * Precomputes the dequantized value of every unsigned byte
+     *
+     * @return A table of 256 floats indexed by the quantized value
+     */
+
+    public float[] lookupTable() {
+        float[] table = lookupTable;
+
+        if (table == null) {
+            table = new float[LOOKUP_TABLE_SIZE];
+            boolean ordered = true;
+            for (int i = 0; i < LOOKUP_TABLE_SIZE; i++) {
+                table[i] = dequantize(i);
+                ordered &= i == 0 || table[i] >= table[i - 1];
+            }
+            monotonic = ordered;
+            lookupTable = table;
+        }
+
+        return table;
+    }
+
+    /**
+     * Returns true if dequantizing preserves the order of quantized values, so that a larger
+     * quantized value is never dequantized to a smaller float
+     */
+
+    public boolean isMonotonic() {
+        lookupTable();
+        return monotonic;
+    }
+
+    /**
+     * Translates a float threshold into the quantized domain. A quantized value dequantizes to a
+     * float not less than the threshold if and only if it is not less than the quantized threshold.
+     *
+     * @param threshold A threshold on dequantized values
+     * @return The smallest quantized value whose dequantized value is not less than the threshold,
+     * or 256 if there is none
+     * @throws IllegalStateException If the dequantizer is not monotonic
+     */
+
+    public int quantizedThreshold(float threshold) throws IllegalStateException {
+        float[] table = lookupTable();
+
+        if (!monotonic) {
+            throw new IllegalStateException("A threshold can only be quantized by a dequantizer that preserves order");
+        }
+
+        // Binary search the table for the first value not less than the threshold
+
+        int low = 0;
+        int high = LOOKUP_TABLE_SIZE;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (table[mid] < threshold) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Dequantizes unsigned bytes read from a buffer. The bytes are read from the buffer's position,
+     * which is advanced past them.
+     *
+     * @param src The buffer the quantized values are read from
+     * @param dst The array the dequantized values are written to
+     * @param length The number of values to dequantize
+     */
+
+    public void dequantize(@NonNull ByteBuffer src, @NonNull float[] dst, int length) {
+        float[] table = lookupTable();
+
+        // Read straight from the backing array of heap buffers
+
+        if (src.hasArray()) {
+            if (src.remaining() < length) {
+                throw new BufferUnderflowException();
+            }
+
+            dequantize(table, src.array(), src.arrayOffset() + src.position(), dst, length);
+            src.position(src.position() + length);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            dst[i] = table[src.get() & 0xFF];
+        }
+    }
+
+    /**
+     * Dequantizes unsigned bytes read from an array
+     *
+     * @param src The array the quantized values are read from
+     * @param dst The array the dequantized values are written to
+     * @param length The number of values to dequantize
+     */
+
+    public void dequantize(@NonNull byte[] src, @NonNull float[] dst, int length) {
+        dequantize(lookupTable(), src, 0, dst, length);
+    }
+
+    private static void dequantize(@NonNull float[] table, @NonNull byte[] src, int offset, @NonNull float[] dst, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[i] = table[src[offset + i] & 0xFF];
+        }
+    }
+
     /**
      * A DataDequantizer that applies the provided scale and bias according to the following formula:
      *
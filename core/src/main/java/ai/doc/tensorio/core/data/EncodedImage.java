@@ -0,0 +1,171 @@
+/*
+ * EncodedImage.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+
+/**
+ * An input for pixel buffer layers holding a compressed JPEG or PNG image, either as bytes or as a
+ * file, rather than a decoded Bitmap.
+ *
+ * The backends' converters decode the image with `EncodedImageDecoder`, which downsamples it while
+ * decoding to the smallest power of two reduction that is still at least as large as the layer, so
+ * a 12 megapixel photo bound for a 224x224 layer is decoded at an eighth of its size. The decoded
+ * pixels are then fitted to the layer's shape as the image describes, just like a `BitmapRegion`
+ * covering the whole image.
+ *
+ * Encoded images are lightweight and immutable. The bytes are not copied, so don't modify them
+ * until the model has run.
+ */
+
+public final class EncodedImage {
+
+    private final @Nullable byte[] data;
+    private final int offset;
+    private final int length;
+    private final @Nullable File file;
+    private final @NonNull BitmapRegion.Fit fit;
+    private final int fillColor;
+
+    /**
+     * An encoded image stretched to the layer's shape
+     *
+     * @param data The JPEG or PNG bytes
+     */
+
+    public EncodedImage(@NonNull byte[] data) {
+        this(data, 0, data.length, BitmapRegion.Fit.Stretch, 0xFF000000);
+    }
+
+    /**
+     * An encoded image fitted to the layer's shape
+     *
+     * @param data The JPEG or PNG bytes
+     * @param fit How the image is fitted to the layer's shape
+     */
+
+    public EncodedImage(@NonNull byte[] data, @NonNull BitmapRegion.Fit fit) {
+        this(data, 0, data.length, fit, 0xFF000000);
+    }
+
+    /**
+     * An encoded image fitted to the layer's shape
+     *
+     * @param data A byte array containing the JPEG or PNG bytes
+     * @param offset The index of the first byte of the image in the array
+     * @param length The number of bytes in the image
+     * @param fit How the image is fitted to the layer's shape
+     * @param fillColor The opaque ARGB color letterboxed images are padded with
+     * @throws IllegalArgumentException If the bytes extend outside the array
+     */
+
+    public EncodedImage(@NonNull byte[] data, int offset, int length, @NonNull BitmapRegion.Fit fit, int fillColor) throws IllegalArgumentException {
+        if (offset < 0 || length <= 0 || offset + length > data.length) {
+            throw BadRangeException(offset, length, data.length);
+        }
+
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        this.file = null;
+        this.fit = fit;
+        this.fillColor = fillColor;
+    }
+
+    /**
+     * An encoded image file stretched to the layer's shape
+     *
+     * @param file A JPEG or PNG file
+     */
+
+    public EncodedImage(@NonNull File file) {
+        this(file, BitmapRegion.Fit.Stretch, 0xFF000000);
+    }
+
+    /**
+     * An encoded image file fitted to the layer's shape
+     *
+     * @param file A JPEG or PNG file
+     * @param fit How the image is fitted to the layer's shape
+     * @param fillColor The opaque ARGB color letterboxed images are padded with
+     */
+
+    public EncodedImage(@NonNull File file, @NonNull BitmapRegion.Fit fit, int fillColor) {
+        this.data = null;
+        this.offset = 0;
+        this.length = 0;
+        this.file = file;
+        this.fit = fit;
+        this.fillColor = fillColor;
+    }
+
+    //region Getters
+
+    public @Nullable byte[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public @Nullable File getFile() {
+        return file;
+    }
+
+    public BitmapRegion.Fit getFit() {
+        return fit;
+    }
+
+    public int getFillColor() {
+        return fillColor;
+    }
+
+    //endRegion
+
+    /**
+     * Decodes the image, or only its bounds, with the given options
+     *
+     * @return The decoded Bitmap, or null if only the bounds were decoded or the image could not
+     * be decoded
+     */
+
+    @Nullable Bitmap decode(@NonNull BitmapFactory.Options options) {
+        if (file != null) {
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        } else {
+            return BitmapFactory.decodeByteArray(data, offset, length, options);
+        }
+    }
+
+    private static IllegalArgumentException BadRangeException(int offset, int length, int capacity) {
+        return new IllegalArgumentException("The encoded image's " + length + " bytes at offset " + offset + " extend outside its array of " + capacity + " bytes");
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * EncodedImageDecoder.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Decodes encoded images for a pixel buffer layer, downsampling them as they are decoded and
+ * reusing a single Bitmap for every image, which models hold for each pixel input layer.
+ *
+ * The sample size is the largest power of two that keeps the decoded image at least as large as
+ * the layer in both dimensions, so the image is never upsampled by the converter, and the decoder
+ * reads only the pixels it needs. The decoded pixels are written into the Bitmap of the previous
+ * image with `BitmapFactory.Options.inBitmap` whenever it is large enough, so decoding a stream of
+ * photos does not allocate a new Bitmap for each one. The decoder is not thread safe.
+ */
+
+public final class EncodedImageDecoder {
+
+    /** The Bitmap the last image was decoded into, reused for the next image */
+
+    private @Nullable Bitmap pooled;
+
+    /**
+     * Decodes an image downsampled for a layer of the given size
+     *
+     * @param image The image to decode
+     * @param targetWidth The width of the layer
+     * @param targetHeight The height of the layer
+     * @return A Bitmap owned by the decoder, which is overwritten by the next call to `decode`
+     * @throws IllegalArgumentException If the image cannot be decoded
+     */
+
+    public Bitmap decode(@NonNull EncodedImage image, int targetWidth, int targetHeight) throws IllegalArgumentException {
+        // Read the image's size without decoding its pixels
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        image.decode(options);
+
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw UndecodableImageException();
+        }
+
+        int sampleSize = sampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        int width = (options.outWidth + sampleSize - 1) / sampleSize;
+        int height = (options.outHeight + sampleSize - 1) / sampleSize;
+
+        // Decode into the pooled Bitmap if it is large enough to hold the downsampled image
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+
+        if (pooled != null && !pooled.isRecycled() && pooled.getAllocationByteCount() >= width * height * 4) {
+            options.inBitmap = pooled;
+        }
+
+        Bitmap bitmap;
+
+        try {
+            bitmap = image.decode(options);
+        } catch (IllegalArgumentException e) {
+            // The decoder could not reuse the pooled Bitmap, so decode into a new one
+
+            options.inBitmap = null;
+            bitmap = image.decode(options);
+        }
+
+        if (bitmap == null) {
+            throw UndecodableImageException();
+        }
+
+        pooled = bitmap;
+        return bitmap;
+    }
+
+    /**
+     * The largest power of two by which an image may be downsampled while it remains at least as
+     * large as the target in both dimensions
+     *
+     * @param width The width of the encoded image
+     * @param height The height of the encoded image
+     * @param targetWidth The width the image will be resampled to
+     * @param targetHeight The height the image will be resampled to
+     * @return The sample size, at least 1
+     */
+
+    public static int sampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+
+        return sampleSize;
+    }
+
+    private static IllegalArgumentException UndecodableImageException() {
+        return new IllegalArgumentException("The encoded image could not be decoded, expected a JPEG or PNG image");
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * ImagePipeline.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+
+/**
+ * An image preprocessing pipeline for a pixel buffer layer. A pipeline declares the steps that
+ * would otherwise be chained as separate Bitmap operations before running a model: rotating,
+ * cropping, resizing, converting to grayscale, and normalizing. All of them are fused into a single
+ * pass over the source pixels that writes straight into the model's input buffer, so no
+ * intermediate Bitmap is ever allocated.
+ *
+ * Steps are applied in a fixed order regardless of the order they are declared in: the source is
+ * rotated, the rotated image is cropped, the crop is resized to the layer's shape, converted to
+ * grayscale, and finally normalized.
+ *
+ * Build a pipeline once for a layer and pass its `on` inputs to the model on every frame:
+ *
+ * <pre>
+ * ImagePipeline pipeline = new ImagePipeline.Builder(layer)
+ *         .rotate(90)
+ *         .resize(BitmapRegion.Fit.CenterCrop)
+ *         .build();
+ *
+ * model.runOn(Collections.singletonMap("image", pipeline.on(bitmap)));
+ * </pre>
+ *
+ * Pipelines are immutable and may be shared across threads.
+ */
+
+public final class ImagePipeline {
+
+    /** Declares the steps of a pipeline */
+
+    public static final class Builder {
+        private final @NonNull PixelBufferLayerDescription description;
+        private int rotation = 0;
+        private int cropLeft = 0;
+        private int cropTop = 0;
+        private int cropWidth = 0;
+        private int cropHeight = 0;
+        private boolean cropped = false;
+        private @NonNull BitmapRegion.Fit fit = BitmapRegion.Fit.Stretch;
+        private int fillColor = 0xFF000000;
+        private boolean grayscale = false;
+        private @Nullable PixelNormalizer normalizer = null;
+
+        /**
+         * @param description The layer the pipeline writes to, which provides the output size,
+         *                    pixel format, quantization, interpolation, and default normalization
+         */
+
+        public Builder(@NonNull PixelBufferLayerDescription description) {
+            this.description = description;
+        }
+
+        /**
+         * Rotates the source clockwise
+         *
+         * @param degrees 0, 90, 180, or 270
+         * @throws IllegalArgumentException If the rotation is not a multiple of 90 degrees
+         */
+
+        public Builder rotate(int degrees) throws IllegalArgumentException {
+            if (degrees != 0 && degrees != 90 && degrees != 180 && degrees != 270) {
+                throw BadRotationException(degrees);
+            }
+
+            this.rotation = degrees;
+            return this;
+        }
+
+        /**
+         * Crops the rotated source. The crop is checked against the source's size when an image
+         * is processed.
+         *
+         * @param left The left edge of the crop in the rotated source
+         * @param top The top edge of the crop in the rotated source
+         * @param width The width of the crop
+         * @param height The height of the crop
+         * @throws IllegalArgumentException If the crop is empty
+         */
+
+        public Builder crop(int left, int top, int width, int height) throws IllegalArgumentException {
+            if (width <= 0 || height <= 0 || left < 0 || top < 0) {
+                throw BadCropException(left, top, width, height);
+            }
+
+            this.cropLeft = left;
+            this.cropTop = top;
+            this.cropWidth = width;
+            this.cropHeight = height;
+            this.cropped = true;
+            return this;
+        }
+
+        /** Resizes the crop to the layer's shape as the fit describes, stretching it by default */
+
+        public Builder resize(@NonNull BitmapRegion.Fit fit) {
+            this.fit = fit;
+            return this;
+        }
+
+        /** Resizes the crop to the layer's shape, padding letterboxed images with the fill color */
+
+        public Builder resize(@NonNull BitmapRegion.Fit fit, int fillColor) {
+            this.fit = fit;
+            this.fillColor = fillColor;
+            return this;
+        }
+
+        /** Converts the image to grayscale, writing the luma of each pixel to every channel */
+
+        public Builder grayscale() {
+            this.grayscale = true;
+            return this;
+        }
+
+        /**
+         * Normalizes the image with a normalizer other than the layer's. Quantized layers are not
+         * normalized.
+         */
+
+        public Builder normalize(@NonNull PixelNormalizer normalizer) {
+            this.normalizer = normalizer;
+            return this;
+        }
+
+        public ImagePipeline build() {
+            return new ImagePipeline(this);
+        }
+    }
+
+    /** A source bound to a pipeline, which the backends' converters accept as a pixel layer input */
+
+    public static final class Input {
+        private final @NonNull ImagePipeline pipeline;
+        private final @NonNull PixelSource source;
+
+        private Input(@NonNull ImagePipeline pipeline, @NonNull PixelSource source) {
+            this.pipeline = pipeline;
+            this.source = source;
+        }
+
+        public ImagePipeline getPipeline() {
+            return pipeline;
+        }
+
+        public PixelSource getSource() {
+            return source;
+        }
+
+        /**
+         * Processes the source into a layer's buffer
+         *
+         * @param buffer The buffer to write to, with room for a single item of the layer
+         * @param description The layer the buffer belongs to, which must be the pipeline's layer
+         * @param layout The order in which the buffer stores channels
+         * @return The buffer
+         * @throws IllegalArgumentException If the pipeline was built for another layer or the
+         * crop extends outside the rotated source
+         */
+
+        public ByteBuffer writeTo(@NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull PixelResampler.Layout layout) throws IllegalArgumentException {
+            if (description != pipeline.description) {
+                throw ForeignLayerException();
+            }
+
+            return pipeline.process(source, buffer, layout);
+        }
+    }
+
+    private final @NonNull PixelBufferLayerDescription description;
+    private final int rotation;
+    private final int cropLeft;
+    private final int cropTop;
+    private final int cropWidth;
+    private final int cropHeight;
+    private final boolean cropped;
+    private final @NonNull BitmapRegion.Fit fit;
+    private final int fillColor;
+    private final boolean grayscale;
+
+    /** The lookup table the pipeline normalizes with, precomputed when it is built */
+
+    private final @Nullable float[] normalizationTable;
+
+    private ImagePipeline(@NonNull Builder builder) {
+        this.description = builder.description;
+        this.rotation = builder.rotation;
+        this.cropLeft = builder.cropLeft;
+        this.cropTop = builder.cropTop;
+        this.cropWidth = builder.cropWidth;
+        this.cropHeight = builder.cropHeight;
+        this.cropped = builder.cropped;
+        this.fit = builder.fit;
+        this.fillColor = builder.fillColor;
+        this.grayscale = builder.grayscale;
+        this.normalizationTable = (builder.normalizer != null && !description.isQuantized())
+                ? builder.normalizer.lookupTable()
+                : description.getNormalizationTable();
+    }
+
+    public PixelBufferLayerDescription getDescription() {
+        return description;
+    }
+
+    /** Binds a Bitmap to the pipeline as an input for the pipeline's layer */
+
+    public Input on(@NonNull Bitmap bitmap) {
+        return new Input(this, new BitmapPixels(bitmap));
+    }
+
+    /** Binds a pixel source to the pipeline as an input for the pipeline's layer */
+
+    public Input on(@NonNull PixelSource source) {
+        return new Input(this, source);
+    }
+
+    /**
+     * Runs the pipeline on a source in a single pass, writing the result to a buffer
+     *
+     * @param source The pixels to process
+     * @param buffer The buffer to write to, with room for a single item of the pipeline's layer
+     * @param layout The order in which the buffer stores channels
+     * @return The buffer
+     * @throws IllegalArgumentException If the crop extends outside the rotated source
+     */
+
+    public ByteBuffer process(@NonNull PixelSource source, @NonNull ByteBuffer buffer, @NonNull PixelResampler.Layout layout) throws IllegalArgumentException {
+        PixelSource rotated = (rotation == 0) ? source : new RotatedPixels(source, rotation);
+
+        BitmapRegion region = cropped
+                ? new BitmapRegion(rotated, cropLeft, cropTop, cropWidth, cropHeight, fit, fillColor)
+                : new BitmapRegion(rotated, 0, 0, rotated.getWidth(), rotated.getHeight(), fit, fillColor);
+
+        return PixelResampler.resample(region, buffer, description, layout, normalizationTable, grayscale);
+    }
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadRotationException(int degrees) {
+        return new IllegalArgumentException("The pipeline rotation must be 0, 90, 180, or 270 degrees, received " + degrees);
+    }
+
+    private static IllegalArgumentException BadCropException(int left, int top, int width, int height) {
+        return new IllegalArgumentException("The crop " + width + "x" + height + " at (" + left + "," + top + ") is empty or has a negative origin");
+    }
+
+    private static IllegalArgumentException ForeignLayerException() {
+        return new IllegalArgumentException("The image pipeline was built for a different layer");
+    }
+
+    //endRegion
+}
@@ -20,6 +20,8 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
 public class InMemoryBatchDataSource implements BatchDataSource {
 
     /** The batch of items that will be vended by this data source */
@@ -51,4 +53,9 @@ public class InMemoryBatchDataSource implements BatchDataSource {
     public Batch.Item get(int i) {
         return batch.get(i);
     }
+
+    @Override
+    public void addTo(@NonNull Batch batch, int i) {
+        batch.add(this.batch, i);
+    }
 }
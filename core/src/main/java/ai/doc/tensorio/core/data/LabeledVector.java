@@ -0,0 +1,177 @@
+/*
+ * LabeledVector.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+/**
+ * The output of a labeled vector layer, a read-only map of labels to values that is a view over
+ * the layer's raw output and its labels rather than a copy of them. Looking up a label uses the
+ * label to index table the layer builds once, so creating a labeled vector for every inference
+ * allocates only the view itself.
+ *
+ * Prefer the primitive accessors, `value(int)`, `getFloat(String, float)`, and `getValues()`, to
+ * `get`, which boxes the value it returns, and use `ClassificationHelper.topN` or `TopK` rather
+ * than sorting the entries. Changes to the underlying vector are visible through the view.
+ */
+
+public final class LabeledVector extends AbstractMap<String, Float> {
+
+    private final @NonNull VectorLayerDescription description;
+    private final @NonNull String[] labels;
+    private final @NonNull int[] distinctIndices;
+    private final @NonNull float[] values;
+
+    /**
+     * @param description A labeled vector layer
+     * @param values The layer's output, with at least as many values as the layer has labels
+     * @throws IllegalArgumentException If the layer is not labeled or there are fewer values than labels
+     */
+
+    public LabeledVector(@NonNull VectorLayerDescription description, @NonNull float[] values) throws IllegalArgumentException {
+        if (!description.isLabeled()) {
+            throw new IllegalArgumentException("A labeled vector requires a layer with labels");
+        }
+        if (values.length < description.getLabels().length) {
+            throw new IllegalArgumentException("The vector has " + values.length + " values but the layer has " + description.getLabels().length + " labels");
+        }
+
+        this.description = description;
+        this.labels = description.getLabels();
+        this.distinctIndices = description.getDistinctLabelIndices();
+        this.values = values;
+    }
+
+    //region Getters
+
+    /** The labels, indexed like the values. Do not modify. */
+
+    public String[] getLabels() {
+        return labels;
+    }
+
+    /** The raw output the view reads from */
+
+    public float[] getValues() {
+        return values;
+    }
+
+    /** The label at an index */
+
+    public String label(int index) {
+        return labels[index];
+    }
+
+    /** The value at an index */
+
+    public float value(int index) {
+        return values[index];
+    }
+
+    /**
+     * True if a label appears more than once, in which case the map holds only the value at its
+     * last index
+     */
+
+    public boolean hasRepeatedLabels() {
+        return distinctIndices.length != labels.length;
+    }
+
+    /** The index of a label, or -1 if the layer has no such label */
+
+    public int indexOf(@NonNull String label) {
+        return description.indexOfLabel(label);
+    }
+
+    /** The value for a label without boxing it, or the default value if the layer has no such label */
+
+    public float getFloat(@NonNull String label, float defaultValue) {
+        int index = description.indexOfLabel(label);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    //endRegion
+
+    //region Map
+
+    @Override
+    public int size() {
+        return distinctIndices.length;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return key instanceof String && description.indexOfLabel((String) key) >= 0;
+    }
+
+    @Override
+    public @Nullable Float get(@Nullable Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+
+        int index = description.indexOfLabel((String) key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public @NonNull Set<Map.Entry<String, Float>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Float>>() {
+            @Override
+            public @NonNull Iterator<Map.Entry<String, Float>> iterator() {
+                return new Iterator<Map.Entry<String, Float>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < distinctIndices.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Float> next() {
+                        if (index >= distinctIndices.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        int i = distinctIndices[index++];
+                        return new AbstractMap.SimpleImmutableEntry<>(labels[i], values[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return distinctIndices.length;
+            }
+        };
+    }
+
+    //endRegion
+}
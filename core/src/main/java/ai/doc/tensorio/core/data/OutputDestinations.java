@@ -0,0 +1,210 @@
+/*
+ * OutputDestinations.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Output destinations are preallocated objects a caller provides to `Model.runOnInto`, which the
+ * model writes an output layer's values into rather than allocating a new object on every call.
+ * Supported destinations are float[], int[], long[], and byte[] arrays of the layer's length and
+ * mutable Bitmaps or other `PixelSink`s of the layer's size. ByteBuffers are also supported and receive the layer's
+ * values in the buffer's byte order. Backends that decode directly into a ByteBuffer write the
+ * layer's raw bytes, so that quantized outputs are not dequantized.
+ *
+ * Backends decode straight into destinations when they can. This class provides the fallback,
+ * which copies a value that has already been decoded into a destination.
+ */
+
+public final class OutputDestinations {
+
+    private OutputDestinations() { }
+
+    /**
+     * Returns true if an object is a supported destination rather than, for example, a value
+     * returned by a previous call that should simply be replaced
+     */
+
+    public static boolean isDestination(@Nullable Object destination) {
+        return destination instanceof float[]
+                || destination instanceof int[]
+                || destination instanceof long[]
+                || destination instanceof byte[]
+                || destination instanceof Bitmap
+                || destination instanceof PixelSink
+                || destination instanceof ByteBuffer;
+    }
+
+    /**
+     * Copies a decoded value into a destination of the same type.
+     *
+     * @param value The decoded value
+     * @param destination The destination to copy the value into, may be null
+     * @return The destination if the value was copied into it, otherwise the value itself, for
+     * example when there is no destination or the destination's type does not match the value's
+     * @throws IllegalArgumentException If the destination's type matches the value's but its size does not
+     */
+
+    public static Object copy(@Nullable Object value, @Nullable Object destination) throws IllegalArgumentException {
+        if (value == null || destination == null) {
+            return value;
+        }
+
+        if (value instanceof float[] && destination instanceof float[]) {
+            float[] from = (float[]) value;
+            float[] to = (float[]) destination;
+            checkLength(from.length, to.length);
+            System.arraycopy(from, 0, to, 0, from.length);
+            return to;
+        } else if (value instanceof int[] && destination instanceof int[]) {
+            int[] from = (int[]) value;
+            int[] to = (int[]) destination;
+            checkLength(from.length, to.length);
+            System.arraycopy(from, 0, to, 0, from.length);
+            return to;
+        } else if (value instanceof long[] && destination instanceof long[]) {
+            long[] from = (long[]) value;
+            long[] to = (long[]) destination;
+            checkLength(from.length, to.length);
+            System.arraycopy(from, 0, to, 0, from.length);
+            return to;
+        } else if (value instanceof byte[] && destination instanceof byte[]) {
+            byte[] from = (byte[]) value;
+            byte[] to = (byte[]) destination;
+            checkLength(from.length, to.length);
+            System.arraycopy(from, 0, to, 0, from.length);
+            return to;
+        } else if (value instanceof Bitmap && destination instanceof Bitmap) {
+            Bitmap from = (Bitmap) value;
+            Bitmap to = (Bitmap) destination;
+            checkBitmap(to, from.getWidth(), from.getHeight());
+            int[] pixels = new int[from.getWidth() * from.getHeight()];
+            from.getPixels(pixels, 0, from.getWidth(), 0, 0, from.getWidth(), from.getHeight());
+            to.setPixels(pixels, 0, from.getWidth(), 0, 0, from.getWidth(), from.getHeight());
+            return to;
+        } else if (value instanceof Bitmap && destination instanceof PixelSink) {
+            Bitmap from = (Bitmap) value;
+            PixelSink to = (PixelSink) destination;
+            checkSink(to, from.getWidth(), from.getHeight());
+            int[] pixels = new int[from.getWidth() * from.getHeight()];
+            from.getPixels(pixels, 0, from.getWidth(), 0, 0, from.getWidth(), from.getHeight());
+            to.setPixels(pixels, 0, 0, 0, from.getWidth(), from.getHeight());
+            return to;
+        } else if (destination instanceof ByteBuffer) {
+            return copyToBuffer(value, (ByteBuffer) destination);
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes a numeric array to a buffer from its beginning, leaving the buffer's position unchanged
+     */
+
+    private static Object copyToBuffer(@NonNull Object value, @NonNull ByteBuffer destination) throws IllegalArgumentException {
+        ByteBuffer to = destination.duplicate().order(destination.order());
+        to.rewind();
+
+        if (value instanceof float[]) {
+            float[] from = (float[]) value;
+            checkLength(from.length * 4, to.capacity());
+            to.asFloatBuffer().put(from);
+        } else if (value instanceof int[]) {
+            int[] from = (int[]) value;
+            checkLength(from.length * 4, to.capacity());
+            to.asIntBuffer().put(from);
+        } else if (value instanceof long[]) {
+            long[] from = (long[]) value;
+            checkLength(from.length * 8, to.capacity());
+            to.asLongBuffer().put(from);
+        } else if (value instanceof byte[]) {
+            byte[] from = (byte[]) value;
+            checkLength(from.length, to.capacity());
+            to.put(from);
+        } else {
+            return value;
+        }
+
+        return destination;
+    }
+
+    /**
+     * Checks that an array destination has the layer's length
+     *
+     * @throws IllegalArgumentException If the lengths differ
+     */
+
+    public static void checkLength(int expected, int received) throws IllegalArgumentException {
+        if (expected != received) {
+            throw BadLengthException(expected, received);
+        }
+    }
+
+    /**
+     * Checks that a Bitmap destination is mutable and has the layer's size
+     *
+     * @throws IllegalArgumentException If the Bitmap is immutable or of a different size
+     */
+
+    public static void checkBitmap(@NonNull Bitmap bitmap, int width, int height) throws IllegalArgumentException {
+        if (!bitmap.isMutable()) {
+            throw ImmutableBitmapException();
+        }
+        if (bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            throw BadSizeException(width, height, bitmap.getWidth(), bitmap.getHeight());
+        }
+    }
+
+    /**
+     * Checks that a pixel sink destination has the layer's size, and that a Bitmap backed sink is
+     * mutable
+     *
+     * @throws IllegalArgumentException If the sink is of a different size or wraps an immutable Bitmap
+     */
+
+    public static void checkSink(@NonNull PixelSink sink, int width, int height) throws IllegalArgumentException {
+        if (sink instanceof BitmapPixels) {
+            checkBitmap(((BitmapPixels) sink).getBitmap(), width, height);
+        } else if (sink.getWidth() != width || sink.getHeight() != height) {
+            throw BadSizeException(width, height, sink.getWidth(), sink.getHeight());
+        }
+    }
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadLengthException(int expected, int received) {
+        return new IllegalArgumentException("The output destination has length " + received + " but the output has length " + expected);
+    }
+
+    private static IllegalArgumentException ImmutableBitmapException() {
+        return new IllegalArgumentException("Bitmap output destinations must be mutable");
+    }
+
+    private static IllegalArgumentException BadSizeException(int width, int height, int receivedWidth, int receivedHeight) {
+        return new IllegalArgumentException("The output destination is " + receivedWidth + "x" + receivedHeight + " but the output is " + width + "x" + height);
+    }
+
+    //endRegion
+}
@@ -43,17 +43,73 @@ public abstract class PixelDenormalizer {
 
     public abstract int denormalize(float value, int channel);
 
+    /**
+     * Denormalizes the three channels of a pixel at once and packs them into an opaque ARGB pixel.
+     * The denormalizers created by the factory methods override this to apply their scale and
+     * biases directly, without a call to `denormalize` for each channel.
+     *
+     * @param red The red channel value
+     * @param green The green channel value
+     * @param blue The blue channel value
+     * @return The 4 byte ARGB representation of the pixel
+     */
+
+    public int denormalizePixel(float red, float green, float blue) {
+        return pack(denormalize(red, 0), denormalize(green, 1), denormalize(blue, 2));
+    }
+
+    /**
+     * Packs byte channel values into an opaque ARGB pixel, keeping the low byte of each value
+     */
+
+    public static int pack(int red, int green, int blue) {
+        return 0xFF000000 | (red << 16) & 0x00FF0000 | (green << 8) & 0x0000FF00 | blue & 0x000000FF;
+    }
+
+    /**
+     * A denormalizer that adds a bias to each channel and then applies a scaling factor
+     */
+
+    private static final class AffinePixelDenormalizer extends PixelDenormalizer {
+        private final float scale;
+        private final float redBias;
+        private final float greenBias;
+        private final float blueBias;
+
+        private AffinePixelDenormalizer(float scale, float redBias, float greenBias, float blueBias) {
+            this.scale = scale;
+            this.redBias = redBias;
+            this.greenBias = greenBias;
+            this.blueBias = blueBias;
+        }
+
+        @Override
+        public int denormalize(float value, int channel) {
+            switch (channel) {
+                case 0:
+                    return (int) ((value + redBias) * scale);
+                case 1:
+                    return (int) ((value + greenBias) * scale);
+                default:
+                    return (int) ((value + blueBias) * scale);
+            }
+        }
+
+        @Override
+        public int denormalizePixel(float red, float green, float blue) {
+            return pack(
+                    (int) ((red + redBias) * scale),
+                    (int) ((green + greenBias) * scale),
+                    (int) ((blue + blueBias) * scale));
+        }
+    }
+
     /**
      * A PixelDenormalizer that applies a scaling factor and equal bias to each pixel channel.
      */
 
     public static PixelDenormalizer PixelDenormalizerSingleBias(float scale, float bias) {
-        return new PixelDenormalizer() {
-            @Override
-            public int denormalize(float value, int channel) {
-                return (int) ((value + bias) * scale);
-            }
-        };
+        return new AffinePixelDenormalizer(scale, bias, bias, bias);
     }
 
     /**
@@ -61,19 +117,7 @@ public abstract class PixelDenormalizer {
      */
 
     public static PixelDenormalizer PixelDenormalizerPerChannelBias(float scale, float redBias, float greenBias, float blueBias) {
-        return new PixelDenormalizer() {
-            @Override
-            public int denormalize(float value, int channel) {
-                switch (channel) {
-                    case 0:
-                        return (int) ((value + redBias) * scale);
-                    case 1:
-                        return (int) ((value + greenBias) * scale);
-                    default:
-                        return (int) ((value + blueBias) * scale);
-                }
-            }
-        };
+        return new AffinePixelDenormalizer(scale, redBias, greenBias, blueBias);
     }
 
 
@@ -31,6 +31,11 @@ package ai.doc.tensorio.core.data;
  */
 
 public abstract class PixelNormalizer {
+
+    /** The number of entries for each channel in a lookup table, one for every byte value */
+
+    public static final int LOOKUP_TABLE_CHANNEL_SIZE = 256;
+
     /**
      * A `PixelNormalizer` transforms a pixel value in the range `[0,255]`
      * to some other range, where the transformation may be channel dependent.
@@ -42,6 +47,42 @@ public abstract class PixelNormalizer {
 
     public abstract float normalize(int value, int channel);
 
+    /**
+     * Precomputes the normalized value of every byte value in each of the three RGB channels, so
+     * that converters may normalize a pixel with table lookups rather than calls to `normalize`.
+     *
+     * @return A table of 3 * 256 floats indexed by `channel * 256 + value`
+     */
+
+    public float[] lookupTable() {
+        float[] table = new float[3 * LOOKUP_TABLE_CHANNEL_SIZE];
+
+        for (int channel = 0; channel < 3; channel++) {
+            for (int value = 0; value < LOOKUP_TABLE_CHANNEL_SIZE; value++) {
+                table[channel * LOOKUP_TABLE_CHANNEL_SIZE + value] = normalize(value, channel);
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * A lookup table that converts byte values to floats without normalizing them, for layers
+     * without a normalizer
+     *
+     * @return A table of 3 * 256 floats indexed by `channel * 256 + value`
+     */
+
+    public static float[] IdentityLookupTable() {
+        float[] table = new float[3 * LOOKUP_TABLE_CHANNEL_SIZE];
+
+        for (int i = 0; i < table.length; i++) {
+            table[i] = i % LOOKUP_TABLE_CHANNEL_SIZE;
+        }
+
+        return table;
+    }
+
     /**
      * A PixelNormalizer that applies a scaling factor and equal bias to each pixel channel.
      */
@@ -0,0 +1,590 @@
+/*
+ * PixelResampler.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+/**
+ * Resamples a Bitmap to a pixel buffer layer's size and writes it to the layer's input buffer in
+ * a single pass, without scaling the Bitmap into an intermediate Bitmap or copying all of its
+ * pixels into an intermediate array.
+ *
+ * The resampler may also read a region of interest from a Bitmap, see `BitmapRegion`, cropping
+ * or letterboxing it to the layer's aspect ratio as it samples. Any `PixelSource` may stand in for
+ * a Bitmap, so pixels already held in an int[] or ByteBuffer are read in place.
+ *
+ * The resampler reads only the source rows it needs, one at a time, interpolates each destination
+ * row with nearest neighbor or bilinear interpolation, and then normalizes or quantizes the row
+ * straight into the buffer using the layer's normalization lookup table and pixel format. Backends
+ * choose the buffer's layout: interleaved (NHWC) for TF Lite and TensorFlow, planar (NCHW) for
+ * PyTorch.
+ *
+ * The resampler keeps its scratch rows in thread local storage, so it may be used from many
+ * threads at once. Because each destination row is written independently with absolute puts,
+ * large layers marked parallel are resampled in row stripes on several cores, see `PixelStripes`.
+ */
+
+public final class PixelResampler {
+
+    /** How destination pixels are sampled from the source when the sizes differ */
+
+    public enum Interpolation {
+        /** Copies the nearest source pixel, which is fastest */
+        Nearest,
+        /** Blends the four nearest source pixels, equivalent to a filtered `createScaledBitmap` */
+        Bilinear
+    }
+
+    /** The order in which the buffer stores channels */
+
+    public enum Layout {
+        /** Channels interleaved for each pixel, NHWC */
+        Interleaved,
+        /** One plane per channel, NCHW */
+        Planar
+    }
+
+    /** Rows and sampling coordinates reused across calls on the same thread */
+
+    private static final class Scratch {
+        int[] top = new int[0];
+        int[] bottom = new int[0];
+        int[] row = new int[0];
+        int[] x0 = new int[0];
+        int[] x1 = new int[0];
+        int[] wx = new int[0];
+    }
+
+    private static final ThreadLocal<Scratch> scratch = new ThreadLocal<>();
+
+    /** Bilinear weights are fixed point fractions of 256 */
+
+    private static final int WEIGHT_ONE = 256;
+
+    private PixelResampler() { }
+
+    /**
+     * Resamples a Bitmap to the layer's size and writes it to a buffer.
+     *
+     * @param source The Bitmap to read pixels from, of any size
+     * @param buffer The buffer to write to, with room for a single item of the layer. Values are
+     *               written with absolute puts from index zero, so the buffer may be a slice of a
+     *               larger buffer. An interleaved buffer's position is left after the last value
+     *               written and a planar buffer's position is left at zero.
+     * @param description The layer, which provides the size, normalization, quantization, pixel
+     *                    format, and interpolation
+     * @param layout The order in which the buffer stores channels
+     * @return The buffer
+     */
+
+    public static ByteBuffer resample(@NonNull Bitmap source, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull Layout layout) {
+        return resample(new BitmapRegion(source, BitmapRegion.Fit.Stretch), buffer, description, layout);
+    }
+
+    /**
+     * Resamples a pixel source to the layer's size and writes it to a buffer.
+     *
+     * @param source The pixels to read from, of any size
+     * @param buffer The buffer to write to, with room for a single item of the layer
+     * @param description The layer
+     * @param layout The order in which the buffer stores channels
+     * @return The buffer
+     * @see #resample(Bitmap, ByteBuffer, PixelBufferLayerDescription, Layout)
+     */
+
+    public static ByteBuffer resample(@NonNull PixelSource source, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull Layout layout) {
+        return resample(new BitmapRegion(source, BitmapRegion.Fit.Stretch), buffer, description, layout);
+    }
+
+    /**
+     * Resamples a region of a Bitmap to the layer's size, fitting it as the region describes, and
+     * writes it to a buffer.
+     *
+     * @param region The region of a Bitmap to read pixels from
+     * @param buffer The buffer to write to, with room for a single item of the layer
+     * @param description The layer
+     * @param layout The order in which the buffer stores channels
+     * @return The buffer
+     * @see #resample(Bitmap, ByteBuffer, PixelBufferLayerDescription, Layout)
+     */
+
+    public static ByteBuffer resample(@NonNull BitmapRegion region, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull Layout layout) {
+        return resample(region, buffer, description, layout, description.getNormalizationTable(), false);
+    }
+
+    /**
+     * Resamples a region with a normalization table other than the layer's and optionally converts
+     * it to grayscale, used by `ImagePipeline`.
+     *
+     * @param table The normalization lookup table, see `PixelNormalizer.lookupTable`, ignored for
+     *              quantized layers
+     * @param grayscale Whether each destination pixel is converted to its luma before it is written
+     */
+
+    static ByteBuffer resample(@NonNull BitmapRegion region, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull Layout layout, @Nullable float[] table, boolean grayscale) {
+        ImageVolume shape = description.getShape();
+
+        // Source region
+
+        int left = region.getLeft();
+        int top = region.getTop();
+        int width = region.getWidth();
+        int height = region.getHeight();
+
+        // Destination rectangle the region is scaled to
+
+        int dstLeft = 0;
+        int dstTop = 0;
+        int dstWidth = shape.width;
+        int dstHeight = shape.height;
+
+        switch (region.getFit()) {
+            case CenterCrop:
+                // Crop the region's longer side to the layer's aspect ratio
+
+                if ((long) width * shape.height > (long) height * shape.width) {
+                    int cropped = Math.max(1, Math.round((float) height * shape.width / shape.height));
+                    left += (width - cropped) / 2;
+                    width = cropped;
+                } else {
+                    int cropped = Math.max(1, Math.round((float) width * shape.height / shape.width));
+                    top += (height - cropped) / 2;
+                    height = cropped;
+                }
+                break;
+            case Letterbox:
+                // Scale the region to fit inside the layer and center it
+
+                float scale = Math.min((float) shape.width / width, (float) shape.height / height);
+                dstWidth = Math.max(1, Math.min(shape.width, Math.round(width * scale)));
+                dstHeight = Math.max(1, Math.min(shape.height, Math.round(height * scale)));
+                dstLeft = (shape.width - dstWidth) / 2;
+                dstTop = (shape.height - dstHeight) / 2;
+                break;
+            case Stretch:
+                break;
+        }
+
+        // Resample the rows, in stripes on several cores for large parallel layers
+
+        int l = left, t = top, w = width, h = height;
+        int dl = dstLeft, dt = dstTop, dw = dstWidth, dh = dstHeight;
+
+        PixelStripes.run(description, shape.width, shape.height, (fromRow, toRow) ->
+                resampleRows(region.getSource(), l, t, w, h, dl, dt, dw, dh, region.getFillColor(), buffer, description, table, grayscale, layout, fromRow, toRow));
+
+        if (layout == Layout.Interleaved) {
+            buffer.position(shape.width * shape.height * 3 * (description.isQuantized() ? 1 : 4));
+        } else {
+            buffer.rewind();
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Rotates a YUV camera frame upright, resamples it to the layer's size with nearest neighbor
+     * interpolation, converts it to RGB, and writes it to a buffer, in a single pass.
+     *
+     * @param frame The camera frame to read samples from, of any size
+     * @param buffer The buffer to write to, with room for a single item of the layer
+     * @param description The layer
+     * @param layout The order in which the buffer stores channels
+     * @return The buffer
+     * @see #resample(Bitmap, ByteBuffer, PixelBufferLayerDescription, Layout)
+     */
+
+    public static ByteBuffer resample(@NonNull CameraFrame frame, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull Layout layout) {
+        ImageVolume shape = description.getShape();
+
+        PixelStripes.run(description, shape.width, shape.height, (fromRow, toRow) ->
+                resampleFrameRows(frame, buffer, description, layout, fromRow, toRow));
+
+        if (layout == Layout.Interleaved) {
+            buffer.position(shape.width * shape.height * 3 * (description.isQuantized() ? 1 : 4));
+        } else {
+            buffer.rewind();
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Resamples a region of the source into a rectangle of the destination, filling the rest of
+     * the destination, for a range of the destination's rows.
+     *
+     * @param source The pixels to read from
+     * @param left The left edge of the source region
+     * @param top The top edge of the source region
+     * @param width The width of the source region
+     * @param height The height of the source region
+     * @param dstLeft The left edge of the destination rectangle
+     * @param dstTop The top edge of the destination rectangle
+     * @param dstWidth The width of the destination rectangle
+     * @param dstHeight The height of the destination rectangle
+     * @param fillColor The ARGB color written outside the destination rectangle
+     * @param buffer The buffer to write to
+     * @param description The layer
+     * @param table The normalization lookup table
+     * @param grayscale Whether pixels are converted to grayscale before they are written
+     * @param layout The order in which the buffer stores channels
+     * @param fromRow The first destination row to write, inclusive
+     * @param toRow The last destination row to write, exclusive
+     */
+
+    private static void resampleRows(@NonNull PixelSource source, int left, int top, int width, int height, int dstLeft, int dstTop, int dstWidth, int dstHeight, int fillColor, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @Nullable float[] table, boolean grayscale, @NonNull Layout layout, int fromRow, int toRow) {
+        int layerWidth = description.getShape().width;
+
+        Scratch s = scratch(width, layerWidth);
+        int[] row = s.row;
+
+        // Padding columns keep the fill color, since only the destination rectangle is sampled into
+
+        if (dstWidth != layerWidth) {
+            Arrays.fill(row, 0, layerWidth, fillColor);
+        }
+
+        float scaleX = (float) width / dstWidth;
+        float scaleY = (float) height / dstHeight;
+        boolean sameSize = width == dstWidth && height == dstHeight;
+        boolean nearest = description.getInterpolation() == Interpolation.Nearest;
+
+        int[] x0 = s.x0;
+        int[] x1 = s.x1;
+        int[] wx = s.wx;
+
+        if (!sameSize) {
+            for (int x = 0; x < dstWidth; x++) {
+                if (nearest) {
+                    x0[x] = Math.min(width - 1, (int) ((x + 0.5f) * scaleX));
+                } else {
+                    float sx = clamp((x + 0.5f) * scaleX - 0.5f, width - 1);
+                    x0[x] = (int) sx;
+                    x1[x] = Math.min(x0[x] + 1, width - 1);
+                    wx[x] = (int) ((sx - x0[x]) * WEIGHT_ONE);
+                }
+            }
+        }
+
+        // Source rows are loaded at most once as the destination rows advance
+
+        int[] topRow = s.top;
+        int[] bottomRow = s.bottom;
+        int topIndex = -1;
+        int bottomIndex = -1;
+
+        for (int y = fromRow; y < toRow; y++) {
+            int ly = y - dstTop;
+
+            // Padding rows are filled entirely
+
+            if (ly < 0 || ly >= dstHeight) {
+                Arrays.fill(row, 0, layerWidth, fillColor);
+                if (grayscale) {
+                    grayscale(row, layerWidth);
+                }
+                writeRow(row, y, buffer, description, table, layout);
+                continue;
+            }
+
+            if (sameSize) {
+                // Same size: copy the source row straight through
+
+                source.getPixels(row, dstLeft, left, top + ly, width, 1);
+            } else if (nearest) {
+                // Nearest neighbor: copy the source pixel under the center of each destination pixel
+
+                int sy = Math.min(height - 1, (int) ((ly + 0.5f) * scaleY));
+
+                if (sy != topIndex) {
+                    source.getPixels(topRow, 0, left, top + sy, width, 1);
+                    topIndex = sy;
+                }
+                for (int x = 0; x < dstWidth; x++) {
+                    row[dstLeft + x] = topRow[x0[x]];
+                }
+            } else {
+                // Bilinear: blend the four source pixels around the center of each destination pixel
+
+                float sy = clamp((ly + 0.5f) * scaleY - 0.5f, height - 1);
+                int y0 = (int) sy;
+                int y1 = Math.min(y0 + 1, height - 1);
+                int wy = (int) ((sy - y0) * WEIGHT_ONE);
+
+                if (y0 == bottomIndex) {
+                    int[] swap = topRow;
+                    topRow = bottomRow;
+                    bottomRow = swap;
+                    topIndex = bottomIndex;
+                    bottomIndex = -1;
+                }
+                if (y0 != topIndex) {
+                    source.getPixels(topRow, 0, left, top + y0, width, 1);
+                    topIndex = y0;
+                }
+                if (y1 != bottomIndex) {
+                    source.getPixels(bottomRow, 0, left, top + y1, width, 1);
+                    bottomIndex = y1;
+                }
+
+                for (int x = 0; x < dstWidth; x++) {
+                    row[dstLeft + x] = blend(topRow[x0[x]], topRow[x1[x]], bottomRow[x0[x]], bottomRow[x1[x]], wx[x], wy);
+                }
+            }
+
+            if (grayscale) {
+                grayscale(row, layerWidth);
+            }
+            writeRow(row, y, buffer, description, table, layout);
+        }
+    }
+
+    /**
+     * Samples a range of the destination's rows from a camera frame. Each destination pixel maps
+     * to a pixel of the upright frame and then, undoing the rotation, to a pixel of the frame. One
+     * of the frame coordinates depends only on the destination column and the other only on the
+     * destination row, so a sample's offset in each plane is a column offset plus a row offset.
+     *
+     * @param frame The camera frame to read samples from
+     * @param buffer The buffer to write to
+     * @param description The layer
+     * @param layout The order in which the buffer stores channels
+     * @param fromRow The first destination row to write, inclusive
+     * @param toRow The last destination row to write, exclusive
+     */
+
+    private static void resampleFrameRows(@NonNull CameraFrame frame, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull Layout layout, int fromRow, int toRow) {
+        int layerWidth = description.getShape().width;
+        int layerHeight = description.getShape().height;
+
+        int frameWidth = frame.getWidth();
+        int frameHeight = frame.getHeight();
+        int rotation = frame.getRotation();
+        boolean transposed = rotation == 90 || rotation == 270;
+
+        float scaleX = (float) frame.getUprightWidth() / layerWidth;
+        float scaleY = (float) frame.getUprightHeight() / layerHeight;
+
+        ByteBuffer yPlane = frame.getYPlane();
+        ByteBuffer uPlane = frame.getUPlane();
+        ByteBuffer vPlane = frame.getVPlane();
+        int yRowStride = frame.getYRowStride();
+        int yPixelStride = frame.getYPixelStride();
+        int uvRowStride = frame.getUVRowStride();
+        int uvPixelStride = frame.getUVPixelStride();
+
+        Scratch s = scratch(0, layerWidth);
+        int[] row = s.row;
+        int[] yColumn = s.x0;
+        int[] uvColumn = s.x1;
+
+        // Plane offsets contributed by each destination column
+
+        for (int x = 0; x < layerWidth; x++) {
+            int ux = Math.min(frame.getUprightWidth() - 1, (int) ((x + 0.5f) * scaleX));
+            int fx = rotation == 180 ? frameWidth - 1 - ux : ux;
+            int fy = rotation == 90 ? frameHeight - 1 - ux : ux;
+
+            if (transposed) {
+                yColumn[x] = fy * yRowStride;
+                uvColumn[x] = (fy >> 1) * uvRowStride;
+            } else {
+                yColumn[x] = fx * yPixelStride;
+                uvColumn[x] = (fx >> 1) * uvPixelStride;
+            }
+        }
+
+        for (int y = fromRow; y < toRow; y++) {
+
+            // Plane offsets contributed by the destination row
+
+            int uy = Math.min(frame.getUprightHeight() - 1, (int) ((y + 0.5f) * scaleY));
+            int yRow;
+            int uvRow;
+
+            switch (rotation) {
+                case 90:
+                    yRow = uy * yPixelStride;
+                    uvRow = (uy >> 1) * uvPixelStride;
+                    break;
+                case 180:
+                    yRow = (frameHeight - 1 - uy) * yRowStride;
+                    uvRow = ((frameHeight - 1 - uy) >> 1) * uvRowStride;
+                    break;
+                case 270:
+                    yRow = (frameWidth - 1 - uy) * yPixelStride;
+                    uvRow = ((frameWidth - 1 - uy) >> 1) * uvPixelStride;
+                    break;
+                default:
+                    yRow = uy * yRowStride;
+                    uvRow = (uy >> 1) * uvRowStride;
+                    break;
+            }
+
+            for (int x = 0; x < layerWidth; x++) {
+                int uvIndex = uvRow + uvColumn[x];
+                row[x] = yuvToArgb(yPlane.get(yRow + yColumn[x]) & 0xFF, uPlane.get(uvIndex) & 0xFF, vPlane.get(uvIndex) & 0xFF);
+            }
+
+            writeRow(row, y, buffer, description, description.getNormalizationTable(), layout);
+        }
+    }
+
+    /**
+     * Converts a full range BT.601 YUV sample, as produced by Android cameras, to an opaque ARGB
+     * pixel with fixed point coefficients.
+     */
+
+    private static int yuvToArgb(int y, int u, int v) {
+        int cb = u - 128;
+        int cr = v - 128;
+
+        int r = y + ((359 * cr) >> 8);
+        int g = y - ((88 * cb + 183 * cr) >> 8);
+        int b = y + ((454 * cb) >> 8);
+
+        r = r < 0 ? 0 : (r > 255 ? 255 : r);
+        g = g < 0 ? 0 : (g > 255 ? 255 : g);
+        b = b < 0 ? 0 : (b > 255 ? 255 : b);
+
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Normalizes or quantizes a row of ARGB pixels and writes it to the buffer with absolute puts,
+     * in the channel order of the layer's pixel format
+     */
+
+    private static void writeRow(@NonNull int[] row, int y, @NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @Nullable float[] table, @NonNull Layout layout) {
+        ImageVolume shape = description.getShape();
+        int width = shape.width;
+
+        // Shifts pick out the first and last channels in the order the layer expects them, and
+        // offsets pick out the table for each of those channels
+
+        boolean bgr = description.getPixelFormat() == PixelFormat.BGR;
+        int firstShift = bgr ? 0 : 16;
+        int lastShift = bgr ? 16 : 0;
+        int firstOffset = bgr ? 512 : 0;
+        int lastOffset = bgr ? 0 : 512;
+
+        // Index of the row's first value and the distance between a pixel's channels
+
+        int start;
+        int channelStride;
+        int pixelStride;
+
+        if (layout == Layout.Interleaved) {
+            start = y * width * 3;
+            channelStride = 1;
+            pixelStride = 3;
+        } else {
+            start = y * width;
+            channelStride = width * shape.height;
+            pixelStride = 1;
+        }
+
+        if (description.isQuantized()) {
+            for (int x = 0, i = start; x < width; x++, i += pixelStride) {
+                final int pixel = row[x];
+                buffer.put(i, (byte) (pixel >> firstShift));
+                buffer.put(i + channelStride, (byte) (pixel >> 8));
+                buffer.put(i + 2 * channelStride, (byte) (pixel >> lastShift));
+            }
+        } else {
+            for (int x = 0, i = start; x < width; x++, i += pixelStride) {
+                final int pixel = row[x];
+                buffer.putFloat(i * 4, table[firstOffset + ((pixel >> firstShift) & 0xFF)]);
+                buffer.putFloat((i + channelStride) * 4, table[256 + ((pixel >> 8) & 0xFF)]);
+                buffer.putFloat((i + 2 * channelStride) * 4, table[lastOffset + ((pixel >> lastShift) & 0xFF)]);
+            }
+        }
+    }
+
+    //region Utilities
+
+    /** Replaces each pixel with its BT.601 luma in every channel */
+
+    private static void grayscale(@NonNull int[] row, int width) {
+        for (int x = 0; x < width; x++) {
+            int p = row[x];
+            int luma = (77 * ((p >> 16) & 0xFF) + 150 * ((p >> 8) & 0xFF) + 29 * (p & 0xFF)) >> 8;
+            row[x] = 0xFF000000 | (luma << 16) | (luma << 8) | luma;
+        }
+    }
+
+    /** Blends four ARGB pixels with fixed point weights, producing an opaque pixel */
+
+    private static int blend(int p00, int p01, int p10, int p11, int wx, int wy) {
+        int r = blendChannel(p00 >> 16, p01 >> 16, p10 >> 16, p11 >> 16, wx, wy);
+        int g = blendChannel(p00 >> 8, p01 >> 8, p10 >> 8, p11 >> 8, wx, wy);
+        int b = blendChannel(p00, p01, p10, p11, wx, wy);
+
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    private static int blendChannel(int c00, int c01, int c10, int c11, int wx, int wy) {
+        int top = (c00 & 0xFF) * (WEIGHT_ONE - wx) + (c01 & 0xFF) * wx;
+        int bottom = (c10 & 0xFF) * (WEIGHT_ONE - wx) + (c11 & 0xFF) * wx;
+
+        return (top * (WEIGHT_ONE - wy) + bottom * wy + (1 << 15)) >> 16;
+    }
+
+    private static float clamp(float value, int max) {
+        return value < 0 ? 0 : Math.min(value, max);
+    }
+
+    /** Returns this thread's scratch space, grown to fit the source and destination widths */
+
+    private static Scratch scratch(int sourceWidth, int destinationWidth) {
+        Scratch s = scratch.get();
+
+        if (s == null) {
+            s = new Scratch();
+            scratch.set(s);
+        }
+        if (s.top.length < sourceWidth) {
+            s.top = new int[sourceWidth];
+            s.bottom = new int[sourceWidth];
+        }
+        if (s.row.length < Math.max(sourceWidth, destinationWidth)) {
+            s.row = new int[Math.max(sourceWidth, destinationWidth)];
+        }
+        if (s.x0.length < destinationWidth) {
+            s.x0 = new int[destinationWidth];
+            s.x1 = new int[destinationWidth];
+            s.wx = new int[destinationWidth];
+        }
+
+        return s;
+    }
+
+    //endRegion
+}
@@ -0,0 +1,93 @@
+/*
+ * PixelScratch.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Scratch space for decoding a pixel buffer layer's output into a Bitmap, which models hold for
+ * each pixel output layer so that decoding a full resolution image every frame does not allocate
+ * a pixel array.
+ *
+ * Converters read a layer's pixels into the array returned by `pixels` and then call `copyTo`,
+ * which moves them into the Bitmap with `Bitmap.copyPixelsFromBuffer`. That is a straight memory
+ * copy, where `Bitmap.setPixels` converts each pixel individually. The scratch space grows to fit
+ * the largest output it has decoded and is not thread safe.
+ */
+
+public final class PixelScratch {
+
+    /** A heap buffer whose backing array receives the pixels */
+
+    private IntBuffer buffer = IntBuffer.allocate(0);
+
+    /**
+     * Returns an array with room for at least `length` ARGB pixels, reallocating it if it is too
+     * small. The array's contents are overwritten by the next call to `copyTo`.
+     */
+
+    public int[] pixels(int length) {
+        if (buffer.capacity() < length) {
+            buffer = IntBuffer.allocate(length);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Copies the first `width * height` ARGB pixels of the scratch array into a Bitmap of that
+     * size. The pixels are assumed to be opaque.
+     *
+     * @param bitmap A mutable Bitmap
+     * @param width The width of the Bitmap
+     * @param height The height of the Bitmap
+     * @return The Bitmap
+     */
+
+    public Bitmap copyTo(@NonNull Bitmap bitmap, int width, int height) {
+        int[] pixels = buffer.array();
+        int count = width * height;
+
+        // Fall back to setPixels when the Bitmap's memory layout is not RGBA bytes
+
+        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888 || ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+            return bitmap;
+        }
+
+        // Swap red and blue so that each little endian int is laid out as RGBA bytes
+
+        for (int i = 0; i < count; i++) {
+            int p = pixels[i];
+            pixels[i] = (p & 0xFF00FF00) | ((p >>> 16) & 0xFF) | ((p & 0xFF) << 16);
+        }
+
+        buffer.clear();
+        buffer.limit(count);
+        bitmap.copyPixelsFromBuffer(buffer);
+
+        return bitmap;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * PixelSink.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A destination for ARGB pixels that the outputs of pixel buffer layers can be written to, such
+ * as a Bitmap, an int[] of ARGB pixels, or a ByteBuffer of RGBA pixels. Pass a sink as an output
+ * destination to `Model.runOnInto` to receive a pixel layer's output without allocating a Bitmap.
+ *
+ * @see PixelSource
+ */
+
+public interface PixelSink {
+
+    /** The width of the sink in pixels */
+
+    int getWidth();
+
+    /** The height of the sink in pixels */
+
+    int getHeight();
+
+    /**
+     * Writes a rectangle of ARGB pixels to the sink, like `Bitmap.setPixels` with a stride equal to
+     * the rectangle's width.
+     *
+     * @param pixels The array to read pixels from
+     * @param offset The index of the first pixel read from the array
+     * @param x The left edge of the rectangle in the sink
+     * @param y The top edge of the rectangle in the sink
+     * @param width The width of the rectangle
+     * @param height The height of the rectangle
+     */
+
+    void setPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height);
+}
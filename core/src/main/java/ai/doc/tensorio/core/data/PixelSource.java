@@ -0,0 +1,58 @@
+/*
+ * PixelSource.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A source of ARGB pixels that pixel buffer layers can read from, such as a Bitmap, an int[] of
+ * ARGB pixels, or a ByteBuffer of RGBA pixels.
+ *
+ * The backends' converters read sources a few rows at a time with `getPixels`, so a source
+ * wrapping a camera or decoder buffer is read in place without first being copied into a Bitmap.
+ * Only the red, green, and blue channels are used.
+ *
+ * @see PixelSink
+ */
+
+public interface PixelSource {
+
+    /** The width of the source in pixels */
+
+    int getWidth();
+
+    /** The height of the source in pixels */
+
+    int getHeight();
+
+    /**
+     * Reads a rectangle of pixels from the source as ARGB ints, like `Bitmap.getPixels` with a
+     * stride equal to the rectangle's width.
+     *
+     * @param pixels The array to receive the pixels
+     * @param offset The index of the first pixel written to the array
+     * @param x The left edge of the rectangle in the source
+     * @param y The top edge of the rectangle in the source
+     * @param width The width of the rectangle
+     * @param height The height of the rectangle
+     */
+
+    void getPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height);
+}
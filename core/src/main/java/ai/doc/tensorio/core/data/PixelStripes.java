@@ -0,0 +1,126 @@
+/*
+ * PixelStripes.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+
+/**
+ * Splits the rows of a large pixel buffer layer into stripes that are encoded or decoded
+ * concurrently on a fork/join pool shared by every model, with one worker per core. Every stripe
+ * writes only its own rows, using absolute puts into the layer's buffer or its own range of a
+ * pixel array, so stripes need no locking.
+ *
+ * Striping is enabled per layer with `PixelBufferLayerDescription.setParallel` and applies only to
+ * images of at least `MIN_PARALLEL_PIXELS` pixels, below which scheduling costs more than it saves.
+ */
+
+public final class PixelStripes {
+
+    /** Work on a contiguous range of rows */
+
+    public interface Rows {
+        void run(int fromRow, int toRow);
+    }
+
+    /** The smallest image, in pixels, that is split into stripes */
+
+    public static final int MIN_PARALLEL_PIXELS = 256 * 256;
+
+    /** The fewest rows a stripe is given */
+
+    private static final int MIN_STRIPE_ROWS = 16;
+
+    /** The shared pool, created the first time an image is striped */
+
+    private static final class Pool {
+        private static final ForkJoinPool INSTANCE = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    private PixelStripes() { }
+
+    /**
+     * Returns true if work on an image of this size for the layer should be split into stripes
+     */
+
+    public static boolean shouldStripe(@NonNull PixelBufferLayerDescription description, int width, int height) {
+        return description.isParallel()
+                && (long) width * height >= MIN_PARALLEL_PIXELS
+                && height >= MIN_STRIPE_ROWS * 2
+                && Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * Runs work on rows `[0, height)`, split into stripes on the shared pool if the layer
+     * is parallel and the image is large enough, otherwise on the calling thread. Returns when
+     * every stripe has finished, rethrowing any exception a stripe throws.
+     *
+     * @param description The layer
+     * @param width The width of the image
+     * @param height The number of rows
+     * @param rows The work to perform on each stripe
+     */
+
+    public static void run(@NonNull PixelBufferLayerDescription description, int width, int height, @NonNull Rows rows) {
+        if (!shouldStripe(description, width, height)) {
+            rows.run(0, height);
+            return;
+        }
+
+        ForkJoinPool pool = Pool.INSTANCE;
+        int stripes = Math.min(pool.getParallelism(), height / MIN_STRIPE_ROWS);
+        int stripeRows = (height + stripes - 1) / stripes;
+
+        pool.invoke(new Stripe(rows, 0, height, stripeRows));
+    }
+
+    /** Halves its range of rows until it is no larger than a stripe */
+
+    private static final class Stripe extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final @NonNull Rows rows;
+        private final int fromRow;
+        private final int toRow;
+        private final int stripeRows;
+
+        private Stripe(@NonNull Rows rows, int fromRow, int toRow, int stripeRows) {
+            this.rows = rows;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.stripeRows = stripeRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= stripeRows) {
+                rows.run(fromRow, toRow);
+                return;
+            }
+
+            int middle = fromRow + (toRow - fromRow) / 2;
+            invokeAll(new Stripe(rows, fromRow, middle, stripeRows), new Stripe(rows, middle, toRow, stripeRows));
+        }
+    }
+}
@@ -22,9 +22,19 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * A `DataQuantizer` quantizes unquantized values, converting them from
  * floating point representations to int representations.
+ *
+ * Converters quantize whole vectors at once with `quantize(float[], ByteBuffer)`, and batches
+ * quantize every item of a column at once with `quantize(float[], int, int, ByteBuffer)`. The standard
+ * quantizers override it with a tight loop over the scale and bias, so prefer them to custom
+ * subclasses when quantizing large inputs.
  */
 
 public abstract class Quantizer {
@@ -36,6 +46,88 @@ public abstract class Quantizer {
 
     public abstract int quantize(float value);
 
+    /**
+     * Quantizes an array of values into a buffer as unsigned bytes, clamping quantized values that
+     * fall outside of `[0,255]`. The bytes are written at the buffer's position, which is advanced
+     * past them.
+     *
+     * @param src The float values that will be quantized
+     * @param dst The buffer the quantized values are written to
+     */
+
+    public void quantize(@NonNull float[] src, @NonNull ByteBuffer dst) {
+        quantize(src, 0, src.length, dst);
+    }
+
+    /**
+     * Quantizes a range of an array of values into a buffer as unsigned bytes, clamping quantized
+     * values that fall outside of `[0,255]`. The bytes are written at the buffer's position, which
+     * is advanced past them.
+     *
+     * @param src The float values that will be quantized
+     * @param offset The index of the first value to quantize
+     * @param length The number of values to quantize
+     * @param dst The buffer the quantized values are written to
+     */
+
+    public void quantize(@NonNull float[] src, int offset, int length, @NonNull ByteBuffer dst) {
+        for (int i = offset; i < offset + length; i++) {
+            dst.put((byte) saturate(quantize(src[i])));
+        }
+    }
+
+    /** Clamps a quantized value to the range of an unsigned byte */
+
+    protected static int saturate(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    /**
+     * A quantizer applying a scale and bias, which truncates and clamps values to `[0,255]` and
+     * quantizes arrays without a virtual call per value
+     */
+
+    private static final class AffineQuantizer extends Quantizer {
+        private final float scale;
+        private final float bias;
+
+        private AffineQuantizer(float scale, float bias) {
+            this.scale = scale;
+            this.bias = bias;
+        }
+
+        @Override
+        public int quantize(float value) {
+            return saturate((int) ((value + bias) * scale));
+        }
+
+        @Override
+        public void quantize(@NonNull float[] src, int offset, int length, @NonNull ByteBuffer dst) {
+
+            // Write straight into the backing array of heap buffers
+
+            if (dst.hasArray()) {
+                byte[] bytes = dst.array();
+                int start = dst.arrayOffset() + dst.position();
+
+                if (dst.remaining() < length) {
+                    throw new BufferOverflowException();
+                }
+
+                for (int i = 0; i < length; i++) {
+                    bytes[start + i] = (byte) saturate((int) ((src[offset + i] + bias) * scale));
+                }
+
+                dst.position(dst.position() + length);
+                return;
+            }
+
+            for (int i = 0; i < length; i++) {
+                dst.put((byte) saturate((int) ((src[offset + i] + bias) * scale)));
+            }
+        }
+    }
+
     /**
      * A DataQuantizer that applies the provided scale and bias according to the following formula:
      *
@@ -49,12 +141,7 @@ public abstract class Quantizer {
      */
 
     public static Quantizer DataQuantizerWithQuantization(float scale, float bias) {
-        return new Quantizer() {
-            @Override
-            public int quantize(float value) {
-                return (int)((value+bias) * scale);
-            }
-        };
+        return new AffineQuantizer(scale, bias);
     }
 
     /**
@@ -62,12 +149,7 @@ public abstract class Quantizer {
      */
 
     public static Quantizer DataQuantizerZeroToOne() {
-        return new Quantizer() {
-            @Override
-            public int quantize(float value) {
-                return (int)(value * 255.0f);
-            }
-        };
+        return new AffineQuantizer(255.0f, 0.0f);
     }
 
     /**
@@ -0,0 +1,139 @@
+/*
+ * RGBABufferPixels.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A pixel source and sink backed by a ByteBuffer of RGBA pixels, four bytes per pixel in red,
+ * green, blue, alpha order, the layout of `Bitmap.Config.ARGB_8888` buffers, OpenGL RGBA
+ * readbacks, and `ImageFormat.FLEX_RGBA_8888` images. Rows may be padded, in which case the row
+ * stride is the distance in bytes between rows.
+ *
+ * Pixels are read and written in place with absolute gets and puts from the start of the buffer,
+ * so the buffer's position and byte order are ignored and left unchanged.
+ */
+
+public class RGBABufferPixels implements PixelSource, PixelSink {
+
+    private final @NonNull ByteBuffer buffer;
+    private final int rowStride;
+    private final int width;
+    private final int height;
+
+    /**
+     * An image of tightly packed rows
+     *
+     * @param buffer RGBA pixels
+     * @param width The width of the image
+     * @param height The height of the image
+     * @throws IllegalArgumentException If the buffer is too small for the image
+     */
+
+    public RGBABufferPixels(@NonNull ByteBuffer buffer, int width, int height) throws IllegalArgumentException {
+        this(buffer, width * 4, width, height);
+    }
+
+    /**
+     * An image with a row stride
+     *
+     * @param buffer RGBA pixels
+     * @param rowStride The distance in bytes between the starts of rows, at least four times the width
+     * @param width The width of the image
+     * @param height The height of the image
+     * @throws IllegalArgumentException If the image is empty, the row stride is too small, or the
+     * buffer is too small for the image
+     */
+
+    public RGBABufferPixels(@NonNull ByteBuffer buffer, int rowStride, int width, int height) throws IllegalArgumentException {
+        if (width <= 0 || height <= 0 || rowStride < width * 4) {
+            throw BadLayoutException(rowStride, width, height);
+        }
+        if ((long) rowStride * (height - 1) + width * 4 > buffer.capacity()) {
+            throw BadCapacityException(buffer.capacity(), width, height);
+        }
+
+        // A big endian view reads each pixel as a single RGBA int
+
+        this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.rowStride = rowStride;
+        this.width = width;
+        this.height = height;
+    }
+
+    //region Getters
+
+    public int getRowStride() {
+        return rowStride;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    //endRegion
+
+    @Override
+    public void getPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            int index = (y + row) * rowStride + x * 4;
+            int to = offset + row * width;
+
+            for (int i = 0; i < width; i++, index += 4) {
+                int rgba = buffer.getInt(index);
+                pixels[to + i] = (rgba >>> 8) | (rgba << 24);
+            }
+        }
+    }
+
+    @Override
+    public void setPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            int index = (y + row) * rowStride + x * 4;
+            int from = offset + row * width;
+
+            for (int i = 0; i < width; i++, index += 4) {
+                int argb = pixels[from + i];
+                buffer.putInt(index, (argb << 8) | (argb >>> 24));
+            }
+        }
+    }
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadLayoutException(int rowStride, int width, int height) {
+        return new IllegalArgumentException("Bad pixel layout, received a " + width + "x" + height + " image with row stride " + rowStride);
+    }
+
+    private static IllegalArgumentException BadCapacityException(int capacity, int width, int height) {
+        return new IllegalArgumentException("The pixel buffer is too small for a " + width + "x" + height + " image, received " + capacity + " bytes");
+    }
+
+    //endRegion
+}
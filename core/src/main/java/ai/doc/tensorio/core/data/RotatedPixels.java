@@ -0,0 +1,96 @@
+/*
+ * RotatedPixels.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A view of a pixel source rotated clockwise by a multiple of 90 degrees. The view reads the rows
+ * it is asked for straight from the source, columns of the source for quarter turns, so the
+ * rotated image is never materialized.
+ */
+
+final class RotatedPixels implements PixelSource {
+
+    private final @NonNull PixelSource source;
+    private final int rotation;
+
+    /**
+     * @param source The source to rotate
+     * @param rotation Clockwise rotation in degrees, 0, 90, 180, or 270
+     */
+
+    RotatedPixels(@NonNull PixelSource source, int rotation) {
+        this.source = source;
+        this.rotation = rotation;
+    }
+
+    @Override
+    public int getWidth() {
+        return (rotation == 90 || rotation == 270) ? source.getHeight() : source.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return (rotation == 90 || rotation == 270) ? source.getWidth() : source.getHeight();
+    }
+
+    @Override
+    public void getPixels(@NonNull int[] pixels, int offset, int x, int y, int width, int height) {
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+
+        for (int row = 0; row < height; row++) {
+            int ry = y + row;
+            int to = offset + row * width;
+
+            switch (rotation) {
+                case 90:
+                    // A row of the view is a source column read bottom to top
+
+                    source.getPixels(pixels, to, ry, sourceHeight - x - width, 1, width);
+                    reverse(pixels, to, width);
+                    break;
+                case 180:
+                    // A row of the view is a source row read right to left
+
+                    source.getPixels(pixels, to, sourceWidth - x - width, sourceHeight - 1 - ry, width, 1);
+                    reverse(pixels, to, width);
+                    break;
+                case 270:
+                    // A row of the view is a source column read top to bottom
+
+                    source.getPixels(pixels, to, sourceWidth - 1 - ry, x, 1, width);
+                    break;
+                default:
+                    source.getPixels(pixels, to, x, ry, width, 1);
+                    break;
+            }
+        }
+    }
+
+    private static void reverse(@NonNull int[] pixels, int offset, int length) {
+        for (int i = offset, j = offset + length - 1; i < j; i++, j--) {
+            int swap = pixels[i];
+            pixels[i] = pixels[j];
+            pixels[j] = swap;
+        }
+    }
+}
@@ -21,6 +21,7 @@
 package ai.doc.tensorio.core.layerinterface;
 
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Encapsulates information about the input, output, and placeholder layers of a model, fully described by a
@@ -170,6 +171,10 @@ public class LayerInterface {
         return layerDescription.getDtype();
     }
 
+    public boolean isBatched() {
+        return layerDescription.isBatched();
+    }
+
     //endregion
 
     /**
@@ -216,4 +221,45 @@ public class LayerInterface {
                 break;
         }
     }
+
+    /**
+     * Like doCase but returns the value produced by the lambda for the layer's type. Useful when
+     * resolving something for a layer once, for example a converter, rather than capturing the
+     * result of doCase in a reference.
+     *
+     * For example:
+     *
+     * <code>
+     *     ByteBuffer buffer = layer.mapCase(
+     *         (vectorLayer) -> vectorConverter.createBackingBuffer(vectorLayer),
+     *         (pixelLayer) -> bitmapConverter.createBackingBuffer(pixelLayer),
+     *         (stringLayer) -> stringConverter.createBackingBuffer(stringLayer),
+     *         (scalarLayer) -> scalarConverter.createBackingBuffer(scalarLayer));
+     * </code>
+     *
+     * @param vectorLayer A function that takes the vector layer description as a parameter
+     * @param pixelLayer A function that takes the pixel layer description as a parameter
+     * @param stringLayer A function that takes the string (bytes) layer description as a parameter
+     * @param scalarLayer A function that takes the scalar layer description as a parameter
+     * @return The value returned by the function for the layer's type
+     */
+
+    public <T> T mapCase(
+            Function<VectorLayerDescription, T> vectorLayer,
+            Function<PixelBufferLayerDescription, T> pixelLayer,
+            Function<StringLayerDescription, T> stringLayer,
+            Function<ScalarLayerDescription, T> scalarLayer) {
+        switch (this.type) {
+            case Vector:
+                return vectorLayer.apply((VectorLayerDescription)this.layerDescription);
+            case PixelBuffer:
+                return pixelLayer.apply((PixelBufferLayerDescription)this.layerDescription);
+            case String:
+                return stringLayer.apply((StringLayerDescription)this.layerDescription);
+            case Scalar:
+                return scalarLayer.apply((ScalarLayerDescription)this.layerDescription);
+            default:
+                throw new IllegalStateException("Unknown layer type " + this.type);
+        }
+    }
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ package ai.doc.tensorio.core.layerinterface;
 
 import ai.doc.tensorio.core.data.PixelDenormalizer;
 import ai.doc.tensorio.core.data.PixelNormalizer;
+import ai.doc.tensorio.core.data.PixelResampler;
 import ai.doc.tensorio.core.model.ImageVolume;
 import ai.doc.tensorio.core.model.PixelFormat;
 
@@ -63,6 +64,27 @@ public class PixelBufferLayerDescription extends LayerDescription {
 
     private PixelDenormalizer denormalizer;
 
+    /**
+     * The normalized float value of every byte value in each RGB channel, indexed by
+     * `channel * 256 + value`, precomputed from the normalizer when the layer is parsed.
+     * Null for quantized layers, which do not normalize their values.
+     */
+
+    private float[] normalizationTable;
+
+    /**
+     * How input images of a different size are resampled to the layer's shape, bilinear by default
+     */
+
+    private PixelResampler.Interpolation interpolation = PixelResampler.Interpolation.Bilinear;
+
+    /**
+     * Whether large images are encoded and decoded in row stripes on a shared fork/join pool,
+     * false by default. See `PixelStripes`.
+     */
+
+    private boolean parallel = false;
+
     /**
      * Creates a pixel buffer description from the properties parsed in a model.json file.
      *
@@ -84,6 +106,12 @@ public class PixelBufferLayerDescription extends LayerDescription {
         this.normalizer = normalizer;
         this.denormalizer = denormalizer;
         this.quantized = quantized;
+
+        if (!quantized) {
+            this.normalizationTable = normalizer != null
+                    ? normalizer.lookupTable()
+                    : PixelNormalizer.IdentityLookupTable();
+        }
     }
 
     //region Getters and Setters
@@ -109,6 +137,35 @@ public class PixelBufferLayerDescription extends LayerDescription {
         return denormalizer;
     }
 
+    /** The normalization lookup table for the layer, null if the layer is quantized. Do not modify. */
+
+    public float[] getNormalizationTable() {
+        return normalizationTable;
+    }
+
+    public PixelResampler.Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    /** Sets how input images of a different size are resampled, for example to nearest neighbor for speed */
+
+    public void setInterpolation(PixelResampler.Interpolation interpolation) {
+        this.interpolation = interpolation;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether images at least `PixelStripes.MIN_PARALLEL_PIXELS` in size are encoded and
+     * decoded in row stripes on several cores
+     */
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @Override
     public int[] getTensorShape() {
         if (isBatched()) {
@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import ai.doc.tensorio.core.data.Dequantizer;
+import ai.doc.tensorio.core.data.LabeledVector;
 import ai.doc.tensorio.core.data.Quantizer;
 
 import static java.lang.Math.abs;
@@ -91,6 +92,20 @@ public class VectorLayerDescription extends LayerDescription {
 
     private String[] labels;
 
+    /**
+     * Maps each label to its index, built once so that labeled outputs can look up their values
+     * without hashing every label on every inference. Null if the layer is not labeled.
+     */
+
+    private Map<String, Integer> labelIndices;
+
+    /**
+     * The index of each distinct label in order, skipping all but the last of a repeated label, so
+     * that labeled outputs hold one entry per label. Null if the layer is not labeled.
+     */
+
+    private int[] distinctLabelIndices;
+
     /**
      * A function that converts a vector from unquantized values to quantized values
      */
@@ -127,6 +142,8 @@ public class VectorLayerDescription extends LayerDescription {
         this.batched = batched;
         this.labels = labels;
         this.labeled = labels != null && labels.length > 0;
+        this.labelIndices = labeled ? indexLabels(labels) : null;
+        this.distinctLabelIndices = labeled ? distinctLabelIndices(labels, labelIndices) : null;
         this.quantized = quantized;
         this.quantizer = quantizer;
         this.dequantizer = dequantizer;
@@ -151,6 +168,26 @@ public class VectorLayerDescription extends LayerDescription {
         return labeled;
     }
 
+    /** The index of a label, or -1 if the layer has no such label */
+
+    public int indexOfLabel(String label) {
+        if (labelIndices == null) {
+            return -1;
+        }
+
+        Integer index = labelIndices.get(label);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * The index of each distinct label in order, where a repeated label is found at its last index.
+     * Null if the layer is not labeled. Do not modify.
+     */
+
+    public int[] getDistinctLabelIndices() {
+        return distinctLabelIndices;
+    }
+
     public Quantizer getQuantizer() {
         return quantizer;
     }
@@ -169,23 +206,47 @@ public class VectorLayerDescription extends LayerDescription {
     /**
      * Given the output vector of a tensor, returns labeled outputs using `labels`.
      *
+     * The labeled values are a read-only view over the vector and the layer's labels, see
+     * `LabeledVector`, so no values are copied.
+     *
      * @param vector An array of float values.
      * @return  The labeled values, where the dictionary keys are the labels and the
      * dictionary values are the associated vector values.
      */
 
-    public Map<String, Float> labeledValues(float[] vector) {
+    public LabeledVector labeledValues(float[] vector) {
         if (!isLabeled()) {
             return null;
         }
 
-        Map<String, Float> result = new HashMap<>(vector.length);
+        return new LabeledVector(this, vector);
+    }
+
+    /** Maps each label to its index, keeping the last index of a repeated label */
+
+    private static Map<String, Integer> indexLabels(String[] labels) {
+        Map<String, Integer> indices = new HashMap<>(labels.length * 2);
+
+        for (int i = 0; i < labels.length; i++) {
+            indices.put(labels[i], i);
+        }
+
+        return indices;
+    }
+
+    /** The indices at which each label is found in `indices`, in order */
+
+    private static int[] distinctLabelIndices(String[] labels, Map<String, Integer> indices) {
+        int[] distinct = new int[indices.size()];
+        int count = 0;
 
-        for (int i = 0; i < labels.length; i++){
-            result.put(labels[i], vector[i]);
+        for (int i = 0; i < labels.length; i++) {
+            if (indices.get(labels[i]) == i) {
+                distinct[count++] = i;
+            }
         }
 
-        return result;
+        return distinct;
     }
 
 }
@@ -0,0 +1,319 @@
+/*
+ * BatchCoalescer.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+
+/**
+ * Coalesces concurrent single item requests to a model into batches.
+ *
+ * Requests submitted with `runOn` are queued and merged into a batch on a background thread.
+ * The batch is run when it reaches `maxBatchSize` items or when `maxDelayMicros` have elapsed since
+ * the first item in the batch was received, whichever comes first. Each request is completed
+ * with its own results, or exceptionally if the batch fails, through the future returned to the
+ * caller.
+ *
+ * The coalescer is the only thing that should run the model while it is in use. Models whose
+ * layers are all batched are run once on each batch with `runOn(Batch)`. Models with a layer that
+ * is not batched cannot be run on a batch, so the coalescer runs each request in turn on its
+ * thread with `runOn(Map)` instead.
+ *
+ * Call `close()` when you are done with the coalescer. Requests that have already been submitted
+ * are still run. If the background thread is interrupted, requests it has not yet run are
+ * completed exceptionally.
+ */
+
+@RequiresApi(api = Build.VERSION_CODES.N)
+public class BatchCoalescer implements Closeable {
+
+    /** A single item request and the future it will be completed through */
+
+    private static final class Request {
+        private final Batch.Item item;
+        private final CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+
+        private Request(Batch.Item item) {
+            this.item = item;
+        }
+    }
+
+    /** Queued to the worker when the coalescer is closed */
+
+    private static final Request CLOSE = new Request(null);
+
+    /** The model requests are run on */
+
+    private final @NonNull Model model;
+
+    /** The maximum number of items run together in a single batch */
+
+    private final int maxBatchSize;
+
+    /** The longest time a request waits for other requests to join its batch */
+
+    private final long maxDelayMicros;
+
+    /** Whether every input and output layer of the model is batched, so that it may be run on a batch */
+
+    private final boolean batched;
+
+    /** Pending requests */
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    /** The thread batches are assembled and run on */
+
+    private final Thread worker;
+
+    /** Guarded by the coalescer's lock, so that no request is queued after `CLOSE` */
+
+    private boolean closed = false;
+
+    /**
+     * Creates a coalescer and starts its background thread
+     *
+     * @param model The model to run batches on
+     * @param maxBatchSize The maximum number of items run together in a single batch
+     * @param maxDelayMicros The longest time in microseconds a request waits for other requests
+     *                       to join its batch
+     */
+
+    public BatchCoalescer(@NonNull Model model, int maxBatchSize, long maxDelayMicros) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The maximum batch size must be at least 1, received " + maxBatchSize);
+        }
+        if (maxDelayMicros < 0) {
+            throw new IllegalArgumentException("The maximum delay may not be negative, received " + maxDelayMicros);
+        }
+
+        this.model = model;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMicros = maxDelayMicros;
+        this.batched = isBatched(model.getIO());
+
+        this.worker = new Thread(this::work, "TensorIO-BatchCoalescer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    //region Getters and Setters
+
+    public Model getModel() {
+        return model;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxDelayMicros() {
+        return maxDelayMicros;
+    }
+
+    //endRegion
+
+    /**
+     * Queues a single item request to be run with other requests in a batch.
+     *
+     * @param input A mapping of input layer names to arbitrary objects
+     * @return A future completed with the results of running the model on the input, mapped from
+     * the output layer names to the values, or completed exceptionally with the model's exception
+     * @throws IllegalStateException If the coalescer has been closed
+     */
+
+    public CompletableFuture<Map<String, Object>> runOn(@NonNull Map<String, Object> input) throws IllegalStateException {
+        Batch.Item item = new Batch.Item();
+        item.putAll(input);
+
+        Request request = new Request(item);
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The batch coalescer has been closed");
+            }
+
+            queue.offer(request);
+        }
+
+        return request.future;
+    }
+
+    /**
+     * Stops accepting requests. Requests that were submitted before the coalescer was closed are
+     * still run, after which the background thread exits.
+     */
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        queue.offer(CLOSE);
+    }
+
+    //region Worker
+
+    /** Assembles batches of requests and runs them until the coalescer is closed */
+
+    private void work() {
+        boolean running = true;
+
+        while (running) {
+            List<Request> requests = new ArrayList<>(maxBatchSize);
+
+            try {
+                Request first = queue.take();
+
+                if (first == CLOSE) {
+                    break;
+                }
+
+                requests.add(first);
+
+                // Wait for more requests until the batch is full or the first request's delay elapses
+
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+
+                while (requests.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == CLOSE) {
+                        running = false;
+                        break;
+                    }
+
+                    requests.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            run(requests);
+        }
+
+        // Fail any requests left in the queue when the thread is interrupted
+
+        synchronized (this) {
+            closed = true;
+        }
+
+        Request request;
+
+        while ((request = queue.poll()) != null) {
+            if (request != CLOSE) {
+                request.future.completeExceptionally(new IllegalStateException("The batch coalescer stopped before running the request"));
+            }
+        }
+    }
+
+    /** Runs the model once on a batch of requests and completes each request's future */
+
+    private void run(@NonNull List<Request> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        // Models with unbatched layers are run on each request in turn
+
+        if (!batched) {
+            for (Request request : requests) {
+                try {
+                    request.future.complete(model.runOn(request.item));
+                } catch (Throwable t) {
+                    request.future.completeExceptionally(t);
+                }
+            }
+            return;
+        }
+
+        // Assemble the batch, failing requests whose inputs don't match the model's inputs
+
+        Batch batch = new Batch(model.getIO().getInputs().all(), requests.size());
+        List<Request> batched = new ArrayList<>(requests.size());
+
+        for (Request request : requests) {
+            try {
+                batch.add(request.item);
+                batched.add(request);
+            } catch (IllegalArgumentException e) {
+                request.future.completeExceptionally(e);
+            }
+        }
+
+        if (batched.isEmpty()) {
+            return;
+        }
+
+        // Run the batch and complete each request with its results
+
+        try {
+            List<Map<String, Object>> results = model.runOn(batch);
+
+            for (int i = 0; i < batched.size(); i++) {
+                batched.get(i).future.complete(results.get(i));
+            }
+        } catch (Throwable t) {
+            for (Request request : batched) {
+                request.future.completeExceptionally(t);
+            }
+        }
+    }
+
+    /** Returns true if every input and output layer is batched */
+
+    private static boolean isBatched(@NonNull IO io) {
+        for (LayerInterface layer : io.getInputs().all()) {
+            if (!layer.isBatched()) {
+                return false;
+            }
+        }
+
+        for (LayerInterface layer : io.getOutputs().all()) {
+            if (!layer.isBatched()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //endRegion
+}
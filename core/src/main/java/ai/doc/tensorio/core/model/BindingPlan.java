@@ -0,0 +1,344 @@
+/*
+ * BindingPlan.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.data.OutputDestinations;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+
+/**
+ * A binding plan is compiled once from a model's `IO` description, usually when the model is
+ * loaded, and binds each input, placeholder, and output layer to a slot holding everything a
+ * backend needs to move data in and out of that layer: an encoder, a decoder, and a backing
+ * buffer.
+ *
+ * The encoders and decoders are resolved from the layer's type when the plan is compiled, so that
+ * running a model does not switch on each layer's type, capture lambdas, or look up buffers by
+ * layer. Slots are indexed in the same order as the corresponding `IO.IOList`.
+ *
+ * Backends parameterize the plan with the type their encoders produce, `E`, and the type their
+ * decoders consume, `D`. A TF Lite model, for example, encodes inputs into ByteBuffers and decodes
+ * outputs from ByteBuffers, while a PyTorch model encodes inputs into Tensors and decodes outputs
+ * from Tensors.
+ *
+ * A plan is not thread safe. Backends that run inference concurrently compile a plan for each
+ * thread of execution.
+ */
+
+public final class BindingPlan<E, D> {
+
+    /** Encodes a user land object for a layer, writing to the buffer when one is provided */
+
+    public interface Encoder<E> {
+        E encode(@NonNull Object input, @Nullable ByteBuffer buffer) throws IllegalArgumentException;
+    }
+
+    /** Decodes a layer's data to a user land object */
+
+    public interface Decoder<D> {
+        Object decode(@NonNull D data);
+    }
+
+    /**
+     * Decodes a layer's data into a caller-provided destination, returning the destination, or
+     * returns a newly decoded object if the destination is null or not supported by the decoder.
+     * See `OutputDestinations` for the supported destinations.
+     */
+
+    public interface DecoderInto<D> {
+        Object decode(@NonNull D data, @Nullable Object destination) throws IllegalArgumentException;
+    }
+
+    /**
+     * Resolves the buffer, encoder, and decoder for each layer when a plan is compiled. Backends
+     * implement a compiler with their converters.
+     */
+
+    public interface Compiler<E, D> {
+
+        /** Creates a buffer sized for a single item of the layer, or null if the layer has no buffer */
+
+        @Nullable ByteBuffer allocate(@NonNull LayerInterface layer);
+
+        /** Resolves the encoder for the layer */
+
+        @NonNull Encoder<E> encoder(@NonNull LayerInterface layer);
+
+        /** Resolves the decoder for the layer */
+
+        @NonNull Decoder<D> decoder(@NonNull LayerInterface layer);
+
+        /**
+         * Resolves the decoder that writes into caller-provided destinations for the layer, or
+         * null if the backend cannot decode directly into destinations, in which case the plan
+         * decodes a new object and copies it into the destination.
+         */
+
+        default @Nullable DecoderInto<D> decoderInto(@NonNull LayerInterface layer) {
+            return null;
+        }
+    }
+
+    /** Binds a single layer to its encoder, decoder, and buffers */
+
+    public static final class Slot<E, D> {
+
+        private final int index;
+        private final @NonNull LayerInterface layer;
+        private final @NonNull String name;
+        private final @NonNull int[] shape;
+        private final int byteLength;
+        private final @NonNull Encoder<E> encoder;
+        private final @NonNull Decoder<D> decoder;
+        private final @Nullable DecoderInto<D> decoderInto;
+        private final @NonNull Compiler<E, D> compiler;
+
+        /**
+         * Decoders of the slot's layer for lazy decoding, one per thread that decodes, so that each
+         * thread's decoder keeps its own scratch space across reads
+         */
+
+        private final @NonNull ThreadLocal<Decoder<D>> detachedDecoders;
+        private final boolean cacheBuffers;
+
+        /** The buffer for a single item, null if buffers are not cached */
+
+        private final @Nullable ByteBuffer buffer;
+
+        /** The buffer for a batch of items, which grows to fit the largest batch if buffers are cached */
+
+        private @Nullable ByteBuffer batchBuffer;
+
+        private Slot(int index, @NonNull LayerInterface layer, @NonNull Compiler<E, D> compiler, boolean cacheBuffers) {
+            ByteBuffer buffer = compiler.allocate(layer);
+
+            this.index = index;
+            this.layer = layer;
+            this.name = layer.getName();
+            this.shape = singleItemShape(layer.getTensorShape());
+            this.byteLength = buffer == null ? 0 : buffer.capacity();
+            this.encoder = compiler.encoder(layer);
+            this.decoder = compiler.decoder(layer);
+            this.decoderInto = compiler.decoderInto(layer);
+            this.compiler = compiler;
+            this.detachedDecoders = new ThreadLocal<Decoder<D>>() {
+                @Override
+                protected Decoder<D> initialValue() {
+                    return compiler.decoder(layer);
+                }
+            };
+            this.cacheBuffers = cacheBuffers;
+            this.buffer = cacheBuffers ? buffer : null;
+        }
+
+        /** The slot's index, which is the index of the layer in its IO list */
+
+        public int getIndex() {
+            return index;
+        }
+
+        public LayerInterface getLayer() {
+            return layer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** The layer's tensor shape with a leading -1 dimension replaced by a batch size of one. Do not modify. */
+
+        public int[] getShape() {
+            return shape;
+        }
+
+        /** The number of bytes a single item occupies in the layer's buffer */
+
+        public int getByteLength() {
+            return byteLength;
+        }
+
+        /** The cached buffer for a single item, null if buffers are not cached */
+
+        public @Nullable ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        /** Encodes an input into the slot's cached buffer, or into a new buffer if buffers are not cached */
+
+        public E encode(@NonNull Object input) throws IllegalArgumentException {
+            return encoder.encode(input, buffer);
+        }
+
+        /** Encodes an input into the provided buffer, for example an item's region of a batch buffer */
+
+        public E encode(@NonNull Object input, @Nullable ByteBuffer buffer) throws IllegalArgumentException {
+            return encoder.encode(input, buffer);
+        }
+
+        /** Decodes a layer's data to a user land object */
+
+        public Object decode(@NonNull D data) {
+            return decoder.decode(data);
+        }
+
+        /**
+         * Decodes a layer's data with a decoder of its own rather than the slot's, whose scratch
+         * space belongs to the plan's thread. Used to decode outputs lazily, after the plan may
+         * already be running the next inference. The decoder is compiled once for each thread
+         * that decodes and reused for later reads on that thread.
+         */
+
+        public Object decodeDetached(@NonNull D data) {
+            return detachedDecoders.get().decode(data);
+        }
+
+        /**
+         * Decodes a layer's data into a caller-provided destination, returning the destination,
+         * or returns a newly decoded object if the destination is null or unsupported
+         */
+
+        public Object decodeInto(@NonNull D data, @Nullable Object destination) throws IllegalArgumentException {
+            if (destination == null) {
+                return decoder.decode(data);
+            }
+            if (decoderInto != null) {
+                return decoderInto.decode(data, destination);
+            }
+
+            return OutputDestinations.copy(decoder.decode(data), destination);
+        }
+
+        /**
+         * Returns a buffer a single item of output may be written to, which is the cached buffer
+         * rewound if buffers are cached and a new buffer otherwise.
+         */
+
+        public ByteBuffer outputBuffer() {
+            if (buffer != null) {
+                buffer.rewind();
+                return buffer;
+            }
+
+            return compiler.allocate(layer);
+        }
+
+        /**
+         * Returns a direct buffer in native byte order with room for at least `length` bytes, for
+         * example for every item in a batch. If buffers are cached the buffer is reused for
+         * subsequent batches of the same or a smaller size.
+         */
+
+        public ByteBuffer batchBuffer(int length) {
+            ByteBuffer batch = batchBuffer;
+
+            if (batch == null || batch.capacity() < length) {
+                batch = ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+
+                if (cacheBuffers) {
+                    batchBuffer = batch;
+                }
+            }
+
+            return batch;
+        }
+
+        /** Replaces a leading -1 dimension with a batch size of one */
+
+        private static int[] singleItemShape(@NonNull int[] tensorShape) {
+            int[] shape = tensorShape.clone();
+
+            if (shape.length > 0 && shape[0] == -1) {
+                shape[0] = 1;
+            }
+
+            return shape;
+        }
+    }
+
+    private final @NonNull Slot<E, D>[] inputs;
+    private final @NonNull Slot<E, D>[] placeholders;
+    private final @NonNull Slot<E, D>[] outputs;
+
+    private BindingPlan(@NonNull Slot<E, D>[] inputs, @NonNull Slot<E, D>[] placeholders, @NonNull Slot<E, D>[] outputs) {
+        this.inputs = inputs;
+        this.placeholders = placeholders;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Compiles a binding plan for a model's inputs, placeholders, and outputs
+     *
+     * @param io The model's IO description
+     * @param compiler Resolves the buffer, encoder, and decoder for each layer
+     * @param cacheBuffers Whether slots keep their buffers for reuse across calls
+     * @return A binding plan with a slot for every layer
+     */
+
+    public static <E, D> BindingPlan<E, D> compile(@NonNull IO io, @NonNull Compiler<E, D> compiler, boolean cacheBuffers) {
+        return new BindingPlan<>(
+                compileSlots(io.getInputs(), compiler, cacheBuffers),
+                compileSlots(io.getPlaceholders(), compiler, cacheBuffers),
+                compileSlots(io.getOutputs(), compiler, cacheBuffers));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E, D> Slot<E, D>[] compileSlots(@NonNull IO.IOList list, @NonNull Compiler<E, D> compiler, boolean cacheBuffers) {
+        Slot<E, D>[] slots = (Slot<E, D>[]) new Slot<?, ?>[list.size()];
+
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot<>(i, list.get(i), compiler, cacheBuffers);
+        }
+
+        return slots;
+    }
+
+    //region Getters
+
+    public int inputCount() {
+        return inputs.length;
+    }
+
+    public int placeholderCount() {
+        return placeholders.length;
+    }
+
+    public int outputCount() {
+        return outputs.length;
+    }
+
+    public Slot<E, D> input(int index) {
+        return inputs[index];
+    }
+
+    public Slot<E, D> placeholder(int index) {
+        return placeholders[index];
+    }
+
+    public Slot<E, D> output(int index) {
+        return outputs[index];
+    }
+
+    //endRegion
+}
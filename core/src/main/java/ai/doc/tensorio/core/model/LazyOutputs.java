@@ -0,0 +1,170 @@
+/*
+ * LazyOutputs.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The results of running a model with several outputs, which decodes each output the first time
+ * it is read. Backends add the raw data of every output layer along with a way to decode it, and
+ * reading an output with `get` decodes it and caches the value, so outputs you never read, such as
+ * the auxiliary heads of a multi-head model, are never decoded. Backends only add outputs lazily
+ * when their raw data outlives the next inference, and decode the others right away.
+ *
+ * Operations that touch every value, like iterating over the entries or comparing two maps, decode
+ * all the outputs that have not yet been decoded. `containsKey`, `keySet`, and `size` do not.
+ * Neither do `put` and `remove`, which return null in place of an output that was never decoded.
+ * `keySet` and `entrySet` return read-only snapshots rather than live views.
+ *
+ * The map may be modified like any other map and is safe to read from several threads.
+ */
+
+public final class LazyOutputs extends AbstractMap<String, Object> {
+
+    /** Decodes the raw data of a single output */
+
+    public interface Value {
+        Object decode();
+    }
+
+    /** Outputs that have been decoded or put into the map */
+
+    private final @NonNull HashMap<String, Object> values;
+
+    /** Outputs that have not yet been decoded */
+
+    private final @NonNull HashMap<String, Value> pending;
+
+    /**
+     * @param capacity The number of outputs the model produces
+     */
+
+    public LazyOutputs(int capacity) {
+        this.values = new HashMap<>(capacity);
+        this.pending = new HashMap<>(capacity);
+    }
+
+    /**
+     * Adds an output that will be decoded the first time it is read
+     *
+     * @param name The name of the output layer
+     * @param value Decodes the layer's raw data, called at most once
+     */
+
+    public synchronized void putLazily(@NonNull String name, @NonNull Value value) {
+        values.remove(name);
+        pending.put(name, value);
+    }
+
+    /** True if the output has been decoded, or was never lazy */
+
+    public synchronized boolean isDecoded(@NonNull String name) {
+        return values.containsKey(name);
+    }
+
+    @Override
+    public synchronized @Nullable Object get(@Nullable Object key) {
+        Value value = pending.get(key);
+
+        if (value != null) {
+            Object decoded = value.decode();
+            pending.remove(key);
+            values.put((String) key, decoded);
+            return decoded;
+        }
+
+        return values.get(key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(@Nullable Object key) {
+        return pending.containsKey(key) || values.containsKey(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return values.size() + pending.size();
+    }
+
+    /** Returns the previous value, or null if the previous value was never decoded */
+
+    @Override
+    public synchronized @Nullable Object put(@NonNull String key, @Nullable Object value) {
+        pending.remove(key);
+        return values.put(key, value);
+    }
+
+    /** Returns the removed value, or null if the removed value was never decoded */
+
+    @Override
+    public synchronized @Nullable Object remove(@Nullable Object key) {
+        pending.remove(key);
+        return values.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        pending.clear();
+        values.clear();
+    }
+
+    @Override
+    public synchronized @NonNull Set<String> keySet() {
+        // A snapshot, since a live view would have to decode outputs removed through it
+
+        Set<String> keys = new HashSet<>(values.keySet());
+        keys.addAll(pending.keySet());
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public synchronized @NonNull Set<Map.Entry<String, Object>> entrySet() {
+        decodeAll();
+
+        // A snapshot of immutable entries, since a live view could not be iterated while other
+        // threads decode outputs
+
+        Set<Map.Entry<String, Object>> entries = new HashSet<>(values.size() * 2);
+
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+        }
+
+        return Collections.unmodifiableSet(entries);
+    }
+
+    /** Decodes every output that has not yet been decoded */
+
+    private void decodeAll() {
+        for (Map.Entry<String, Value> entry : pending.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().decode());
+        }
+
+        pending.clear();
+    }
+}
@@ -21,15 +21,25 @@
 package ai.doc.tensorio.core.model;
 
 import android.graphics.Bitmap;
+import android.os.Build;
 
 import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.data.OutputDestinations;
 import ai.doc.tensorio.core.data.Placeholders;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
 
@@ -52,6 +62,8 @@ import ai.doc.tensorio.core.layerinterface.LayerInterface;
  * @warning
  * Models are not thread safe. Models may be used on separate threads, so that you can perform
  * inference off the main thread, but you should not use the same model from multiple threads.
+ * Backends which support concurrent inference document it, for example, a TFLite model backed by
+ * a pool of interpreters.
  */
 
 public abstract class Model {
@@ -163,6 +175,21 @@ public abstract class Model {
 
     private IO io;
 
+    /**
+     * The executor the asynchronous `runOnAsync` methods run the model on. When no executor has been
+     * set the model creates one with a single background thread the first time it is needed, so that
+     * asynchronous calls are run one after another.
+     */
+
+    private @Nullable Executor executor;
+
+    /**
+     * The executor created by the model when no executor has been set, which the model shuts down
+     * when a different executor is set.
+     */
+
+    private @Nullable ExecutorService defaultExecutor;
+
     /**
      * The designated initializer for conforming classes.
      *
@@ -241,6 +268,40 @@ public abstract class Model {
         return io;
     }
 
+    /**
+     * Returns the executor the asynchronous `runOnAsync` methods run the model on, creating a
+     * single threaded executor if none has been set.
+     */
+
+    public synchronized Executor getExecutor() {
+        if (executor == null) {
+            defaultExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "TensorIO-Model-" + identifier);
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor = defaultExecutor;
+        }
+
+        return executor;
+    }
+
+    /**
+     * Sets the executor the asynchronous `runOnAsync` methods run the model on. Models are not
+     * thread safe, so unless a backend documents support for concurrent inference the executor
+     * should run one task at a time. Pass null to go back to the model's own single threaded
+     * executor.
+     */
+
+    public synchronized void setExecutor(@Nullable Executor executor) {
+        if (defaultExecutor != null && executor != defaultExecutor) {
+            defaultExecutor.shutdown();
+            defaultExecutor = null;
+        }
+
+        this.executor = executor;
+    }
+
     //endRegion
 
     //region Lifecycle
@@ -398,6 +459,243 @@ public abstract class Model {
 
     public abstract Map<String, Object> runOn(@NonNull Map<String, Object> input, @Nullable Placeholders placeholders) throws ModelException, IllegalArgumentException;
 
+    /**
+     * Perform inference on a batch of items. Backends that support batched inference override
+     * this method to run the model once on the entire batch. The default implementation runs the
+     * model on each item in turn.
+     *
+     * @param batch A batch of items, each of which maps input layer names to arbitrary objects
+     * @return results of running the model, one map of output layer names to values per item, in
+     * the order of the items in the batch
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected inputs
+     */
+
+    public List<Map<String, Object>> runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        validateInput(batch);
+
+        List<Map<String, Object>> results = new ArrayList<>(batch.size());
+
+        for (Batch.Item item : batch) {
+            results.add(runOn(item));
+        }
+
+        return results;
+    }
+
+    /**
+     * Perform inference on a map of objects, writing the results into caller-provided destinations.
+     *
+     * Register a preallocated destination for an output layer by putting it into the outputs map
+     * under the layer's name, for example a float[] of the layer's length or a mutable Bitmap of the
+     * layer's size. See `OutputDestinations` for the supported destinations. The model decodes the
+     * layer into the destination and leaves it in the map, so that the same map may be passed to
+     * every call, for example once per camera frame, without allocating new results. Layers without
+     * a supported destination are decoded to new objects and put into the map.
+     *
+     * Backends that support it decode directly into the destinations. The default implementation
+     * runs the model and copies the results into the destinations.
+     *
+     * @param input A mapping of layer names to arbitrary objects
+     * @param outputs A mapping of output layer names to destinations, which is filled with the results
+     * @return The outputs map
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs or a destination does not match its output layer
+     */
+
+    public Map<String, Object> runOnInto(@NonNull Map<String, Object> input, @NonNull Map<String, Object> outputs) throws ModelException, IllegalArgumentException {
+        Map<String, Object> results = runOn(input);
+
+        for (Map.Entry<String, Object> entry : results.entrySet()) {
+            Object destination = outputs.get(entry.getKey());
+            outputs.put(entry.getKey(), OutputDestinations.copy(entry.getValue(), destination));
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Creates a reusable container for the model's outputs, for use with
+     * `runOnInto(Map, ModelOutputs)`
+     */
+
+    public ModelOutputs newOutputs() {
+        return new ModelOutputs(io.getOutputs());
+    }
+
+    /**
+     * Perform inference on a map of objects, decoding the results into a reusable outputs container
+     * created with `newOutputs()`. Read each output with the container's typed accessors at the
+     * index returned by `IO.IOList.indexFor`.
+     *
+     * Backends that support it decode each output directly into the value the container already
+     * holds for it. The default implementation runs the model and copies the results into the
+     * container.
+     *
+     * @param input A mapping of layer names to arbitrary objects
+     * @param outputs The container the results are decoded into
+     * @return The outputs container
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs or the outputs were not created for this model
+     */
+
+    public ModelOutputs runOnInto(@NonNull Map<String, Object> input, @NonNull ModelOutputs outputs) throws ModelException, IllegalArgumentException {
+        validateOutputs(outputs);
+
+        Map<String, Object> results = runOn(input);
+
+        for (int i = 0; i < outputs.size(); i++) {
+            Object value = results.get(io.getOutputs().get(i).getName());
+            outputs.set(i, OutputDestinations.copy(value, outputs.get(i)));
+        }
+
+        return outputs;
+    }
+
+    //endRegion
+
+    //region Async Run
+
+    // The async run methods perform the corresponding run method on the model's executor, loading
+    // the model first if needed, and complete the returned future with the results. A ModelException
+    // or IllegalArgumentException thrown by the run method completes the future exceptionally.
+
+    /**
+     * Loads the model on the model's executor.
+     *
+     * @return A future completed once the model has been loaded
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Void> loadAsync() {
+        return supplyAsync(() -> {
+            if (!isLoaded()) {
+                load();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronously perform inference on an array of floats for a single input layer.
+     *
+     * @see #runOn(float[])
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(float[] input) {
+        return supplyAsync(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on an array of bytes for a single input layer.
+     *
+     * @see #runOn(byte[])
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(byte[] input) {
+        return supplyAsync(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on an array of ints for a single input layer.
+     *
+     * @see #runOn(int[])
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(int[] input) {
+        return supplyAsync(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on an array of longs for a single input layer.
+     *
+     * @see #runOn(long[])
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(long[] input) {
+        return supplyAsync(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a ByteBuffer for a single input layer.
+     *
+     * @see #runOn(ByteBuffer)
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(ByteBuffer input) {
+        return supplyAsync(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a Bitmap for a single input layer.
+     *
+     * @see #runOn(Bitmap)
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(@NonNull Bitmap input) {
+        return supplyAsync(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a map of objects.
+     *
+     * @see #runOn(Map)
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(@NonNull Map<String, Object> input) {
+        return supplyAsync(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a map of objects with placeholders.
+     *
+     * @see #runOn(Map, Placeholders)
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<Map<String, Object>> runOnAsync(@NonNull Map<String, Object> input, @Nullable Placeholders placeholders) {
+        return supplyAsync(() -> runOn(input, placeholders));
+    }
+
+    /**
+     * Asynchronously perform inference on a batch of items.
+     *
+     * @see #runOn(Batch)
+     */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public CompletableFuture<List<Map<String, Object>>> runOnAsync(@NonNull Batch batch) {
+        return supplyAsync(() -> runOn(batch));
+    }
+
+    /** A unit of work performed on the model's executor */
+
+    private interface ModelTask<T> {
+        T run() throws ModelException;
+    }
+
+    /** Runs a task on the model's executor, unwrapping checked exceptions into the future */
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    private <T> CompletableFuture<T> supplyAsync(@NonNull ModelTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.run();
+            } catch (ModelException e) {
+                throw new CompletionException(e);
+            }
+        }, getExecutor());
+    }
+
     //endRegion
 
     //region Input Validation
@@ -474,6 +772,28 @@ public abstract class Model {
         }
     }
 
+    protected void validateOutputs(@NonNull ModelOutputs outputs) throws IllegalArgumentException {
+        if (outputs.getList() != io.getOutputs()) {
+            throw ForeignOutputsException();
+        }
+    }
+
+    /** Batched inference requires that every input and output layer has a leading -1 dimension */
+
+    protected void validateBatched() throws IllegalArgumentException {
+        for (LayerInterface layer : io.getInputs().all()) {
+            if (!layer.isBatched()) {
+                throw UnbatchedLayerException(layer.getName());
+            }
+        }
+
+        for (LayerInterface layer : io.getOutputs().all()) {
+            if (!layer.isBatched()) {
+                throw UnbatchedLayerException(layer.getName());
+            }
+        }
+    }
+
     protected void validatePlaceholders(@Nullable Placeholders placeholders) throws IllegalArgumentException {
         int expectedSize = io.getPlaceholders().size();
         int receivedSize = placeholders == null ? 0 : placeholders.size();
@@ -530,6 +850,10 @@ public abstract class Model {
         return new IllegalArgumentException("The model received no input for layer \"" + name + "\"");
     }
 
+    private static IllegalArgumentException UnbatchedLayerException(@NonNull String name) {
+        return new IllegalArgumentException("Batched inference requires a leading -1 dimension but layer \"" + name + "\" is not batched");
+    }
+
     private static IllegalArgumentException PlaceholdersCountMismatchException(int expected, int received) {
         return new IllegalArgumentException("The model has " + expected + " placeholders but received " + received + " placeholders");
     }
@@ -538,6 +862,10 @@ public abstract class Model {
         return new IllegalArgumentException("The model received no placeholder for layer \"" + name + "\"");
     }
 
+    private static IllegalArgumentException ForeignOutputsException() {
+        return new IllegalArgumentException("The outputs were not created for this model, use newOutputs() to create them");
+    }
+
     // endRegion
 
 }
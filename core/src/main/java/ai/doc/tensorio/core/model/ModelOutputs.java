@@ -0,0 +1,266 @@
+/*
+ * ModelOutputs.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+/**
+ * A reusable container for a model's outputs, indexed in the same order as the model's output
+ * `IO.IOList`. Use `IO.IOList.indexFor` once to look up the index of an output layer and then read
+ * the output with one of the typed accessors, for example `floatVector(int)`, rather than hashing
+ * the layer's name and casting the result on every call.
+ *
+ * Create outputs for a model with `Model.newOutputs()` and pass the same instance to every call to
+ * `Model.runOnInto(Map, ModelOutputs)`. Vector outputs are preallocated, and backends decode each
+ * output into the object already held at its index, so that repeated inference does not allocate
+ * new results. Values read from the container are overwritten by the next call, so copy them if
+ * you need to keep them.
+ *
+ * Backends that decode directly into the container hold labeled vector outputs as raw values,
+ * which you may read with `floatVector(int)`, and `labeled(int)` maps the raw values to their
+ * labels when it is called. Backends that copy their results into the container hold them as
+ * maps. `labeled(int)` works in either case.
+ *
+ * Outputs are not thread safe. Use a separate instance for each thread.
+ */
+
+public class ModelOutputs {
+
+    /** The output layers the container holds values for */
+
+    private final @NonNull IO.IOList list;
+
+    /** The values of the output layers, indexed as in the list */
+
+    private final @NonNull Object[] values;
+
+    public ModelOutputs(@NonNull IO.IOList list) {
+        this.list = list;
+        this.values = new Object[list.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = preallocate(list.get(i));
+        }
+    }
+
+    //region Getters and Setters
+
+    /** The output layers the container holds values for */
+
+    public IO.IOList getList() {
+        return list;
+    }
+
+    /** The number of outputs */
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the index of the named output layer
+     *
+     * @throws IllegalArgumentException If there is no output layer with that name
+     */
+
+    public int indexFor(@NonNull String name) throws IllegalArgumentException {
+        Integer index = list.indexFor(name);
+
+        if (index == null) {
+            throw UnknownOutputException(name);
+        }
+
+        return index;
+    }
+
+    /** The raw value of the output at an index, which may be null before the first call */
+
+    public @Nullable Object get(int index) {
+        return values[index];
+    }
+
+    /** The raw value of the named output */
+
+    public @Nullable Object get(@NonNull String name) throws IllegalArgumentException {
+        return values[indexFor(name)];
+    }
+
+    /**
+     * Replaces the value of the output at an index. Backends call this after decoding an output
+     * into the current value, which is usually the same object.
+     */
+
+    public void set(int index, @Nullable Object value) {
+        values[index] = value;
+    }
+
+    //endRegion
+
+    //region Typed Accessors
+
+    /** The value of a float32 or dequantized vector output */
+
+    public float[] floatVector(int index) throws IllegalArgumentException {
+        return typed(index, float[].class);
+    }
+
+    /** The value of an int32 vector output */
+
+    public int[] intVector(int index) throws IllegalArgumentException {
+        return typed(index, int[].class);
+    }
+
+    /** The value of an int64 vector output */
+
+    public long[] longVector(int index) throws IllegalArgumentException {
+        return typed(index, long[].class);
+    }
+
+    /** The value of a quantized vector output without a dequantizer */
+
+    public byte[] byteVector(int index) throws IllegalArgumentException {
+        return typed(index, byte[].class);
+    }
+
+    /** The value of a pixel buffer output */
+
+    public Bitmap bitmap(int index) throws IllegalArgumentException {
+        return typed(index, Bitmap.class);
+    }
+
+    /**
+     * The value of a labeled vector output mapped from its labels to its values. The map is a
+     * read-only `LabeledVector` view over the raw values, so a container that is reused across
+     * inferences changes its values on the next inference.
+     */
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Float> labeled(int index) throws IllegalArgumentException {
+        Object value = values[index];
+
+        if (value instanceof Map) {
+            return (Map<String, Float>) value;
+        }
+
+        VectorLayerDescription description = vectorDescription(list.get(index));
+
+        if (description == null || !description.isLabeled() || !(value instanceof float[])) {
+            throw WrongTypeException(list.get(index).getName(), "labeled vector", value);
+        }
+
+        return description.labeledValues((float[]) value);
+    }
+
+    /**
+     * Returns the outputs as a new map of output layer names to values, in the form returned by
+     * `Model.runOn`, with labeled vectors mapped to their labels
+     */
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>(values.length);
+
+        for (int i = 0; i < values.length; i++) {
+            LayerInterface layer = list.get(i);
+            VectorLayerDescription description = vectorDescription(layer);
+
+            if (description != null && description.isLabeled() && values[i] instanceof float[]) {
+                map.put(layer.getName(), description.labeledValues((float[]) values[i]));
+            } else {
+                map.put(layer.getName(), values[i]);
+            }
+        }
+
+        return map;
+    }
+
+    //endRegion
+
+    //region Utilities
+
+    private <T> T typed(int index, @NonNull Class<T> type) throws IllegalArgumentException {
+        Object value = values[index];
+
+        if (!type.isInstance(value)) {
+            throw WrongTypeException(list.get(index).getName(), type.getSimpleName(), value);
+        }
+
+        return type.cast(value);
+    }
+
+    private static @Nullable VectorLayerDescription vectorDescription(@NonNull LayerInterface layer) {
+        return layer.mapCase(
+                (vectorLayer) -> vectorLayer,
+                (pixelLayer) -> null,
+                (stringLayer) -> null,
+                (scalarLayer) -> null);
+    }
+
+    /**
+     * Allocates the array a vector layer is decoded into, matching the type the backends' vector
+     * converters produce. Other layers are allocated by the backend on the first call and reused
+     * after that.
+     */
+
+    private static @Nullable Object preallocate(@NonNull LayerInterface layer) {
+        VectorLayerDescription description = vectorDescription(layer);
+
+        if (description == null) {
+            return null;
+        }
+
+        int length = description.getLength();
+
+        if (description.isQuantized() && description.getDequantizer() == null) {
+            return new byte[length];
+        } else if (description.isQuantized()) {
+            return new float[length];
+        } else if (description.getDtype() == DataType.Int32) {
+            return new int[length];
+        } else if (description.getDtype() == DataType.Int64) {
+            return new long[length];
+        } else {
+            return new float[length];
+        }
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException UnknownOutputException(@NonNull String name) {
+        return new IllegalArgumentException("The model has no output layer named " + name);
+    }
+
+    private static IllegalArgumentException WrongTypeException(@NonNull String name, @NonNull String expected, @Nullable Object value) {
+        return new IllegalArgumentException("The output " + name + " is not a " + expected + ", it is " + (value == null ? "null" : value.getClass().getSimpleName()));
+    }
+
+    //endRegion
+}
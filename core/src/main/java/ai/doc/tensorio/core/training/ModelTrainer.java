@@ -60,6 +60,10 @@ public class ModelTrainer {
 
     private final boolean shuffle;
 
+    /** The batch reused for every training step, whose columns keep their storage across steps */
+
+    private @Nullable Batch batch;
+
     /** Default constructor */
 
     public ModelTrainer(@NonNull TrainableModel model, @NonNull BatchDataSource dataSource, @Nullable Placeholders placeholders, int epochs, int batchSize, boolean shuffle) {
@@ -122,10 +126,14 @@ public class ModelTrainer {
         return (int) Math.ceil( (double)dataSource.size() / (double)batchSize );
     }
 
-    /** Returns the batch at index i */
+    /** Returns the batch at index i, reusing the trainer's batch */
 
     private Batch batch(int index) {
-        Batch batch = new Batch(dataSource.getKeys());
+        if (batch == null) {
+            batch = new Batch(dataSource.getKeys());
+        }
+
+        batch.clear();
         int size = dataSource.size();
 
         int start = index * batchSize;
@@ -138,7 +146,7 @@ public class ModelTrainer {
         }
 
         for (int i = start; i < start + count; i++) {
-            batch.add(dataSource.get(itemOrder.get(i)));
+            dataSource.addTo(batch, itemOrder.get(i));
         }
 
         return batch;
@@ -20,6 +20,7 @@
 
 package ai.doc.tensorio.core.utilities;
 
+import java.nio.ByteBuffer;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -30,6 +31,9 @@ import java.util.stream.Collectors;
 
 import androidx.annotation.NonNull;
 
+import ai.doc.tensorio.core.data.Dequantizer;
+import ai.doc.tensorio.core.data.LabeledVector;
+
 public class ClassificationHelper {
 
     /**
@@ -44,7 +48,8 @@ public class ClassificationHelper {
     }
 
     /**
-     * Orders top N results of a classification whose values are greater than the threshold
+     * Orders top N results of a classification whose values are greater than the threshold. A
+     * `LabeledVector` is read directly from its output vector without boxing its values.
      * @param map Map of labeled floating point classification outputs
      * @param N The number of values to keep
      * @param threshold The minimum value to keep
@@ -52,6 +57,11 @@ public class ClassificationHelper {
      */
 
     public static List<Map.Entry<String, Float>> topN(@NonNull Map<String,Float> map, int N, float threshold) {
+        if (map instanceof LabeledVector && !((LabeledVector) map).hasRepeatedLabels()) {
+            LabeledVector vector = (LabeledVector) map;
+            return new TopK(N).select(vector.getValues(), vector.size(), threshold).entries(vector.getLabels());
+        }
+
         PriorityQueue<Map.Entry<String, Float>> queue = topNQueued(map, N, threshold);
         List<Map.Entry<String, Float>> list = new ArrayList<>(5);
 
@@ -63,6 +73,80 @@ public class ClassificationHelper {
         return list;
     }
 
+    /**
+     * Orders top N results of a classification read directly from its output vector, looking up
+     * labels for the top N values only. Prefer this to the Map variant for outputs with many labels.
+     * @param values A floating point classification output
+     * @param labels The labels of the output, indexed like its values, see `VectorLayerDescription.getLabels()`
+     * @param N The number of values to keep
+     * @return A list of the top N key-values beginning with the highest one
+     */
+
+    public static List<Map.Entry<String, Float>> topN(@NonNull float[] values, @NonNull String[] labels, int N) {
+        return topN(values, labels, N, 0);
+    }
+
+    /**
+     * Orders top N results of a classification whose values are greater than the threshold, read
+     * directly from its output vector. See `TopK` to reuse the selection across frames.
+     * @param values A floating point classification output
+     * @param labels The labels of the output, indexed like its values, see `VectorLayerDescription.getLabels()`
+     * @param N The number of values to keep
+     * @param threshold The minimum value to keep
+     * @return A list of the top N key-values beginning with the highest one
+     */
+
+    public static List<Map.Entry<String, Float>> topN(@NonNull float[] values, @NonNull String[] labels, int N, float threshold) {
+        return new TopK(N).select(values, threshold).entries(labels);
+    }
+
+    /**
+     * Applies a softmax to a classification's raw logits and orders the top N probabilities that
+     * are greater than the threshold, exponentiating and labeling only the top N values
+     * @param logits A floating point classification output before its softmax
+     * @param labels The labels of the output, indexed like its values, see `VectorLayerDescription.getLabels()`
+     * @param N The number of values to keep
+     * @param threshold The minimum probability to keep
+     * @return A list of the top N key-values beginning with the highest one
+     */
+
+    public static List<Map.Entry<String, Float>> topNSoftmax(@NonNull float[] logits, @NonNull String[] labels, int N, float threshold) {
+        return new TopK(N).selectSoftmax(logits, threshold).entries(labels);
+    }
+
+    /**
+     * Orders top N results of a quantized classification whose dequantized values are greater than
+     * the threshold, ranking the raw bytes without dequantizing them and dequantizing only the top
+     * N values. Obtain the raw bytes of a quantized output by running the model into a byte[] or
+     * ByteBuffer destination, see `Model.runOnInto`.
+     * @param values A quantized classification output, read from its position to its limit
+     * @param dequantizer The output layer's dequantizer, see `VectorLayerDescription.getDequantizer()`
+     * @param labels The labels of the output, indexed like its values, see `VectorLayerDescription.getLabels()`
+     * @param N The number of values to keep
+     * @param threshold The minimum dequantized value to keep
+     * @return A list of the top N key-values beginning with the highest one
+     */
+
+    public static List<Map.Entry<String, Float>> topNQuantized(@NonNull ByteBuffer values, @NonNull Dequantizer dequantizer, @NonNull String[] labels, int N, float threshold) {
+        return new TopK(N).selectQuantized(values, dequantizer, threshold).entries(labels);
+    }
+
+    /**
+     * Orders top N results of a quantized classification whose dequantized values are greater than
+     * the threshold, ranking the raw bytes without dequantizing them and dequantizing only the top
+     * N values.
+     * @param values A quantized classification output
+     * @param dequantizer The output layer's dequantizer, see `VectorLayerDescription.getDequantizer()`
+     * @param labels The labels of the output, indexed like its values, see `VectorLayerDescription.getLabels()`
+     * @param N The number of values to keep
+     * @param threshold The minimum dequantized value to keep
+     * @return A list of the top N key-values beginning with the highest one
+     */
+
+    public static List<Map.Entry<String, Float>> topNQuantized(@NonNull byte[] values, @NonNull Dequantizer dequantizer, @NonNull String[] labels, int N, float threshold) {
+        return new TopK(N).selectQuantized(values, dequantizer, threshold).entries(labels);
+    }
+
     /**
      * Orders top N results of a classification using a PriorityQueue. Note the queue's head begins
      * with the lowest value, not the highest, as you might expect. Use topN to have the results ordered
@@ -115,6 +199,10 @@ public class ClassificationHelper {
      *     x_out = 0 if x_out < threshold
      * </code>
      *
+     * Every call builds new maps and a new list. To smooth a model's output at camera rate use a
+     * `ClassificationSmoother` in `Compatible` mode, which produces the same values by index
+     * without allocating.
+     *
      * @param previousValues The previous classification results, or more likely the results of applying this function
      * @param newValues The current classification results
      * @param decay The exponential decay rate to apply
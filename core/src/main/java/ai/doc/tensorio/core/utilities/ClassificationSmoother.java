@@ -0,0 +1,230 @@
+/*
+ * ClassificationSmoother.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import androidx.annotation.NonNull;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Smooths classification outputs over successive frames with an exponential moving average, so
+ * that the top results don't flicker from one camera frame to the next. So that:
+ *
+ * <code>
+ *     x_out = decay * x_previous + (1-decay) * x_new
+ * </code>
+ *
+ * The smoother is keyed by the index of each value in the output vector rather than by its label
+ * and keeps its state in a single array of primitives that is updated in place, so updating it and
+ * selecting the top results allocate nothing. Look up labels for the winners only, with
+ * `top().entries(labels)` or `labels[top().index(rank)]`.
+ *
+ * In `Compatible` mode smoothed values that fall below the threshold are reset to zero, matching
+ * `ClassificationHelper.smoothClassification`, which drops those values from the list it returns.
+ * In `Continuous` mode the average is kept in full and the threshold is only applied when the top
+ * results are selected.
+ *
+ * <pre>
+ * ClassificationSmoother smoother = new ClassificationSmoother(labels.length, 5);
+ *
+ * // For every frame
+ * TopK top = smoother.update(output).top();
+ * </pre>
+ *
+ * Instances are not thread safe.
+ */
+
+public final class ClassificationSmoother {
+
+    /** How values below the threshold are treated */
+
+    public enum Mode {
+        /** Values below the threshold are reset to zero, as `smoothClassification` does */
+        Compatible,
+        /** Values below the threshold are kept in the average and only omitted from the top results */
+        Continuous
+    }
+
+    /** The default decay rate, matching `smoothClassification` */
+
+    public static final float DEFAULT_DECAY = 0.8f;
+
+    /** The default threshold, matching `smoothClassification` */
+
+    public static final float DEFAULT_THRESHOLD = 0.1f;
+
+    private final int length;
+    private final float decay;
+    private final float update;
+    private final float threshold;
+    private final @NonNull Mode mode;
+
+    /** The smoothed values, indexed like the output vector */
+
+    private final float[] state;
+
+    /** The top results, reused for every frame */
+
+    private final TopK top;
+
+    /**
+     * Creates a smoother with a decay rate of 0.8 and a threshold of 0.1 that resets values below
+     * the threshold, matching `ClassificationHelper.smoothClassification`
+     *
+     * @param length The length of the classification output
+     * @param k The number of top results to select
+     * @throws IllegalArgumentException If the length is negative or k is less than one
+     */
+
+    public ClassificationSmoother(int length, int k) throws IllegalArgumentException {
+        this(length, k, DEFAULT_DECAY, DEFAULT_THRESHOLD, Mode.Compatible);
+    }
+
+    /**
+     * @param length The length of the classification output
+     * @param k The number of top results to select
+     * @param decay The exponential decay rate to apply, between 0 and 1
+     * @param threshold The minimum smoothed value to keep
+     * @param mode How values below the threshold are treated
+     * @throws IllegalArgumentException If the length is negative, k is less than one, or the decay
+     * rate is not between 0 and 1
+     */
+
+    public ClassificationSmoother(int length, int k, float decay, float threshold, @NonNull Mode mode) throws IllegalArgumentException {
+        if (length < 0) {
+            throw new IllegalArgumentException("The classification output's length may not be negative, received " + length);
+        }
+        if (!(decay >= 0 && decay <= 1)) {
+            throw new IllegalArgumentException("The decay rate must be between 0 and 1, received " + decay);
+        }
+
+        this.top = new TopK(k);
+        this.length = length;
+        this.decay = decay;
+        this.update = 1.0f - decay;
+        this.threshold = threshold;
+        this.mode = mode;
+        this.state = new float[length];
+    }
+
+    //region Getters
+
+    public int getLength() {
+        return length;
+    }
+
+    public float getDecay() {
+        return decay;
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** The smoothed values, indexed like the output vector. Do not modify. */
+
+    public float[] getValues() {
+        return state;
+    }
+
+    /** The smoothed value at an index of the output vector */
+
+    public float value(int index) {
+        return state[index];
+    }
+
+    //endRegion
+
+    /**
+     * Folds a frame's classification output into the smoothed values
+     *
+     * @param values A classification output with at least `length` values
+     * @return This
+     * @throws IllegalArgumentException If the output is shorter than the smoother
+     */
+
+    public ClassificationSmoother update(@NonNull float[] values) throws IllegalArgumentException {
+        if (values.length < length) {
+            throw OutputLengthException(values.length, length);
+        }
+
+        for (int i = 0; i < length; i++) {
+            state[i] = smooth(state[i], values[i]);
+        }
+
+        return this;
+    }
+
+    /**
+     * Folds a frame's classification output into the smoothed values, reading from the buffer's
+     * position, which is not changed
+     *
+     * @param values A classification output with at least `length` values remaining
+     * @return This
+     * @throws IllegalArgumentException If the output is shorter than the smoother
+     */
+
+    public ClassificationSmoother update(@NonNull FloatBuffer values) throws IllegalArgumentException {
+        if (values.remaining() < length) {
+            throw OutputLengthException(values.remaining(), length);
+        }
+
+        int position = values.position();
+
+        for (int i = 0; i < length; i++) {
+            state[i] = smooth(state[i], values.get(position + i));
+        }
+
+        return this;
+    }
+
+    /**
+     * Selects the highest smoothed values that are not less than the threshold. The returned
+     * `TopK` is reused and replaced by the next call.
+     */
+
+    public TopK top() {
+        return top.select(state, length, threshold);
+    }
+
+    /** Clears the smoothed values, for example when the camera is pointed at a new scene */
+
+    public void reset() {
+        Arrays.fill(state, 0);
+    }
+
+    private float smooth(float previous, float value) {
+        float smoothed = decay * previous + update * value;
+        return mode == Mode.Compatible && smoothed < threshold ? 0 : smoothed;
+    }
+
+    //region Exceptions
+
+    private static IllegalArgumentException OutputLengthException(int received, int expected) {
+        return new IllegalArgumentException("The classification output has " + received + " values but the smoother expects " + expected);
+    }
+
+    //endRegion
+}
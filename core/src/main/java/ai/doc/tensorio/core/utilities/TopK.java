@@ -0,0 +1,414 @@
+/*
+ * TopK.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import ai.doc.tensorio.core.data.Dequantizer;
+
+/**
+ * Selects the K highest scores of a classification output directly from its raw values, keeping
+ * the indices of the winners in a fixed-size heap of primitives. Labels are only looked up for the
+ * winners, so a model with tens of thousands of labels does not box every score into a map before
+ * the top few are chosen.
+ *
+ * A `TopK` may be reused for every frame. Each call to `select` replaces the previous results,
+ * which are ordered from the highest score to the lowest. Instances are not thread safe.
+ *
+ * <pre>
+ * TopK top5 = new TopK(5);
+ * top5.select(scores, 0.1f);
+ *
+ * for (int i = 0; i &lt; top5.size(); i++) {
+ *     String label = labels[top5.index(i)];
+ *     float score = top5.score(i);
+ * }
+ * </pre>
+ */
+
+public final class TopK {
+
+    private final int k;
+
+    /** The winners' indices, a min-heap while selecting and sorted from highest to lowest after */
+
+    private final int[] indices;
+
+    /** The winners' scores, ordered like the indices */
+
+    private final float[] scores;
+
+    private int count;
+
+    /**
+     * @param k The number of values to keep
+     * @throws IllegalArgumentException If k is less than one
+     */
+
+    public TopK(int k) throws IllegalArgumentException {
+        if (k < 1) {
+            throw new IllegalArgumentException("Top K must keep at least one value, received " + k);
+        }
+
+        this.k = k;
+        this.indices = new int[k];
+        this.scores = new float[k];
+    }
+
+    //region Getters
+
+    /** The number of values kept, at most K */
+
+    public int size() {
+        return count;
+    }
+
+    /** The index in the output vector of the value with the given rank, where 0 is the highest */
+
+    public int index(int rank) {
+        return indices[rank];
+    }
+
+    /** The value with the given rank, where 0 is the highest */
+
+    public float score(int rank) {
+        return scores[rank];
+    }
+
+    //endRegion
+
+    //region Selection
+
+    /**
+     * Selects the K highest values that are not less than the threshold
+     *
+     * @param values A classification output
+     * @param threshold The minimum value to keep
+     * @return This
+     */
+
+    public TopK select(@NonNull float[] values, float threshold) {
+        return select(values, values.length, threshold);
+    }
+
+    /**
+     * Selects the K highest values among the first `length` values that are not less than the
+     * threshold
+     *
+     * @param values A classification output
+     * @param length The number of values to read
+     * @param threshold The minimum value to keep
+     * @return This
+     */
+
+    public TopK select(@NonNull float[] values, int length, float threshold) {
+        count = 0;
+
+        for (int i = 0; i < length; i++) {
+            float value = values[i];
+            if (value >= threshold) {
+                offer(i, value);
+            }
+        }
+
+        sort();
+        return this;
+    }
+
+    /**
+     * Selects the K highest values between the buffer's position and limit that are not less than
+     * the threshold. Indices are relative to the buffer's position, which is not changed.
+     *
+     * @param values A classification output
+     * @param threshold The minimum value to keep
+     * @return This
+     */
+
+    public TopK select(@NonNull FloatBuffer values, float threshold) {
+        count = 0;
+
+        int position = values.position();
+        int limit = values.limit();
+
+        for (int i = position; i < limit; i++) {
+            float value = values.get(i);
+            if (value >= threshold) {
+                offer(i - position, value);
+            }
+        }
+
+        sort();
+        return this;
+    }
+
+    /**
+     * Selects the K highest values of a quantized classification output that are not less than the
+     * threshold, comparing the unsigned bytes directly. The threshold is translated into the
+     * quantized domain once and only the K winners are dequantized, so the output is never
+     * converted to floats. Dequantizers that do not preserve order fall back to comparing
+     * dequantized values read from their lookup table.
+     *
+     * Values are read between the buffer's position and limit, indices are relative to the
+     * buffer's position, which is not changed.
+     *
+     * @param values A quantized classification output, for example the raw bytes of a layer
+     * @param dequantizer The layer's dequantizer
+     * @param threshold The minimum dequantized value to keep
+     * @return This
+     */
+
+    public TopK selectQuantized(@NonNull ByteBuffer values, @NonNull Dequantizer dequantizer, float threshold) {
+        int position = values.position();
+        int length = values.remaining();
+
+        if (values.hasArray()) {
+            return selectQuantized(values.array(), values.arrayOffset() + position, length, dequantizer, threshold);
+        }
+
+        count = 0;
+
+        float[] table = dequantizer.lookupTable();
+
+        if (!dequantizer.isMonotonic()) {
+            for (int i = 0; i < length; i++) {
+                float value = table[values.get(position + i) & 0xFF];
+                if (value >= threshold) {
+                    offer(i, value);
+                }
+            }
+
+            sort();
+            return this;
+        }
+
+        int quantizedThreshold = dequantizer.quantizedThreshold(threshold);
+
+        for (int i = 0; i < length; i++) {
+            int value = values.get(position + i) & 0xFF;
+            if (value >= quantizedThreshold) {
+                offer(i, value);
+            }
+        }
+
+        sort();
+        dequantizeScores(table);
+        return this;
+    }
+
+    /**
+     * Selects the K highest values of a quantized classification output that are not less than the
+     * threshold, comparing the unsigned bytes directly. See `selectQuantized(ByteBuffer, Dequantizer, float)`.
+     *
+     * @param values A quantized classification output, for example the raw bytes of a layer
+     * @param dequantizer The layer's dequantizer
+     * @param threshold The minimum dequantized value to keep
+     * @return This
+     */
+
+    public TopK selectQuantized(@NonNull byte[] values, @NonNull Dequantizer dequantizer, float threshold) {
+        return selectQuantized(values, 0, values.length, dequantizer, threshold);
+    }
+
+    private TopK selectQuantized(@NonNull byte[] values, int offset, int length, @NonNull Dequantizer dequantizer, float threshold) {
+        count = 0;
+
+        float[] table = dequantizer.lookupTable();
+
+        if (!dequantizer.isMonotonic()) {
+            for (int i = 0; i < length; i++) {
+                float value = table[values[offset + i] & 0xFF];
+                if (value >= threshold) {
+                    offer(i, value);
+                }
+            }
+
+            sort();
+            return this;
+        }
+
+        int quantizedThreshold = dequantizer.quantizedThreshold(threshold);
+
+        for (int i = 0; i < length; i++) {
+            int value = values[offset + i] & 0xFF;
+            if (value >= quantizedThreshold) {
+                offer(i, value);
+            }
+        }
+
+        sort();
+        dequantizeScores(table);
+        return this;
+    }
+
+    /**
+     * Applies a softmax to raw logits and selects the K highest probabilities that are not less
+     * than the threshold. The softmax is fused with the selection: the logits are read once, the
+     * normalizer is accumulated as they are read, and only the K winners are exponentiated again.
+     *
+     * @param logits A classification output before its softmax
+     * @param threshold The minimum probability to keep
+     * @return This
+     */
+
+    public TopK selectSoftmax(@NonNull float[] logits, float threshold) {
+        count = 0;
+
+        if (logits.length == 0) {
+            return this;
+        }
+
+        // Select on the logits, which order the same as their probabilities, while accumulating
+        // the sum of exponentials relative to the running maximum
+
+        float max = Float.NEGATIVE_INFINITY;
+        double sum = 0;
+
+        for (int i = 0; i < logits.length; i++) {
+            float logit = logits[i];
+
+            if (logit > max) {
+                sum = sum * Math.exp(max - logit) + 1.0;
+                max = logit;
+            } else {
+                sum += Math.exp(logit - max);
+            }
+
+            offer(i, logit);
+        }
+
+        sort();
+
+        // Convert the winners to probabilities, dropping those below the threshold
+
+        int kept = 0;
+
+        for (int i = 0; i < count; i++) {
+            float probability = (float) (Math.exp(scores[i] - max) / sum);
+            if (probability < threshold) {
+                break;
+            }
+            scores[i] = probability;
+            kept++;
+        }
+
+        count = kept;
+        return this;
+    }
+
+    //endRegion
+
+    /**
+     * Pairs the winners with their labels, ordered from the highest score to the lowest
+     *
+     * @param labels The labels of the classification output, indexed like its values
+     * @return A list of the labeled winners
+     */
+
+    public List<Map.Entry<String, Float>> entries(@NonNull String[] labels) {
+        List<Map.Entry<String, Float>> list = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            list.add(new AbstractMap.SimpleEntry<>(labels[indices[i]], scores[i]));
+        }
+
+        return list;
+    }
+
+    /** Replaces the winners' quantized scores, held exactly as floats, with their dequantized values */
+
+    private void dequantizeScores(@NonNull float[] table) {
+        for (int i = 0; i < count; i++) {
+            scores[i] = table[(int) scores[i]];
+        }
+    }
+
+    //region Heap
+
+    /** Adds a value to the heap if it is among the K highest seen so far */
+
+    private void offer(int index, float score) {
+        if (count < k) {
+            int child = count++;
+
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (scores[parent] <= score) {
+                    break;
+                }
+                indices[child] = indices[parent];
+                scores[child] = scores[parent];
+                child = parent;
+            }
+
+            indices[child] = index;
+            scores[child] = score;
+        } else if (score > scores[0]) {
+            siftDown(index, score, count);
+        }
+    }
+
+    /** Replaces the root of the heap with a value and restores the heap's order */
+
+    private void siftDown(int index, float score, int size) {
+        int parent = 0;
+
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            indices[parent] = indices[child];
+            scores[parent] = scores[child];
+            parent = child;
+        }
+
+        indices[parent] = index;
+        scores[parent] = score;
+    }
+
+    /** Sorts the heap in place from highest to lowest by repeatedly moving its minimum to the end */
+
+    private void sort() {
+        for (int end = count - 1; end > 0; end--) {
+            int index = indices[end];
+            float score = scores[end];
+
+            indices[end] = indices[0];
+            scores[end] = scores[0];
+
+            siftDown(index, score, end);
+        }
+    }
+
+    //endRegion
+}
@@ -0,0 +1,44 @@
+/*
+ * BatchAssertions.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ai.doc.tensorio.core.data;
+
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** Assertions shared by the batch tests */
+
+final class BatchAssertions {
+
+    private BatchAssertions() {}
+
+    /** Compares two items by their contents, since a batch returns copies of its items' arrays */
+
+    static void assertItemEquals(Map<String, Object> expected, Map<String, Object> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+
+        for (String key : expected.keySet()) {
+            assertTrue(key, Objects.deepEquals(expected.get(key), actual.get(key)));
+        }
+    }
+}
@@ -24,8 +24,17 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.util.Arrays;
+import java.util.Map;
 
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+import static ai.doc.tensorio.core.data.BatchAssertions.assertItemEquals;
 import static org.junit.Assert.*;
 
 public class BatchTest {
@@ -63,7 +72,7 @@ public class BatchTest {
         assertTrue(Arrays.asList(batch.getKeys()).contains("label"));
 
         assertEquals(1, batch.size());
-        assertEquals(item, batch.get(0));
+        assertItemEquals(item, batch.get(0));
 
         Object[] inputs = batch.valuesForKey("input");
         Object[] labels = batch.valuesForKey("label");
@@ -97,8 +106,8 @@ public class BatchTest {
             Batch.Item r2 = batch.get(1);
 
             assertEquals(2, batch.size());
-            assertEquals(item1, batch.get(0));
-            assertEquals(item2, batch.get(1));
+            assertItemEquals(item1, batch.get(0));
+            assertItemEquals(item2, batch.get(1));
 
             Object[] inputs = batch.valuesForKey("input");
             Object[] labels = batch.valuesForKey("label");
@@ -153,7 +162,7 @@ public class BatchTest {
         assertTrue(Arrays.asList(batch.getKeys()).contains("label"));
 
         assertEquals(1, batch.size());
-        assertEquals(item, batch.get(0));
+        assertItemEquals(item, batch.get(0));
 
         Object[] inputs = batch.valuesForKey("input");
         Object[] labels = batch.valuesForKey("label");
@@ -186,8 +195,8 @@ public class BatchTest {
         Batch.Item r2 = batch.get(1);
 
         assertEquals(2, batch.size());
-        assertEquals(item1, batch.get(0));
-        assertEquals(item2, batch.get(1));
+        assertItemEquals(item1, batch.get(0));
+        assertItemEquals(item2, batch.get(1));
 
         Object[] inputs = batch.valuesForKey("input");
         Object[] labels = batch.valuesForKey("label");
@@ -221,4 +230,261 @@ public class BatchTest {
             assertTrue(true);
         }
     }
-}
\ No newline at end of file
+
+    // Columnar Storage
+
+    private static LayerInterface vectorLayer(String name, int length, boolean quantized, Quantizer quantizer, DataType dtype) {
+        return new LayerInterface(name, LayerInterface.Mode.Input, new VectorLayerDescription(
+                new int[]{-1, length},
+                true,
+                null,
+                quantized,
+                quantizer,
+                null,
+                dtype
+        ));
+    }
+
+    @Test
+    public void testPrimitiveColumnsAreContiguous() {
+        Batch batch = new Batch(new String[]{"input", "label"});
+
+        Batch.Item item1 = new Batch.Item();
+        item1.put("input", new float[]{1, 2, 3});
+        item1.put("label", new int[]{4});
+
+        Batch.Item item2 = new Batch.Item();
+        item2.put("input", new float[]{5, 6, 7});
+        item2.put("label", new int[]{8});
+
+        batch.add(item1);
+        batch.add(item2);
+
+        Batch.Column input = batch.column("input");
+        Batch.Column label = batch.column("label");
+
+        assertTrue(input.isPrimitive());
+        assertEquals(DataType.Float32, input.getDtype());
+        assertEquals(3, input.getLength());
+        assertArrayEquals(new float[]{1, 2, 3, 5, 6, 7}, Arrays.copyOf(input.getFloats(), 6), 0);
+
+        assertEquals(DataType.Int32, label.getDtype());
+        assertArrayEquals(new int[]{4, 8}, Arrays.copyOf(label.getInts(), 2));
+    }
+
+    @Test
+    public void testAddCopiesValues() {
+        float[] values = new float[]{1, 2};
+
+        Batch.Item item = new Batch.Item();
+        item.put("input", values);
+
+        Batch batch = new Batch(item);
+        values[0] = 10;
+
+        assertArrayEquals(new float[]{1, 2}, (float[]) batch.get(0).get("input"), 0);
+    }
+
+    @Test
+    public void testViewsDoNotCopy() {
+        Batch.Item item = new Batch.Item();
+        item.put("input", new float[]{1, 2});
+
+        Batch batch = new Batch(item);
+        batch.add(item);
+
+        FloatBuffer view = (FloatBuffer) batch.column("input").view(1);
+
+        assertEquals(2, view.remaining());
+        assertEquals(1, view.get(0), 0);
+        assertEquals(2, view.get(1), 0);
+
+        view.put(0, 9);
+        assertEquals(9, batch.column("input").getFloats()[2], 0);
+
+        Map<String, Object> row = batch.row(1);
+
+        assertEquals(1, row.size());
+        assertEquals(9, ((FloatBuffer) row.get("input")).get(0), 0);
+    }
+
+    @Test
+    public void testMismatchedValuesFallBackToObjects() {
+        Batch.Item item1 = new Batch.Item();
+        item1.put("input", new float[]{1, 2});
+
+        Batch.Item item2 = new Batch.Item();
+        item2.put("input", new float[]{3, 4, 5});
+
+        Batch.Item item3 = new Batch.Item();
+        item3.put("input", "foo");
+
+        Batch batch = new Batch(item1);
+        batch.add(item2);
+        batch.add(item3);
+
+        Batch.Column column = batch.column("input");
+
+        assertFalse(column.isPrimitive());
+        assertNull(column.getFloats());
+        assertItemEquals(item1, batch.get(0));
+        assertItemEquals(item2, batch.get(1));
+        assertEquals("foo", column.view(2));
+    }
+
+    @Test
+    public void testClearKeepsStorage() {
+        Batch.Item item = new Batch.Item();
+        item.put("input", new float[]{1, 2});
+
+        Batch batch = new Batch(item);
+        batch.add(item);
+
+        float[] storage = batch.column("input").getFloats();
+
+        batch.clear();
+        assertEquals(0, batch.size());
+
+        Batch.Item other = new Batch.Item();
+        other.put("input", new float[]{3, 4});
+        batch.add(other);
+
+        assertEquals(1, batch.size());
+        assertSame(storage, batch.column("input").getFloats());
+        assertItemEquals(other, batch.get(0));
+    }
+
+    @Test
+    public void testAddsItemFromAnotherBatch() {
+        Batch.Item item1 = new Batch.Item();
+        item1.put("input", new float[]{1, 2});
+        item1.put("label", "a");
+
+        Batch.Item item2 = new Batch.Item();
+        item2.put("input", new float[]{3, 4});
+        item2.put("label", "b");
+
+        Batch source = new Batch(new Batch.Item[]{item1, item2});
+        Batch batch = new Batch(new String[]{"input", "label"});
+
+        batch.add(source, 1);
+        batch.add(source, 0);
+
+        assertEquals(2, batch.size());
+        assertItemEquals(item2, batch.get(0));
+        assertItemEquals(item1, batch.get(1));
+        assertTrue(batch.column("input").isPrimitive());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBoundsThrowsException() {
+        Batch.Item item = new Batch.Item();
+        item.put("input", new float[]{1});
+
+        new Batch(item).get(1);
+    }
+
+    @Test
+    public void testBatchWithLayersAllocatesColumns() {
+        Batch batch = new Batch(Arrays.asList(
+                vectorLayer("floats", 3, false, null, DataType.Float32),
+                vectorLayer("ints", 2, false, null, DataType.Int32),
+                vectorLayer("bytes", 4, true, null, DataType.UInt8)
+        ), 8);
+
+        assertEquals(3, batch.getKeys().length);
+        assertEquals(0, batch.size());
+
+        assertEquals(DataType.Float32, batch.column("floats").getDtype());
+        assertEquals(3, batch.column("floats").getLength());
+        assertEquals(24, batch.column("floats").getFloats().length);
+
+        assertEquals(DataType.Int32, batch.column("ints").getDtype());
+        assertEquals(16, batch.column("ints").getInts().length);
+
+        assertEquals(DataType.UInt8, batch.column("bytes").getDtype());
+        assertEquals(32, batch.column("bytes").getBytes().length);
+    }
+
+    @Test
+    public void testWritesColumnToBuffer() {
+        LayerInterface layer = vectorLayer("input", 2, false, null, DataType.Float32);
+        Batch batch = new Batch(Arrays.asList(layer), 2);
+
+        Batch.Item item1 = new Batch.Item();
+        item1.put("input", new float[]{1, 2});
+
+        Batch.Item item2 = new Batch.Item();
+        item2.put("input", new float[]{3, 4});
+
+        batch.add(item1);
+        batch.add(item2);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.nativeOrder());
+
+        assertTrue(batch.column("input").writeTo(buffer, layer));
+        assertEquals(0, buffer.position());
+
+        FloatBuffer floats = buffer.asFloatBuffer();
+        assertEquals(1, floats.get(0), 0);
+        assertEquals(2, floats.get(1), 0);
+        assertEquals(3, floats.get(2), 0);
+        assertEquals(4, floats.get(3), 0);
+    }
+
+    @Test
+    public void testWritesQuantizedColumnToBuffer() {
+        LayerInterface layer = vectorLayer("input", 2, true, Quantizer.DataQuantizerZeroToOne(), DataType.UInt8);
+        Batch batch = new Batch(Arrays.asList(layer), 2);
+
+        Batch.Item item1 = new Batch.Item();
+        item1.put("input", new float[]{0, 1});
+
+        Batch.Item item2 = new Batch.Item();
+        item2.put("input", new float[]{0.2f, 0.6f});
+
+        batch.add(item1);
+        batch.add(item2);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+
+        assertTrue(batch.column("input").writeTo(buffer, layer));
+        assertArrayEquals(new byte[]{0, (byte) 255, 51, (byte) 153}, buffer.array());
+    }
+
+    @Test
+    public void testDoesNotWriteMismatchedColumn() {
+        LayerInterface layer = vectorLayer("input", 3, false, null, DataType.Float32);
+
+        Batch.Item item = new Batch.Item();
+        item.put("input", new float[]{1, 2});
+
+        Batch batch = new Batch(item);
+
+        assertFalse(batch.column("input").writeTo(ByteBuffer.allocate(12), layer));
+    }
+
+    @Test
+    public void testDoesNotWriteColumnOfAnotherType() {
+        Batch.Item ints = new Batch.Item();
+        ints.put("input", new int[]{1, 2});
+
+        Batch.Item floats = new Batch.Item();
+        floats.put("input", new float[]{1, 2});
+
+        Batch.Item bytes = new Batch.Item();
+        bytes.put("input", new byte[]{1, 2});
+
+        LayerInterface float32 = vectorLayer("input", 2, false, null, DataType.Float32);
+        LayerInterface int32 = vectorLayer("input", 2, false, null, DataType.Int32);
+        LayerInterface quantized = vectorLayer("input", 2, true, Quantizer.DataQuantizerZeroToOne(), DataType.UInt8);
+
+        assertFalse(new Batch(ints).column("input").writeTo(ByteBuffer.allocate(8), float32));
+        assertFalse(new Batch(floats).column("input").writeTo(ByteBuffer.allocate(8), int32));
+        assertFalse(new Batch(ints).column("input").writeTo(ByteBuffer.allocate(8), quantized));
+        assertFalse(new Batch(bytes).column("input").writeTo(ByteBuffer.allocate(8), float32));
+
+        assertTrue(new Batch(ints).column("input").writeTo(ByteBuffer.allocate(8), int32));
+        assertTrue(new Batch(bytes).column("input").writeTo(ByteBuffer.allocate(2), quantized));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * CameraFrameTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+import static org.junit.Assert.*;
+
+public class CameraFrameTest {
+
+    private static PixelBufferLayerDescription layer(int width, int height, PixelFormat format) {
+        return new PixelBufferLayerDescription(format, new ImageVolume(height, width, 3), false, null, null, true);
+    }
+
+    private static byte[] resample(CameraFrame frame, int width, int height, PixelFormat format) {
+        ByteBuffer buffer = ByteBuffer.allocate(width * height * 3);
+        PixelResampler.resample(frame, buffer, layer(width, height, format), PixelResampler.Layout.Interleaved);
+        return buffer.array();
+    }
+
+    @Test
+    public void testNV21Gray() {
+        byte[] nv21 = new byte[]{ 10, 20, (byte) 128, (byte) 128 };
+        CameraFrame frame = CameraFrame.fromNV21(nv21, 2, 1, 0);
+
+        byte[] pixels = resample(frame, 2, 1, PixelFormat.RGB);
+
+        assertArrayEquals(new byte[]{ 10, 10, 10, 20, 20, 20 }, pixels);
+    }
+
+    @Test
+    public void testNV21Color() {
+        // NV21 stores V before U
+
+        byte[] nv21 = new byte[]{ (byte) 128, (byte) 128, (byte) 255, (byte) 128 };
+        CameraFrame frame = CameraFrame.fromNV21(nv21, 2, 1, 0);
+
+        byte[] rgb = resample(frame, 1, 1, PixelFormat.RGB);
+        byte[] bgr = resample(frame, 1, 1, PixelFormat.BGR);
+
+        assertArrayEquals(new byte[]{ (byte) 255, 38, (byte) 128 }, rgb);
+        assertArrayEquals(new byte[]{ (byte) 128, 38, (byte) 255 }, bgr);
+    }
+
+    @Test
+    public void testRotation() {
+        byte[] nv21 = new byte[]{ 10, 20, (byte) 128, (byte) 128 };
+
+        assertEquals(1, CameraFrame.fromNV21(nv21, 2, 1, 90).getUprightWidth());
+        assertEquals(2, CameraFrame.fromNV21(nv21, 2, 1, 90).getUprightHeight());
+
+        assertArrayEquals(new byte[]{ 10, 10, 10, 20, 20, 20 }, resample(CameraFrame.fromNV21(nv21, 2, 1, 90), 1, 2, PixelFormat.RGB));
+        assertArrayEquals(new byte[]{ 20, 20, 20, 10, 10, 10 }, resample(CameraFrame.fromNV21(nv21, 2, 1, 180), 2, 1, PixelFormat.RGB));
+        assertArrayEquals(new byte[]{ 20, 20, 20, 10, 10, 10 }, resample(CameraFrame.fromNV21(nv21, 2, 1, 270), 1, 2, PixelFormat.RGB));
+    }
+
+    @Test
+    public void testStridedPlanes() {
+        // A 2x2 frame whose rows are padded to 4 bytes, with planar chroma
+
+        ByteBuffer y = ByteBuffer.wrap(new byte[]{ 10, 20, 0, 0, 30, 40, 0, 0 });
+        ByteBuffer u = ByteBuffer.wrap(new byte[]{ (byte) 128 });
+        ByteBuffer v = ByteBuffer.wrap(new byte[]{ (byte) 128 });
+        CameraFrame frame = new CameraFrame(y, u, v, 4, 1, 1, 1, 2, 2, 0);
+
+        byte[] pixels = resample(frame, 2, 2, PixelFormat.RGB);
+
+        assertEquals(10, pixels[0]);
+        assertEquals(20, pixels[3]);
+        assertEquals(30, pixels[6]);
+        assertEquals(40, pixels[9]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadRotation() {
+        CameraFrame.fromNV21(new byte[4], 2, 1, 45);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortNV21() {
+        CameraFrame.fromNV21(new byte[3], 2, 1, 0);
+    }
+}
@@ -24,7 +24,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
 
 public class DequantizerTest {
 
@@ -65,4 +69,79 @@ public class DequantizerTest {
         assertEquals(1, dequantizer.dequantize(255), epsilon);
         assertEquals(0.5, dequantizer.dequantize(127), epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLookupTable() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerNegativeOneToOne();
+        float[] table = dequantizer.lookupTable();
+
+        assertEquals(256, table.length);
+        for (int i = 0; i < 256; i++) {
+            assertEquals(dequantizer.dequantize(i), table[i]);
+        }
+    }
+
+    @Test
+    public void testBulkDequantize() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerZeroToOne();
+        byte[] bytes = new byte[]{ 0, (byte) 255, 51 };
+        float epsilon = 0.0001f;
+
+        float[] fromArray = new float[3];
+        dequantizer.dequantize(bytes, fromArray, 3);
+
+        assertEquals(0f, fromArray[0], epsilon);
+        assertEquals(1f, fromArray[1], epsilon);
+        assertEquals(0.2f, fromArray[2], epsilon);
+
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        float[] fromHeap = new float[4];
+        dequantizer.dequantize(heap, fromHeap, 3);
+
+        assertEquals(3, heap.position());
+        assertEquals(1f, fromHeap[1], epsilon);
+        assertEquals(0f, fromHeap[3], epsilon);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(4);
+        direct.put(bytes).put((byte) 255);
+        direct.position(1);
+        float[] fromDirect = new float[3];
+        dequantizer.dequantize(direct, fromDirect, 3);
+
+        assertEquals(4, direct.position());
+        assertEquals(1f, fromDirect[0], epsilon);
+        assertEquals(0.2f, fromDirect[1], epsilon);
+        assertEquals(1f, fromDirect[2], epsilon);
+    }
+
+    @Test
+    public void testQuantizedThreshold() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerZeroToOne();
+
+        assertTrue(dequantizer.isMonotonic());
+        assertEquals(0, dequantizer.quantizedThreshold(-1f));
+        assertEquals(0, dequantizer.quantizedThreshold(0f));
+        assertEquals(51, dequantizer.quantizedThreshold(0.2f));
+        assertEquals(52, dequantizer.quantizedThreshold(0.201f));
+        assertEquals(255, dequantizer.quantizedThreshold(1f));
+        assertEquals(256, dequantizer.quantizedThreshold(1.1f));
+
+        // Every quantized value at or above the threshold dequantizes at or above the float threshold
+
+        for (float threshold = -1.1f; threshold < 1.1f; threshold += 0.013f) {
+            int quantized = Dequantizer.DataDequantizerNegativeOneToOne().quantizedThreshold(threshold);
+            for (int i = 0; i < 256; i++) {
+                float value = Dequantizer.DataDequantizerNegativeOneToOne().dequantize(i);
+                assertEquals(value >= threshold, i >= quantized);
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQuantizedThresholdRequiresMonotonicDequantizer() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerWithDequantization(-1f, 0f);
+
+        assertFalse(dequantizer.isMonotonic());
+        dequantizer.quantizedThreshold(0.5f);
+    }
+}
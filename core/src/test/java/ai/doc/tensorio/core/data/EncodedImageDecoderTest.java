@@ -0,0 +1,58 @@
+/*
+ * EncodedImageDecoderTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EncodedImageDecoderTest {
+
+    @Test
+    public void testSampleSize() {
+        // A 12 megapixel photo bound for a 224x224 layer is decoded at an eighth of its size
+
+        assertEquals(8, EncodedImageDecoder.sampleSize(4000, 3000, 224, 224));
+
+        // The sample size never shrinks either dimension below the target
+
+        assertEquals(4, EncodedImageDecoder.sampleSize(4000, 1000, 224, 224));
+        assertEquals(2, EncodedImageDecoder.sampleSize(500, 500, 224, 224));
+        assertEquals(1, EncodedImageDecoder.sampleSize(447, 1000, 224, 224));
+        assertEquals(1, EncodedImageDecoder.sampleSize(100, 100, 224, 224));
+    }
+
+    @Test
+    public void testEncodedImageRange() {
+        byte[] data = new byte[10];
+        EncodedImage image = new EncodedImage(data, 2, 8, BitmapRegion.Fit.CenterCrop, 0xFF000000);
+
+        assertSame(data, image.getData());
+        assertEquals(2, image.getOffset());
+        assertEquals(8, image.getLength());
+        assertEquals(BitmapRegion.Fit.CenterCrop, image.getFit());
+        assertNull(image.getFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodedImageOutOfRange() {
+        new EncodedImage(new byte[10], 4, 8, BitmapRegion.Fit.Stretch, 0xFF000000);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * ImagePipelineTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+import static org.junit.Assert.*;
+
+public class ImagePipelineTest {
+
+    private static PixelBufferLayerDescription layer(int width, int height, boolean quantized) {
+        return new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(height, width, 3), false, null, null, quantized);
+    }
+
+    /** A 3x2 source whose red channel numbers the pixels 1 through 6 in row order */
+
+    private static ARGBArrayPixels source() {
+        int[] pixels = new int[6];
+        for (int i = 0; i < 6; i++) {
+            pixels[i] = 0xFF000000 | ((i + 1) << 16);
+        }
+        return new ARGBArrayPixels(pixels, 3, 2);
+    }
+
+    private static int[] reds(ByteBuffer buffer, int count) {
+        int[] reds = new int[count];
+        for (int i = 0; i < count; i++) {
+            reds[i] = buffer.get(i * 3) & 0xFF;
+        }
+        return reds;
+    }
+
+    @Test
+    public void testRotatedPixels() {
+        // 1 2 3    90:  4 1    180: 6 5 4    270: 3 6
+        // 4 5 6         5 2         3 2 1         2 5
+        //               6 3                       1 4
+
+        int[][] expected = new int[][]{
+                { 4, 1, 5, 2, 6, 3 },
+                { 6, 5, 4, 3, 2, 1 },
+                { 3, 6, 2, 5, 1, 4 }
+        };
+
+        for (int r = 0; r < 3; r++) {
+            int rotation = (r + 1) * 90;
+            RotatedPixels rotated = new RotatedPixels(source(), rotation);
+            int[] pixels = new int[6];
+
+            rotated.getPixels(pixels, 0, 0, 0, rotated.getWidth(), rotated.getHeight());
+
+            for (int i = 0; i < 6; i++) {
+                assertEquals("rotation " + rotation, expected[r][i], (pixels[i] >> 16) & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void testRotate() {
+        PixelBufferLayerDescription layer = layer(2, 3, true);
+        ImagePipeline pipeline = new ImagePipeline.Builder(layer).rotate(90).build();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * 3 * 3);
+
+        pipeline.process(source(), buffer, PixelResampler.Layout.Interleaved);
+
+        assertArrayEquals(new int[]{ 4, 1, 5, 2, 6, 3 }, reds(buffer, 6));
+    }
+
+    @Test
+    public void testCropInRotatedCoordinates() {
+        // Rotated 180 degrees the bottom row of the image is 3 2 1
+
+        PixelBufferLayerDescription layer = layer(2, 1, true);
+        ImagePipeline pipeline = new ImagePipeline.Builder(layer).rotate(180).crop(1, 1, 2, 1).build();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * 3);
+
+        pipeline.process(source(), buffer, PixelResampler.Layout.Interleaved);
+
+        assertArrayEquals(new int[]{ 2, 1 }, reds(buffer, 2));
+    }
+
+    @Test
+    public void testGrayscale() {
+        PixelBufferLayerDescription layer = layer(1, 1, true);
+        ImagePipeline pipeline = new ImagePipeline.Builder(layer).grayscale().build();
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+
+        pipeline.process(new ARGBArrayPixels(new int[]{ 0xFFFF0000 }, 1, 1), buffer, PixelResampler.Layout.Interleaved);
+
+        // BT.601 luma of pure red is 77/256 of full scale
+
+        assertEquals(76, buffer.get(0) & 0xFF);
+        assertEquals(76, buffer.get(1) & 0xFF);
+        assertEquals(76, buffer.get(2) & 0xFF);
+    }
+
+    @Test
+    public void testNormalizeOverridesLayer() {
+        PixelBufferLayerDescription layer = layer(1, 1, false);
+        ImagePipeline pipeline = new ImagePipeline.Builder(layer)
+                .normalize(PixelNormalizer.PixelNormalizerNegativeOneToOne())
+                .build();
+        ByteBuffer buffer = ByteBuffer.allocate(3 * 4).order(ByteOrder.nativeOrder());
+
+        pipeline.process(new ARGBArrayPixels(new int[]{ 0xFFFF0000 }, 1, 1), buffer, PixelResampler.Layout.Interleaved);
+
+        assertEquals(1f, buffer.getFloat(0), 0.001f);
+        assertEquals(-1f, buffer.getFloat(4), 0.001f);
+        assertEquals(-1f, buffer.getFloat(8), 0.001f);
+    }
+
+    @Test
+    public void testInputForOtherLayer() {
+        ImagePipeline pipeline = new ImagePipeline.Builder(layer(1, 1, true)).build();
+
+        try {
+            pipeline.on(source()).writeTo(ByteBuffer.allocate(3), layer(1, 1, true), PixelResampler.Layout.Interleaved);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadRotation() {
+        new ImagePipeline.Builder(layer(1, 1, true)).rotate(45);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyCrop() {
+        new ImagePipeline.Builder(layer(1, 1, true)).crop(0, 0, 0, 1);
+    }
+}
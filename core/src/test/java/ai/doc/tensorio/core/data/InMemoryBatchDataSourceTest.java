@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import java.util.Arrays;
 
+import static ai.doc.tensorio.core.data.BatchAssertions.assertItemEquals;
 import static org.junit.Assert.*;
 
 public class InMemoryBatchDataSourceTest {
@@ -112,15 +113,15 @@ public class InMemoryBatchDataSourceTest {
         InMemoryBatchDataSource dataSource = new InMemoryBatchDataSource(batch);
         Batch.Item itemA = dataSource.get(0);
         Batch.Item itemB = dataSource.get(1);
-        assertEquals(item1, itemA);
-        assertEquals(item2, itemB);
+        assertItemEquals(item1, itemA);
+        assertItemEquals(item2, itemB);
     }
 
     @Test
     public void testReturnsItemFromItem() {
         InMemoryBatchDataSource dataSource = new InMemoryBatchDataSource(item1);
         Batch.Item item = dataSource.get(0);
-        assertEquals(item1, item);
+        assertItemEquals(item1, item);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+/*
+ * LabeledVectorTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+import ai.doc.tensorio.core.utilities.ClassificationHelper;
+
+import static org.junit.Assert.*;
+
+public class LabeledVectorTest {
+
+    private VectorLayerDescription labeledDescription() {
+        return new VectorLayerDescription(new int[]{3}, false, new String[]{"a", "b", "c"}, false, null, null, null);
+    }
+
+    @Test
+    public void testReadsValuesThroughLabels() {
+        float[] values = new float[]{0.1f, 0.7f, 0.2f};
+        LabeledVector vector = new LabeledVector(labeledDescription(), values);
+
+        assertEquals(3, vector.size());
+        assertEquals(0.1f, vector.get("a"), 0);
+        assertEquals(0.7f, vector.get("b"), 0);
+        assertEquals(0.2f, vector.get("c"), 0);
+        assertNull(vector.get("d"));
+        assertNull(vector.get(1));
+
+        assertTrue(vector.containsKey("c"));
+        assertFalse(vector.containsKey("d"));
+
+        assertEquals(1, vector.indexOf("b"));
+        assertEquals(-1, vector.indexOf("d"));
+        assertEquals(0.7f, vector.getFloat("b", -1), 0);
+        assertEquals(-1f, vector.getFloat("d", -1), 0);
+        assertEquals("c", vector.label(2));
+        assertEquals(0.2f, vector.value(2), 0);
+    }
+
+    @Test
+    public void testRepeatedLabelsKeepTheLastValue() {
+        VectorLayerDescription description = new VectorLayerDescription(new int[]{4}, false, new String[]{"a", "b", "a", "c"}, false, null, null, null);
+        LabeledVector vector = new LabeledVector(description, new float[]{0.9f, 0.1f, 0.3f, 0.2f});
+
+        Map<String, Float> expected = new HashMap<>();
+        expected.put("a", 0.3f);
+        expected.put("b", 0.1f);
+        expected.put("c", 0.2f);
+
+        assertTrue(vector.hasRepeatedLabels());
+        assertEquals(3, vector.size());
+        assertEquals(3, vector.entrySet().size());
+        assertEquals(2, vector.indexOf("a"));
+        assertEquals(expected, new HashMap<>(vector));
+
+        List<Map.Entry<String, Float>> top = ClassificationHelper.topN(vector, 1);
+        assertEquals("a", top.get(0).getKey());
+        assertEquals(0.3f, top.get(0).getValue(), 0);
+    }
+
+    @Test
+    public void testIsAViewOverTheValues() {
+        float[] values = new float[]{0.1f, 0.7f, 0.2f};
+        LabeledVector vector = new LabeledVector(labeledDescription(), values);
+
+        values[0] = 0.9f;
+
+        assertSame(values, vector.getValues());
+        assertEquals(0.9f, vector.get("a"), 0);
+    }
+
+    @Test
+    public void testEqualsAnEquivalentMap() {
+        LabeledVector vector = new LabeledVector(labeledDescription(), new float[]{0.1f, 0.7f, 0.2f});
+
+        Map<String, Float> expected = new HashMap<>();
+        expected.put("a", 0.1f);
+        expected.put("b", 0.7f);
+        expected.put("c", 0.2f);
+
+        assertEquals(expected, vector);
+        assertEquals(vector, expected);
+        assertEquals(expected.hashCode(), vector.hashCode());
+        assertEquals(expected.keySet(), vector.keySet());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIsReadOnly() {
+        LabeledVector vector = new LabeledVector(labeledDescription(), new float[]{0.1f, 0.7f, 0.2f});
+        vector.put("a", 1f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRequiresAValueForEveryLabel() {
+        new LabeledVector(labeledDescription(), new float[]{0.1f, 0.7f});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRequiresALabeledLayer() {
+        VectorLayerDescription description = new VectorLayerDescription(new int[]{3}, false, null, false, null, null, null);
+        new LabeledVector(description, new float[]{0.1f, 0.7f, 0.2f});
+    }
+
+    @Test
+    public void testLabeledValuesReturnsAView() {
+        VectorLayerDescription description = labeledDescription();
+        float[] values = new float[]{0.1f, 0.7f, 0.2f};
+
+        Map<String, Float> labeled = description.labeledValues(values);
+
+        assertTrue(labeled instanceof LabeledVector);
+        assertSame(values, ((LabeledVector) labeled).getValues());
+    }
+
+    @Test
+    public void testTopN() {
+        LabeledVector vector = new LabeledVector(labeledDescription(), new float[]{0.1f, 0.7f, 0.2f});
+        List<Map.Entry<String, Float>> top = ClassificationHelper.topN(vector, 2, 0.15f);
+
+        assertEquals(2, top.size());
+        assertEquals("b", top.get(0).getKey());
+        assertEquals(0.7f, top.get(0).getValue(), 0);
+        assertEquals("c", top.get(1).getKey());
+        assertEquals(0.2f, top.get(1).getValue(), 0);
+    }
+}
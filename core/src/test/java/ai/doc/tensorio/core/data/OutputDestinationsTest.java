@@ -0,0 +1,88 @@
+/*
+ * OutputDestinationsTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class OutputDestinationsTest {
+
+    @Test
+    public void testCopiesIntoMatchingArrays() {
+        float[] floats = new float[3];
+        int[] ints = new int[3];
+        long[] longs = new long[3];
+        byte[] bytes = new byte[3];
+
+        assertSame(floats, OutputDestinations.copy(new float[]{1, 2, 3}, floats));
+        assertSame(ints, OutputDestinations.copy(new int[]{1, 2, 3}, ints));
+        assertSame(longs, OutputDestinations.copy(new long[]{1, 2, 3}, longs));
+        assertSame(bytes, OutputDestinations.copy(new byte[]{1, 2, 3}, bytes));
+
+        assertArrayEquals(new float[]{1, 2, 3}, floats, 0);
+        assertArrayEquals(new int[]{1, 2, 3}, ints);
+        assertArrayEquals(new long[]{1, 2, 3}, longs);
+        assertArrayEquals(new byte[]{1, 2, 3}, bytes);
+    }
+
+    @Test
+    public void testCopiesIntoBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(12).order(ByteOrder.nativeOrder());
+        buffer.position(4);
+
+        assertSame(buffer, OutputDestinations.copy(new float[]{1, 2, 3}, buffer));
+        assertEquals(4, buffer.position());
+
+        assertEquals(1, buffer.getFloat(0), 0);
+        assertEquals(2, buffer.getFloat(4), 0);
+        assertEquals(3, buffer.getFloat(8), 0);
+    }
+
+    @Test
+    public void testReturnsValueWithoutDestination() {
+        float[] value = {1, 2, 3};
+
+        assertSame(value, OutputDestinations.copy(value, null));
+        assertSame(value, OutputDestinations.copy(value, new int[3]));
+        assertSame(value, OutputDestinations.copy(value, "destination"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsArrayOfDifferentLength() {
+        OutputDestinations.copy(new float[]{1, 2, 3}, new float[4]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsBufferOfDifferentCapacity() {
+        OutputDestinations.copy(new float[]{1, 2, 3}, ByteBuffer.allocateDirect(8));
+    }
+
+    @Test
+    public void testIsDestination() {
+        assertTrue(OutputDestinations.isDestination(new float[1]));
+        assertTrue(OutputDestinations.isDestination(ByteBuffer.allocate(1)));
+        assertFalse(OutputDestinations.isDestination(null));
+        assertFalse(OutputDestinations.isDestination(new Object()));
+    }
+}
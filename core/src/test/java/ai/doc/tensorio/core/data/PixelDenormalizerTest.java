@@ -107,4 +107,22 @@ public class PixelDenormalizerTest {
         assertEquals(denormalizer.denormalize(1.0f + 0.2f, 1), 255, epsilon);
         assertEquals(denormalizer.denormalize(1.0f + 0.3f, 2), 255, epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDenormalizePixelMatchesDenormalize() {
+        PixelDenormalizer denormalizer = PixelDenormalizer.PixelDenormalizerPerChannelBias(255.0f, -0.1f, -0.2f, -0.3f);
+
+        int expected = PixelDenormalizer.pack(
+                denormalizer.denormalize(0.6f, 0),
+                denormalizer.denormalize(0.7f, 1),
+                denormalizer.denormalize(0.8f, 2));
+
+        assertEquals(expected, denormalizer.denormalizePixel(0.6f, 0.7f, 0.8f));
+    }
+
+    @Test
+    public void testPackPixel() {
+        assertEquals(0xFF102030, PixelDenormalizer.pack(0x10, 0x20, 0x30));
+        assertEquals(0xFFFF0000, PixelDenormalizer.pack(-1, 0, 0));
+    }
+}
@@ -107,4 +107,28 @@ public class PixelNormalizerTest {
         assertEquals(normalizer.normalize(255, 1), 1.0 + 0.2, epsilon);
         assertEquals(normalizer.normalize(255, 2), 1.0 + 0.3, epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLookupTableMatchesNormalize() {
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerPerChannelBias(1.0f / 255.0f, 0.1f, 0.2f, 0.3f);
+        float[] table = normalizer.lookupTable();
+
+        assertEquals(3 * 256, table.length);
+
+        for (int channel = 0; channel < 3; channel++) {
+            for (int value = 0; value < 256; value++) {
+                assertEquals(normalizer.normalize(value, channel), table[channel * 256 + value], 0);
+            }
+        }
+    }
+
+    @Test
+    public void testIdentityLookupTable() {
+        float[] table = PixelNormalizer.IdentityLookupTable();
+
+        assertEquals(0, table[0], 0);
+        assertEquals(255, table[255], 0);
+        assertEquals(0, table[256], 0);
+        assertEquals(127, table[2 * 256 + 127], 0);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * PixelSourceTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+import static org.junit.Assert.*;
+
+public class PixelSourceTest {
+
+    private static PixelBufferLayerDescription layer(int width, int height, boolean quantized) {
+        return new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(height, width, 3), false, null, null, quantized);
+    }
+
+    @Test
+    public void testARGBArrayWithStride() {
+        // A 2x2 image starting at index 1 with rows padded to 3 pixels
+
+        int[] backing = new int[]{ 0, 1, 2, 0, 3, 4, 0 };
+        ARGBArrayPixels pixels = new ARGBArrayPixels(backing, 1, 3, 2, 2);
+
+        int[] row = new int[2];
+        pixels.getPixels(row, 0, 0, 1, 2, 1);
+        assertArrayEquals(new int[]{ 3, 4 }, row);
+
+        pixels.setPixels(new int[]{ 9 }, 0, 1, 0, 1, 1);
+        assertEquals(9, backing[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testARGBArrayTooShort() {
+        new ARGBArrayPixels(new int[3], 2, 2);
+    }
+
+    @Test
+    public void testRGBABufferWithStride() {
+        // A 1x2 image with rows padded to 8 bytes
+
+        ByteBuffer backing = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        backing.put(0, (byte) 0x10).put(1, (byte) 0x20).put(2, (byte) 0x30).put(3, (byte) 0xFF);
+        backing.put(8, (byte) 0x40).put(9, (byte) 0x50).put(10, (byte) 0x60).put(11, (byte) 0x80);
+
+        RGBABufferPixels pixels = new RGBABufferPixels(backing, 8, 1, 2);
+
+        int[] argb = new int[2];
+        pixels.getPixels(argb, 0, 0, 0, 1, 2);
+        assertEquals(0xFF102030, argb[0]);
+        assertEquals(0x80405060, argb[1]);
+
+        pixels.setPixels(new int[]{ 0x01020304 }, 0, 0, 1, 1, 1);
+        assertEquals(0x02, backing.get(8));
+        assertEquals(0x03, backing.get(9));
+        assertEquals(0x04, backing.get(10));
+        assertEquals(0x01, backing.get(11));
+        assertEquals(ByteOrder.LITTLE_ENDIAN, backing.order());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRGBABufferTooSmall() {
+        new RGBABufferPixels(ByteBuffer.allocate(15), 2, 2);
+    }
+
+    @Test
+    public void testResampleFromPixelSource() {
+        // A 2x1 source upscaled to 4x1 with bilinear interpolation
+
+        ARGBArrayPixels source = new ARGBArrayPixels(new int[]{ 0xFF000000, 0xFF404040 }, 2, 1);
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 3);
+
+        PixelResampler.resample(source, buffer, layer(4, 1, true), PixelResampler.Layout.Interleaved);
+
+        assertEquals(0x00, buffer.get(0));
+        assertEquals(0x10, buffer.get(3));
+        assertEquals(0x30, buffer.get(6));
+        assertEquals(0x40, buffer.get(9));
+    }
+
+    @Test
+    public void testResampleRegionOfPixelSource() {
+        RGBABufferPixels source = new RGBABufferPixels(ByteBuffer.allocate(2 * 4), 2, 1);
+        source.setPixels(new int[]{ 0xFF000000, 0xFF102030 }, 0, 0, 0, 2, 1);
+
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+        BitmapRegion region = new BitmapRegion(source, 1, 0, 1, 1, BitmapRegion.Fit.Stretch, 0xFF000000);
+        PixelResampler.resample(region, buffer, layer(1, 1, true), PixelResampler.Layout.Interleaved);
+
+        assertNull(region.getBitmap());
+        assertEquals(0x10, buffer.get(0));
+        assertEquals(0x20, buffer.get(1));
+        assertEquals(0x30, buffer.get(2));
+    }
+
+    @Test
+    public void testSinkIsOutputDestination() {
+        ARGBArrayPixels sink = new ARGBArrayPixels(new int[4], 2, 2);
+
+        assertTrue(OutputDestinations.isDestination(sink));
+        OutputDestinations.checkSink(sink, 2, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSinkOfWrongSize() {
+        OutputDestinations.checkSink(new ARGBArrayPixels(new int[4], 2, 2), 4, 1);
+    }
+}
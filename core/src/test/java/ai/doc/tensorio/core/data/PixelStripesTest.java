@@ -0,0 +1,106 @@
+/*
+ * PixelStripesTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+import static org.junit.Assert.*;
+
+public class PixelStripesTest {
+
+    private static PixelBufferLayerDescription layer(int width, int height, boolean parallel) {
+        PixelBufferLayerDescription description = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(height, width, 3), false, PixelNormalizer.PixelNormalizerZeroToOne(), null, false);
+        description.setParallel(parallel);
+        return description;
+    }
+
+    @Test
+    public void testSmallImagesAreNotStriped() {
+        PixelBufferLayerDescription description = layer(64, 64, true);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertFalse(PixelStripes.shouldStripe(description, 64, 64));
+
+        PixelStripes.run(description, 64, 64, (fromRow, toRow) -> {
+            assertEquals(0, fromRow);
+            assertEquals(64, toRow);
+            calls.incrementAndGet();
+        });
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testLayersAreNotStripedByDefault() {
+        assertFalse(PixelStripes.shouldStripe(layer(1024, 1024, false), 1024, 1024));
+    }
+
+    @Test
+    public void testEveryRowIsVisitedOnce() {
+        PixelBufferLayerDescription description = layer(512, 517, true);
+        AtomicIntegerArray visits = new AtomicIntegerArray(517);
+
+        PixelStripes.run(description, 512, 517, (fromRow, toRow) -> {
+            for (int y = fromRow; y < toRow; y++) {
+                visits.incrementAndGet(y);
+            }
+        });
+
+        for (int y = 0; y < 517; y++) {
+            assertEquals(1, visits.get(y));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStripeExceptionsAreRethrown() {
+        PixelStripes.run(layer(512, 512, true), 512, 512, (fromRow, toRow) -> {
+            throw new IllegalStateException();
+        });
+    }
+
+    @Test
+    public void testParallelResampleMatchesSerial() {
+        int[] pixels = new int[300 * 200];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | ((i * 7919) & 0xFFFFFF);
+        }
+        ARGBArrayPixels source = new ARGBArrayPixels(pixels, 300, 200);
+
+        ByteBuffer serial = ByteBuffer.allocateDirect(512 * 512 * 3 * 4).order(ByteOrder.nativeOrder());
+        ByteBuffer parallel = ByteBuffer.allocateDirect(512 * 512 * 3 * 4).order(ByteOrder.nativeOrder());
+
+        PixelResampler.resample(source, serial, layer(512, 512, false), PixelResampler.Layout.Interleaved);
+        PixelResampler.resample(source, parallel, layer(512, 512, true), PixelResampler.Layout.Interleaved);
+
+        serial.rewind();
+        parallel.rewind();
+
+        assertEquals(serial, parallel);
+    }
+}
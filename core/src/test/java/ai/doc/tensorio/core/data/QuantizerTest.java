@@ -24,6 +24,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 import static junit.framework.TestCase.assertEquals;
 
 public class QuantizerTest {
@@ -65,4 +67,67 @@ public class QuantizerTest {
         assertEquals(255, quantizer.quantize(1), epsilon);
         assertEquals(127, quantizer.quantize(0.5f), epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBulkQuantizeMatchesScalarQuantize() {
+        Quantizer quantizer = Quantizer.DataQuantizerZeroToOne();
+        float[] values = new float[]{ 0f, 0.25f, 0.5f, 0.75f, 1f };
+
+        ByteBuffer heap = ByteBuffer.allocate(6);
+        heap.put((byte) 7);
+        quantizer.quantize(values, heap);
+
+        assertEquals(6, heap.position());
+        assertEquals(7, heap.get(0));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(quantizer.quantize(values[i]), heap.get(i + 1) & 0xFF);
+        }
+
+        assertEquals(127, heap.get(3) & 0xFF);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(5);
+        quantizer.quantize(values, direct);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(heap.get(i + 1), direct.get(i));
+        }
+    }
+
+    @Test
+    public void testQuantizeClampsOutOfRangeValues() {
+        Quantizer quantizer = Quantizer.DataQuantizerZeroToOne();
+
+        assertEquals(0, quantizer.quantize(-0.5f));
+        assertEquals(255, quantizer.quantize(1.5f));
+
+        ByteBuffer heap = ByteBuffer.allocate(2);
+        quantizer.quantize(new float[]{ -0.5f, 1.5f }, heap);
+
+        assertEquals(0, heap.get(0) & 0xFF);
+        assertEquals(255, heap.get(1) & 0xFF);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(2);
+        quantizer.quantize(new float[]{ -0.5f, 1.5f }, direct);
+
+        assertEquals(0, direct.get(0) & 0xFF);
+        assertEquals(255, direct.get(1) & 0xFF);
+    }
+
+    @Test
+    public void testBulkQuantizeCustomQuantizer() {
+        Quantizer quantizer = new Quantizer() {
+            @Override
+            public int quantize(float value) {
+                return (int) value;
+            }
+        };
+
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+        quantizer.quantize(new float[]{ -3f, 42f, 300f }, buffer);
+
+        assertEquals(0, buffer.get(0) & 0xFF);
+        assertEquals(42, buffer.get(1) & 0xFF);
+        assertEquals(255, buffer.get(2) & 0xFF);
+    }
+}
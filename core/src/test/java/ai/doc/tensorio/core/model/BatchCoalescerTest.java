@@ -0,0 +1,202 @@
+/*
+ * BatchCoalescerTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchCoalescerTest {
+
+    private EchoModel model;
+    private BatchCoalescer coalescer;
+
+    @Before
+    public void setUp() throws Exception {
+        model = new EchoModel();
+    }
+
+    @After
+    public void tearDown() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    private static Map<String, Object> input(float value) {
+        return Collections.singletonMap("input", (Object) new float[]{value, value, value, value});
+    }
+
+    @Test
+    public void testFlushesAtMaxBatchSize() throws Exception {
+        coalescer = new BatchCoalescer(model, 4, TimeUnit.SECONDS.toMicros(10));
+
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(coalescer.runOn(input(i)));
+        }
+
+        for (int i = 0; i < 8; i++) {
+            float[] output = (float[]) futures.get(i).get(5, TimeUnit.SECONDS).get("output");
+            assertArrayEquals(new float[]{i, i, i, i}, output, 0);
+        }
+
+        assertEquals(Arrays.asList(4, 4), model.batchSizes);
+    }
+
+    @Test
+    public void testFlushesAfterMaxDelay() throws Exception {
+        coalescer = new BatchCoalescer(model, 4, TimeUnit.MILLISECONDS.toMicros(10));
+
+        float[] output = (float[]) coalescer.runOn(input(1)).get(5, TimeUnit.SECONDS).get("output");
+
+        assertArrayEquals(new float[]{1, 1, 1, 1}, output, 0);
+        assertEquals(Collections.singletonList(1), model.batchSizes);
+    }
+
+    @Test
+    public void testRunsEachItemWhenLayersAreNotBatched() throws Exception {
+        EchoModel unbatched = new EchoModel(false);
+        coalescer = new BatchCoalescer(unbatched, 4, TimeUnit.SECONDS.toMicros(10));
+
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            futures.add(coalescer.runOn(input(i)));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            float[] output = (float[]) futures.get(i).get(5, TimeUnit.SECONDS).get("output");
+            assertArrayEquals(new float[]{i, i, i, i}, output, 0);
+        }
+
+        assertTrue(unbatched.batchSizes.isEmpty());
+    }
+
+    @Test
+    public void testFailurePropagatesToEachRequest() throws Exception {
+        model.failure = new Model.ModelException("failed");
+        coalescer = new BatchCoalescer(model, 2, TimeUnit.SECONDS.toMicros(10));
+
+        CompletableFuture<Map<String, Object>> a = coalescer.runOn(input(1));
+        CompletableFuture<Map<String, Object>> b = coalescer.runOn(input(2));
+
+        for (CompletableFuture<Map<String, Object>> future : Arrays.asList(a, b)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected the request to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof Model.ModelException);
+            }
+        }
+    }
+
+    @Test
+    public void testMismatchedInputFailsOnlyThatRequest() throws Exception {
+        coalescer = new BatchCoalescer(model, 2, TimeUnit.SECONDS.toMicros(10));
+
+        CompletableFuture<Map<String, Object>> bad = coalescer.runOn(Collections.singletonMap("other", (Object) new float[4]));
+        CompletableFuture<Map<String, Object>> good = coalescer.runOn(input(1));
+
+        try {
+            bad.get(5, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        float[] output = (float[]) good.get(5, TimeUnit.SECONDS).get("output");
+        assertArrayEquals(new float[]{1, 1, 1, 1}, output, 0);
+    }
+
+    @Test
+    public void testCloseRunsPendingRequests() throws Exception {
+        coalescer = new BatchCoalescer(model, 4, TimeUnit.SECONDS.toMicros(10));
+
+        CompletableFuture<Map<String, Object>> future = coalescer.runOn(input(1));
+        coalescer.close();
+
+        float[] output = (float[]) future.get(5, TimeUnit.SECONDS).get("output");
+        assertArrayEquals(new float[]{1, 1, 1, 1}, output, 0);
+    }
+
+    @Test
+    public void testRequestsSubmittedWhileClosingComplete() throws Exception {
+        coalescer = new BatchCoalescer(model, 4, 1000);
+
+        List<CompletableFuture<Map<String, Object>>> futures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        futures.add(coalescer.runOn(input(i)));
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        coalescer.close();
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (CompletableFuture<Map<String, Object>> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                // Completed exceptionally
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRunAfterCloseThrows() {
+        coalescer = new BatchCoalescer(model, 4, 0);
+        coalescer.close();
+        coalescer.runOn(input(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchSizeThrows() {
+        new BatchCoalescer(model, 0, 0);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * BindingPlanTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
+
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BindingPlanTest {
+
+    /** Encodes float[] inputs into float32 buffers and decodes buffers back into float[] */
+
+    private static class FloatCompiler implements BindingPlan.Compiler<ByteBuffer, ByteBuffer> {
+
+        int allocations = 0;
+
+        @Override
+        public ByteBuffer allocate(LayerInterface layer) {
+            allocations++;
+            return ByteBuffer.allocateDirect(4 * 4).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        public BindingPlan.Encoder<ByteBuffer> encoder(LayerInterface layer) {
+            return (input, buffer) -> {
+                ByteBuffer b = buffer != null ? buffer : allocate(layer);
+                b.rewind();
+                for (float f : (float[]) input) {
+                    b.putFloat(f);
+                }
+                return b;
+            };
+        }
+
+        @Override
+        public BindingPlan.Decoder<ByteBuffer> decoder(LayerInterface layer) {
+            return (buffer) -> {
+                float[] values = new float[4];
+                buffer.rewind();
+                buffer.asFloatBuffer().get(values);
+                return values;
+            };
+        }
+    }
+
+    private IO io;
+
+    @Before
+    public void setUp() {
+        LayerInterface a = new LayerInterface("a", LayerInterface.Mode.Input, description());
+        LayerInterface b = new LayerInterface("b", LayerInterface.Mode.Input, description());
+        LayerInterface c = new LayerInterface("c", LayerInterface.Mode.Output, description());
+
+        io = new IO(Arrays.asList(a, b), Collections.singletonList(c));
+    }
+
+    private static VectorLayerDescription description() {
+        return new VectorLayerDescription(
+                new int[]{-1, 4},
+                false,
+                null,
+                false,
+                null,
+                null,
+                DataType.Float32
+        );
+    }
+
+    @Test
+    public void testSlotsFollowIOOrder() {
+        BindingPlan<ByteBuffer, ByteBuffer> plan = BindingPlan.compile(io, new FloatCompiler(), true);
+
+        assertEquals(2, plan.inputCount());
+        assertEquals(0, plan.placeholderCount());
+        assertEquals(1, plan.outputCount());
+
+        assertEquals("a", plan.input(0).getName());
+        assertEquals("b", plan.input(1).getName());
+        assertEquals("c", plan.output(0).getName());
+        assertEquals((int) io.getInputs().indexFor("b"), plan.input(1).getIndex());
+    }
+
+    @Test
+    public void testShapeHasBatchSizeOfOne() {
+        BindingPlan<ByteBuffer, ByteBuffer> plan = BindingPlan.compile(io, new FloatCompiler(), true);
+
+        assertArrayEquals(new int[]{1, 4}, plan.input(0).getShape());
+        assertEquals(-1, io.getInputs().get("a").getTensorShape()[0]);
+        assertEquals(16, plan.input(0).getByteLength());
+    }
+
+    @Test
+    public void testCachedBuffersAreReused() {
+        FloatCompiler compiler = new FloatCompiler();
+        BindingPlan<ByteBuffer, ByteBuffer> plan = BindingPlan.compile(io, compiler, true);
+        BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(0);
+
+        ByteBuffer first = slot.encode(new float[]{1, 2, 3, 4});
+        ByteBuffer second = slot.encode(new float[]{5, 6, 7, 8});
+
+        assertSame(slot.getBuffer(), first);
+        assertSame(first, second);
+        assertSame(plan.output(0).outputBuffer(), plan.output(0).outputBuffer());
+        assertEquals(3, compiler.allocations);
+
+        assertArrayEquals(new float[]{5, 6, 7, 8}, (float[]) plan.output(0).decode(second), 0);
+    }
+
+    @Test
+    public void testUncachedBuffersAreAllocated() {
+        BindingPlan<ByteBuffer, ByteBuffer> plan = BindingPlan.compile(io, new FloatCompiler(), false);
+        BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(0);
+
+        assertNull(slot.getBuffer());
+        assertEquals(16, slot.getByteLength());
+        assertNotSame(slot.encode(new float[4]), slot.encode(new float[4]));
+        assertNotSame(plan.output(0).outputBuffer(), plan.output(0).outputBuffer());
+        assertNotSame(slot.batchBuffer(32), slot.batchBuffer(32));
+    }
+
+    @Test
+    public void testBatchBufferGrows() {
+        BindingPlan<ByteBuffer, ByteBuffer> plan = BindingPlan.compile(io, new FloatCompiler(), true);
+        BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(0);
+
+        ByteBuffer small = slot.batchBuffer(32);
+        ByteBuffer large = slot.batchBuffer(64);
+
+        assertTrue(small.isDirect());
+        assertNotSame(small, large);
+        assertSame(large, slot.batchBuffer(48));
+        assertEquals(ByteOrder.nativeOrder(), large.order());
+    }
+
+    @Test
+    public void testDecodeIntoFallsBackToCopy() {
+        BindingPlan<ByteBuffer, ByteBuffer> plan = BindingPlan.compile(io, new FloatCompiler(), true);
+        BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(0);
+
+        ByteBuffer buffer = plan.input(0).encode(new float[]{1, 2, 3, 4});
+        float[] destination = new float[4];
+
+        assertSame(destination, slot.decodeInto(buffer, destination));
+        assertArrayEquals(new float[]{1, 2, 3, 4}, destination, 0);
+        assertArrayEquals(new float[]{1, 2, 3, 4}, (float[]) slot.decodeInto(buffer, null), 0);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * EchoModel.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.data.Placeholders;
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+import ai.doc.tensorio.core.modelbundle.ModelBundle;
+
+/**
+ * A model for unit tests that copies its "input" vector layer to its "output" vector layer,
+ * recording the size of every batch it is run on. Both layers are float32 vectors of length 4,
+ * batched unless the model is created otherwise. Like the backends, the model refuses to run on a
+ * batch when its layers are not batched.
+ */
+
+public class EchoModel extends Model {
+
+    /** A bundle whose properties are set directly rather than parsed from a model.json file */
+
+    public static class Bundle extends ModelBundle {
+
+        public Bundle(boolean batched) throws Exception {
+            this.identifier = "echo";
+            this.name = "Echo";
+            this.version = "1";
+            this.details = "";
+            this.author = "";
+            this.license = "";
+            this.type = "unknown";
+            this.options = new Options("back");
+            this.modes = new Modes();
+            this.io = new IO(
+                    Collections.singletonList(layer("input", LayerInterface.Mode.Input, batched)),
+                    Collections.singletonList(layer("output", LayerInterface.Mode.Output, batched))
+            );
+        }
+
+        @Override
+        public String readTextFile(String filename) {
+            return null;
+        }
+
+        private static LayerInterface layer(String name, LayerInterface.Mode mode, boolean batched) {
+            return new LayerInterface(name, mode, new VectorLayerDescription(
+                    new int[]{-1, 4},
+                    batched,
+                    null,
+                    false,
+                    null,
+                    null,
+                    DataType.Float32
+            ));
+        }
+    }
+
+    /** The size of each batch the model has been run on, in order */
+
+    public final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    /** When set the model throws this exception instead of running */
+
+    public volatile @Nullable ModelException failure;
+
+    public EchoModel() throws Exception {
+        this(true);
+    }
+
+    public EchoModel(boolean batched) throws Exception {
+        super(new Bundle(batched));
+    }
+
+    @Override
+    public Map<String, Object> runOn(@NonNull Map<String, Object> input) throws ModelException, IllegalArgumentException {
+        if (failure != null) {
+            throw failure;
+        }
+
+        Map<String, Object> output = new HashMap<>();
+        output.put("output", input.get("input"));
+        return output;
+    }
+
+    @Override
+    public List<Map<String, Object>> runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        validateBatched();
+        batchSizes.add(batch.size());
+        return super.runOn(batch);
+    }
+
+    @Override
+    public Map<String, Object> runOn(@NonNull Map<String, Object> input, @Nullable Placeholders placeholders) throws ModelException, IllegalArgumentException {
+        return runOn(input);
+    }
+
+    @Override
+    public Map<String, Object> runOn(float[] input) throws ModelException, IllegalArgumentException {
+        return runOn(Collections.singletonMap("input", (Object) input));
+    }
+
+    @Override
+    public Map<String, Object> runOn(byte[] input) throws ModelException, IllegalArgumentException {
+        return runOn(Collections.singletonMap("input", (Object) input));
+    }
+
+    @Override
+    public Map<String, Object> runOn(int[] input) throws ModelException, IllegalArgumentException {
+        return runOn(Collections.singletonMap("input", (Object) input));
+    }
+
+    @Override
+    public Map<String, Object> runOn(long[] input) throws ModelException, IllegalArgumentException {
+        return runOn(Collections.singletonMap("input", (Object) input));
+    }
+
+    @Override
+    public Map<String, Object> runOn(ByteBuffer input) throws ModelException, IllegalArgumentException {
+        return runOn(Collections.singletonMap("input", (Object) input));
+    }
+
+    @Override
+    public Map<String, Object> runOn(@NonNull Bitmap input) throws ModelException, IllegalArgumentException {
+        return runOn(Collections.singletonMap("input", (Object) input));
+    }
+}
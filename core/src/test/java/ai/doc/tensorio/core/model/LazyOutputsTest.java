@@ -0,0 +1,126 @@
+/*
+ * LazyOutputsTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LazyOutputsTest {
+
+    @Test
+    public void testDecodesOnFirstGetOnly() {
+        int[] decodes = new int[1];
+        LazyOutputs outputs = new LazyOutputs(2);
+
+        outputs.putLazily("a", () -> { decodes[0]++; return "decoded"; });
+        outputs.putLazily("b", () -> { throw new AssertionError("b should not be decoded"); });
+
+        assertEquals(2, outputs.size());
+        assertTrue(outputs.containsKey("b"));
+        assertFalse(outputs.isDecoded("a"));
+
+        assertEquals("decoded", outputs.get("a"));
+        assertEquals("decoded", outputs.get("a"));
+        assertEquals(1, decodes[0]);
+        assertTrue(outputs.isDecoded("a"));
+        assertFalse(outputs.isDecoded("b"));
+        assertNull(outputs.get("c"));
+    }
+
+    @Test
+    public void testEntriesDecodeEverything() {
+        LazyOutputs outputs = new LazyOutputs(2);
+        outputs.putLazily("a", () -> 1);
+        outputs.putLazily("b", () -> 2);
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("a", 1);
+        expected.put("b", 2);
+
+        assertEquals(expected, new HashMap<>(outputs));
+        assertTrue(outputs.isDecoded("b"));
+    }
+
+    @Test
+    public void testEntriesAreSnapshot() {
+        LazyOutputs outputs = new LazyOutputs(2);
+        outputs.putLazily("a", () -> 1);
+
+        Set<Map.Entry<String, Object>> entries = outputs.entrySet();
+        outputs.put("b", 2);
+
+        assertEquals(1, entries.size());
+        assertEquals(2, outputs.entrySet().size());
+
+        try {
+            entries.iterator().next().setValue(3);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+
+        assertEquals(1, outputs.get("a"));
+    }
+
+    @Test
+    public void testPutReplacesPendingOutput() {
+        LazyOutputs outputs = new LazyOutputs(1);
+        outputs.putLazily("a", () -> { throw new AssertionError("a should not be decoded"); });
+        assertNull(outputs.put("a", "eager"));
+
+        assertEquals(1, outputs.size());
+        assertEquals("eager", outputs.get("a"));
+
+        assertEquals("eager", outputs.remove("a"));
+        assertTrue(outputs.isEmpty());
+
+        outputs.putLazily("b", () -> { throw new AssertionError("b should not be decoded"); });
+        assertNull(outputs.remove("b"));
+        assertTrue(outputs.isEmpty());
+    }
+
+    @Test
+    public void testFailedDecodeIsRetried() {
+        boolean[] fail = new boolean[]{ true };
+        LazyOutputs outputs = new LazyOutputs(1);
+
+        outputs.putLazily("a", () -> {
+            if (fail[0]) {
+                throw new IllegalArgumentException();
+            }
+            return "decoded";
+        });
+
+        try {
+            outputs.get("a");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        fail[0] = false;
+        assertEquals("decoded", outputs.get("a"));
+    }
+}
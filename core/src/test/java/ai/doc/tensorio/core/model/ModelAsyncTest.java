@@ -0,0 +1,85 @@
+/*
+ * ModelAsyncTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ModelAsyncTest {
+
+    private EchoModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        model = new EchoModel();
+    }
+
+    @Test
+    public void testRunOnAsyncUsesDefaultExecutor() throws Exception {
+        Map<String, Object> output = model.runOnAsync(new float[]{1, 2, 3, 4}).get(5, TimeUnit.SECONDS);
+
+        assertNotNull(model.getExecutor());
+        assertArrayEquals(new float[]{1, 2, 3, 4}, (float[]) output.get("output"), 0);
+    }
+
+    @Test
+    public void testRunOnAsyncUsesConfiguredExecutor() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        Executor executor = runnable -> {
+            count.incrementAndGet();
+            runnable.run();
+        };
+
+        model.setExecutor(executor);
+        assertSame(executor, model.getExecutor());
+
+        model.loadAsync().get(5, TimeUnit.SECONDS);
+        model.runOnAsync(Collections.singletonMap("input", (Object) new float[4])).get(5, TimeUnit.SECONDS);
+
+        assertTrue(model.isLoaded());
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testRunOnAsyncCompletesExceptionally() throws Exception {
+        model.failure = new Model.ModelException("failed");
+
+        try {
+            model.runOnAsync(new float[4]).get(5, TimeUnit.SECONDS);
+            fail("Expected the run to fail");
+        } catch (ExecutionException e) {
+            assertSame(model.failure, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * ModelOutputsTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+import static org.junit.Assert.*;
+
+public class ModelOutputsTest {
+
+    private EchoModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        model = new EchoModel();
+    }
+
+    @Test
+    public void testPreallocatesVectors() {
+        ModelOutputs outputs = model.newOutputs();
+
+        assertEquals(1, outputs.size());
+        assertEquals(0, outputs.indexFor("output"));
+        assertEquals(4, outputs.floatVector(0).length);
+    }
+
+    @Test
+    public void testRunOnIntoReusesValues() throws Exception {
+        ModelOutputs outputs = model.newOutputs();
+        int index = outputs.indexFor("output");
+        float[] vector = outputs.floatVector(index);
+
+        assertSame(outputs, model.runOnInto(Collections.singletonMap("input", (Object) new float[]{1, 2, 3, 4}), outputs));
+        assertSame(vector, outputs.floatVector(index));
+        assertArrayEquals(new float[]{1, 2, 3, 4}, vector, 0);
+
+        model.runOnInto(Collections.singletonMap("input", (Object) new float[]{5, 6, 7, 8}), outputs);
+
+        assertSame(vector, outputs.floatVector(index));
+        assertArrayEquals(new float[]{5, 6, 7, 8}, vector, 0);
+    }
+
+    @Test
+    public void testLabeledValues() {
+        LayerInterface layer = new LayerInterface("labeled", LayerInterface.Mode.Output, new VectorLayerDescription(
+                new int[]{2},
+                false,
+                new String[]{"a", "b"},
+                false,
+                null,
+                null,
+                DataType.Float32
+        ));
+        IO io = new IO(Collections.emptyList(), Collections.singletonList(layer));
+        ModelOutputs outputs = new ModelOutputs(io.getOutputs());
+
+        float[] vector = outputs.floatVector(0);
+        vector[0] = 0.25f;
+        vector[1] = 0.75f;
+
+        Map<String, Float> labeled = outputs.labeled(0);
+
+        assertEquals(0.25f, labeled.get("a"), 0);
+        assertEquals(0.75f, labeled.get("b"), 0);
+        assertEquals(labeled, outputs.toMap().get("labeled"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongTypeThrows() {
+        model.newOutputs().intVector(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOutputThrows() {
+        model.newOutputs().indexFor("missing");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutputsFromAnotherModelThrow() throws Exception {
+        ModelOutputs outputs = new EchoModel().newOutputs();
+        model.runOnInto(Collections.singletonMap("input", (Object) new float[4]), outputs);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * ModelRunOnIntoTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+public class ModelRunOnIntoTest {
+
+    private EchoModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        model = new EchoModel();
+    }
+
+    @Test
+    public void testRunOnIntoWritesIntoDestination() throws Exception {
+        float[] destination = new float[4];
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("output", destination);
+
+        Map<String, Object> results = model.runOnInto(Collections.singletonMap("input", (Object) new float[]{1, 2, 3, 4}), outputs);
+
+        assertSame(outputs, results);
+        assertSame(destination, outputs.get("output"));
+        assertArrayEquals(new float[]{1, 2, 3, 4}, destination, 0);
+
+        // The same outputs may be reused on the next call
+
+        model.runOnInto(Collections.singletonMap("input", (Object) new float[]{5, 6, 7, 8}), outputs);
+
+        assertSame(destination, outputs.get("output"));
+        assertArrayEquals(new float[]{5, 6, 7, 8}, destination, 0);
+    }
+
+    @Test
+    public void testRunOnIntoAddsOutputsWithoutDestination() throws Exception {
+        float[] input = new float[]{1, 2, 3, 4};
+        Map<String, Object> outputs = new HashMap<>();
+
+        model.runOnInto(Collections.singletonMap("input", (Object) input), outputs);
+
+        assertSame(input, outputs.get("output"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRunOnIntoRejectsDestinationOfDifferentLength() throws Exception {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("output", new float[3]);
+
+        model.runOnInto(Collections.singletonMap("input", (Object) new float[]{1, 2, 3, 4}), outputs);
+    }
+}
@@ -142,4 +142,34 @@ public class ClassificationHelperTest {
     }
 
     //endRegion
-}
\ No newline at end of file
+
+    //region Top N Tests
+
+    @Test
+    public void testTopNFromVectorMatchesTopNFromMap() {
+        String[] labels = new String[]{ "foo", "bar", "baz", "qux" };
+        float[] values = new float[]{ 0.2f, 0.5f, 0.05f, 0.25f };
+
+        Map<String,Float> map = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            map.put(labels[i], values[i]);
+        }
+
+        List<Map.Entry<String,Float>> fromMap = ClassificationHelper.topN(map, 3, 0.1f);
+        List<Map.Entry<String,Float>> fromVector = ClassificationHelper.topN(values, labels, 3, 0.1f);
+
+        assertEquals(fromMap, fromVector);
+        assertEquals("bar", fromVector.get(0).getKey());
+    }
+
+    @Test
+    public void testTopNSoftmax() {
+        String[] labels = new String[]{ "foo", "bar" };
+        List<Map.Entry<String,Float>> top = ClassificationHelper.topNSoftmax(new float[]{ 0f, 0f }, labels, 1, 0f);
+
+        assertEquals(1, top.size());
+        assertEquals(0.5f, top.get(0).getValue(), 0.0001f);
+    }
+
+    //endRegion
+}
@@ -0,0 +1,155 @@
+/*
+ * ClassificationSmootherTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ClassificationSmootherTest {
+
+    private static final String[] LABELS = new String[]{"a", "b", "c", "d"};
+
+    @Test
+    public void testSmoothsWithDecay() {
+        ClassificationSmoother smoother = new ClassificationSmoother(2, 2, 0.5f, 0.0f, ClassificationSmoother.Mode.Continuous);
+
+        smoother.update(new float[]{1.0f, 0.0f});
+        assertEquals(0.5f, smoother.value(0), 0.0001f);
+        assertEquals(0.0f, smoother.value(1), 0.0001f);
+
+        smoother.update(new float[]{1.0f, 1.0f});
+        assertEquals(0.75f, smoother.value(0), 0.0001f);
+        assertEquals(0.5f, smoother.value(1), 0.0001f);
+    }
+
+    @Test
+    public void testCompatibleModeMatchesSmoothClassification() {
+        float[][] frames = new float[][]{
+                {0.9f, 0.05f, 0.3f, 0.0f},
+                {0.2f, 0.6f, 0.3f, 0.05f},
+                {0.0f, 0.9f, 0.1f, 0.4f},
+                {0.1f, 0.1f, 0.7f, 0.9f}
+        };
+
+        ClassificationSmoother smoother = new ClassificationSmoother(LABELS.length, LABELS.length);
+        List<Map.Entry<String, Float>> previous = new ArrayList<>();
+
+        for (float[] frame : frames) {
+            Map<String, Float> labeled = new HashMap<>();
+            for (int i = 0; i < LABELS.length; i++) {
+                labeled.put(LABELS[i], frame[i]);
+            }
+
+            previous = ClassificationHelper.smoothClassification(previous, new ArrayList<>(labeled.entrySet()));
+            TopK top = smoother.update(frame).top();
+
+            Map<String, Float> expected = new HashMap<>();
+            for (Map.Entry<String, Float> entry : previous) {
+                expected.put(entry.getKey(), entry.getValue());
+            }
+
+            assertEquals(expected.size(), top.size());
+
+            for (int rank = 0; rank < top.size(); rank++) {
+                String label = LABELS[top.index(rank)];
+                assertTrue(expected.containsKey(label));
+                assertEquals(expected.get(label), top.score(rank), 0.0001f);
+            }
+        }
+    }
+
+    @Test
+    public void testCompatibleModeResetsValuesBelowThreshold() {
+        ClassificationSmoother smoother = new ClassificationSmoother(1, 1, 0.5f, 0.3f, ClassificationSmoother.Mode.Compatible);
+
+        smoother.update(new float[]{0.4f});
+        assertEquals(0.0f, smoother.value(0), 0);
+
+        smoother.update(new float[]{0.8f});
+        assertEquals(0.4f, smoother.value(0), 0.0001f);
+    }
+
+    @Test
+    public void testContinuousModeKeepsValuesBelowThreshold() {
+        ClassificationSmoother smoother = new ClassificationSmoother(1, 1, 0.5f, 0.3f, ClassificationSmoother.Mode.Continuous);
+
+        smoother.update(new float[]{0.4f});
+        assertEquals(0.2f, smoother.value(0), 0.0001f);
+        assertEquals(0, smoother.top().size());
+
+        smoother.update(new float[]{0.8f});
+        assertEquals(0.5f, smoother.value(0), 0.0001f);
+        assertEquals(1, smoother.top().size());
+    }
+
+    @Test
+    public void testTopIsOrderedAndLimitedToK() {
+        ClassificationSmoother smoother = new ClassificationSmoother(4, 2, 0.0f, 0.0f, ClassificationSmoother.Mode.Continuous);
+        TopK top = smoother.update(new float[]{0.1f, 0.4f, 0.2f, 0.3f}).top();
+
+        assertEquals(2, top.size());
+        assertEquals(1, top.index(0));
+        assertEquals(3, top.index(1));
+
+        List<Map.Entry<String, Float>> entries = top.entries(LABELS);
+        assertEquals("b", entries.get(0).getKey());
+        assertEquals("d", entries.get(1).getKey());
+    }
+
+    @Test
+    public void testUpdatesFromBufferPosition() {
+        ClassificationSmoother smoother = new ClassificationSmoother(2, 1, 0.0f, 0.0f, ClassificationSmoother.Mode.Continuous);
+        FloatBuffer buffer = FloatBuffer.wrap(new float[]{9.0f, 0.25f, 0.75f});
+        buffer.position(1);
+
+        smoother.update(buffer);
+
+        assertEquals(0.25f, smoother.value(0), 0);
+        assertEquals(0.75f, smoother.value(1), 0);
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void testReset() {
+        ClassificationSmoother smoother = new ClassificationSmoother(2, 1);
+        smoother.update(new float[]{1.0f, 1.0f});
+        smoother.reset();
+
+        assertEquals(0.0f, smoother.value(0), 0);
+        assertEquals(0, smoother.top().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsShortOutput() {
+        new ClassificationSmoother(3, 1).update(new float[]{1.0f, 1.0f});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidDecay() {
+        new ClassificationSmoother(3, 1, 1.5f, 0.1f, ClassificationSmoother.Mode.Continuous);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * TopKTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.Map;
+
+import ai.doc.tensorio.core.data.Dequantizer;
+
+import static org.junit.Assert.*;
+
+public class TopKTest {
+
+    @Test
+    public void testSelectOrdersHighestFirst() {
+        float[] values = new float[]{ 0.1f, 0.7f, 0.05f, 0.9f, 0.3f, 0.6f };
+        TopK top = new TopK(3).select(values, 0f);
+
+        assertEquals(3, top.size());
+        assertEquals(3, top.index(0));
+        assertEquals(1, top.index(1));
+        assertEquals(5, top.index(2));
+        assertEquals(0.9f, top.score(0), 0f);
+        assertEquals(0.6f, top.score(2), 0f);
+    }
+
+    @Test
+    public void testSelectAppliesThreshold() {
+        float[] values = new float[]{ 0.1f, 0.7f, 0.05f, 0.9f };
+        TopK top = new TopK(3).select(values, 0.5f);
+
+        assertEquals(2, top.size());
+        assertEquals(3, top.index(0));
+        assertEquals(1, top.index(1));
+    }
+
+    @Test
+    public void testSelectFewerValuesThanK() {
+        TopK top = new TopK(5).select(new float[]{ 2f, 1f }, 0f);
+
+        assertEquals(2, top.size());
+        assertEquals(0, top.index(0));
+        assertEquals(1, top.index(1));
+    }
+
+    @Test
+    public void testSelectMatchesSortForManyValues() {
+        int length = 20000;
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = ((i * 7919) % length) / (float) length;
+        }
+
+        TopK top = new TopK(10).select(values, 0f);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals((length - 1 - i) / (float) length, top.score(i), 0f);
+        }
+    }
+
+    @Test
+    public void testSelectFromBufferIsRelativeToPosition() {
+        FloatBuffer buffer = FloatBuffer.wrap(new float[]{ 9f, 0.2f, 0.8f, 0.5f });
+        buffer.position(1);
+
+        TopK top = new TopK(1).select(buffer, 0f);
+
+        assertEquals(1, top.index(0));
+        assertEquals(0.8f, top.score(0), 0f);
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void testSelectSoftmax() {
+        float[] logits = new float[]{ 1f, 3f, 2f };
+        double sum = Math.exp(1) + Math.exp(3) + Math.exp(2);
+
+        TopK top = new TopK(2).selectSoftmax(logits, 0f);
+
+        assertEquals(2, top.size());
+        assertEquals(1, top.index(0));
+        assertEquals(2, top.index(1));
+        assertEquals(Math.exp(3) / sum, top.score(0), 1e-6);
+        assertEquals(Math.exp(2) / sum, top.score(1), 1e-6);
+
+        top.selectSoftmax(logits, 0.5f);
+
+        assertEquals(1, top.size());
+    }
+
+    @Test
+    public void testEntriesResolveLabels() {
+        String[] labels = new String[]{ "a", "b", "c" };
+        List<Map.Entry<String, Float>> entries = new TopK(2).select(new float[]{ 0.2f, 0.5f, 0.3f }, 0f).entries(labels);
+
+        assertEquals(2, entries.size());
+        assertEquals("b", entries.get(0).getKey());
+        assertEquals("c", entries.get(1).getKey());
+        assertEquals(0.5f, entries.get(0).getValue(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroK() {
+        new TopK(0);
+    }
+
+    @Test
+    public void testSelectQuantizedMatchesDequantizedSelection() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerZeroToOne();
+        byte[] bytes = new byte[]{ 10, (byte) 200, 3, (byte) 250, 60, (byte) 140, 51 };
+        float[] values = new float[bytes.length];
+        dequantizer.dequantize(bytes, values, bytes.length);
+
+        TopK expected = new TopK(3).select(values, 0.2f);
+        TopK top = new TopK(3).selectQuantized(bytes, dequantizer, 0.2f);
+
+        assertEquals(expected.size(), top.size());
+
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(expected.index(i), top.index(i));
+            assertEquals(expected.score(i), top.score(i), 0f);
+        }
+
+        assertEquals(3, top.index(0));
+        assertEquals(250f / 255f, top.score(0), 0.0001f);
+    }
+
+    @Test
+    public void testSelectQuantizedAppliesThresholdInclusively() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerZeroToOne();
+        byte[] bytes = new byte[]{ 50, 51, 52 };
+
+        TopK top = new TopK(3).selectQuantized(bytes, dequantizer, 51f / 255f);
+
+        assertEquals(2, top.size());
+        assertEquals(2, top.index(0));
+        assertEquals(1, top.index(1));
+    }
+
+    @Test
+    public void testSelectQuantizedFromBuffers() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerNegativeOneToOne();
+        byte[] bytes = new byte[]{ (byte) 255, 0, (byte) 200, 100, (byte) 220 };
+
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        heap.position(1);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.position(1);
+
+        for (ByteBuffer buffer : new ByteBuffer[]{ heap, direct }) {
+            TopK top = new TopK(2).selectQuantized(buffer, dequantizer, 0f);
+
+            assertEquals(1, buffer.position());
+            assertEquals(2, top.size());
+            assertEquals(3, top.index(0));
+            assertEquals(1, top.index(1));
+            assertEquals(dequantizer.dequantize(220), top.score(0), 0f);
+            assertEquals(dequantizer.dequantize(200), top.score(1), 0f);
+        }
+    }
+
+    @Test
+    public void testSelectQuantizedWithDescendingDequantizer() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerWithDequantization(-1f / 255f, 1f);
+        byte[] bytes = new byte[]{ 10, (byte) 200, 0 };
+
+        TopK top = new TopK(2).selectQuantized(bytes, dequantizer, 0.5f);
+
+        assertEquals(2, top.size());
+        assertEquals(2, top.index(0));
+        assertEquals(0, top.index(1));
+        assertEquals(1f, top.score(0), 0.0001f);
+    }
+}
@@ -44,6 +44,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ai.doc.tensorio.core.data.Batch;
 import ai.doc.tensorio.core.model.Model.ModelException;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle.ModelBundleException;
@@ -731,6 +732,32 @@ public class PytorchModelIntegrationTests {
 
     //region MobileNet tests
 
+    @Test
+    public void testBatchedInferenceRequiresBatchedLayers() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "mobilenet_v2_1.4_224.tiobundle");
+            assertNotNull(bundle);
+
+            PytorchModel model = (PytorchModel) bundle.newModel();
+            assertNotNull(model);
+            model.load();
+
+            Batch.Item item = new Batch.Item();
+            item.put("image", Bitmap.createBitmap(224, 224, Bitmap.Config.ARGB_8888));
+
+            try {
+                model.runOn(new Batch(item));
+                fail();
+            } catch (IllegalArgumentException e) {
+                // Expected, the model's layers do not have a leading -1 dimension
+            }
+
+        } catch (ModelBundleException | ModelException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
     @Test
     public void testMobileNetClassificationModel_asset() {
         try {
@@ -35,20 +35,47 @@ import java.nio.FloatBuffer;
 
 import ai.doc.tensorio.core.data.PixelDenormalizer;
 import ai.doc.tensorio.core.data.PixelNormalizer;
+import ai.doc.tensorio.core.data.BitmapPixels;
+import ai.doc.tensorio.core.data.BitmapRegion;
+import ai.doc.tensorio.core.data.CameraFrame;
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.EncodedImageDecoder;
+import ai.doc.tensorio.core.data.ImagePipeline;
+import ai.doc.tensorio.core.data.OutputDestinations;
+import ai.doc.tensorio.core.data.PixelResampler;
+import ai.doc.tensorio.core.data.PixelScratch;
+import ai.doc.tensorio.core.data.PixelSink;
+import ai.doc.tensorio.core.data.PixelSource;
+import ai.doc.tensorio.core.data.PixelStripes;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
 import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
 
 /**
  * The Pytorch pixel data converter transforms bitmaps into Tensors for use as inputs to
  * Pytorch models and Tensor outputs back into bitmaps.
  *
- * The `toByteBuffer` method will scale the Bitmap you provide if necessary using
- * `createScaledBitmap`, or you may scale the Bitmap before hand.
+ * The `toByteBuffer` method resamples the Bitmap you provide to the layer's size if necessary,
+ * normalizing and writing its pixels to the buffer in the same pass with a `PixelResampler`.
+ *
+ * Pixels are normalized with the layer's precomputed lookup table and written to planes in the
+ * channel order of the layer's pixel format, RGB or BGR.
  */
 
 public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Converter {
 
+    /**
+     * Pixels read from output buffers, reused across calls. Thread local because converters are
+     * shared by models that may run on several threads at once.
+     */
+
+    private static final ThreadLocal<PixelScratch> outputScratch = new ThreadLocal<>();
+
+    /** Decoders for encoded input images, reused across calls for the same reason */
+
+    private static final ThreadLocal<EncodedImageDecoder> inputDecoder = new ThreadLocal<>();
+
     @Override
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description) {
         ByteBuffer buffer;
@@ -69,100 +96,468 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
         return buffer;
     }
 
-    //@Override
-    //public ByteBuffer toByteBuffer(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+    /**
+     * Writes a Bitmap to a byte buffer in planar (NCHW) order without wrapping it in a Tensor, used
+     * to pack many items into a single buffer for batched inference.
+     */
 
-    //}
+    public ByteBuffer toByteBuffer(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        if (o instanceof Bitmap) {
+            return toByteBuffer((Bitmap)o, description, cache);
+        } else if (o instanceof BitmapRegion) {
+            return toByteBuffer((BitmapRegion)o, description, cache);
+        } else if (o instanceof CameraFrame) {
+            return toByteBuffer((CameraFrame)o, description, cache);
+        } else if (o instanceof EncodedImage) {
+            return toByteBuffer((EncodedImage)o, description, cache);
+        } else if (o instanceof ImagePipeline.Input) {
+            return toByteBuffer((ImagePipeline.Input)o, description, cache);
+        } else if (o instanceof PixelSource) {
+            return toByteBuffer((PixelSource)o, description, cache);
+        } else {
+            throw BadInputException();
+        }
+    }
 
     @Override
     public Tensor toTensor(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
-        if (!(o instanceof Bitmap)) {
-            throw BadInputException();
-        } else {
+        if (o instanceof Bitmap) {
             return toTensor((Bitmap)o, description, cache);
+        } else if (o instanceof BitmapRegion) {
+            return toTensor((BitmapRegion)o, description, cache);
+        } else if (o instanceof CameraFrame) {
+            return toTensor((CameraFrame)o, description, cache);
+        } else if (o instanceof EncodedImage) {
+            return toTensor((EncodedImage)o, description, cache);
+        } else if (o instanceof ImagePipeline.Input) {
+            return toTensor((ImagePipeline.Input)o, description, cache);
+        } else if (o instanceof PixelSource) {
+            return toTensor((PixelSource)o, description, cache);
+        } else {
+            throw BadInputException();
         }
     }
 
     /**
-     * Converts a Bitmap to a byte buffer. Resizes the Bitmap if necessary using `createScaledBitmap`.
+     * Converts a Bitmap to a Tensor, resampling it to the layer's size if necessary.
      *
      * @param bitmap The bitmap to convert
      * @param description A description of the layer with instructions on how to make the conversion
      * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
      *              is provided it will be rewound before being used.
-     * @return A ByteBuffer ready for use with a TFLite model
+     * @return A Tensor ready for use with a Pytorch model
      */
 
     public Tensor toTensor(@NonNull Bitmap bitmap, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = toByteBuffer(bitmap, description, cache);
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+
+        return Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    }
+
+    /**
+     * Converts a region of a Bitmap to a Tensor, cropping or letterboxing it to the layer's aspect
+     * ratio as the region describes and resampling it to the layer's size.
+     *
+     * @param region The region of a bitmap to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A Tensor ready for use with a Pytorch model
+     */
+
+    public Tensor toTensor(@NonNull BitmapRegion region, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = toByteBuffer(region, description, cache);
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+
+        return Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    }
+
+    /**
+     * Converts a YUV camera frame to a Tensor, rotating it upright, resampling it to the layer's
+     * size, and converting it to RGB in a single pass.
+     *
+     * @param frame The camera frame to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A Tensor ready for use with a Pytorch model
+     */
+
+    public Tensor toTensor(@NonNull CameraFrame frame, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = toByteBuffer(frame, description, cache);
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+
+        return Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    }
+
+    /**
+     * Decodes a JPEG or PNG image and converts it to a Tensor, downsampling it while it is decoded
+     * and then fitting it to the layer's shape as the image describes.
+     *
+     * @param image The encoded image to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A Tensor ready for use with a Pytorch model
+     * @throws IllegalArgumentException If the image cannot be decoded
+     */
+
+    public Tensor toTensor(@NonNull EncodedImage image, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        return toTensor(image, description, cache, decoder());
+    }
+
+    /**
+     * Decodes a JPEG or PNG image with the caller's decoder and converts it to a Tensor. Models
+     * hold a decoder for each pixel input layer so that the decoded Bitmap is reused.
+     *
+     * @param image The encoded image to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @param decoder The decoder to decode the image with
+     * @return A Tensor ready for use with a Pytorch model
+     * @throws IllegalArgumentException If the image cannot be decoded
+     */
+
+    public Tensor toTensor(@NonNull EncodedImage image, @NonNull LayerDescription description, @Nullable ByteBuffer cache, @NonNull EncodedImageDecoder decoder) throws IllegalArgumentException {
+        ByteBuffer buffer = toByteBuffer(image, description, cache, decoder);
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+
+        return Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    }
+
+    /**
+     * Runs an image pipeline on its source, writing the rotated, cropped, resized, and normalized
+     * pixels to a Tensor in a single pass.
+     *
+     * @param input A source bound to a pipeline built for this layer
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A Tensor ready for use with a Pytorch model
+     * @throws IllegalArgumentException If the pipeline was built for another layer
+     */
+
+    public Tensor toTensor(@NonNull ImagePipeline.Input input, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        ByteBuffer buffer = toByteBuffer(input, description, cache);
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+
+        return Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    }
+
+    /**
+     * Converts a pixel source, such as an int[] of ARGB pixels or a ByteBuffer of RGBA pixels, to a
+     * Tensor, resampling it to the layer's size if necessary.
+     *
+     * @param source The pixels to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A Tensor ready for use with a Pytorch model
+     */
+
+    public Tensor toTensor(@NonNull PixelSource source, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = toByteBuffer(source, description, cache);
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+
+        return Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    }
+
+    /**
+     * Converts a Bitmap to a byte buffer in planar (NCHW) order, resampling it to the layer's size
+     * if necessary. Pixels are written with absolute puts, so the cache may be a slice of a larger
+     * buffer holding many items.
+     *
+     * @param bitmap The bitmap to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer containing the bitmap's pixels
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull Bitmap bitmap, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
         // Create a buffer if no reusable cache is provided
 
         ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
         buffer.rewind();
 
-        // Acquire needed properties from layer description
+        // Resample, normalize, and write the Bitmap's pixels to the buffer in a single pass
 
-        PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
-        ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelNormalizer normalizer = pixelBufferLayerDescription.getNormalizer();
+        return PixelResampler.resample(bitmap, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Planar);
+    }
 
-        // Resize Bitmap
+    /**
+     * Converts a region of a Bitmap to a byte buffer, cropping or letterboxing it to the layer's
+     * aspect ratio as the region describes and resampling it to the layer's size.
+     *
+     * @param region The region of a bitmap to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer containing the region's pixels
+     */
 
-        if (bitmap.getWidth() != shape.width || bitmap.getHeight() != shape.height){
-            bitmap = Bitmap.createScaledBitmap(bitmap,shape.width,shape.height,true);
-        }
+    public ByteBuffer toByteBuffer(@NonNull BitmapRegion region, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
+        buffer.rewind();
 
-        // Read Bitmap into int array
+        return PixelResampler.resample(region, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Planar);
+    }
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
+    /**
+     * Converts a YUV camera frame to a byte buffer, rotating it upright, resampling it to the
+     * layer's size, and converting it to RGB in a single pass.
+     *
+     * @param frame The camera frame to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer containing the frame's pixels
+     */
 
+    public ByteBuffer toByteBuffer(@NonNull CameraFrame frame, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
         buffer.rewind();
-        bitmap.getPixels(intValues, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight()); // Returns ARGB pixels
 
-        // Write Individual Pixels to Buffer
-        final int pixelsCount = shape.width * shape.height;
-        for (int i = 0; i < pixelsCount; i++) {
-            final int val = intValues[i];
-            writePixelToBuffer(val, i, pixelsCount, buffer, quantized, normalizer);
-        }
+        return PixelResampler.resample(frame, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Planar);
+    }
 
-        intValues = null;
+    /**
+     * Decodes a JPEG or PNG image and writes it to a byte buffer in planar (NCHW) order, downsampling it while it is
+     * decoded and then fitting it to the layer's shape as the image describes.
+     *
+     * @param image The encoded image to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer containing the image's pixels
+     * @throws IllegalArgumentException If the image cannot be decoded
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull EncodedImage image, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        return toByteBuffer(image, description, cache, decoder());
+    }
+
+    /**
+     * Decodes a JPEG or PNG image with the caller's decoder, which a model holds for each pixel
+     * input layer so that the decoded Bitmap is reused from one image to the next.
+     *
+     * @param image The encoded image to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @param decoder The decoder to decode the image with
+     * @return A ByteBuffer containing the image's pixels
+     * @throws IllegalArgumentException If the image cannot be decoded
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull EncodedImage image, @NonNull LayerDescription description, @Nullable ByteBuffer cache, @NonNull EncodedImageDecoder decoder) throws IllegalArgumentException {
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+        Bitmap bitmap = decoder.decode(image, shape.width, shape.height);
+
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
+        buffer.rewind();
+
+        BitmapRegion region = new BitmapRegion(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), image.getFit(), image.getFillColor());
+        return PixelResampler.resample(region, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Planar);
+    }
+
+    /**
+     * Runs an image pipeline on its source, writing the rotated, cropped, resized, and normalized
+     * pixels to a byte buffer in planar (NCHW) order in a single pass.
+     *
+     * @param input A source bound to a pipeline built for this layer
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer containing the pipeline's output
+     * @throws IllegalArgumentException If the pipeline was built for another layer
+     */
 
-        Tensor tensor = Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    public ByteBuffer toByteBuffer(@NonNull ImagePipeline.Input input, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
+        buffer.rewind();
 
-        return tensor;
+        return input.writeTo(buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Planar);
+    }
+
+    /**
+     * Converts a pixel source, such as an int[] of ARGB pixels or a ByteBuffer of RGBA pixels, to a
+     * byte buffer in planar (NCHW) order, resampling it to the layer's size if necessary.
+     *
+     * @param source The pixels to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer containing the source's pixels
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull PixelSource source, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
+        buffer.rewind();
+
+        return PixelResampler.resample(source, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Planar);
     }
 
     //@Override
     public Bitmap fromByteBuffer(@NonNull Buffer buffer, @NonNull LayerDescription description) {
+        return fromByteBuffer(buffer, description, null, scratch());
+    }
 
-        // Acquire needed properties from layer description
+    /**
+     * Reads a planar buffer into a caller-provided Bitmap using the caller's scratch space, which
+     * a model holds for each pixel output layer. The pixels are moved into the Bitmap with
+     * `copyPixelsFromBuffer`, so decoding allocates nothing when a destination is provided.
+     *
+     * @param buffer The buffer to read from, a ByteBuffer if quantized and a FloatBuffer otherwise
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A mutable Bitmap with the layer's width and height, may be null
+     * @param scratch Scratch space for the layer's pixels
+     * @return The destination if one is provided, otherwise a new Bitmap
+     * @throws IllegalArgumentException If the destination is immutable or its size does not match the layer's
+     */
 
-        PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
-        ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelDenormalizer denormalizer = pixelBufferLayerDescription.getDenormalizer();
+    public Bitmap fromByteBuffer(@NonNull Buffer buffer, @NonNull LayerDescription description, @Nullable Bitmap destination, @NonNull PixelScratch scratch) throws IllegalArgumentException {
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
 
-        // Write the buffer into a bitmap
+        if (destination != null) {
+            OutputDestinations.checkBitmap(destination, shape.width, shape.height);
+        }
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
-        Bitmap bmp = Bitmap.createBitmap(shape.width, shape.height, Bitmap.Config.ARGB_8888);
+        int[] intValues = scratch.pixels(shape.width * shape.height); // 4 bytes per int
+        readPixels(buffer, (PixelBufferLayerDescription) description, intValues);
 
-        buffer.rewind();
-        final int pixelsCount = shape.width * shape.height;
-        for (int i = 0; i < shape.width * shape.height; i++) {
-            intValues[i] = readPixelFromBuffer(i,pixelsCount, buffer, quantized, denormalizer);
+        Bitmap bmp = (destination != null) ? destination : Bitmap.createBitmap(shape.width, shape.height, Bitmap.Config.ARGB_8888);
+
+        return scratch.copyTo(bmp, shape.width, shape.height);
+    }
+
+    /**
+     * Reads a planar buffer into a caller-provided pixel sink, for example an int[] or ByteBuffer
+     * that is handed to a renderer without ever creating a Bitmap.
+     *
+     * @param buffer The buffer to read from, a ByteBuffer if quantized and a FloatBuffer otherwise
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A pixel sink with the layer's width and height
+     * @return The destination
+     * @throws IllegalArgumentException If the destination's size does not match the layer's
+     */
+
+    public PixelSink fromByteBufferInto(@NonNull Buffer buffer, @NonNull LayerDescription description, @NonNull PixelSink destination) throws IllegalArgumentException {
+        return fromByteBufferInto(buffer, description, destination, scratch());
+    }
+
+    /**
+     * Reads a planar buffer into a caller-provided pixel sink using the caller's scratch space.
+     *
+     * @see #fromByteBufferInto(Buffer, LayerDescription, PixelSink)
+     */
+
+    public PixelSink fromByteBufferInto(@NonNull Buffer buffer, @NonNull LayerDescription description, @NonNull PixelSink destination, @NonNull PixelScratch scratch) throws IllegalArgumentException {
+        if (destination instanceof BitmapPixels) {
+            fromByteBuffer(buffer, description, ((BitmapPixels) destination).getBitmap(), scratch);
+            return destination;
         }
 
-        bmp.setPixels(intValues,0, shape.width, 0, 0, shape.width, shape.height);
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+        OutputDestinations.checkSink(destination, shape.width, shape.height);
 
-        intValues = null;
+        int[] intValues = scratch.pixels(shape.width * shape.height); // 4 bytes per int
+        readPixels(buffer, (PixelBufferLayerDescription) description, intValues);
 
-        return bmp;
+        destination.setPixels(intValues, 0, 0, 0, shape.width, shape.height);
+
+        return destination;
     }
 
     //region Utilities
 
+    /** Returns this thread's scratch space for decoding pixels */
+
+    private static PixelScratch scratch() {
+        PixelScratch scratch = outputScratch.get();
+
+        if (scratch == null) {
+            scratch = new PixelScratch();
+            outputScratch.set(scratch);
+        }
+
+        return scratch;
+    }
+
+    /** Returns this thread's decoder for encoded images */
+
+    private static EncodedImageDecoder decoder() {
+        EncodedImageDecoder decoder = inputDecoder.get();
+
+        if (decoder == null) {
+            decoder = new EncodedImageDecoder();
+            inputDecoder.set(decoder);
+        }
+
+        return decoder;
+    }
+
+    /**
+     * Reads a layer's pixels from a planar buffer into an array of ARGB pixels, in row stripes on
+     * several cores for large parallel layers
+     */
+
+    private static void readPixels(@NonNull Buffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull int[] pixels) {
+        ImageVolume shape = description.getShape();
+        int count = shape.width * shape.height;
+
+        PixelStripes.run(description, shape.width, shape.height, (fromRow, toRow) ->
+                readPixelsFromPlanes(buffer, pixels, fromRow * shape.width, toRow * shape.width, count, description.isQuantized(), description.getDenormalizer(), description.getPixelFormat()));
+    }
+
+    /**
+     * Reads pixels from a buffer in planar (NCHW) order in a single pass, assuming no alpha channel,
+     * reading the planes in the order of the pixel format and denormalizing float values as needed.
+     * Pixels are read with absolute gets.
+     *
+     * @param buffer The buffer to read from, a ByteBuffer if quantized and a FloatBuffer otherwise
+     * @param pixels The array the ARGB pixels are read into
+     * @param from The index of the first pixel to read, inclusive
+     * @param to The index of the last pixel to read, exclusive
+     * @param count The number of pixels in each plane
+     * @param quantized True if the buffer contains quantized (byte) data, false otherwise (float)
+     * @param denormalizer The denormalizer than converts floating point pixel-channel values to
+     *                     byte values
+     * @param format The plane order of the buffer
+     */
+
+    private static void readPixelsFromPlanes(@NonNull Buffer buffer, @NonNull int[] pixels, int from, int to, int count, boolean quantized, @Nullable PixelDenormalizer denormalizer, @NonNull PixelFormat format) {
+        boolean bgr = format == PixelFormat.BGR;
+
+        if (quantized) {
+            ByteBuffer bytes = (ByteBuffer) buffer;
+            for (int i = from; i < to; i++) {
+                int first = bytes.get(i);
+                int g = bytes.get(i + count);
+                int last = bytes.get(i + 2 * count);
+                pixels[i] = bgr ? PixelDenormalizer.pack(last, g, first) : PixelDenormalizer.pack(first, g, last);
+            }
+        } else if (denormalizer != null) {
+            FloatBuffer floats = (FloatBuffer) buffer;
+            for (int i = from; i < to; i++) {
+                float first = floats.get(i);
+                float g = floats.get(i + count);
+                float last = floats.get(i + 2 * count);
+                pixels[i] = bgr ? denormalizer.denormalizePixel(last, g, first) : denormalizer.denormalizePixel(first, g, last);
+            }
+        } else {
+            FloatBuffer floats = (FloatBuffer) buffer;
+            for (int i = from; i < to; i++) {
+                int first = (int) floats.get(i);
+                int g = (int) floats.get(i + count);
+                int last = (int) floats.get(i + 2 * count);
+                pixels[i] = bgr ? PixelDenormalizer.pack(last, g, first) : PixelDenormalizer.pack(first, g, last);
+            }
+        }
+    }
+
     /**
      * Writes a pixel to a buffer, normalizing and converting it as needed.
      *
@@ -251,7 +646,7 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
     //region Exceptions
 
     private static IllegalArgumentException BadInputException() {
-        return new IllegalArgumentException("Expected Bitmap input to the converter");
+        return new IllegalArgumentException("Expected Bitmap, BitmapRegion, CameraFrame, EncodedImage, ImagePipeline.Input, or PixelSource input to the converter");
     }
 
     @Override
@@ -271,5 +666,31 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
         return fromByteBuffer(buffer, description);
     }
 
+    /**
+     * Decodes a Tensor into a caller-provided Bitmap or pixel sink using the caller's scratch
+     * space, which a model holds for each pixel output layer.
+     *
+     * @param t The tensor to read from
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A mutable Bitmap or a pixel sink with the layer's width and height, or
+     *                    null to decode into a new Bitmap
+     * @param scratch Scratch space for the layer's pixels
+     * @return The destination if one is provided, otherwise a new Bitmap
+     * @throws IllegalArgumentException If the destination's size does not match the layer's
+     */
+
+    public Object fromTensor(@NonNull Tensor t, @NonNull LayerDescription description, @Nullable Object destination, @NonNull PixelScratch scratch) throws IllegalArgumentException {
+        boolean quantized = ((PixelBufferLayerDescription)description).isQuantized();
+        Buffer buffer = quantized
+                ? ByteBuffer.wrap(t.getDataAsByteArray())
+                : FloatBuffer.wrap(t.getDataAsFloatArray());
+
+        if (destination instanceof PixelSink) {
+            return fromByteBufferInto(buffer, description, (PixelSink) destination, scratch);
+        } else {
+            return fromByteBuffer(buffer, description, destination instanceof Bitmap ? (Bitmap) destination : null, scratch);
+        }
+    }
+
     //endRegion
 }
@@ -26,6 +26,7 @@ import androidx.annotation.Nullable;
 
 import org.pytorch.Tensor;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
@@ -111,6 +112,25 @@ public class ScalarConverter implements Converter {
         return t;
     }
 
+    /**
+     * Writes an array of bytes, ints, floats, or longs to a ByteBuffer without wrapping it in a
+     * Tensor, used to pack many items into a single buffer for batched inference.
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        if (o instanceof byte[]) {
+            return toByteBuffer((byte[])o, description, cache);
+        } else if (o instanceof int[]) {
+            return toByteBuffer((int[])o, description, cache);
+        } else if (o instanceof float[]) {
+            return toByteBuffer((float[])o, description, cache);
+        } else if (o instanceof long[]) {
+            return toByteBuffer((long[])o, description, cache);
+        } else {
+            throw BadInputException();
+        }
+    }
+
     /**
      * Writes an array of bytes to a ByteBuffer and returns it, using the cache if one is provided.
      *
@@ -215,9 +235,7 @@ public class ScalarConverter implements Converter {
         if (quantized && quantizer == null) {
             throw MissingQuantizeException();
         } else if (quantized) {
-            for (float v: floats) {
-                buffer.put((byte)quantizer.quantize(v));
-            }
+            quantizer.quantize(floats, buffer);
         } else {
             FloatBuffer f = buffer.asFloatBuffer();
             f.put(floats);
@@ -279,9 +297,7 @@ public class ScalarConverter implements Converter {
         } else if (quantized) {
             float[] result = new float[length];
             byte[] buffer = t.getDataAsByteArray();
-            for (int i = 0; i < length; i++) {
-                result[i] = dequantizer.dequantize((int) ( buffer[i] & 0xFF ) );
-            }
+            dequantizer.dequantize(buffer, result, length);
             return result;
         } else if (dtype == DataType.Int32) {
             return t.getDataAsIntArray();
@@ -293,6 +309,49 @@ public class ScalarConverter implements Converter {
 
     }
 
+    /**
+     * Reads a single item from a buffer holding the data of a batched output tensor, dequantizing
+     * the values if necessary. The buffer must be positioned at the start of the item.
+     *
+     * @param buffer A ByteBuffer, IntBuffer, LongBuffer, or FloatBuffer, depending on the layer's type
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @return One of byte[], float[], int[], or long[]
+     */
+
+    public Object fromBuffer(@NonNull Buffer buffer, @NonNull LayerDescription description) {
+        // Acquire needed properties from layer description
+
+        ScalarLayerDescription vectorLayerDescription = (ScalarLayerDescription) description;
+        Dequantizer dequantizer = vectorLayerDescription.getDequantizer();
+        boolean quantized = vectorLayerDescription.isQuantized();
+        int length = vectorLayerDescription.getLength();
+
+        DataType dtype = description.getDtype();
+
+        if (quantized && dequantizer == null) {
+            byte[] result = new byte[length];
+            ((ByteBuffer) buffer).get(result);
+            return result;
+        } else if (quantized) {
+            float[] result = new float[length];
+            ByteBuffer bytes = (ByteBuffer) buffer;
+            dequantizer.dequantize(bytes, result, length);
+            return result;
+        } else if (dtype == DataType.Int32) {
+            int[] result = new int[length];
+            ((IntBuffer) buffer).get(result);
+            return result;
+        } else if (dtype == DataType.Int64) {
+            long[] result = new long[length];
+            ((LongBuffer) buffer).get(result);
+            return result;
+        } else {
+            float[] result = new float[length];
+            ((FloatBuffer) buffer).get(result);
+            return result;
+        }
+    }
+
     private static IllegalArgumentException BadInputException() {
         return new IllegalArgumentException("Expected float[] or byte[] as input to the converter");
     }
@@ -36,18 +36,32 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
 
+import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.EncodedImageDecoder;
+import ai.doc.tensorio.core.data.PixelScratch;
 import ai.doc.tensorio.core.data.Placeholders;
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
 import ai.doc.tensorio.core.layerinterface.ScalarLayerDescription;
-import ai.doc.tensorio.core.model.IO;
+import ai.doc.tensorio.core.model.BindingPlan;
+import ai.doc.tensorio.core.model.LazyOutputs;
 import ai.doc.tensorio.core.model.Model;
+import ai.doc.tensorio.core.model.ModelOutputs;
 import ai.doc.tensorio.core.modelbundle.AssetModelBundle;
 import ai.doc.tensorio.core.modelbundle.FileModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
@@ -65,7 +79,26 @@ public class PytorchModel extends Model {
     // Buffer Caching
 
     private boolean cacheBuffers = true;
-    private Map<LayerInterface, ByteBuffer> bufferCache = null;
+
+    // Binding Plans
+
+    /** Binds each layer to its converter, compiled when the model is loaded */
+
+    private BindingPlan<Tensor, Tensor> plan = null;
+
+    /** Binds each layer to its converter for batched inference, compiled on the first batch */
+
+    private BindingPlan<ByteBuffer, Buffer> batchPlan = null;
+
+    /** The descriptions and item shapes of the batch plan's input layers, by slot */
+
+    private LayerDescription[] batchInputDescriptions = null;
+    private long[][] batchInputShapes = null;
+
+    /** The values passed to and returned from forward, reused across calls */
+
+    private IValue[] inputValues = null;
+    private IValue[] outputValues = null;
 
     // Data Converters
 
@@ -74,6 +107,103 @@ public class PytorchModel extends Model {
     final private StringConverter stringConverter = new StringConverter();
     final private ScalarConverter scalarConverter = new ScalarConverter();
 
+    /** Resolves the converters for each layer when the binding plan is compiled */
+
+    final private BindingPlan.Compiler<Tensor, Tensor> planCompiler = new BindingPlan.Compiler<Tensor, Tensor>() {
+
+        @Override
+        public ByteBuffer allocate(@NonNull LayerInterface layer) {
+            return createBackingBuffer(layer);
+        }
+
+        @Override
+        public BindingPlan.Encoder<Tensor> encoder(@NonNull LayerInterface layer) {
+            return layer.mapCase(
+                    (vectorLayer) -> (input, buffer) -> vectorConverter.toTensor(input, vectorLayer, buffer),
+                    (pixelLayer) -> {
+                        EncodedImageDecoder decoder = new EncodedImageDecoder();
+                        return (input, buffer) -> (input instanceof EncodedImage)
+                                ? bitmapConverter.toTensor((EncodedImage) input, pixelLayer, buffer, decoder)
+                                : bitmapConverter.toTensor(input, pixelLayer, buffer);
+                    },
+                    (stringLayer) -> (input, buffer) -> stringConverter.toTensor(input, stringLayer, buffer),
+                    (scalarLayer) -> (input, buffer) -> scalarConverter.toTensor(input, scalarLayer, buffer));
+        }
+
+        @Override
+        public BindingPlan.Decoder<Tensor> decoder(@NonNull LayerInterface layer) {
+
+            // If the vector's output is labeled, return a Map of keys to values rather than raw values
+
+            return layer.mapCase(
+                    (vectorLayer) -> vectorLayer.isLabeled()
+                            ? (tensor) -> vectorLayer.labeledValues((float[]) vectorConverter.fromTensor(tensor, vectorLayer))
+                            : (tensor) -> vectorConverter.fromTensor(tensor, vectorLayer),
+                    (pixelLayer) -> {
+                        PixelScratch scratch = new PixelScratch();
+                        return (tensor) -> bitmapConverter.fromTensor(tensor, pixelLayer, null, scratch);
+                    },
+                    (stringLayer) -> (tensor) -> stringConverter.fromTensor(tensor, stringLayer),
+                    (scalarLayer) -> (tensor) -> scalarConverter.fromTensor(tensor, scalarLayer));
+        }
+
+        @Override
+        public BindingPlan.DecoderInto<Tensor> decoderInto(@NonNull LayerInterface layer) {
+
+            // Pixel layers decode straight into Bitmap and pixel sink destinations through scratch
+            // space held by the layer's slot, other layers are copied into their destinations
+
+            return layer.mapCase(
+                    (vectorLayer) -> null,
+                    (pixelLayer) -> {
+                        PixelScratch scratch = new PixelScratch();
+                        return (tensor, destination) -> bitmapConverter.fromTensor(tensor, pixelLayer, destination, scratch);
+                    },
+                    (stringLayer) -> null,
+                    (scalarLayer) -> null);
+        }
+    };
+
+    /** Resolves the converters for each layer when the batch binding plan is compiled */
+
+    final private BindingPlan.Compiler<ByteBuffer, Buffer> batchPlanCompiler = new BindingPlan.Compiler<ByteBuffer, Buffer>() {
+
+        @Override
+        public ByteBuffer allocate(@NonNull LayerInterface layer) {
+            return createBackingBuffer(layer);
+        }
+
+        @Override
+        public BindingPlan.Encoder<ByteBuffer> encoder(@NonNull LayerInterface layer) {
+            return layer.mapCase(
+                    (vectorLayer) -> (input, buffer) -> vectorConverter.toByteBuffer(input, vectorLayer, buffer),
+                    (pixelLayer) -> {
+                        EncodedImageDecoder decoder = new EncodedImageDecoder();
+                        return (input, buffer) -> (input instanceof EncodedImage)
+                                ? bitmapConverter.toByteBuffer((EncodedImage) input, pixelLayer, buffer, decoder)
+                                : bitmapConverter.toByteBuffer(input, pixelLayer, buffer);
+                    },
+                    (stringLayer) -> (input, buffer) -> {
+                        throw new IllegalArgumentException("String inputs are not supported by Pytorch");
+                    },
+                    (scalarLayer) -> (input, buffer) -> scalarConverter.toByteBuffer(input, scalarLayer, buffer));
+        }
+
+        @Override
+        public BindingPlan.Decoder<Buffer> decoder(@NonNull LayerInterface layer) {
+
+            // If the vector's output is labeled, return a Map of keys to values rather than raw values
+
+            return layer.mapCase(
+                    (vectorLayer) -> vectorLayer.isLabeled()
+                            ? (buffer) -> vectorLayer.labeledValues((float[]) vectorConverter.fromBuffer(buffer, vectorLayer))
+                            : (buffer) -> vectorConverter.fromBuffer(buffer, vectorLayer),
+                    (pixelLayer) -> (buffer) -> bitmapConverter.fromByteBuffer(buffer, pixelLayer),
+                    (stringLayer) -> (buffer) -> null,
+                    (scalarLayer) -> (buffer) -> scalarConverter.fromBuffer(buffer, scalarLayer));
+        }
+    };
+
     /**
      * The designated initializer for conforming classes.
      * <p>
@@ -96,11 +226,9 @@ public class PytorchModel extends Model {
             return;
         }
 
-        // Prepare Buffer Cache
+        // Compile Binding Plan
 
-        if (cacheBuffers) {
-            prepareBufferCache();
-        }
+        preparePlan();
 
         try {
             pytorchModule = loadModelFile();
@@ -137,27 +265,58 @@ public class PytorchModel extends Model {
     }
 
     /**
-     * Create buffer caches that are used for model inputs and outputs
+     * Compiles the binding plan used for model inputs and outputs
      */
 
-    void prepareBufferCache() {
-        bufferCache = new HashMap<>();
+    void preparePlan() {
+        plan = BindingPlan.compile(getIO(), planCompiler, cacheBuffers);
+        inputValues = new IValue[plan.inputCount()];
+        outputValues = new IValue[plan.outputCount()];
+    }
 
-        List<LayerInterface> layers = new ArrayList<>();
-        layers.addAll(getIO().getInputs().all());
-        layers.addAll(getIO().getOutputs().all());
+    /**
+     * Compiles the binding plan used for batched inputs and outputs the first time it is needed,
+     * along with the description and item shape of each input layer
+     */
 
-        for (LayerInterface layer : layers) {
-            layer.doCase((vectorLayer) -> {
-                bufferCache.put(layer, vectorConverter.createBackingBuffer(vectorLayer));
-            }, (pixelLayer) -> {
-                bufferCache.put(layer, bitmapConverter.createBackingBuffer(pixelLayer));
-            }, (stringLayer) -> {
-                bufferCache.put(layer, stringConverter.createBackingBuffer(stringLayer));
-            }, (scalarLayer) -> {
-                bufferCache.put(layer, scalarConverter.createBackingBuffer(scalarLayer));
-            });
+    private BindingPlan<ByteBuffer, Buffer> prepareBatchPlan() {
+        if (batchPlan != null) {
+            return batchPlan;
         }
+
+        BindingPlan<ByteBuffer, Buffer> compiled = BindingPlan.compile(getIO(), batchPlanCompiler, cacheBuffers);
+
+        batchInputDescriptions = new LayerDescription[compiled.inputCount()];
+        batchInputShapes = new long[compiled.inputCount()][];
+
+        for (int i = 0; i < compiled.inputCount(); i++) {
+            LayerInterface layer = compiled.input(i).getLayer();
+
+            batchInputDescriptions[i] = layer.mapCase(
+                    (vectorLayer) -> vectorLayer,
+                    (pixelLayer) -> pixelLayer,
+                    (stringLayer) -> stringLayer,
+                    (scalarLayer) -> scalarLayer);
+
+            batchInputShapes[i] = layer.mapCase(
+                    (vectorLayer) -> longShape(vectorLayer.getShape()),
+                    (pixelLayer) -> new long[]{1, pixelLayer.getShape().channels, pixelLayer.getShape().height, pixelLayer.getShape().width},
+                    (stringLayer) -> new long[]{1},
+                    (scalarLayer) -> longShape(scalarLayer.getShape()));
+        }
+
+        batchPlan = compiled;
+        return compiled;
+    }
+
+    /** Creates a buffer sized for a single item of a layer with the converter for the layer's type */
+
+    private ByteBuffer createBackingBuffer(@NonNull LayerInterface layer) {
+        return layer.mapCase(
+                vectorConverter::createBackingBuffer,
+                bitmapConverter::createBackingBuffer,
+                stringConverter::createBackingBuffer,
+                scalarConverter::createBackingBuffer);
     }
 
     //endRegion
@@ -246,6 +405,79 @@ public class PytorchModel extends Model {
         throw new ModelException("Placeholders not supported by Pytorch models");
     }
 
+    /**
+     * Perform inference on a map of objects, decoding pixel outputs directly into caller-provided
+     * Bitmaps and pixel sinks and copying other outputs into their destinations
+     */
+
+    @Override
+    public Map<String, Object> runOnInto(@NonNull Map<String, Object> inputs, @NonNull Map<String, Object> outputs) throws ModelException, IllegalArgumentException {
+        validateInput(inputs);
+        load();
+
+        IValue[] values = forward(inputs);
+
+        // Decode the output tensors into the destinations
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<Tensor, Tensor> slot = plan.output(i);
+            outputs.put(slot.getName(), slot.decodeInto(values[i].toTensor(), outputs.get(slot.getName())));
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Perform inference on a map of objects, decoding each output into the value the outputs
+     * container already holds for it
+     */
+
+    @Override
+    public ModelOutputs runOnInto(@NonNull Map<String, Object> inputs, @NonNull ModelOutputs outputs) throws ModelException, IllegalArgumentException {
+        validateInput(inputs);
+        validateOutputs(outputs);
+        load();
+
+        IValue[] values = forward(inputs);
+
+        // Decode the output tensors into the container's values
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            outputs.set(i, plan.output(i).decodeInto(values[i].toTensor(), outputs.get(i)));
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Perform inference on a batch of items with a single call to forward.
+     *
+     * Every input and output layer must be batched, that is, its shape must have a leading -1
+     * dimension. Each item is packed into a single buffer per input layer, which is wrapped in a
+     * tensor whose leading dimension is the size of the batch, and the outputs are split back into
+     * results for each item along their leading dimension.
+     *
+     * @param batch A batch of items, each of which maps input layer names to arbitrary objects
+     * @return results of running the model, one map of output layer names to values per item, in
+     * the order of the items in the batch
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs or if the model's layers are not batched
+     */
+
+    @Override
+    public List<Map<String, Object>> runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        validateInput(batch);
+        validateBatched();
+        load();
+
+        if (batch.size() == 0) {
+            return new ArrayList<>();
+        }
+
+        return runBatch(batch);
+    }
+
     /**
      * Used to determined if an unmapped input should be mapped and a mapped input unmapped
      *
@@ -297,19 +529,20 @@ public class PytorchModel extends Model {
 
     private Map<String, Object> runSingleInputSingleOutput(@NonNull Object input) throws IllegalArgumentException {
 
-        // Fetch the input layer descriptions from the model
+        // Fetch the input and output slots from the binding plan
 
-        LayerInterface inputLayer = getIO().getInputs().get(0);
+        BindingPlan.Slot<Tensor, Tensor> inputSlot = plan.input(0);
+        BindingPlan.Slot<Tensor, Tensor> outputSlot = plan.output(0);
 
         // Prepare tensors
-        Tensor inputTensor = prepareInputTensor(input, inputLayer);
+        Tensor inputTensor = inputSlot.encode(input);
         IValue outputTensor = pytorchModule.forward(IValue.from(inputTensor));
 
-        // Convert output buffers to user land objects
-        Map<Integer, IValue> outputs = new HashMap<>(getIO().getOutputs().size()); // Always size 1
-        outputs.put(0, outputTensor);
+        // Convert output tensors to user land objects
+        Map<String, Object> outputs = new HashMap<>(1); // Always size 1
+        outputs.put(outputSlot.getName(), outputSlot.decode(outputTensor.toTensor()));
 
-        return captureOutputs(outputs);
+        return outputs;
     }
 
     /**
@@ -322,140 +555,272 @@ public class PytorchModel extends Model {
      */
 
     private Map<String, Object> runMultipleInputMultipleOutput(@NonNull Map<String, Object> inputs) throws IllegalArgumentException {
-        // Fetch the input and output layer descriptions from the model
+        return captureOutputs(forward(inputs));
+    }
+
+    /**
+     * Encodes the inputs and runs the module's forward method on them
+     *
+     * @param inputs A mapping from input layer names to input values
+     * @return The module's outputs indexed by their output layers
+     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private IValue[] forward(@NonNull Map<String, Object> inputs) throws IllegalArgumentException {
+        // Prepare input tensors
+
+        IValue[] inputTensors = inputValues;
+
+        for (int i = 0; i < plan.inputCount(); i++) {
+            BindingPlan.Slot<Tensor, Tensor> slot = plan.input(i);
+            inputTensors[i] = IValue.from(slot.encode(inputs.get(slot.getName())));
+        }
+
+        return indexedOutputs(pytorchModule.forward(inputTensors));
+    }
+
+    /**
+     * Actually performs inference on a batch of items
+     *
+     * @param batch The batch of items, which may not be empty
+     * @return The model's outputs for each item mapped by the output layer names
+     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private List<Map<String, Object>> runBatch(@NonNull Batch batch) throws IllegalArgumentException {
+
+        // Fetch the batch binding plan
 
-        IO.IOList inputList = getIO().getInputs();
-        IO.IOList outputList = getIO().getOutputs();
+        BindingPlan<ByteBuffer, Buffer> plan = prepareBatchPlan();
+        int batchSize = batch.size();
 
-        // Prepare input buffers
-        Map<String, IValue> inputMap = new HashMap<>();
-        IValue[] inputTensors = new IValue[inputList.size()];
+        // Prepare input tensors, packing every item into a single buffer per layer
 
-        for (int i = 0; i < inputList.size(); i++){
-            LayerInterface inputLayer = inputList.get(i);
-            Object input = inputs.get(inputLayer.getName());
-            Tensor inputTensor = prepareInputTensor(input, inputLayer);
+        IValue[] inputTensors = inputValues;
 
-            inputTensors[i] = IValue.from(inputTensor);
-            inputMap.put(inputLayer.getName(), inputTensors[i]);
+        for (int i = 0; i < plan.inputCount(); i++) {
+            Batch.Column column = batch.column(plan.input(i).getName());
+            inputTensors[i] = IValue.from(prepareBatchTensor(column, batchSize, i));
         }
 
-        IValue temp = pytorchModule.forward(inputTensors);
-        Map<Integer, IValue> outputMap = new HashMap<>(outputList.size());
+        // Run the model once on the entire batch
+
+        IValue[] outputs = indexedOutputs(pytorchModule.forward(inputTensors));
+
+        // Split each output tensor along its leading dimension into user land objects for each item
+
+        List<Map<String, Object>> results = new ArrayList<>(batchSize);
 
-        if (temp.isTuple()){
-            IValue[] output = temp.toTuple();
-            for (int i=0; i< output.length; i++){
-                outputMap.put(i, output[i]);
+        for (int j = 0; j < batchSize; j++) {
+            results.add(new HashMap<>(plan.outputCount()));
+        }
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, Buffer> slot = plan.output(i);
+            Buffer data = tensorData(outputs[i].toTensor());
+            int itemLength = data.capacity() / batchSize;
+
+            for (int j = 0; j < batchSize; j++) {
+                results.get(j).put(slot.getName(), slot.decode(slice(data, j * itemLength, itemLength)));
             }
         }
-        else if (temp.isDictStringKey()){
-            Map<String, IValue> tempMap = temp.toDictStringKey();
-            for (String n: temp.toDictStringKey().keySet()){
-                outputMap.put(outputList.indexFor(n), tempMap.get(n));
+
+        return results;
+    }
+
+    /**
+     * Indexes the value returned by forward by output layer. Tuples are indexed by position,
+     * dictionaries by the index of the output layer with the matching name, and a single value is
+     * treated as the first output.
+     *
+     * @param value The value returned by the module's forward method
+     * @return The output values indexed by their output layers, reused across calls
+     * @throws IllegalArgumentException If the module did not return a value for every output layer
+     */
+
+    private IValue[] indexedOutputs(@NonNull IValue value) throws IllegalArgumentException {
+        IValue[] outputs = outputValues;
+
+        // Clear the previous call's values so that none are mistaken for this call's
+
+        Arrays.fill(outputs, null);
+
+        if (value.isTuple()){
+            IValue[] output = value.toTuple();
+            System.arraycopy(output, 0, outputs, 0, Math.min(output.length, outputs.length));
+        }
+        else if (value.isDictStringKey()){
+            Map<String, IValue> tempMap = value.toDictStringKey();
+            for (Map.Entry<String, IValue> entry : tempMap.entrySet()){
+                outputs[getIO().getOutputs().indexFor(entry.getKey())] = entry.getValue();
             }
         }
         else {
-            outputMap.put(0, temp);
+            outputs[0] = value;
         }
 
-        return captureOutputs(outputMap);
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] == null) {
+                throw MissingOutputException(plan.output(i).getName());
+            }
+        }
+
+        return outputs;
     }
 
     /**
-     * Prepares a Tensor that will be used for input to a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be reused.
+     * Prepares a Tensor holding every item in a batch for a single input layer. Items are packed
+     * one after another into a direct buffer, which is reused across batches of the same or a
+     * smaller size if buffer caching is used. Primitive columns are copied in bulk.
      *
-     * @param input The input to convert to a Tensor
-     * @param inputLayer The interface to the layer that this buffer will be used with
-     * @return ByteBuffer ready for input to a model
+     * @param column The values for the layer, one per item in the batch
+     * @param batchSize The number of items in the batch
+     * @param index The index of the layer that this tensor will be used with
+     * @return Tensor whose leading dimension is the size of the batch
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private Tensor prepareInputTensor(Object input, LayerInterface inputLayer) throws IllegalArgumentException {
-        final AtomicReference<Tensor> inputBuffer = new AtomicReference<>();
-        final ByteBuffer cachedBuffer = cacheBuffers ? bufferCache.get(inputLayer) : null;
+    private Tensor prepareBatchTensor(@NonNull Batch.Column column, int batchSize, int index) throws IllegalArgumentException {
+        BindingPlan.Slot<ByteBuffer, Buffer> slot = batchPlan.input(index);
+        int itemLength = slot.getByteLength();
+        ByteBuffer buffer = prepareBatchBuffer(slot, itemLength * batchSize);
+
+        if (!column.writeTo(buffer, slot.getLayer())) {
+            for (int j = 0; j < batchSize; j++) {
+                slot.encode(column.get(j), slice(buffer, j * itemLength, itemLength));
+            }
+        }
 
-        inputLayer.doCase((vectorLayer) -> {
-            Tensor tensor = vectorConverter.toTensor(input, vectorLayer, cachedBuffer);
-            inputBuffer.set(tensor);
-        }, (pixelLayer) -> {
-            Tensor tensor = bitmapConverter.toTensor(input, pixelLayer, cachedBuffer);
-            inputBuffer.set(tensor);
-        }, (stringLayer) -> {
-            Tensor tensor = stringConverter.toTensor(input, stringLayer, cachedBuffer);
-            inputBuffer.set(tensor);
-        }, (scalarLayer) -> {
-            Tensor tensor = scalarConverter.toTensor(input, scalarLayer, cachedBuffer);
-            inputBuffer.set(tensor);
-        });
+        long[] shape = batchInputShapes[index].clone();
+        shape[0] = batchSize;
 
-        return inputBuffer.get();
+        return batchTensor(buffer, shape, batchInputDescriptions[index]);
     }
 
     /**
-     * Converts captured Tensors from a model's output to user land Objects
+     * Prepares a ByteBuffer large enough to hold a layer's data for every item in a batch
      *
-     * @param outputs The indexed output buffers
-     * @return A Map of keys to user land objects capturing the model's outputs
+     * @param slot The batch binding plan slot for the layer that this buffer will be used with
+     * @param length The number of bytes required by the entire batch
+     * @return ByteBuffer whose capacity is exactly the length
      */
 
-    private Map<String, Object> captureOutputs(@NonNull Map<Integer, IValue> outputs) {
-        IO.IOList outputList = getIO().getOutputs();
-        Map<String, Object> outputMap = new HashMap<>(outputList.size());
+    private static ByteBuffer prepareBatchBuffer(@NonNull BindingPlan.Slot<ByteBuffer, Buffer> slot, int length) {
 
-        for (int i = 0; i < outputList.size(); i++) {
-            LayerInterface layer = outputList.get(i);
-            String name = layer.getName();
+        // Pytorch requires the capacity of a buffer to match the number of elements in the tensor
 
-            Object o = captureOutput(outputs.get(i), layer);
+        return slice(slot.batchBuffer(length), 0, length);
+    }
+
+    /** Converts a layer's shape to the long shape Pytorch expects, the leading dimension is replaced per batch */
+
+    private static long[] longShape(@NonNull int[] shape) {
+        long[] longShape = new long[shape.length];
 
-            outputMap.put(name, o);
+        for (int i = 0; i < shape.length; i++) {
+            longShape[i] = shape[i];
         }
 
-        return outputMap;
+        return longShape;
     }
 
     /**
-     * Converts a single Tensor to a user land object
+     * Wraps a packed batch buffer in a Tensor of the type expected by the layer
      *
-     * @param tensor The tensor to capture and convert
-     * @param layer  The interface to the output
-     * @return An object in accordance with the layer description, usually one of byte[], float[],
-     * or Bitmap
+     * @param buffer The packed buffer
+     * @param shape The tensor's shape, with the size of the batch as the leading dimension
+     * @param description A description of the layer
+     * @return Tensor backed by the buffer
      */
 
-    private Object captureOutput(@NonNull IValue tensor, @NonNull LayerInterface layer) {
-        final AtomicReference<Object> output = new AtomicReference<>();
+    private static Tensor batchTensor(@NonNull ByteBuffer buffer, @NonNull long[] shape, @NonNull LayerDescription description) {
+        if (description instanceof PixelBufferLayerDescription && description.isQuantized()) {
+            return Tensor.fromBlobUnsigned(buffer, shape);
+        } else if (description.isQuantized() || description.getDtype() == DataType.UInt8) {
+            return Tensor.fromBlob(buffer, shape);
+        } else if (description.getDtype() == DataType.Int32) {
+            return Tensor.fromBlob(buffer.asIntBuffer(), shape);
+        } else if (description.getDtype() == DataType.Int64) {
+            return Tensor.fromBlob(buffer.asLongBuffer(), shape);
+        } else {
+            return Tensor.fromBlob(buffer.asFloatBuffer(), shape);
+        }
+    }
 
-        layer.doCase((vectorLayer) -> {
-            Object o = vectorConverter.fromTensor(tensor.toTensor(), vectorLayer);
+    /**
+     * Reads the entire contents of an output tensor, once for every item in the batch
+     *
+     * @param tensor The output tensor
+     * @return A Buffer of the same type as the tensor's data
+     */
 
-            // If the vector's output is labeled, return a Map of keys to values rather than raw values
-            if (vectorLayer.isLabeled()) {
-                o = vectorLayer.labeledValues((float[]) o);
-            }
+    private static Buffer tensorData(@NonNull Tensor tensor) {
+        switch (tensor.dtype()) {
+            case UINT8:
+                return ByteBuffer.wrap(tensor.getDataAsUnsignedByteArray());
+            case INT8:
+                return ByteBuffer.wrap(tensor.getDataAsByteArray());
+            case INT32:
+                return IntBuffer.wrap(tensor.getDataAsIntArray());
+            case INT64:
+                return LongBuffer.wrap(tensor.getDataAsLongArray());
+            case FLOAT32:
+                return FloatBuffer.wrap(tensor.getDataAsFloatArray());
+            default:
+                throw new IllegalArgumentException(tensor.dtype() + " outputs are not supported by Pytorch");
+        }
+    }
 
-            // If the output vector is single valued, return the value directly; See #33 and #34
+    /** Returns a view of a region of a ByteBuffer in native byte order, with the view positioned at zero */
 
-            // if (((float[])o).length == 1) {
-            //    o = ((float[])o)[0];
-            // }
+    private static ByteBuffer slice(@NonNull ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.clear();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice().order(ByteOrder.nativeOrder());
+    }
 
-            output.set(o);
-        }, (pixelLayer) -> {
-            Object o = bitmapConverter.fromTensor(tensor.toTensor(), pixelLayer);
-            output.set(o);
-        }, (stringLayer) -> {
-            Object o = stringConverter.fromTensor(tensor.toTensor(), stringLayer);
-            output.set(o);
-        }, (scalarLayer) -> {
-            Object o = scalarConverter.fromTensor(tensor.toTensor(), scalarLayer);
-            output.set(o);
-        });
+    /** Returns a view of a region of one of the buffers returned by tensorData */
 
-        return output.get();
+    private static Buffer slice(@NonNull Buffer buffer, int offset, int length) {
+        buffer.clear();
+        buffer.position(offset);
+        buffer.limit(offset + length);
+
+        if (buffer instanceof ByteBuffer) {
+            return ((ByteBuffer) buffer).slice();
+        } else if (buffer instanceof IntBuffer) {
+            return ((IntBuffer) buffer).slice();
+        } else if (buffer instanceof LongBuffer) {
+            return ((LongBuffer) buffer).slice();
+        } else {
+            return ((FloatBuffer) buffer).slice();
+        }
+    }
+
+    /**
+     * Captures Tensors from a model's output as user land Objects which are decoded when they are
+     * first read. Each forward pass produces new tensors, so they are held without a copy.
+     *
+     * @param outputs The output values indexed by their output layers
+     * @return A Map of keys to user land objects capturing the model's outputs
+     */
+
+    private Map<String, Object> captureOutputs(@NonNull IValue[] outputs) {
+        LazyOutputs outputMap = new LazyOutputs(plan.outputCount());
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<Tensor, Tensor> slot = plan.output(i);
+            Tensor tensor = outputs[i].toTensor();
+
+            outputMap.putLazily(slot.getName(), () -> slot.decodeDetached(tensor));
+        }
+
+        return outputMap;
     }
 
     //endRegion
@@ -495,4 +860,12 @@ public class PytorchModel extends Model {
 
     //endRegion
 
+    //region Exceptions
+
+    private static IllegalArgumentException MissingOutputException(@NonNull String name) {
+        return new IllegalArgumentException("The module did not return a value for the output layer " + name);
+    }
+
+    //endRegion
+
 }
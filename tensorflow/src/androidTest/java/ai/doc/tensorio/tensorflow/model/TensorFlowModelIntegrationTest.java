@@ -39,9 +39,11 @@ import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.file.FileSystemException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import ai.doc.tensorio.core.data.Batch;
 import ai.doc.tensorio.core.data.Placeholders;
 import ai.doc.tensorio.core.model.Model;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
@@ -778,4 +780,50 @@ public class TensorFlowModelIntegrationTest {
         }
     }
 
+    @Test
+    public void testCatsVsDogsPredictBatched() {
+        try {
+            // Prepare Model
+
+            ModelBundle bundle = bundleForFile("cats-vs-dogs-predict.tiobundle");
+            assertNotNull(bundle);
+
+            TensorFlowModel model = (TensorFlowModel) bundle.newModel();
+            assertNotNull(model);
+            model.load();
+
+            // Prepare Batch
+
+            Bitmap cat = BitmapFactory.decodeStream(testContext.getAssets().open("cat.jpg"));
+            Bitmap dog = BitmapFactory.decodeStream(testContext.getAssets().open("dog.jpg"));
+
+            Batch batch = new Batch(new String[]{"image"});
+
+            Batch.Item catItem = new Batch.Item();
+            catItem.put("image", cat);
+            batch.add(catItem);
+
+            Batch.Item dogItem = new Batch.Item();
+            dogItem.put("image", dog);
+            batch.add(dogItem);
+
+            // Run Model
+
+            List<Map<String,Object>> outputs = model.runOn(batch);
+            assertNotNull(outputs);
+            assertEquals(2, outputs.size());
+
+            // Check Outputs
+
+            float catSigmoid = ((float[]) Objects.requireNonNull(outputs.get(0).get("sigmoid")))[0];
+            assertTrue(catSigmoid < 0.5);
+
+            float dogSigmoid = ((float[]) Objects.requireNonNull(outputs.get(1).get("sigmoid")))[0];
+            assertTrue(dogSigmoid > 0.5);
+
+        } catch (ModelBundle.ModelBundleException | Model.ModelException | IOException e) {
+            fail();
+        }
+    }
+
 }
\ No newline at end of file
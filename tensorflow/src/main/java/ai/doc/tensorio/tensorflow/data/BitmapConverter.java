@@ -27,22 +27,48 @@ import androidx.annotation.NonNull;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
+import ai.doc.tensorio.core.data.OutputDestinations;
 import ai.doc.tensorio.core.data.PixelDenormalizer;
-import ai.doc.tensorio.core.data.PixelNormalizer;
+import ai.doc.tensorio.core.data.BitmapPixels;
+import ai.doc.tensorio.core.data.BitmapRegion;
+import ai.doc.tensorio.core.data.CameraFrame;
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.EncodedImageDecoder;
+import ai.doc.tensorio.core.data.ImagePipeline;
+import ai.doc.tensorio.core.data.PixelResampler;
+import ai.doc.tensorio.core.data.PixelScratch;
+import ai.doc.tensorio.core.data.PixelSink;
+import ai.doc.tensorio.core.data.PixelSource;
+import ai.doc.tensorio.core.data.PixelStripes;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
 import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
 
 /**
  * The TensorFlow Bitmap converter transforms bitmaps into byte buffers for use as inputs to
  * TensorFlow models and byte buffers outputs back into bitmaps.
  *
- * The `toByteBuffer` method will scale the Bitmap you provide if necessary using
- * `createScaledBitmap`, or you may scale the Bitmap before hand.
+ * The `toByteBuffer` method resamples the Bitmap you provide to the layer's size if necessary,
+ * normalizing and writing its pixels to the buffer in the same pass with a `PixelResampler`.
+ *
+ * Pixels are normalized with the layer's precomputed lookup table and written in the channel
+ * order of the layer's pixel format, RGB or BGR.
  */
 
 public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Converter {
 
+    /**
+     * Pixels read from output buffers, reused across calls. Thread local because converters are
+     * shared by models that may run on several threads at once.
+     */
+
+    private static final ThreadLocal<PixelScratch> outputScratch = new ThreadLocal<>();
+
+    /** Decoders for encoded input images, reused across calls for the same reason */
+
+    private static final ThreadLocal<EncodedImageDecoder> inputDecoder = new ThreadLocal<>();
+
     @Override
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize) {
         boolean quantized = ((PixelBufferLayerDescription)description).isQuantized();
@@ -84,15 +110,25 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
 
     @Override
     public ByteBuffer toByteBuffer(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
-        if (!(o instanceof Bitmap)) {
-            throw BadInputException();
-        } else {
+        if (o instanceof Bitmap) {
             return toByteBuffer((Bitmap)o, description, cache);
+        } else if (o instanceof BitmapRegion) {
+            return toByteBuffer((BitmapRegion)o, description, cache);
+        } else if (o instanceof CameraFrame) {
+            return toByteBuffer((CameraFrame)o, description, cache);
+        } else if (o instanceof EncodedImage) {
+            return toByteBuffer((EncodedImage)o, description, cache);
+        } else if (o instanceof ImagePipeline.Input) {
+            return toByteBuffer((ImagePipeline.Input)o, description, cache);
+        } else if (o instanceof PixelSource) {
+            return toByteBuffer((PixelSource)o, description, cache);
+        } else {
+            throw BadInputException();
         }
     }
 
     /**
-     * Converts a Bitmap to a byte buffer. Resizes the Bitmap if necessary using `createScaledBitmap`.
+     * Converts a Bitmap to a byte buffer, resampling it to the layer's size if necessary.
      *
      * @param bitmap The bitmap to convert
      * @param description A description of the layer with instructions on how to make the conversion
@@ -107,139 +143,287 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
         ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, 1);
         buffer.rewind();
 
-        // Acquire needed properties from layer description
+        // Resample, normalize, and write the Bitmap's pixels to the buffer in a single pass
 
-        PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
-        ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelNormalizer normalizer = pixelBufferLayerDescription.getNormalizer();
+        return PixelResampler.resample(bitmap, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Interleaved);
+    }
 
-        // Resize Bitmap
+    /**
+     * Converts a region of a Bitmap to a byte buffer, cropping or letterboxing it to the layer's
+     * aspect ratio as the region describes and resampling it to the layer's size.
+     *
+     * @param region The region of a bitmap to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer ready for use with a TensorFlow model
+     */
 
-        if (bitmap.getWidth() != shape.width || bitmap.getHeight() != shape.height){
-            bitmap = Bitmap.createScaledBitmap(bitmap,shape.width,shape.height,true);
-        }
+    public ByteBuffer toByteBuffer(@NonNull BitmapRegion region, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, 1);
+        buffer.rewind();
 
-        // Read Bitmap into int array
+        return PixelResampler.resample(region, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Interleaved);
+    }
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
-        bitmap.getPixels(intValues, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight()); // Returns ARGB pixels
+    /**
+     * Converts a YUV camera frame to a byte buffer, rotating it upright, resampling it to the
+     * layer's size, and converting it to RGB in a single pass.
+     *
+     * @param frame The camera frame to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer ready for use with a TensorFlow model
+     */
 
-        // Write Individual Pixels to Buffer
+    public ByteBuffer toByteBuffer(@NonNull CameraFrame frame, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, 1);
+        buffer.rewind();
 
-        int pixel = 0;
-        for (int y = 0; y < bitmap.getHeight(); y++) {
-            for (int x = 0; x < bitmap.getWidth(); x++) {
-                final int val = intValues[pixel++];
-                writePixelToBuffer(val, buffer, quantized, normalizer);
-            }
-        }
+        return PixelResampler.resample(frame, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Interleaved);
+    }
 
-        intValues = null;
+    /**
+     * Decodes a JPEG or PNG image and writes it to a byte buffer, downsampling it while it is
+     * decoded and then fitting it to the layer's shape as the image describes.
+     *
+     * @param image The encoded image to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer ready for use with a TensorFlow model
+     * @throws IllegalArgumentException If the image cannot be decoded
+     */
 
-        return buffer;
+    public ByteBuffer toByteBuffer(@NonNull EncodedImage image, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        return toByteBuffer(image, description, cache, decoder());
     }
 
-    @Override
-    public Bitmap fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description) {
+    /**
+     * Decodes a JPEG or PNG image with the caller's decoder, which a model holds for each pixel
+     * input layer so that the decoded Bitmap is reused from one image to the next.
+     *
+     * @param image The encoded image to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @param decoder The decoder to decode the image with
+     * @return A ByteBuffer ready for use with a TensorFlow model
+     * @throws IllegalArgumentException If the image cannot be decoded
+     */
 
-        // Acquire needed properties from layer description
+    public ByteBuffer toByteBuffer(@NonNull EncodedImage image, @NonNull LayerDescription description, @Nullable ByteBuffer cache, @NonNull EncodedImageDecoder decoder) throws IllegalArgumentException {
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+        Bitmap bitmap = decoder.decode(image, shape.width, shape.height);
 
-        PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
-        ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelDenormalizer denormalizer = pixelBufferLayerDescription.getDenormalizer();
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, 1);
+        buffer.rewind();
 
-        // Write the buffer into a bitmap
+        BitmapRegion region = new BitmapRegion(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), image.getFit(), image.getFillColor());
+        return PixelResampler.resample(region, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Interleaved);
+    }
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
-        Bitmap bmp = Bitmap.createBitmap(shape.width, shape.height, Bitmap.Config.ARGB_8888);
+    /**
+     * Runs an image pipeline on its source, writing the rotated, cropped, resized, and normalized
+     * pixels to a byte buffer in a single pass.
+     *
+     * @param input A source bound to a pipeline built for this layer
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer ready for use with a TensorFlow model
+     * @throws IllegalArgumentException If the pipeline was built for another layer
+     */
 
+    public ByteBuffer toByteBuffer(@NonNull ImagePipeline.Input input, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, 1);
         buffer.rewind();
 
-        for (int i = 0; i < shape.width * shape.height; i++) {
-            intValues[i] = readPixelFromBuffer(buffer, quantized, denormalizer);
-        }
+        return input.writeTo(buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Interleaved);
+    }
+
+    /**
+     * Converts a pixel source, such as an int[] of ARGB pixels or a ByteBuffer of RGBA pixels, to a
+     * byte buffer, resampling it to the layer's size if necessary.
+     *
+     * @param source The pixels to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer ready for use with a TensorFlow model
+     */
 
-        bmp.setPixels(intValues,0, shape.width, 0, 0, shape.width, shape.height);
+    public ByteBuffer toByteBuffer(@NonNull PixelSource source, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, 1);
+        buffer.rewind();
 
-        intValues = null;
+        return PixelResampler.resample(source, buffer, (PixelBufferLayerDescription) description, PixelResampler.Layout.Interleaved);
+    }
 
-        return bmp;
+    @Override
+    public Bitmap fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description) {
+        return fromByteBuffer(buffer, description, null);
     }
 
-    //region Utilities
+    /**
+     * Reads a ByteBuffer into a caller-provided Bitmap, avoiding a new allocation on every call,
+     * or into a new Bitmap if no destination is provided.
+     *
+     * @param buffer The buffer to read from
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A mutable Bitmap with the layer's width and height, may be null
+     * @return The destination if one is provided, otherwise a new Bitmap
+     * @throws IllegalArgumentException If the destination is immutable or its size does not match the layer's
+     */
+
+    public Bitmap fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @Nullable Bitmap destination) throws IllegalArgumentException {
+        return fromByteBuffer(buffer, description, destination, scratch());
+    }
 
     /**
-     * Writes a pixel to a buffer, normalizing and converting it as needed.
+     * Reads a ByteBuffer into a caller-provided Bitmap using the caller's scratch space, which a
+     * model holds for each pixel output layer. The pixels are moved into the Bitmap with
+     * `copyPixelsFromBuffer`, so decoding allocates nothing when a destination is provided.
      *
-     * Before calling this method the first time in a loop, rewind the buffer. The buffer then
-     * increments its index with every call to put.
+     * @param buffer The buffer to read from
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A mutable Bitmap with the layer's width and height, may be null
+     * @param scratch Scratch space for the layer's pixels
+     * @return The destination if one is provided, otherwise a new Bitmap
+     * @throws IllegalArgumentException If the destination is immutable or its size does not match the layer's
+     */
+
+    public Bitmap fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @Nullable Bitmap destination, @NonNull PixelScratch scratch) throws IllegalArgumentException {
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+
+        if (destination != null) {
+            OutputDestinations.checkBitmap(destination, shape.width, shape.height);
+        }
+
+        int[] intValues = scratch.pixels(shape.width * shape.height); // 4 bytes per int
+        readPixels(buffer, (PixelBufferLayerDescription) description, intValues);
+
+        Bitmap bmp = (destination != null) ? destination : Bitmap.createBitmap(shape.width, shape.height, Bitmap.Config.ARGB_8888);
+
+        return scratch.copyTo(bmp, shape.width, shape.height);
+    }
+
+    /**
+     * Reads a ByteBuffer into a caller-provided pixel sink, for example an int[] or ByteBuffer
+     * that is handed to a renderer without ever creating a Bitmap.
      *
-     * @param pixelValue 4 byte pixel value to write with ARGB or BGRA format wit
-     * @param buffer The buffer to write to
-     * @param quantized true if the buffer expects quantized (byte) data, false otherwise (float)
-     * @param normalizer The normalizer than converts a single byte pixel-channel value to a
-     *                   floating point value
+     * @param buffer The buffer to read from
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A pixel sink with the layer's width and height
+     * @return The destination
+     * @throws IllegalArgumentException If the destination's size does not match the layer's
      */
 
-    private void writePixelToBuffer(int pixelValue, @NonNull ByteBuffer buffer, boolean quantized, @Nullable PixelNormalizer normalizer) {
-        if (quantized) {
-            buffer.put((byte) ((pixelValue >> 16) & 0xFF));
-            buffer.put((byte) ((pixelValue >> 8) & 0xFF));
-            buffer.put((byte) (pixelValue & 0xFF));
-        } else {
-            if (normalizer != null) {
-                buffer.putFloat(normalizer.normalize((pixelValue >> 16) & 0xFF, 0));
-                buffer.putFloat(normalizer.normalize((pixelValue >> 8) & 0xFF, 1));
-                buffer.putFloat(normalizer.normalize(pixelValue & 0xFF, 2));
-            } else {
-                buffer.putFloat((pixelValue >> 16) & 0xFF);
-                buffer.putFloat((pixelValue >> 8) & 0xFF);
-                buffer.putFloat(pixelValue & 0xFF);
-            }
+    public PixelSink fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull PixelSink destination) throws IllegalArgumentException {
+        if (destination instanceof BitmapPixels) {
+            fromByteBuffer(buffer, description, ((BitmapPixels) destination).getBitmap(), scratch());
+            return destination;
         }
+
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
+        OutputDestinations.checkSink(destination, shape.width, shape.height);
+
+        int[] intValues = scratch().pixels(shape.width * shape.height); // 4 bytes per int
+        readPixels(buffer, (PixelBufferLayerDescription) description, intValues);
+
+        destination.setPixels(intValues, 0, 0, 0, shape.width, shape.height);
+
+        return destination;
+    }
+
+    //region Utilities
+
+    /** Returns this thread's scratch space for decoding pixels */
+
+    private static PixelScratch scratch() {
+        PixelScratch scratch = outputScratch.get();
+
+        if (scratch == null) {
+            scratch = new PixelScratch();
+            outputScratch.set(scratch);
+        }
+
+        return scratch;
+    }
+
+    /** Returns this thread's decoder for encoded images */
+
+    private static EncodedImageDecoder decoder() {
+        EncodedImageDecoder decoder = inputDecoder.get();
+
+        if (decoder == null) {
+            decoder = new EncodedImageDecoder();
+            inputDecoder.set(decoder);
+        }
+
+        return decoder;
+    }
+
+    /**
+     * Reads a layer's pixels from a buffer into an array of ARGB pixels, in row stripes on several
+     * cores for large parallel layers. Each stripe reads through its own view of the buffer.
+     */
+
+    private static void readPixels(@NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull int[] pixels) {
+        ImageVolume shape = description.getShape();
+        int bytesPerPixel = description.isQuantized() ? 3 : 3 * 4;
+
+        PixelStripes.run(description, shape.width, shape.height, (fromRow, toRow) -> {
+            ByteBuffer stripe = buffer.duplicate().order(buffer.order());
+            stripe.position(fromRow * shape.width * bytesPerPixel);
+
+            readPixelsFromBuffer(stripe, pixels, fromRow * shape.width, (toRow - fromRow) * shape.width, description.isQuantized(), description.getDenormalizer(), description.getPixelFormat());
+        });
     }
 
     /**
-     * Reads three bytes of a pixel from a buffer, assuming no alpha channel, and denormalizing and
-     * converting the values as needed.
+     * Reads pixels from a buffer in a single pass, assuming no alpha channel, reading the channels
+     * in the order of the pixel format and denormalizing float values as needed.
      *
-     * Before calling this method the first time in a loop, rewind the buffer. The buffer then
-     * increments its index with every call to get.
+     * Position the buffer at the first pixel before calling this method. The buffer increments its
+     * index with every get.
      *
      * @param buffer The buffer to read from
+     * @param pixels The array the ARGB pixels are read into
+     * @param offset The index in the array of the first pixel read
+     * @param count The number of pixels to read
      * @param quantized True if the buffer contains quantized (byte) data, false otherwise (float)
-     * @param denormalizer The denormalizer than converts a floating point pixel-channel value to a
-     *                     byte value
-     * @return The 4 byte representation of the pixel.
+     * @param denormalizer The denormalizer than converts floating point pixel-channel values to
+     *                     byte values
+     * @param format The channel order of the buffer
      */
 
-    private int readPixelFromBuffer(@NonNull ByteBuffer buffer, boolean quantized, @Nullable PixelDenormalizer denormalizer) {
+    private static void readPixelsFromBuffer(@NonNull ByteBuffer buffer, @NonNull int[] pixels, int offset, int count, boolean quantized, @Nullable PixelDenormalizer denormalizer, @NonNull PixelFormat format) {
+        boolean bgr = format == PixelFormat.BGR;
+        int end = offset + count;
+
         if (quantized) {
-            int r = buffer.get();
-            int g = buffer.get();
-            int b = buffer.get();
-            return ( 0xFF000000 | (r << 16) & 0x00FF0000| (g << 8) & 0x0000FF00 | b & 0x000000FF );
-        }
-        else {
-            float r = buffer.getFloat();
-            float g = buffer.getFloat();
-            float b = buffer.getFloat();
-
-            int rr, gg, bb;
-
-            if (denormalizer != null) {
-                rr = denormalizer.denormalize(r, 0);
-                gg = denormalizer.denormalize(g, 1);
-                bb = denormalizer.denormalize(b, 2);
-            } else {
-                rr = (int)r;
-                gg = (int)g;
-                bb = (int)b;
+            for (int i = offset; i < end; i++) {
+                int first = buffer.get();
+                int g = buffer.get();
+                int last = buffer.get();
+                pixels[i] = bgr ? PixelDenormalizer.pack(last, g, first) : PixelDenormalizer.pack(first, g, last);
+            }
+        } else if (denormalizer != null) {
+            for (int i = offset; i < end; i++) {
+                float first = buffer.getFloat();
+                float g = buffer.getFloat();
+                float last = buffer.getFloat();
+                pixels[i] = bgr ? denormalizer.denormalizePixel(last, g, first) : denormalizer.denormalizePixel(first, g, last);
+            }
+        } else {
+            for (int i = offset; i < end; i++) {
+                int first = (int) buffer.getFloat();
+                int g = (int) buffer.getFloat();
+                int last = (int) buffer.getFloat();
+                pixels[i] = bgr ? PixelDenormalizer.pack(last, g, first) : PixelDenormalizer.pack(first, g, last);
             }
-
-            return 0xFF000000 | (rr << 16) & 0x00FF0000| (gg << 8) & 0x0000FF00 | bb & 0x000000FF;
         }
     }
 
@@ -248,7 +432,7 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
     //region Exceptions
 
     private static IllegalArgumentException BadInputException() {
-        return new IllegalArgumentException("Expected Bitmap input to the converter");
+        return new IllegalArgumentException("Expected Bitmap, BitmapRegion, CameraFrame, EncodedImage, ImagePipeline.Input, or PixelSource input to the converter");
     }
 
     //endRegion
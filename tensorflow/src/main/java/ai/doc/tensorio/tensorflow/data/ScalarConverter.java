@@ -173,9 +173,7 @@ public class ScalarConverter implements ai.doc.tensorio.core.data.Converter, Con
         if (quantized && quantizer == null) {
             throw MissingQuantizeException();
         } else if (quantized) {
-            for (float v: floats) {
-                buffer.put((byte)quantizer.quantize(v));
-            }
+            quantizer.quantize(floats, buffer);
         } else {
             FloatBuffer f = buffer.asFloatBuffer();
             f.put(floats);
@@ -276,13 +274,13 @@ public class ScalarConverter implements ai.doc.tensorio.core.data.Converter, Con
 
         if (quantized && dequantizer == null) {
             // DataType.UInt8
-            return buffer.array();
+            byte[] result = new byte[length];
+            buffer.get(result);
+            return result;
         } else if (quantized) {
             // DataType.UInt8 but dequantized to floats
             float[] result = new float[length];
-            for (int i = 0; i < length; i++) {
-                result[i] = dequantizer.dequantize((int) ( buffer.get() & 0xFF ) );
-            }
+            dequantizer.dequantize(buffer, result, length);
             return result;
         } else if (dtype == DataType.Int32) {
             int[] result = new int[length];
@@ -30,6 +30,7 @@ import java.nio.IntBuffer;
 import java.nio.LongBuffer;
 
 import ai.doc.tensorio.core.data.Dequantizer;
+import ai.doc.tensorio.core.data.OutputDestinations;
 import ai.doc.tensorio.core.data.Quantizer;
 import ai.doc.tensorio.core.layerinterface.DataType;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
@@ -173,9 +174,7 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
         if (quantized && quantizer == null) {
             throw MissingQuantizeException();
         } else if (quantized) {
-            for (float v: floats) {
-                buffer.put((byte)quantizer.quantize(v));
-            }
+            quantizer.quantize(floats, buffer);
         } else {
             FloatBuffer f = buffer.asFloatBuffer();
             f.put(floats);
@@ -259,6 +258,27 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
 
     @Override
     public Object fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description) {
+        return fromByteBuffer(buffer, description, null);
+    }
+
+    /**
+     * Reads a ByteBuffer into a caller-provided destination, avoiding a new allocation on every
+     * call, or into a new array if no destination is provided.
+     *
+     * The destination may be an array of the type that would otherwise be returned and of the
+     * layer's length, or a ByteBuffer with the same capacity as the layer's buffer, into which the
+     * raw bytes are copied without dequantizing them. A quantized layer also copies its raw bytes
+     * into a byte[] destination, so that its output may be post-processed without dequantizing
+     * it, see `TopK.selectQuantized`.
+     *
+     * @param buffer The buffer to read from
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination The destination to read into, may be null
+     * @return The destination if one is provided, otherwise a new array
+     * @throws IllegalArgumentException If the destination's length does not match the layer's
+     */
+
+    public Object fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @Nullable Object destination) throws IllegalArgumentException {
 
         // Acquire needed properties from layer description
 
@@ -272,34 +292,68 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
 
         buffer.rewind();
 
+        // Copy raw bytes to a buffer destination
+
+        if (destination instanceof ByteBuffer) {
+            ByteBuffer bytes = ((ByteBuffer) destination).duplicate();
+            bytes.rewind();
+            OutputDestinations.checkLength(buffer.remaining(), bytes.capacity());
+            bytes.put(buffer);
+            return destination;
+        }
+
         // Fork on quantized and dtype, could probably use to clean this logic up
 
-        if (quantized && dequantizer == null) {
+        if (quantized && (dequantizer == null || destination instanceof byte[])) {
             // DataType.UInt8
-            return buffer.array();
+            byte[] result = destination instanceof byte[] ? validDestination((byte[]) destination, length) : new byte[length];
+            buffer.get(result);
+            return result;
         } else if (quantized) {
             // DataType.UInt8 but dequantized to floats
-            float[] result = new float[length];
-            for (int i = 0; i < length; i++) {
-                result[i] = dequantizer.dequantize((int) ( buffer.get() & 0xFF ) );
-            }
+            float[] result = destination instanceof float[] ? validDestination((float[]) destination, length) : new float[length];
+            dequantizer.dequantize(buffer, result, length);
             return result;
         } else if (dtype == DataType.Int32) {
-            int[] result = new int[length];
+            int[] result = destination instanceof int[] ? validDestination((int[]) destination, length) : new int[length];
             buffer.asIntBuffer().get(result);
             return result;
         } else if (dtype == DataType.Int64) {
-            long[] result = new long[length];
+            long[] result = destination instanceof long[] ? validDestination((long[]) destination, length) : new long[length];
             buffer.asLongBuffer().get(result);
             return result;
         } else {
             // DataType.Float32 or DataType.Unknown
-            float[] result = new float[length];
+            float[] result = destination instanceof float[] ? validDestination((float[]) destination, length) : new float[length];
             buffer.asFloatBuffer().get(result);
             return result;
         }
     }
 
+    //region Utilities
+
+    private static byte[] validDestination(@NonNull byte[] destination, int length) throws IllegalArgumentException {
+        OutputDestinations.checkLength(length, destination.length);
+        return destination;
+    }
+
+    private static float[] validDestination(@NonNull float[] destination, int length) throws IllegalArgumentException {
+        OutputDestinations.checkLength(length, destination.length);
+        return destination;
+    }
+
+    private static int[] validDestination(@NonNull int[] destination, int length) throws IllegalArgumentException {
+        OutputDestinations.checkLength(length, destination.length);
+        return destination;
+    }
+
+    private static long[] validDestination(@NonNull long[] destination, int length) throws IllegalArgumentException {
+        OutputDestinations.checkLength(length, destination.length);
+        return destination;
+    }
+
+    //endRegion
+
     //region Exceptions
 
     private static IllegalArgumentException BadInputException() {
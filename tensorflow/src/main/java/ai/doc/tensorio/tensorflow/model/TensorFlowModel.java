@@ -25,18 +25,24 @@ import android.graphics.Bitmap;
 import java.util.Map;
 
 import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.EncodedImageDecoder;
+import ai.doc.tensorio.core.data.OutputDestinations;
+import ai.doc.tensorio.core.data.PixelScratch;
+import ai.doc.tensorio.core.data.PixelSink;
 import ai.doc.tensorio.core.data.Placeholders;
+import ai.doc.tensorio.core.model.LazyOutputs;
 import ai.doc.tensorio.core.model.Model;
+import ai.doc.tensorio.core.model.ModelOutputs;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
 
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
-import ai.doc.tensorio.core.model.IO;
+import ai.doc.tensorio.core.model.BindingPlan;
 
 import ai.doc.tensorio.core.training.TrainableModel;
 import ai.doc.tensorio.core.modelbundle.FileModelBundle;
@@ -64,7 +70,17 @@ public class TensorFlowModel extends Model implements TrainableModel {
     // Buffer Caching
 
     private boolean cacheBuffers = true;
-    private Map<LayerInterface, ByteBuffer> bufferCache = null;
+
+    // Binding Plan
+
+    /** Binds each input, placeholder, and output layer to its converter, compiled when the model is loaded */
+
+    private BindingPlan<ByteBuffer, ByteBuffer> plan = null;
+
+    /** The tensors passed to the session, reused across calls */
+
+    private Tensor[] inputTensors = null;
+    private Tensor[] outputTensors = null;
 
     // Data Converters
 
@@ -73,6 +89,73 @@ public class TensorFlowModel extends Model implements TrainableModel {
     final private StringConverter stringConverter = new StringConverter();
     final private ScalarConverter scalarConverter = new ScalarConverter();
 
+    /** Resolves the converters for each layer when the binding plan is compiled */
+
+    final private BindingPlan.Compiler<ByteBuffer, ByteBuffer> planCompiler = new BindingPlan.Compiler<ByteBuffer, ByteBuffer>() {
+
+        @Override
+        public ByteBuffer allocate(@NonNull LayerInterface layer) {
+            return layer.mapCase(
+                    (vectorLayer) -> vectorConverter.createBackingBuffer(vectorLayer, 1),
+                    (pixelLayer) -> bitmapConverter.createBackingBuffer(pixelLayer, 1),
+                    (stringLayer) -> stringConverter.createBackingBuffer(stringLayer, 1),
+                    (scalarLayer) -> scalarConverter.createBackingBuffer(scalarLayer, 1));
+        }
+
+        @Override
+        public BindingPlan.Encoder<ByteBuffer> encoder(@NonNull LayerInterface layer) {
+            return layer.mapCase(
+                    (vectorLayer) -> (input, buffer) -> vectorConverter.toByteBuffer(input, vectorLayer, buffer),
+                    (pixelLayer) -> {
+                        EncodedImageDecoder decoder = new EncodedImageDecoder();
+                        return (input, buffer) -> (input instanceof EncodedImage)
+                                ? bitmapConverter.toByteBuffer((EncodedImage) input, pixelLayer, buffer, decoder)
+                                : bitmapConverter.toByteBuffer(input, pixelLayer, buffer);
+                    },
+                    (stringLayer) -> (input, buffer) -> stringConverter.toByteBuffer(input, stringLayer, buffer),
+                    (scalarLayer) -> (input, buffer) -> scalarConverter.toByteBuffer(input, scalarLayer, buffer));
+        }
+
+        @Override
+        public BindingPlan.Decoder<ByteBuffer> decoder(@NonNull LayerInterface layer) {
+
+            // If the vector's output is labeled, return a Map of keys to values rather than raw values
+            // Pixel layers decode through scratch space held by the layer's slot
+
+            return layer.mapCase(
+                    (vectorLayer) -> vectorLayer.isLabeled()
+                            ? (buffer) -> vectorLayer.labeledValues((float[]) vectorConverter.fromByteBuffer(buffer, vectorLayer))
+                            : (buffer) -> vectorConverter.fromByteBuffer(buffer, vectorLayer),
+                    (pixelLayer) -> {
+                        PixelScratch scratch = new PixelScratch();
+                        return (buffer) -> bitmapConverter.fromByteBuffer(buffer, pixelLayer, null, scratch);
+                    },
+                    (stringLayer) -> (buffer) -> stringConverter.fromByteBuffer(buffer, stringLayer),
+                    (scalarLayer) -> (buffer) -> scalarConverter.fromByteBuffer(buffer, scalarLayer));
+        }
+
+        @Override
+        public BindingPlan.DecoderInto<ByteBuffer> decoderInto(@NonNull LayerInterface layer) {
+
+            // A labeled vector is decoded to raw values when a destination is provided for it
+
+            return layer.mapCase(
+                    (vectorLayer) -> vectorLayer.isLabeled()
+                            ? (buffer, destination) -> OutputDestinations.isDestination(destination)
+                                    ? vectorConverter.fromByteBuffer(buffer, vectorLayer, destination)
+                                    : vectorLayer.labeledValues((float[]) vectorConverter.fromByteBuffer(buffer, vectorLayer))
+                            : (buffer, destination) -> vectorConverter.fromByteBuffer(buffer, vectorLayer, destination),
+                    (pixelLayer) -> {
+                        PixelScratch scratch = new PixelScratch();
+                        return (buffer, destination) -> (destination instanceof PixelSink)
+                                ? bitmapConverter.fromByteBufferInto(buffer, pixelLayer, (PixelSink) destination)
+                                : bitmapConverter.fromByteBuffer(buffer, pixelLayer, destination instanceof Bitmap ? (Bitmap) destination : null, scratch);
+                    },
+                    (stringLayer) -> null,
+                    (scalarLayer) -> null);
+        }
+    };
+
     public TensorFlowModel(@NonNull ModelBundle bundle) {
         super(bundle);
     }
@@ -87,11 +170,9 @@ public class TensorFlowModel extends Model implements TrainableModel {
             return;
         }
 
-        // Prepare Buffer Cache
+        // Compile Binding Plan
 
-        if (cacheBuffers) {
-            prepareBufferCache();
-        }
+        preparePlan();
 
         // Load Model
 
@@ -118,30 +199,14 @@ public class TensorFlowModel extends Model implements TrainableModel {
         super.unload();
     }
 
-    /** Create buffer caches that are used for model inputs and outputs */
+    /** Compiles the binding plan used for model inputs, placeholders, and outputs */
 
-    // TODO: We're only actually caching input buffers at the moment
     // TODO: Consider caching tensors as well but then batch size must remain consistent
 
-    void prepareBufferCache() {
-        bufferCache = new HashMap<>();
-
-        List<LayerInterface> layers = new ArrayList<>();
-        layers.addAll(getIO().getInputs().all());
-        layers.addAll(getIO().getPlaceholders().all());
-        layers.addAll(getIO().getOutputs().all());
-
-        for (LayerInterface layer : layers) {
-            layer.doCase((vectorLayer) -> {
-                bufferCache.put(layer, vectorConverter.createBackingBuffer(vectorLayer, 1));
-            }, (pixelLayer) -> {
-                bufferCache.put(layer, bitmapConverter.createBackingBuffer(pixelLayer, 1));
-            }, (stringLayer) -> {
-                bufferCache.put(layer, stringConverter.createBackingBuffer(stringLayer, 1));
-            }, (scalarLayer) -> {
-                bufferCache.put(layer, scalarConverter.createBackingBuffer(scalarLayer, 1));
-            });
-        }
+    void preparePlan() {
+        plan = BindingPlan.compile(getIO(), planCompiler, cacheBuffers);
+        inputTensors = new Tensor[plan.inputCount() + plan.placeholderCount()];
+        outputTensors = new Tensor[plan.outputCount()];
     }
 
     @Override
@@ -208,86 +273,166 @@ public class TensorFlowModel extends Model implements TrainableModel {
         validateInput(inputs);
         load();
 
-        // Fetch the input and output layer descriptions from the model
+        // Prepare input, placeholder, and output tensors
 
-        IO.IOList inputList = getIO().getInputs();
-        IO.IOList placeholdersList = getIO().getPlaceholders();
-        IO.IOList outputList = getIO().getOutputs();
+        prepareInputTensors(inputs, placeholders);
+        prepareOutputTensors();
 
-        // Prepare input tensors
+        // Run the model on the input tensors, store the output in the output tensors
 
-        Tensor[] inputTensors = new Tensor[inputList.size() + placeholdersList.size()];
+        interpreter.run(inputTensors, outputTensors);
 
-        for (int i = 0; i < inputList.size(); i++){
-            LayerInterface inputLayer = inputList.get(i);
+        // Convert output buffers to user land objects
 
-            String name = inputLayer.getName();
-            int[] shape = inputLayer.getTensorShape();
-            DataType dtype = tensorDataType(inputLayer.getDtype());
-            boolean isScalar = inputLayer.getType() == LayerInterface.Type.Scalar;
+        return captureOutputs(outputTensors);
+    }
 
-            // Batch size of 1
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
+    /**
+     * Perform inference on a map of objects, decoding the outputs directly into caller-provided
+     * destinations
+     */
+
+    @Override
+    public Map<String, Object> runOnInto(@NonNull Map<String, Object> inputs, @NonNull Map<String, Object> outputs) throws ModelException, IllegalArgumentException {
+        validatePlaceholders(null);
+        validateInput(inputs);
+        load();
+
+        // Prepare input and output tensors
+
+        prepareInputTensors(inputs, null);
+        prepareOutputTensors();
+
+        // Run the model on the input tensors, store the output in the output tensors
+
+        interpreter.run(inputTensors, outputTensors);
+
+        // Decode the output buffers into the destinations
 
-            Object input = Objects.requireNonNull(inputs.get(name));
-            ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer);
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            tensor.setBytes(inputBuffer);
-            inputTensors[i] = tensor;
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            outputs.put(slot.getName(), slot.decodeInto(outputTensors[i].getBytes(), outputs.get(slot.getName())));
         }
 
-        // Prepare placeholders, which are just added to the input tensors
+        return outputs;
+    }
+
+    /**
+     * Perform inference on a map of objects, decoding each output directly into the value the
+     * outputs container already holds for it
+     */
 
-        for (int i = 0; i < placeholdersList.size(); i++) {
-            LayerInterface placeholderLayer = placeholdersList.get(i);
+    @Override
+    public ModelOutputs runOnInto(@NonNull Map<String, Object> inputs, @NonNull ModelOutputs outputs) throws ModelException, IllegalArgumentException {
+        validatePlaceholders(null);
+        validateInput(inputs);
+        validateOutputs(outputs);
+        load();
 
-            String name = placeholderLayer.getName();
-            int[] shape = placeholderLayer.getTensorShape();
-            DataType dtype = tensorDataType(placeholderLayer.getDtype());
-            boolean isScalar = placeholderLayer.getType() == LayerInterface.Type.Scalar;
+        // Prepare input and output tensors
 
-            // Batch size of 1
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
+        prepareInputTensors(inputs, null);
+        prepareOutputTensors();
 
-            Object placeholder = Objects.requireNonNull(placeholders.get(name));
-            ByteBuffer placeholderBuffer = prepareInputBuffer(placeholder, placeholderLayer);
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            tensor.setBytes(placeholderBuffer);
-            inputTensors[inputList.size()+i] = tensor;
+        // Run the model on the input tensors, store the output in the output tensors
+
+        interpreter.run(inputTensors, outputTensors);
+
+        // Decode the output buffers into the container's values
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            outputs.set(i, plan.output(i).decodeInto(outputTensors[i].getBytes(), outputs.get(i)));
         }
 
-        // Prepare output tensors
+        return outputs;
+    }
+
+    /**
+     * Perform inference on a batch of items with a single run of the session.
+     *
+     * @param batch A batch of items, each of which maps input layer names to arbitrary objects
+     * @return results of running the model, one map of output layer names to values per item
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs or if the model's layers are not batched
+     */
+
+    @Override
+    public List<Map<String, Object>> runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        return runOn(batch, null);
+    }
+
+    /**
+     * Perform inference on a batch of items with placeholders with a single run of the session.
+     *
+     * Every input and output layer must be batched, that is, its shape must have a leading -1
+     * dimension, which is set to the size of the batch. Placeholders are not batched and are
+     * shared by every item. Each output tensor is sliced along its leading dimension into results
+     * for each item.
+     *
+     * @param batch A batch of items, each of which maps input layer names to arbitrary objects
+     * @param placeholders A mapping of placeholder layer names to arbitrary objects, may be null
+     * @return results of running the model, one map of output layer names to values per item, in
+     * the order of the items in the batch
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs or if the model's layers are not batched
+     */
 
-        Tensor[] outputTensors = new Tensor[outputList.size()];
+    public List<Map<String, Object>> runOn(@NonNull Batch batch, @Nullable Placeholders placeholders) throws ModelException, IllegalArgumentException {
+        validatePlaceholders(placeholders);
+        validateInput(batch);
+        validateBatched();
+        load();
 
-        for (int i = 0; i < outputList.size(); i++) {
-            LayerInterface outputLayer = outputList.get(i);
+        if (batch.size() == 0) {
+            return new ArrayList<>();
+        }
 
-            String name = outputLayer.getName();
-            int[] shape = outputLayer.getTensorShape();
-            DataType dtype = tensorDataType(outputLayer.getDtype());
-            boolean isScalar = outputLayer.getType() == LayerInterface.Type.Scalar;
+        int batchSize = batch.size();
 
-            // Batch size of 1
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
+        // Prepare input tensors, encoding every item into a single buffer per layer
 
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            outputTensors[i] = tensor;
+        for (int i = 0; i < plan.inputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(i);
+            Batch.Column column = batch.column(slot.getName());
+            inputTensors[i] = createTensor(slot, batchShape(slot, batchSize), prepareBatchBuffer(column, batchSize, slot));
         }
 
-        // Run the model on the input tensors, store the output in the output tensors
+        // Prepare placeholders, which are not batched and are just added to the input tensors
+
+        preparePlaceholderTensors(placeholders);
+
+        // Prepare output tensors
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            outputTensors[i] = createTensor(slot, batchShape(slot, batchSize), null);
+        }
+
+        // Run the model once on the entire batch
 
         interpreter.run(inputTensors, outputTensors);
 
-        // Convert output buffers to user land objects
+        // Slice each output tensor along its leading dimension into user land objects for each item
 
-        return captureOutputs(outputTensors);
+        List<Map<String, Object>> results = new ArrayList<>(batchSize);
+
+        for (int j = 0; j < batchSize; j++) {
+            results.add(new HashMap<>(plan.outputCount()));
+        }
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            ByteBuffer buffer = outputTensors[i].getBytes();
+            int itemLength = buffer.capacity() / batchSize;
+
+            for (int j = 0; j < batchSize; j++) {
+                results.get(j).put(slot.getName(), slot.decode(slice(buffer, j * itemLength, itemLength)));
+            }
+        }
+
+        return results;
     }
 
     /**
@@ -307,35 +452,119 @@ public class TensorFlowModel extends Model implements TrainableModel {
     }
 
     /**
-     * Prepares a ByteBuffer that will be used for input to a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be resued.
+     * Prepares the input tensors for a single item, followed by the placeholder tensors. If buffer
+     * caching is used then the buffers that have been associated with each layer will be reused.
+     *
+     * @param inputs A mapping from input layer names to input values
+     * @param placeholders A mapping from placeholder layer names to values, may be null
+     * @throws IllegalArgumentException raised if an input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private void prepareInputTensors(@NonNull Map<String, Object> inputs, @Nullable Placeholders placeholders) throws IllegalArgumentException {
+        for (int i = 0; i < plan.inputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(i);
+            Object input = Objects.requireNonNull(inputs.get(slot.getName()));
+            inputTensors[i] = createTensor(slot, slot.getShape(), slot.encode(input));
+        }
+
+        preparePlaceholderTensors(placeholders);
+    }
+
+    /**
+     * Prepares the placeholder tensors, which follow the input tensors. Placeholders always have a
+     * batch size of one.
      *
-     * @param input The input to convert to a byte buffer
-     * @param inputLayer The interface to the layer that this buffer will be used with
-     * @return ByteBuffer ready for input to a model
+     * @param placeholders A mapping from placeholder layer names to values, may be null
+     * @throws IllegalArgumentException raised if a placeholder cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private void preparePlaceholderTensors(@Nullable Placeholders placeholders) throws IllegalArgumentException {
+        for (int i = 0; i < plan.placeholderCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.placeholder(i);
+            Object placeholder = Objects.requireNonNull(placeholders.get(slot.getName()));
+            inputTensors[plan.inputCount() + i] = createTensor(slot, slot.getShape(), slot.encode(placeholder));
+        }
+    }
+
+    /** Prepares the output tensors for a single item */
+
+    private void prepareOutputTensors() {
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            outputTensors[i] = createTensor(slot, slot.getShape(), null);
+        }
+    }
+
+    /**
+     * Creates a tensor for a layer
+     *
+     * @param slot The binding plan slot for the layer
+     * @param shape The tensor's shape, with any batch dimension resolved
+     * @param bytes The tensor's data, or null for an output tensor
+     * @return A tensor named for the layer
+     */
+
+    private Tensor createTensor(@NonNull BindingPlan.Slot<ByteBuffer, ByteBuffer> slot, @NonNull int[] shape, @Nullable ByteBuffer bytes) {
+        LayerInterface layer = slot.getLayer();
+        DataType dtype = tensorDataType(layer.getDtype());
+        boolean isScalar = layer.getType() == LayerInterface.Type.Scalar;
+
+        Tensor tensor = new Tensor(dtype, shape, isScalar, slot.getName());
+
+        if (bytes != null) {
+            tensor.setBytes(bytes);
+        }
+
+        return tensor;
+    }
+
+    /** Returns a layer's shape with its leading dimension set to the size of the batch */
+
+    private static int[] batchShape(@NonNull BindingPlan.Slot<ByteBuffer, ByteBuffer> slot, int batchSize) {
+        int[] shape = slot.getShape().clone();
+        shape[0] = batchSize;
+        return shape;
+    }
+
+    /**
+     * Prepares a ByteBuffer holding every item in a batch for a single input layer. Primitive
+     * columns are copied into the buffer in bulk, otherwise each item is encoded directly into its
+     * region of the buffer, which is reused across batches of the same or a smaller size if buffer
+     * caching is used.
+     *
+     * @param column The values for the layer, one per item in the batch
+     * @param batchSize The number of items in the batch
+     * @param slot The binding plan slot for the layer that this buffer will be used with
+     * @return ByteBuffer whose capacity is exactly the size of the batch's data
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private ByteBuffer prepareInputBuffer(@NonNull Object input, @NonNull LayerInterface inputLayer) throws IllegalArgumentException {
-        final AtomicReference<ByteBuffer> inputBuffer = new AtomicReference<>();
-        final ByteBuffer cachedBuffer = cacheBuffers ? bufferCache.get(inputLayer) : null;
+    private static ByteBuffer prepareBatchBuffer(@NonNull Batch.Column column, int batchSize, @NonNull BindingPlan.Slot<ByteBuffer, ByteBuffer> slot) throws IllegalArgumentException {
+        int itemLength = slot.getByteLength();
+        int length = itemLength * batchSize;
 
-        inputLayer.doCase((vectorLayer) -> {
-            ByteBuffer buffer = vectorConverter.toByteBuffer(input, vectorLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (pixelLayer) -> {
-            ByteBuffer buffer = bitmapConverter.toByteBuffer(input, pixelLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (stringLayer) -> {
-            ByteBuffer buffer = stringConverter.toByteBuffer(input, stringLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (scalarLayer) -> {
-            ByteBuffer buffer = scalarConverter.toByteBuffer(input, scalarLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        });
+        ByteBuffer buffer = slice(slot.batchBuffer(length), 0, length);
 
-        return inputBuffer.get();
+        if (!column.writeTo(buffer, slot.getLayer())) {
+            for (int j = 0; j < batchSize; j++) {
+                slot.encode(column.get(j), slice(buffer, j * itemLength, itemLength));
+            }
+        }
+
+        return buffer;
+    }
+
+    /** Returns a view of a region of a buffer in the buffer's byte order, with the view positioned at zero */
+
+    private static ByteBuffer slice(@NonNull ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.clear();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice().order(buffer.order());
     }
 
     /**
@@ -358,69 +587,33 @@ public class TensorFlowModel extends Model implements TrainableModel {
     }
 
     /**
-     * Converts captured ByteBuffers from a model's output to user land Objects
+     * Captures ByteBuffers from a model's output as user land Objects which are decoded when they
+     * are first read. Every run creates new output tensors, so they are held without a copy. A
+     * single output is decoded right away instead, since the caller reads it anyway.
      * @param tensors The output tensors containing the output byte buffers
      * @return A Map of keys to user land objects capturing the model's outputs
      */
 
     private Map<String, Object> captureOutputs(@NonNull Tensor[] tensors) {
-        IO.IOList outputList = getIO().getOutputs();
-        Map<String, Object> outputMap = new HashMap<>(outputList.size());
+        if (plan.outputCount() == 1) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(0);
+            Map<String, Object> outputMap = new HashMap<>(1);
+            outputMap.put(slot.getName(), slot.decode(tensors[0].getBytes()));
+            return outputMap;
+        }
 
-        for (int i = 0; i < outputList.size(); i++){
-            LayerInterface layer = outputList.get(i);
-            String name = layer.getName();
+        LazyOutputs outputMap = new LazyOutputs(plan.outputCount());
 
-            ByteBuffer buffer = tensors[i].getBytes();
-            Object o = captureOutput(buffer, layer);
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            Tensor tensor = tensors[i];
 
-            outputMap.put(name, o);
+            outputMap.putLazily(slot.getName(), () -> slot.decodeDetached(tensor.getBytes()));
         }
 
         return outputMap;
     }
 
-    /**
-     * Converts a single ByteBuffer to a user land object
-     * @param buffer The buffer to capture and convert
-     * @param layer The interface to the output
-     * @return An object in accordance with the layer description, usually one of byte[], float[],
-     * or Bitmap
-     */
-
-    private Object captureOutput(@NonNull ByteBuffer buffer, @NonNull LayerInterface layer) {
-        final AtomicReference<Object> output = new AtomicReference<>();
-
-        layer.doCase((vectorLayer) -> {
-            Object o = vectorConverter.fromByteBuffer(buffer, vectorLayer);
-
-            // If the vector's output is labeled, return a Map of keys to values rather than raw values
-
-            if (vectorLayer.isLabeled()) {
-                o = vectorLayer.labeledValues((float[])o);
-            }
-
-            // If the output vector is single valued, return the value directly; See #33 and #34
-
-            // if (((float[])o).length == 1) {
-            //    o = ((float[])o)[0];
-            // }
-
-            output.set(o);
-        }, (pixelLayer) -> {
-            Object o = bitmapConverter.fromByteBuffer(buffer, pixelLayer);
-            output.set(o);
-        }, (stringLayer) -> {
-            Object o = stringConverter.fromByteBuffer(buffer, stringLayer);
-            output.set(o);
-        }, (scalarLayer) -> {
-            Object o = scalarConverter.fromByteBuffer(buffer, scalarLayer);
-            output.set(o);
-        });
-
-        return output.get();
-    }
-
     //region Train
 
     // The train methods are the primary interface to a concrete training implementation
@@ -445,78 +638,10 @@ public class TensorFlowModel extends Model implements TrainableModel {
         validateInput(inputs);
         load();
 
-        // Fetch the input and output layer descriptions from the model
-
-        IO.IOList inputList = getIO().getInputs();
-        IO.IOList placeholdersList = getIO().getPlaceholders();
-        IO.IOList outputList = getIO().getOutputs();
-
-        // Prepare input tensors
+        // Prepare input, placeholder, and output tensors
 
-        Tensor[] inputTensors = new Tensor[inputList.size() + placeholdersList.size()];
-
-        for (int i = 0; i < inputList.size(); i++){
-            LayerInterface inputLayer = inputList.get(i);
-
-            String name = inputLayer.getName();
-            int[] shape = inputLayer.getTensorShape();
-            DataType dtype = tensorDataType(inputLayer.getDtype());
-            boolean isScalar = inputLayer.getType() == LayerInterface.Type.Scalar;
-
-            // Batch size of 1
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
-
-            Object input = Objects.requireNonNull(inputs.get(name));
-            ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer);
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            tensor.setBytes(inputBuffer);
-            inputTensors[i] = tensor;
-        }
-
-        // Prepare placeholders, which are just added to the input tensors
-
-        for (int i = 0; i < placeholdersList.size(); i++) {
-            LayerInterface placeholderLayer = placeholdersList.get(i);
-
-            String name = placeholderLayer.getName();
-            int[] shape = placeholderLayer.getTensorShape();
-            DataType dtype = tensorDataType(placeholderLayer.getDtype());
-            boolean isScalar = placeholderLayer.getType() == LayerInterface.Type.Scalar;
-
-            // Batch size of 1
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
-
-            Object placeholder = Objects.requireNonNull(placeholders.get(name));
-            ByteBuffer placeholderBuffer = prepareInputBuffer(placeholder, placeholderLayer);
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            tensor.setBytes(placeholderBuffer);
-            inputTensors[inputList.size()+i] = tensor;
-        }
-
-        // Prepare output tensors
-
-        Tensor[] outputTensors = new Tensor[outputList.size()];
-
-        for (int i = 0; i < outputList.size(); i++){
-            LayerInterface outputLayer = outputList.get(i);
-
-            String name = outputLayer.getName();
-            int[] shape = outputLayer.getTensorShape();
-            DataType dtype = tensorDataType(outputLayer.getDtype());
-            boolean isScalar = outputLayer.getType() == LayerInterface.Type.Scalar;
-
-            // Batch size of 1
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
-
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            outputTensors[i] = tensor;
-        }
+        prepareInputTensors(inputs, placeholders);
+        prepareOutputTensors();
 
         // Prepare training op names
 
@@ -552,80 +677,27 @@ public class TensorFlowModel extends Model implements TrainableModel {
         validateInput(batch);
         load();
 
-        // Fetch the input and output layer descriptions from the model
-
-        IO.IOList inputList = getIO().getInputs();
-        IO.IOList placeholdersList = getIO().getPlaceholders();
-        IO.IOList outputList = getIO().getOutputs();
-
         // Prepare input tensors
 
-        Tensor[] inputTensors = new Tensor[inputList.size() + placeholdersList.size()];
-
-        for (int i = 0; i < inputList.size(); i++){
-            LayerInterface inputLayer = inputList.get(i);
-
-            String name = inputLayer.getName();
-            int[] shape = inputLayer.getTensorShape();
-            DataType dtype = tensorDataType(inputLayer.getDtype());
-            boolean isScalar = inputLayer.getType() == LayerInterface.Type.Scalar;
+        for (int i = 0; i < plan.inputCount(); i++){
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(i);
 
             // TODO: If model is not batched, this is an error, validate beforehand
-            if (shape[0] == -1) {
-                shape[0] = batch.size();
-            }
+            int[] shape = slot.getLayer().isBatched() ? batchShape(slot, batch.size()) : slot.getShape();
 
-            Object[] input = Objects.requireNonNull(batch.get(name));
-            ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer);
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            tensor.setBytes(inputBuffer);
-            inputTensors[i] = tensor;
+            ByteBuffer inputBuffer = prepareBatchBuffer(batch.column(slot.getName()), batch.size(), slot);
+            inputTensors[i] = createTensor(slot, shape, inputBuffer);
         }
 
         // Prepare placeholders, which are just added to the input tensors
+        // Placeholders should not have a batch dimension
 
-        for (int i = 0; i < placeholdersList.size(); i++) {
-            LayerInterface placeholderLayer = placeholdersList.get(i);
-
-            String name = placeholderLayer.getName();
-            int[] shape = placeholderLayer.getTensorShape();
-            DataType dtype = tensorDataType(placeholderLayer.getDtype());
-            boolean isScalar = placeholderLayer.getType() == LayerInterface.Type.Scalar;
-
-            // Placeholders should not have a batch dimension
-            // Batch size of 1
-
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
-
-            Object placeholder = Objects.requireNonNull(placeholders.get(name));
-            ByteBuffer placeholderBuffer = prepareInputBuffer(placeholder, placeholderLayer);
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            tensor.setBytes(placeholderBuffer);
-            inputTensors[inputList.size()+i] = tensor;
-        }
+        preparePlaceholderTensors(placeholders);
 
         // Prepare output tensors
+        // TODO: No support for batched training output, loss function must return single value
 
-        Tensor[] outputTensors = new Tensor[outputList.size()];
-
-        for (int i = 0; i < outputList.size(); i++){
-            LayerInterface outputLayer = outputList.get(i);
-
-            String name = outputLayer.getName();
-            int[] shape = outputLayer.getTensorShape();
-            DataType dtype = tensorDataType(outputLayer.getDtype());
-            boolean isScalar = outputLayer.getType() == LayerInterface.Type.Scalar;
-
-            // TODO: No support for batched training output, loss function must return single value
-            if (shape[0] == -1) {
-                shape[0] = 1;
-            }
-
-            Tensor tensor = new Tensor(dtype, shape, isScalar, name);
-            outputTensors[i] = tensor;
-        }
+        prepareOutputTensors();
 
         // Prepare training op names
 
@@ -640,43 +712,6 @@ public class TensorFlowModel extends Model implements TrainableModel {
         return captureOutputs(outputTensors);
     }
 
-    /**
-     * Prepares a ByteBuffer that will be used for input to a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be reused.
-     *
-     * @param column The column of data from batched input to convert to a byte buffer
-     * @param inputLayer The interface to the layer that this buffer will be used with
-     * @return ByteBuffer ready for input to a model
-     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
-     *                                  expected by the model
-     */
-
-    // TODO: Cache a byte buffer large enough to hold the batch data
-    // Consumer must provide maximum batch size they will use and then the Tensor will read only
-    // the amount of data it needs from the byte buffer even when the buffer is larger than the
-    // current batch.
-
-    private ByteBuffer prepareInputBuffer(@NonNull Object[] column, @NonNull LayerInterface inputLayer) throws IllegalArgumentException {
-        final AtomicReference<ByteBuffer> inputBuffer = new AtomicReference<>();
-        final ByteBuffer cachedBuffer = null;
-
-        inputLayer.doCase((vectorLayer) -> {
-            ByteBuffer buffer = vectorConverter.toByteBuffer(column, vectorLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (pixelLayer) -> {
-            ByteBuffer buffer = bitmapConverter.toByteBuffer(column, pixelLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (stringLayer) -> {
-            ByteBuffer buffer = stringConverter.toByteBuffer(column, stringLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (scalarLayer) -> {
-            ByteBuffer buffer = scalarConverter.toByteBuffer(column, scalarLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        });
-
-        return inputBuffer.get();
-    }
-
     /** Exports the model checkpoints to a directory, used to write updated checkpoints to disk after training */
 
     public void exportTo(File file) {
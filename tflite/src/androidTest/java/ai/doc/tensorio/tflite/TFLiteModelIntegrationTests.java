@@ -42,6 +42,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ai.doc.tensorio.core.data.Batch;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle.ModelBundleException;
 import ai.doc.tensorio.core.model.Model.ModelException;
@@ -530,6 +531,32 @@ public class TFLiteModelIntegrationTests {
         }
     }
 
+    @Test
+    public void testBatchedInferenceRequiresBatchedLayers() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "1_in_1_out_pixelbuffer_normalization_test.tiobundle");
+            assertNotNull(bundle);
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+            model.load();
+
+            Batch.Item item = new Batch.Item();
+            item.put("image", Bitmap.createBitmap(224, 224, Bitmap.Config.ARGB_8888));
+
+            try {
+                model.runOn(new Batch(item));
+                fail();
+            } catch (IllegalArgumentException e) {
+                // Expected, the model's layers do not have a leading -1 dimension
+            }
+
+        } catch (ModelBundleException | ModelException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
     //region MobileNet tests
 
     @Test
@@ -229,9 +229,7 @@ public class ScalarConverter implements ai.doc.tensorio.core.data.Converter, Con
         if (quantized && quantizer == null) {
             throw MissingQuantizeException();
         } else if (quantized) {
-            for (float v: floats) {
-                buffer.put((byte)quantizer.quantize(v));
-            }
+            quantizer.quantize(floats, buffer);
         } else {
             FloatBuffer f = buffer.asFloatBuffer();
             f.put(floats);
@@ -261,12 +259,12 @@ public class ScalarConverter implements ai.doc.tensorio.core.data.Converter, Con
         // Fork on quantized
 
         if (quantized && dequantizer == null) {
-            return buffer.array();
+            byte[] result = new byte[length];
+            buffer.get(result);
+            return result;
         } else if (quantized) {
             float[] result = new float[length];
-            for (int i = 0; i < length; i++) {
-                result[i] = dequantizer.dequantize((int) ( buffer.get() & 0xFF ) );
-            }
+            dequantizer.dequantize(buffer, result, length);
             return result;
         } else if (dtype == DataType.Int32) {
             int[] result = new int[length];
@@ -31,21 +31,32 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.EncodedImageDecoder;
+import ai.doc.tensorio.core.data.OutputDestinations;
+import ai.doc.tensorio.core.data.PixelScratch;
+import ai.doc.tensorio.core.data.PixelSink;
 import ai.doc.tensorio.core.data.Placeholders;
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.model.BindingPlan;
+import ai.doc.tensorio.core.model.LazyOutputs;
 import ai.doc.tensorio.core.model.Model;
+import ai.doc.tensorio.core.model.ModelOutputs;
 import ai.doc.tensorio.core.modelbundle.AssetModelBundle;
 import ai.doc.tensorio.core.modelbundle.FileModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
-import ai.doc.tensorio.core.model.IO;
 import ai.doc.tensorio.tflite.data.BitmapConverter;
 import ai.doc.tensorio.tflite.data.StringConverter;
 import ai.doc.tensorio.tflite.data.VectorConverter;
@@ -53,6 +64,25 @@ import ai.doc.tensorio.tflite.data.ScalarConverter;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+/**
+ * A TensorFlow Lite model.
+ *
+ * A TFLite model may be backed by a pool of interpreters, all of which share the same memory
+ * mapped model file but each of which has its own delegates and buffer cache. With a pool size
+ * greater than one, multiple threads may call `runOn` on the same model concurrently, and each
+ * call checks out an interpreter from the pool for the duration of inference. The default pool
+ * size is one, in which case concurrent calls are serialized on the single interpreter.
+ *
+ * You may also check out an interpreter yourself with `checkout()`, run the model on it any number
+ * of times with `runOn(PooledInterpreter, Map)`, and then return it to the pool with `checkin()`.
+ *
+ * To run `runOnAsync` calls concurrently, set an executor with as many threads as there are
+ * interpreters in the pool with `setExecutor`. The default executor runs one call at a time.
+ *
+ * Loading, reloading, and unloading the model should not be performed while inference is
+ * underway on other threads.
+ */
+
 public class TFLiteModel extends Model {
 
     public enum HardwareBacking {
@@ -61,12 +91,77 @@ public class TFLiteModel extends Model {
         NNAPI
     }
 
+    /**
+     * An interpreter belonging to a model's interpreter pool. Each pooled interpreter has its own
+     * delegates and binding plan, so that it may be used on one thread while other interpreters
+     * from the same pool are used on other threads.
+     *
+     * Acquire a pooled interpreter with `TFLiteModel.checkout()` and return it with
+     * `TFLiteModel.checkin()`. A pooled interpreter must only be used by one thread at a time.
+     */
+
+    public static final class PooledInterpreter {
+        private final Interpreter interpreter;
+        private final GpuDelegate gpuDelegate;
+        private final NnApiDelegate nnApiDelegate;
+        private final BindingPlan<ByteBuffer, ByteBuffer> plan;
+        private final int generation;
+
+        /** The buffers passed to the interpreter, reused across calls */
+
+        private final Object[] inputBuffers;
+        private final Map<Integer, Object> outputBuffers;
+
+        /** The size of the leading dimension the interpreter's inputs are currently sized for */
+
+        private int batchSize = 1;
+
+        private PooledInterpreter(@NonNull Interpreter interpreter, @Nullable GpuDelegate gpuDelegate, @Nullable NnApiDelegate nnApiDelegate, @NonNull BindingPlan<ByteBuffer, ByteBuffer> plan, int generation) {
+            this.interpreter = interpreter;
+            this.gpuDelegate = gpuDelegate;
+            this.nnApiDelegate = nnApiDelegate;
+            this.plan = plan;
+            this.generation = generation;
+            this.inputBuffers = new Object[plan.inputCount()];
+            this.outputBuffers = new HashMap<>(plan.outputCount());
+        }
+
+        /** The underlying TFLite interpreter */
+
+        public Interpreter getInterpreter() {
+            return interpreter;
+        }
+
+        /** The duration of the most recent inference performed by this interpreter */
+
+        public long getLastInferenceDuration() {
+            Long duration = interpreter.getLastNativeInferenceDurationNanoseconds();
+            return duration == null ? 0 : duration;
+        }
+
+        private void close() {
+            interpreter.close();
+
+            if (gpuDelegate != null) {
+                gpuDelegate.close();
+            }
+
+            if (nnApiDelegate != null) {
+                nnApiDelegate.close();
+            }
+        }
+    }
+
     // TFLite Backend
 
-    private Interpreter interpreter;
     private MappedByteBuffer tfLiteModel;
-    private GpuDelegate gpuDelegate = null;
-    private NnApiDelegate nnApiDelegate = null;
+
+    // Interpreter Pool, guarded by the model's lock, which threads waiting for an interpreter wait on
+
+    private int poolSize = 1;
+    private int poolGeneration = 0;
+    private final ArrayDeque<PooledInterpreter> pool = new ArrayDeque<>();
+    private volatile PooledInterpreter lastInterpreter = null;
 
     // TFLite Backend Options
 
@@ -77,7 +172,6 @@ public class TFLiteModel extends Model {
     // Buffer Caching
 
     private boolean cacheBuffers = true;
-    private Map<LayerInterface, ByteBuffer> bufferCache = null;
 
     // Data Converters
 
@@ -86,6 +180,73 @@ public class TFLiteModel extends Model {
     final private StringConverter stringConverter = new StringConverter();
     final private ScalarConverter scalarConverter = new ScalarConverter();
 
+    // Binding Plan
+
+    /** Resolves the converters for each layer when an interpreter's binding plan is compiled */
+
+    final private BindingPlan.Compiler<ByteBuffer, ByteBuffer> planCompiler = new BindingPlan.Compiler<ByteBuffer, ByteBuffer>() {
+
+        @Override
+        public ByteBuffer allocate(@NonNull LayerInterface layer) {
+            return layer.mapCase(
+                    vectorConverter::createBackingBuffer,
+                    bitmapConverter::createBackingBuffer,
+                    stringConverter::createBackingBuffer,
+                    scalarConverter::createBackingBuffer);
+        }
+
+        @Override
+        public BindingPlan.Encoder<ByteBuffer> encoder(@NonNull LayerInterface layer) {
+            return layer.mapCase(
+                    (vectorLayer) -> (input, buffer) -> vectorConverter.toByteBuffer(input, vectorLayer, buffer),
+                    (pixelLayer) -> {
+                        EncodedImageDecoder decoder = new EncodedImageDecoder();
+                        return (input, buffer) -> (input instanceof EncodedImage)
+                                ? bitmapConverter.toByteBuffer((EncodedImage) input, pixelLayer, buffer, decoder)
+                                : bitmapConverter.toByteBuffer(input, pixelLayer, buffer);
+                    },
+                    (stringLayer) -> (input, buffer) -> stringConverter.toByteBuffer(input, stringLayer, buffer),
+                    (scalarLayer) -> (input, buffer) -> scalarConverter.toByteBuffer(input, scalarLayer, buffer));
+        }
+
+        @Override
+        public BindingPlan.Decoder<ByteBuffer> decoder(@NonNull LayerInterface layer) {
+            // If the vector's output is labeled, return a Map of keys to values rather than raw values
+            // Pixel layers decode through scratch space held by the layer's slot
+
+            return layer.mapCase(
+                    (vectorLayer) -> vectorLayer.isLabeled()
+                            ? (buffer) -> vectorLayer.labeledValues((float[]) vectorConverter.fromByteBuffer(buffer, vectorLayer))
+                            : (buffer) -> vectorConverter.fromByteBuffer(buffer, vectorLayer),
+                    (pixelLayer) -> {
+                        PixelScratch scratch = new PixelScratch();
+                        return (buffer) -> bitmapConverter.fromByteBuffer(buffer, pixelLayer, null, scratch);
+                    },
+                    (stringLayer) -> (buffer) -> stringConverter.fromByteBuffer(buffer, stringLayer),
+                    (scalarLayer) -> (buffer) -> scalarConverter.fromByteBuffer(buffer, scalarLayer));
+        }
+
+        @Override
+        public BindingPlan.DecoderInto<ByteBuffer> decoderInto(@NonNull LayerInterface layer) {
+            // A labeled vector is decoded to raw values when a destination is provided for it
+
+            return layer.mapCase(
+                    (vectorLayer) -> vectorLayer.isLabeled()
+                            ? (buffer, destination) -> OutputDestinations.isDestination(destination)
+                                    ? vectorConverter.fromByteBuffer(buffer, vectorLayer, destination)
+                                    : vectorLayer.labeledValues((float[]) vectorConverter.fromByteBuffer(buffer, vectorLayer))
+                            : (buffer, destination) -> vectorConverter.fromByteBuffer(buffer, vectorLayer, destination),
+                    (pixelLayer) -> {
+                        PixelScratch scratch = new PixelScratch();
+                        return (buffer, destination) -> (destination instanceof PixelSink)
+                                ? bitmapConverter.fromByteBufferInto(buffer, pixelLayer, (PixelSink) destination)
+                                : bitmapConverter.fromByteBuffer(buffer, pixelLayer, destination instanceof Bitmap ? (Bitmap) destination : null, scratch);
+                    },
+                    (stringLayer) -> null,
+                    (scalarLayer) -> null);
+        }
+    };
+
     // Backend Options Getters and Setters
 
     /** Sets hardware backend. After calling this method you must call reload() for changes to take effect. */
@@ -118,6 +279,23 @@ public class TFLiteModel extends Model {
         return use16BitPrecision;
     }
 
+    /**
+     * Sets the number of interpreters in the pool, default is 1. Each interpreter shares the memory
+     * mapped model but has its own delegates and buffers, so memory use grows with the size of the
+     * pool. After calling this method you must call reload() for changes to take effect.
+     */
+
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("The interpreter pool size must be at least 1, received " + poolSize);
+        }
+        this.poolSize = poolSize;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
     // Constructor
 
     public TFLiteModel(@NonNull ModelBundle bundle) {
@@ -127,17 +305,11 @@ public class TFLiteModel extends Model {
     //region Lifecycle
 
     @Override
-    public void load() throws ModelException {
+    public synchronized void load() throws ModelException {
         if (isLoaded()) {
             return;
         }
 
-        // Prepare Buffer Cache
-
-        if (cacheBuffers) {
-            prepareBufferCache();
-        }
-
         // Load Model
 
         try {
@@ -146,65 +318,59 @@ public class TFLiteModel extends Model {
             throw new ModelException("Error loading model file", e);
         }
 
-        // Prepare Interpreter
+        // Prepare Interpreters
 
-        createInterpreter();
+        createInterpreters();
 
         super.load();
     }
 
-    /** Recreate the interpreter without reloading the model from disk **/
+    /** Recreate the interpreters without reloading the model from disk **/
 
     @Override
-    public void reload() throws ModelException {
-        if (interpreter != null ) {
-            interpreter.close();
-            interpreter = null;
-        }
-
-        if (gpuDelegate != null) {
-            gpuDelegate.close();
-            gpuDelegate = null;
-        }
-
-        if (nnApiDelegate != null) {
-            nnApiDelegate.close();
-            nnApiDelegate = null;
-        }
-
-        createInterpreter();
+    public synchronized void reload() throws ModelException {
+        closeInterpreters();
+        createInterpreters();
         super.reload();
     }
 
     @Override
-    public void unload() {
+    public synchronized void unload() {
         if (!isLoaded()) {
             return;
         }
 
-        if (interpreter != null ) {
-            interpreter.close();
-            interpreter = null;
-        }
+        closeInterpreters();
+        super.unload();
+    }
 
-        if (gpuDelegate != null) {
-            gpuDelegate.close();
-            gpuDelegate = null;
-        }
+    /** Creates the interpreters in the pool, each with its own delegates and binding plan */
 
-        if (nnApiDelegate != null) {
-            nnApiDelegate.close();
-            nnApiDelegate = null;
+    private void createInterpreters() {
+        for (int i = 0; i < poolSize; i++) {
+            pool.offer(createInterpreter());
         }
+    }
 
-        if (bufferCache != null) {
-            bufferCache = null;
+    /**
+     * Closes the idle interpreters in the pool. Interpreters that are checked out belong to a
+     * previous generation of the pool and are closed when they are checked back in. Threads
+     * waiting for an interpreter are woken to take one from the new pool, or to give up if the
+     * model is being unloaded.
+     */
+
+    private void closeInterpreters() {
+        PooledInterpreter pooled;
+        while ((pooled = pool.poll()) != null) {
+            pooled.close();
         }
 
-        super.unload();
+        poolGeneration++;
+        lastInterpreter = null;
+        notifyAll();
     }
 
-    private void createInterpreter() {
+    private PooledInterpreter createInterpreter() {
 
         // Options
 
@@ -216,6 +382,8 @@ public class TFLiteModel extends Model {
 
         // GPU Delegate
 
+        GpuDelegate gpuDelegate = null;
+
         if (hardwareBacking == HardwareBacking.GPU && GpuDelegateHelper.isGpuDelegateAvailable()) {
             gpuDelegate = (GpuDelegate) GpuDelegateHelper.createGpuDelegate();
             options.addDelegate(gpuDelegate);
@@ -223,35 +391,109 @@ public class TFLiteModel extends Model {
 
         // NNAPI Delegate
 
+        NnApiDelegate nnApiDelegate = null;
+
         if (hardwareBacking == HardwareBacking.NNAPI && NnApiDelegateHelper.isNnApiDelegateAvailable()) {
             nnApiDelegate = (NnApiDelegate) NnApiDelegateHelper.createNnApiDelegate();
             options.addDelegate(nnApiDelegate);
         }
 
+        // Binding Plan
+
+        BindingPlan<ByteBuffer, ByteBuffer> plan = BindingPlan.compile(getIO(), planCompiler, cacheBuffers);
+
         // Interpreter
 
-        interpreter = new Interpreter(tfLiteModel, options);
+        Interpreter interpreter = new Interpreter(tfLiteModel, options);
+
+        return new PooledInterpreter(interpreter, gpuDelegate, nnApiDelegate, plan, poolGeneration);
+    }
+
+    //endRegion
+
+    //region Interpreter Pool
+
+    /**
+     * Checks out an interpreter from the pool, loading the model if necessary and blocking until
+     * an interpreter is available. You must return the interpreter to the pool with `checkin()`
+     * when you are done with it.
+     *
+     * @return An interpreter for exclusive use by the caller
+     * @throws ModelException If the model cannot be loaded, is unloaded while waiting, or the
+     * thread is interrupted while waiting
+     */
+
+    public synchronized PooledInterpreter checkout() throws ModelException {
+        load();
+
+        try {
+            while (pool.isEmpty()) {
+                wait();
+                checkLoadedWhileWaiting();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelException("Interrupted while waiting for an interpreter", e);
+        }
+
+        return pool.poll();
+    }
+
+    /**
+     * Checks out an interpreter from the pool, loading the model if necessary and waiting up to
+     * the specified time for an interpreter to become available.
+     *
+     * @return An interpreter for exclusive use by the caller, or null if none became available in time
+     * @throws ModelException If the model cannot be loaded, is unloaded while waiting, or the
+     * thread is interrupted while waiting
+     */
+
+    public synchronized @Nullable PooledInterpreter checkout(long timeout, @NonNull TimeUnit unit) throws ModelException {
+        load();
+
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+
+        try {
+            while (pool.isEmpty()) {
+                if (remaining <= 0) {
+                    return null;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                checkLoadedWhileWaiting();
+                remaining = deadline - System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelException("Interrupted while waiting for an interpreter", e);
+        }
+
+        return pool.poll();
     }
 
-    /** Create buffer caches that are used for model inputs and outputs */
+    /**
+     * Returns an interpreter to the pool. If the model was reloaded or unloaded while the
+     * interpreter was checked out, the interpreter is closed instead.
+     *
+     * @param pooled An interpreter previously acquired with `checkout()`
+     */
+
+    public synchronized void checkin(@NonNull PooledInterpreter pooled) {
+        if (pooled.generation != poolGeneration) {
+            pooled.close();
+            return;
+        }
 
-    void prepareBufferCache() {
-        bufferCache = new HashMap<>();
+        pool.offer(pooled);
+        notify();
+    }
 
-        List<LayerInterface> layers = new ArrayList<>();
-        layers.addAll(getIO().getInputs().all());
-        layers.addAll(getIO().getOutputs().all());
+    /** Throws if the model was unloaded while a thread waited for an interpreter */
 
-        for (LayerInterface layer : layers) {
-            layer.doCase((vectorLayer) -> {
-                bufferCache.put(layer, vectorConverter.createBackingBuffer(vectorLayer));
-            }, (pixelLayer) -> {
-                bufferCache.put(layer, bitmapConverter.createBackingBuffer(pixelLayer));
-            }, (stringLayer) -> {
-                bufferCache.put(layer, stringConverter.createBackingBuffer(stringLayer));
-            }, (scalarLayer) -> {
-                bufferCache.put(layer, scalarConverter.createBackingBuffer(scalarLayer));
-            });
+    private void checkLoadedWhileWaiting() throws ModelException {
+        if (!isLoaded()) {
+            throw new ModelException("The model was unloaded while waiting for an interpreter");
         }
     }
 
@@ -284,10 +526,16 @@ public class TFLiteModel extends Model {
         validateInput(input);
         load();
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
+        PooledInterpreter pooled = checkout();
+
+        try {
+            if (hasMultipleInputsOrOutputs()) {
+                return runMultipleInputMultipleOutput(pooled, mappedInput(input));
+            } else {
+                return runSingleInputSingleOutput(pooled, input);
+            }
+        } finally {
+            checkin(pooled);
         }
     }
 
@@ -296,10 +544,16 @@ public class TFLiteModel extends Model {
         validateInput(input);
         load();
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
+        PooledInterpreter pooled = checkout();
+
+        try {
+            if (hasMultipleInputsOrOutputs()) {
+                return runMultipleInputMultipleOutput(pooled, mappedInput(input));
+            } else {
+                return runSingleInputSingleOutput(pooled, input);
+            }
+        } finally {
+            checkin(pooled);
         }
     }
 
@@ -308,10 +562,16 @@ public class TFLiteModel extends Model {
         validateInput(input);
         load();
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
+        PooledInterpreter pooled = checkout();
+
+        try {
+            if (hasMultipleInputsOrOutputs()) {
+                return runMultipleInputMultipleOutput(pooled, mappedInput(input));
+            } else {
+                return runSingleInputSingleOutput(pooled, input);
+            }
+        } finally {
+            checkin(pooled);
         }
     }
 
@@ -320,10 +580,108 @@ public class TFLiteModel extends Model {
         validateInput(input);
         load();
 
+        PooledInterpreter pooled = checkout();
+
+        try {
+            return runOn(pooled, input);
+        } finally {
+            checkin(pooled);
+        }
+    }
+
+    /**
+     * Perform inference on a map of objects with an interpreter you have checked out of the pool.
+     *
+     * @param pooled An interpreter acquired with `checkout()` which has not yet been checked in
+     * @param input A mapping of layer names to arbitrary objects
+     * @return results of running the model mapped from the output layer names to the values
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected inputs
+     */
+
+    public Map<String, Object> runOn(@NonNull PooledInterpreter pooled, @NonNull Map<String, Object> input) throws IllegalArgumentException {
+        validateInput(input);
+
         if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(input);
+            return runMultipleInputMultipleOutput(pooled, input);
         } else {
-            return runSingleInputSingleOutput(unmappedInput(input));
+            return runSingleInputSingleOutput(pooled, unmappedInput(input));
+        }
+    }
+
+    /**
+     * Perform inference on a map of objects, decoding the outputs directly into caller-provided
+     * destinations. A direct ByteBuffer destination with the capacity of its output layer's buffer
+     * is handed to the interpreter, which writes the layer's raw bytes into it without a copy.
+     */
+
+    @Override
+    public Map<String, Object> runOnInto(@NonNull Map<String, Object> input, @NonNull Map<String, Object> outputs) throws ModelException, IllegalArgumentException {
+        validateInput(input);
+        load();
+
+        PooledInterpreter pooled = checkout();
+
+        try {
+            invokeInterpreter(pooled, input, (index) -> outputs.get(pooled.plan.output(index).getName()));
+            return captureOutputs(pooled.plan, pooled.outputBuffers, outputs);
+        } finally {
+            checkin(pooled);
+        }
+    }
+
+    /**
+     * Perform inference on a map of objects, decoding each output directly into the value the
+     * outputs container already holds for it
+     */
+
+    @Override
+    public ModelOutputs runOnInto(@NonNull Map<String, Object> input, @NonNull ModelOutputs outputs) throws ModelException, IllegalArgumentException {
+        validateInput(input);
+        validateOutputs(outputs);
+        load();
+
+        PooledInterpreter pooled = checkout();
+
+        try {
+            invokeInterpreter(pooled, input, outputs::get);
+            return captureOutputs(pooled.plan, pooled.outputBuffers, outputs);
+        } finally {
+            checkin(pooled);
+        }
+    }
+
+    /**
+     * Perform inference on a batch of items with a single invocation of the interpreter.
+     *
+     * Every input and output layer must be batched, that is, its shape must have a leading -1
+     * dimension. The interpreter's input tensors are resized to the size of the batch, the items
+     * are encoded into a single buffer per input layer, and the outputs are split back into
+     * results for each item.
+     *
+     * @param batch A batch of items, each of which maps input layer names to arbitrary objects
+     * @return results of running the model, one map of output layer names to values per item, in
+     * the order of the items in the batch
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs or if the model's layers are not batched
+     */
+
+    @Override
+    public List<Map<String, Object>> runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        validateInput(batch);
+        validateBatched();
+        load();
+
+        if (batch.size() == 0) {
+            return new ArrayList<>();
+        }
+
+        PooledInterpreter pooled = checkout();
+
+        try {
+            return runBatch(pooled, batch);
+        } finally {
+            checkin(pooled);
         }
     }
 
@@ -333,7 +691,7 @@ public class TFLiteModel extends Model {
      */
 
     private boolean hasMultipleInputsOrOutputs() {
-        return getIO().getInputs().size() > 0 || getIO().getOutputs().size() > 0;
+        return getIO().getInputs().size() > 1 || getIO().getOutputs().size() > 1;
     }
 
     /**
@@ -368,222 +726,353 @@ public class TFLiteModel extends Model {
 
     /**
      * Actually performs inference on a single input with a single output
+     * @param pooled The checked out interpreter to perform inference with
      * @param input An input in one of the supported types, e.g. byte[], float[], or Bitmap
      * @return The model's single output mapped by the output layers name
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private Map<String, Object> runSingleInputSingleOutput(@NonNull Object input) throws IllegalArgumentException {
+    private Map<String, Object> runSingleInputSingleOutput(@NonNull PooledInterpreter pooled, @NonNull Object input) throws IllegalArgumentException {
 
-        // Fetch the input and output layer descriptions from the model
+        // Restore a batch size of one if the interpreter was last used for a batch
 
-        LayerInterface inputLayer = getIO().getInputs().get(0);
-        LayerInterface outputLayer = getIO().getOutputs().get(0);
+        resizeBatch(pooled, 1);
+
+        // Fetch the input and output slots from the interpreter's binding plan
+
+        BindingPlan.Slot<ByteBuffer, ByteBuffer> inputSlot = pooled.plan.input(0);
+        BindingPlan.Slot<ByteBuffer, ByteBuffer> outputSlot = pooled.plan.output(0);
 
         // Prepare input buffer
 
-        ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer);
+        ByteBuffer inputBuffer = inputSlot.encode(input);
 
         // Prepare output buffer
 
-        ByteBuffer outputBuffer = prepareOutputBuffer(outputLayer);
+        ByteBuffer outputBuffer = outputSlot.outputBuffer();
 
         // Run the model on the input buffer, store the output in the output buffer
 
-        interpreter.run(inputBuffer, outputBuffer);
+        pooled.interpreter.run(inputBuffer, outputBuffer);
+        lastInterpreter = pooled;
 
         // Convert output buffers to user land objects
 
-        Map<Integer, Object> outputs = new HashMap<>(getIO().getOutputs().size()); // Always size 1
-        outputs.put(0, outputBuffer);
+        Map<String, Object> outputs = new HashMap<>(1); // Always size 1
+        outputs.put(outputSlot.getName(), outputSlot.decode(outputBuffer));
 
-        return captureOutputs(outputs);
+        return outputs;
     }
 
     /**
      * Actually performs inference on multiple inputs or multiple outputs
+     * @param pooled The checked out interpreter to perform inference with
      * @param inputs A mapping from input layer names to input values
      * @return The model's outputs mapped by the output layer names
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private Map<String, Object> runMultipleInputMultipleOutput(@NonNull Map<String, Object> inputs) throws IllegalArgumentException {
+    private Map<String, Object> runMultipleInputMultipleOutput(@NonNull PooledInterpreter pooled, @NonNull Map<String, Object> inputs) throws IllegalArgumentException {
+        invokeInterpreter(pooled, inputs, null);
 
-        // Fetch the input and output layer descriptions from the model
+        // Convert output buffers to user land objects
 
-        IO.IOList inputList = getIO().getInputs();
-        IO.IOList outputList = getIO().getOutputs();
+        return captureOutputs(pooled.plan, pooled.outputBuffers);
+    }
+
+    /**
+     * Encodes the inputs and runs the interpreter, leaving the outputs in the interpreter's output
+     * buffers
+     * @param pooled The checked out interpreter to perform inference with
+     * @param inputs A mapping from input layer names to input values
+     * @param destinations Looks up the caller-provided destination for an output by index, or null.
+     *                     Direct buffer destinations are written to by the interpreter.
+     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private void invokeInterpreter(@NonNull PooledInterpreter pooled, @NonNull Map<String, Object> inputs, @Nullable IntFunction<Object> destinations) throws IllegalArgumentException {
+
+        // Restore a batch size of one if the interpreter was last used for a batch
+
+        resizeBatch(pooled, 1);
+
+        // Fetch the binding plan and the reusable buffer arrays from the interpreter
+
+        BindingPlan<ByteBuffer, ByteBuffer> plan = pooled.plan;
+        Object[] inputBuffers = pooled.inputBuffers;
+        Map<Integer, Object> outputBuffers = pooled.outputBuffers;
 
         // Prepare input buffers
 
-        Object[] inputBuffers = new Object[inputList.size()];
+        for (int i = 0; i < plan.inputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(i);
+            inputBuffers[i] = slot.encode(inputs.get(slot.getName()));
+        }
+
+        // Prepare output buffers, letting the interpreter write directly into buffer destinations
+
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            Object destination = destinations == null ? null : destinations.apply(i);
 
-        for (int i = 0; i < inputList.size(); i++){
-            LayerInterface inputLayer = inputList.get(i);
-            Object input = inputs.get(inputLayer.getName());
-            ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer);
+            if (isBufferDestination(slot, destination)) {
+                outputBuffers.put(i, ((ByteBuffer) destination).rewind());
+            } else {
+                outputBuffers.put(i, slot.outputBuffer());
+            }
+        }
+
+        // Run the model on the input buffers, store the output in the output buffers
+
+        pooled.interpreter.runForMultipleInputsOutputs(inputBuffers, outputBuffers);
+        lastInterpreter = pooled;
+    }
+
+    /**
+     * Actually performs inference on a batch of items
+     * @param pooled The checked out interpreter to perform inference with
+     * @param batch The batch of items, which may not be empty
+     * @return The model's outputs for each item mapped by the output layer names
+     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private List<Map<String, Object>> runBatch(@NonNull PooledInterpreter pooled, @NonNull Batch batch) throws IllegalArgumentException {
+
+        // Fetch the binding plan and the reusable buffer arrays from the interpreter
+
+        BindingPlan<ByteBuffer, ByteBuffer> plan = pooled.plan;
+        Object[] inputBuffers = pooled.inputBuffers;
+        Map<Integer, Object> outputBuffers = pooled.outputBuffers;
+
+        // Resize the interpreter's inputs to the batch size
+
+        int batchSize = batch.size();
+        resizeBatch(pooled, batchSize);
+
+        // Prepare input buffers, copying primitive columns in bulk and otherwise encoding every
+        // item into a single buffer per layer
+
+        for (int i = 0; i < plan.inputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.input(i);
+            Batch.Column column = batch.column(slot.getName());
+            int itemLength = slot.getByteLength();
+            ByteBuffer inputBuffer = prepareBatchBuffer(slot, itemLength * batchSize);
+
+            if (!column.writeTo(inputBuffer, slot.getLayer())) {
+                for (int j = 0; j < batchSize; j++) {
+                    slot.encode(column.get(j), slice(inputBuffer, j * itemLength, itemLength));
+                }
+            }
 
             inputBuffers[i] = inputBuffer;
         }
 
         // Prepare output buffers
 
-        Map<Integer, Object> outputBuffers = new HashMap<>(outputList.size());
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            outputBuffers.put(i, prepareBatchBuffer(slot, slot.getByteLength() * batchSize));
+        }
 
-        for (int i = 0; i < outputList.size(); i++){
-            LayerInterface outputLayer = outputList.get(i);
-            ByteBuffer outputBuffer = prepareOutputBuffer(outputLayer);
+        // Run the model once on the entire batch
 
-            outputBuffers.put(i, outputBuffer);
-        }
+        pooled.interpreter.runForMultipleInputsOutputs(inputBuffers, outputBuffers);
+        lastInterpreter = pooled;
 
-        // Run the model on the input buffers, store the output in the output buffers
+        // Split the output buffers into user land objects for each item
 
-        interpreter.runForMultipleInputsOutputs(inputBuffers, outputBuffers);
+        List<Map<String, Object>> results = new ArrayList<>(batchSize);
 
-        // Convert output buffers to user land objects
+        for (int j = 0; j < batchSize; j++) {
+            Map<String, Object> outputMap = new HashMap<>(plan.outputCount());
+
+            for (int i = 0; i < plan.outputCount(); i++) {
+                BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+                int itemLength = slot.getByteLength();
+                ByteBuffer buffer = (ByteBuffer) outputBuffers.get(i);
+                outputMap.put(slot.getName(), slot.decode(slice(buffer, j * itemLength, itemLength)));
+            }
+
+            results.add(outputMap);
+        }
 
-        return captureOutputs(outputBuffers);
+        return results;
     }
 
     /**
-     * Prepares a ByteBuffer that will be used for input to a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be resued.
+     * Resizes the leading dimension of the interpreter's input tensors if the interpreter is not
+     * already sized for the batch, reallocating its tensors.
      *
-     * @param input The input to convert to a byte buffer
-     * @param inputLayer The interface to the layer that this buffer will be used with
-     * @return ByteBuffer ready for input to a model
-     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
-     *                                  expected by the model
+     * @param pooled The checked out interpreter to resize
+     * @param batchSize The size of the batch
      */
 
-    private ByteBuffer prepareInputBuffer(@NonNull Object input, @NonNull LayerInterface inputLayer) throws IllegalArgumentException {
-        final AtomicReference<ByteBuffer> inputBuffer = new AtomicReference<>();
-        final ByteBuffer cachedBuffer = cacheBuffers ? bufferCache.get(inputLayer) : null;
-
-        inputLayer.doCase((vectorLayer) -> {
-            ByteBuffer buffer = vectorConverter.toByteBuffer(input, vectorLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (pixelLayer) -> {
-            ByteBuffer buffer = bitmapConverter.toByteBuffer(input, pixelLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (stringLayer) -> {
-            ByteBuffer buffer = stringConverter.toByteBuffer(input, stringLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (scalarLayer) -> {
-            ByteBuffer buffer = scalarConverter.toByteBuffer(input, scalarLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        });
-        
-        return inputBuffer.get();
+    private void resizeBatch(@NonNull PooledInterpreter pooled, int batchSize) {
+        if (pooled.batchSize == batchSize) {
+            return;
+        }
+
+        Interpreter interpreter = pooled.interpreter;
+
+        for (int i = 0; i < interpreter.getInputTensorCount(); i++) {
+            int[] shape = interpreter.getInputTensor(i).shape();
+            shape[0] = batchSize;
+            interpreter.resizeInput(i, shape);
+        }
+
+        interpreter.allocateTensors();
+        pooled.batchSize = batchSize;
     }
 
     /**
-     * Prepares a ByteBuffer that can be used for output from a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be resued.
+     * Prepares a ByteBuffer large enough to hold a layer's data for every item in a batch. If
+     * buffer caching is used the buffer is reused for subsequent batches of the same or a smaller
+     * size.
      *
-     * @param outputLayer The interface to the layer layer that this buffer will be used with
-     * @return ByteBuffer ready for model output
+     * @param slot The binding plan slot for the layer that this buffer will be used with
+     * @param length The number of bytes required by the entire batch
+     * @return ByteBuffer whose capacity is exactly the length
      */
 
-    private ByteBuffer prepareOutputBuffer(@NonNull LayerInterface outputLayer) {
-        if (cacheBuffers) {
-            ByteBuffer cached = bufferCache.get(outputLayer);
-            cached.rewind();
-            return cached;
-        }
+    private static ByteBuffer prepareBatchBuffer(@NonNull BindingPlan.Slot<ByteBuffer, ByteBuffer> slot, int length) {
+
+        // TFLite requires the capacity of a buffer to match the size of the tensor
+
+        return slice(slot.batchBuffer(length), 0, length);
+    }
 
-        final AtomicReference<ByteBuffer> outputBuffer = new AtomicReference<>();
+    /** Returns a view of a region of a buffer in native byte order, with the view positioned at zero */
 
-        outputLayer.doCase((vectorLayer) -> {
-            ByteBuffer buffer = vectorConverter.createBackingBuffer(vectorLayer);
-            outputBuffer.set(buffer);
-        }, (pixelLayer) -> {
-            ByteBuffer buffer = bitmapConverter.createBackingBuffer(pixelLayer);
-            outputBuffer.set(buffer);
-        }, (stringLayer) -> {
-            ByteBuffer buffer = stringConverter.createBackingBuffer(stringLayer);
-            outputBuffer.set(buffer);
-        }, (scalarLayer) -> {
-            ByteBuffer buffer = scalarConverter.createBackingBuffer(scalarLayer);
-            outputBuffer.set(buffer);
-        });
+    private static ByteBuffer slice(@NonNull ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.clear();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns true if a destination is a direct buffer the interpreter can write a layer's output
+     * to in place of the slot's own buffer
+     */
 
-        return outputBuffer.get();
+    private static boolean isBufferDestination(@NonNull BindingPlan.Slot<ByteBuffer, ByteBuffer> slot, @Nullable Object destination) {
+        return destination instanceof ByteBuffer
+                && ((ByteBuffer) destination).isDirect()
+                && ((ByteBuffer) destination).capacity() == slot.getByteLength();
     }
 
     /**
-     * Converts captured ByteBuffers from a model's output to user land Objects
+     * Captures ByteBuffers from a model's output as user land Objects which are decoded when they
+     * are first read. Cached output buffers are reused by the interpreter's next inference, and
+     * copying them would cost as much as decoding them, so they are decoded right away, as is a
+     * single output, which the caller reads anyway.
+     * @param plan The binding plan whose output slots decode the buffers
      * @param outputs The indexed output buffers
      * @return A Map of keys to user land objects capturing the model's outputs
      */
 
-    private Map<String, Object> captureOutputs(@NonNull Map<Integer, Object> outputs) {
-        IO.IOList outputList = getIO().getOutputs();
-        Map<String, Object> outputMap = new HashMap<>(outputList.size());
+    private static Map<String, Object> captureOutputs(@NonNull BindingPlan<ByteBuffer, ByteBuffer> plan, @NonNull Map<Integer, Object> outputs) {
+        if (plan.outputCount() == 1 || !hasUncachedOutput(plan)) {
+            Map<String, Object> outputMap = new HashMap<>(plan.outputCount());
 
-        for (int i = 0; i < outputList.size(); i++){
-            LayerInterface layer = outputList.get(i);
-            String name = layer.getName();
+            for (int i = 0; i < plan.outputCount(); i++) {
+                BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+                outputMap.put(slot.getName(), slot.decode((ByteBuffer) outputs.get(i)));
+            }
+
+            return outputMap;
+        }
+
+        LazyOutputs outputMap = new LazyOutputs(plan.outputCount());
 
-            ByteBuffer buffer = (ByteBuffer)outputs.get(i);
-            Object o = captureOutput(buffer, layer);
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            ByteBuffer buffer = (ByteBuffer) outputs.get(i);
 
-            outputMap.put(name, o);
+            if (slot.getBuffer() != null) {
+                outputMap.put(slot.getName(), slot.decode(buffer));
+            } else {
+                outputMap.putLazily(slot.getName(), () -> slot.decodeDetached(buffer));
+            }
         }
 
         return outputMap;
     }
 
+    /** True if some output is written to a new buffer on every inference, rather than a cached one */
+
+    private static boolean hasUncachedOutput(@NonNull BindingPlan<ByteBuffer, ByteBuffer> plan) {
+        for (int i = 0; i < plan.outputCount(); i++) {
+            if (plan.output(i).getBuffer() == null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
-     * Converts a single ByteBuffer to a user land object
-     * @param buffer The buffer to capture and convert
-     * @param layer The interface to the output
-     * @return An object in accordance with the layer description, usually one of byte[], float[],
-     * or Bitmap
+     * Decodes captured ByteBuffers from a model's output into caller-provided destinations
+     * @param plan The binding plan whose output slots decode the buffers
+     * @param outputs The indexed output buffers
+     * @param destinations Destinations to decode the buffers into, to which the outputs are added
+     * @return The destinations
      */
 
-    private Object captureOutput(@NonNull ByteBuffer buffer, @NonNull LayerInterface layer) {
-        final AtomicReference<Object> output = new AtomicReference<>();
+    private static Map<String, Object> captureOutputs(@NonNull BindingPlan<ByteBuffer, ByteBuffer> plan, @NonNull Map<Integer, Object> outputs, @NonNull Map<String, Object> destinations) {
+        for (int i = 0; i < plan.outputCount(); i++) {
+            BindingPlan.Slot<ByteBuffer, ByteBuffer> slot = plan.output(i);
+            ByteBuffer buffer = (ByteBuffer) outputs.get(i);
+            Object destination = destinations.get(slot.getName());
 
-        layer.doCase((vectorLayer) -> {
-            Object o = vectorConverter.fromByteBuffer(buffer, vectorLayer);
+            // Buffer destinations were written to directly by the interpreter
 
-            // If the vector's output is labeled, return a Map of keys to values rather than raw values
-
-            if (vectorLayer.isLabeled()) {
-                o = vectorLayer.labeledValues((float[])o);
+            if (buffer != destination) {
+                destinations.put(slot.getName(), slot.decodeInto(buffer, destination));
             }
+        }
+
+        return destinations;
+    }
+
+    /**
+     * Decodes captured ByteBuffers from a model's output into the values an outputs container
+     * already holds
+     * @param plan The binding plan whose output slots decode the buffers
+     * @param outputs The indexed output buffers
+     * @param destinations The outputs container, indexed like the plan's output slots
+     * @return The outputs container
+     */
 
-            // If the output vector is single valued, return the value directly; See #33 and #34
+    private static ModelOutputs captureOutputs(@NonNull BindingPlan<ByteBuffer, ByteBuffer> plan, @NonNull Map<Integer, Object> outputs, @NonNull ModelOutputs destinations) {
+        for (int i = 0; i < plan.outputCount(); i++) {
+            ByteBuffer buffer = (ByteBuffer) outputs.get(i);
+            Object destination = destinations.get(i);
 
-            // if (((float[])o).length == 1) {
-            //    o = ((float[])o)[0];
-            // }
+            // Buffer destinations were written to directly by the interpreter
 
-            output.set(o);
-        }, (pixelLayer) -> {
-            Object o = bitmapConverter.fromByteBuffer(buffer, pixelLayer);
-            output.set(o);
-        }, (stringLayer) -> {
-            Object o = stringConverter.fromByteBuffer(buffer, stringLayer);
-            output.set(o);
-        }, (scalarLayer) -> {
-            Object o = scalarConverter.fromByteBuffer(buffer, scalarLayer);
-            output.set(o);
-        });
+            if (buffer != destination) {
+                destinations.set(i, plan.output(i).decodeInto(buffer, destination));
+            }
+        }
 
-        return output.get();
+        return destinations;
     }
 
     //endRegion
 
     //region Utilities
 
+    /** The duration of the most recent inference performed by any interpreter in the pool */
+
     public long getLastInferenceDuration(){
-        return interpreter.getLastNativeInferenceDurationNanoseconds();
+        PooledInterpreter pooled = lastInterpreter;
+        return pooled == null ? 0 : pooled.getLastInferenceDuration();
     }
 
     private MappedByteBuffer loadModelFile() throws IOException {